@@ -0,0 +1,71 @@
+package team.mephi.hackathon.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import team.mephi.hackathon.execution.Bulkhead;
+import team.mephi.hackathon.execution.Workload;
+import team.mephi.hackathon.execution.WorkloadExecutor;
+
+/**
+ * Конфигурация слоя выполнения блокирующих вызовов. Лимиты параллелизма и длины очереди задаются
+ * отдельно для каждого класса нагрузки в application.yml.
+ */
+@Configuration
+public class ExecutionConfig {
+  /** Лимит одновременных CRUD-операций. */
+  @Value("${app.execution.crud.max-concurrency}")
+  int crudMaxConcurrency;
+
+  /** Длина очереди CRUD-операций. */
+  @Value("${app.execution.crud.max-queue}")
+  int crudMaxQueue;
+
+  /** Лимит одновременных поисковых запросов. */
+  @Value("${app.execution.search.max-concurrency}")
+  int searchMaxConcurrency;
+
+  /** Длина очереди поисковых запросов. */
+  @Value("${app.execution.search.max-queue}")
+  int searchMaxQueue;
+
+  /** Лимит одновременно генерируемых отчётов. */
+  @Value("${app.execution.report.max-concurrency}")
+  int reportMaxConcurrency;
+
+  /** Длина очереди генерации отчётов. */
+  @Value("${app.execution.report.max-queue}")
+  int reportMaxQueue;
+
+  /** Лимит одновременных потоковых выгрузок транзакций. */
+  @Value("${app.execution.stream.max-concurrency}")
+  int streamMaxConcurrency;
+
+  /** Длина очереди потоковых выгрузок транзакций. */
+  @Value("${app.execution.stream.max-queue}")
+  int streamMaxQueue;
+
+  /** Лимит одновременных массовых загрузок. */
+  @Value("${app.execution.import.max-concurrency}")
+  int importMaxConcurrency;
+
+  /** Длина очереди массовых загрузок. */
+  @Value("${app.execution.import.max-queue}")
+  int importMaxQueue;
+
+  /**
+   * Создаёт слой выполнения с отдельным ограничителем для каждого класса нагрузки. Метрики
+   * регистрируются автоматически, так как бин реализует {@code MeterBinder}.
+   *
+   * @return слой выполнения блокирующих вызовов
+   */
+  @Bean
+  public WorkloadExecutor workloadExecutor() {
+    return new WorkloadExecutor(
+        new Bulkhead(Workload.CRUD, crudMaxConcurrency, crudMaxQueue),
+        new Bulkhead(Workload.SEARCH, searchMaxConcurrency, searchMaxQueue),
+        new Bulkhead(Workload.REPORT, reportMaxConcurrency, reportMaxQueue),
+        new Bulkhead(Workload.STREAM, streamMaxConcurrency, streamMaxQueue),
+        new Bulkhead(Workload.IMPORT, importMaxConcurrency, importMaxQueue));
+  }
+}
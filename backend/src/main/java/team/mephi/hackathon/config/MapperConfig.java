@@ -1,13 +0,0 @@
-package team.mephi.hackathon.config;
-
-import org.modelmapper.ModelMapper;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-
-@Configuration
-public class MapperConfig {
-  @Bean
-  public ModelMapper modelMapper() {
-    return new ModelMapper();
-  }
-}
@@ -0,0 +1,101 @@
+package team.mephi.hackathon.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Конфигурация реактивного доступа к БД для профиля {@code r2dbc}. Автоконфигурация R2DBC отключена
+ * в application.yml: менеджер транзакций R2DBC не регистрируется как бин, чтобы не подменять
+ * менеджер транзакций JPA, который по-прежнему используется отчётами. Пул JDBC объявляется явно,
+ * так как Spring Boot не создаёт {@link DataSource} при наличии бина {@code ConnectionFactory}.
+ */
+@Configuration
+@Profile("r2dbc")
+public class R2dbcConfig {
+  /** URL подключения в формате {@code r2dbc:postgresql://host:port/db}. */
+  @Value("${app.r2dbc.url}")
+  String url;
+
+  /** Имя пользователя БД. */
+  @Value("${app.r2dbc.username}")
+  String username;
+
+  /** Пароль пользователя БД. */
+  @Value("${app.r2dbc.password}")
+  String password;
+
+  /** Количество соединений, открываемых при старте пула. */
+  @Value("${app.r2dbc.pool.initial-size}")
+  int initialSize;
+
+  /** Максимальный размер пула соединений. */
+  @Value("${app.r2dbc.pool.max-size}")
+  int maxSize;
+
+  /** Время ожидания свободного соединения. */
+  @Value("${app.r2dbc.pool.max-acquire-time}")
+  Duration maxAcquireTime;
+
+  /**
+   * Создаёт пул реактивных соединений с PostgreSQL.
+   *
+   * @return пул соединений
+   */
+  @Bean(destroyMethod = "dispose")
+  public ConnectionPool connectionFactory() {
+    ConnectionFactoryOptions options =
+        ConnectionFactoryOptions.parse(url)
+            .mutate()
+            .option(ConnectionFactoryOptions.USER, username)
+            .option(ConnectionFactoryOptions.PASSWORD, password)
+            .build();
+    return new ConnectionPool(
+        ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+            .initialSize(initialSize)
+            .maxSize(maxSize)
+            .maxAcquireTime(maxAcquireTime)
+            .build());
+  }
+
+  @Bean
+  @ConfigurationProperties("spring.datasource")
+  public DataSourceProperties dataSourceProperties() {
+    return new DataSourceProperties();
+  }
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+    return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean
+  public DatabaseClient databaseClient(ConnectionPool connectionFactory) {
+    return DatabaseClient.create(connectionFactory);
+  }
+
+  /**
+   * Создаёт оператор транзакций для операций «прочитать и изменить».
+   *
+   * @param connectionFactory пул соединений
+   * @return оператор транзакций R2DBC
+   */
+  @Bean
+  public TransactionalOperator r2dbcTransactionalOperator(ConnectionPool connectionFactory) {
+    return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+  }
+}
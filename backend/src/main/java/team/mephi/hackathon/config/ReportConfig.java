@@ -0,0 +1,30 @@
+package team.mephi.hackathon.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+
+/** Конфигурация генерации отчётов. */
+@Configuration
+public class ReportConfig {
+  /** Шрифт PDF-отчётов с поддержкой кириллицы. */
+  static final String REPORT_FONT = "fonts/DejaVuSans.ttf";
+
+  /**
+   * Загружает и разбирает шрифт PDF-отчётов один раз при старте. Документы встраивают из него
+   * только использованные глифы и не изменяют сам шрифт.
+   *
+   * @return разобранный TrueType-шрифт
+   * @throws IOException если шрифт не удалось прочитать
+   */
+  @Bean(destroyMethod = "close")
+  public TrueTypeFont reportFont() throws IOException {
+    try (InputStream in = new ClassPathResource(REPORT_FONT).getInputStream()) {
+      return new TTFParser().parse(in);
+    }
+  }
+}
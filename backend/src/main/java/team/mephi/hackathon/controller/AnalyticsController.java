@@ -0,0 +1,115 @@
+package team.mephi.hackathon.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.Duration;
+import java.util.List;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import team.mephi.hackathon.dto.AnalyticsBucketDto;
+import team.mephi.hackathon.dto.AnalyticsDimension;
+import team.mephi.hackathon.dto.DashboardDto;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.execution.Workload;
+import team.mephi.hackathon.execution.WorkloadExecutor;
+
+/**
+ * REST-контроллер аналитики по транзакциям. Ответы содержат только итоги групп и помечаются
+ * заголовками кэширования: повторный запрос с {@code If-None-Match} получает 304 без тела.
+ */
+@RestController
+@RequestMapping("/api/analytics")
+@Tag(name = "Аналитика", description = "API агрегатов по транзакциям для дашборда")
+public class AnalyticsController {
+  /** Сервис аналитики. Инжектируется через конструктор. */
+  private final AnalyticsService analyticsService;
+
+  /** Слой выполнения блокирующих вызовов вне цикла событий. */
+  private final WorkloadExecutor executor;
+
+  /** Сколько клиент может использовать ответ без повторного запроса. */
+  private final Duration maxAge;
+
+  public AnalyticsController(
+      AnalyticsService analyticsService,
+      WorkloadExecutor executor,
+      @Value("${app.analytics.max-age}") Duration maxAge) {
+    this.analyticsService = analyticsService;
+    this.executor = executor;
+    this.maxAge = maxAge;
+  }
+
+  /**
+   * Возвращает все агрегаты дашборда одним запросом.
+   *
+   * @param filter критерии отбора транзакций из параметров запроса
+   * @return агрегаты по периодам, типу, банкам и категориям
+   */
+  @GetMapping("/dashboard")
+  @Operation(
+      summary = "Получить агрегаты для дашборда",
+      description =
+          "Количество и сумма активных транзакций, удовлетворяющих фильтру, по неделям, месяцам,"
+              + " кварталам, годам, типу, банкам отправителя и получателя и категориям",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "Агрегаты посчитаны"),
+        @ApiResponse(responseCode = "304", description = "Агрегаты не изменились"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Некорректные значения фильтра",
+            content = @Content(schema = @Schema(implementation = String.class)))
+      })
+  public Mono<ResponseEntity<DashboardDto>> getDashboard(
+      @ParameterObject TransactionFilterDto filter) {
+    return executor
+        .call(Workload.SEARCH, () -> analyticsService.getDashboard(filter))
+        .map(this::cacheable);
+  }
+
+  /**
+   * Группирует транзакции по одному признаку.
+   *
+   * @param dimension признак группировки
+   * @param filter критерии отбора транзакций из параметров запроса
+   * @return группы в порядке значения признака
+   */
+  @GetMapping("/{dimension}")
+  @Operation(
+      summary = "Сгруппировать транзакции по признаку",
+      description = "Количество и сумма активных транзакций, удовлетворяющих фильтру, по группам",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "Группы посчитаны"),
+        @ApiResponse(responseCode = "304", description = "Группы не изменились"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Неизвестный признак или некорректные значения фильтра",
+            content = @Content(schema = @Schema(implementation = String.class)))
+      })
+  public Mono<ResponseEntity<List<AnalyticsBucketDto>>> aggregate(
+      @PathVariable AnalyticsDimension dimension, @ParameterObject TransactionFilterDto filter) {
+    return executor
+        .call(Workload.SEARCH, () -> analyticsService.aggregate(dimension, filter))
+        .map(this::cacheable);
+  }
+
+  /**
+   * Оборачивает агрегаты в ответ с заголовками кэширования. ETag — дайджест содержимого, поэтому
+   * совпадает, пока не изменились сами итоги.
+   */
+  private <T> ResponseEntity<T> cacheable(T body) {
+    return ResponseEntity.ok()
+        .cacheControl(CacheControl.maxAge(maxAge).cachePrivate())
+        .eTag(ETags.of(body))
+        .body(body);
+  }
+}
@@ -0,0 +1,33 @@
+package team.mephi.hackathon.controller;
+
+import java.util.List;
+import team.mephi.hackathon.dto.AnalyticsBucketDto;
+import team.mephi.hackathon.dto.AnalyticsDimension;
+import team.mephi.hackathon.dto.DashboardDto;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+
+/**
+ * Сервис аналитики по транзакциям. Агрегаты считаются в БД или по копии транзакций в памяти,
+ * поэтому объём ответа зависит от числа групп, а не от числа транзакций.
+ */
+public interface AnalyticsService {
+
+  /**
+   * Возвращает все агрегаты дашборда: по периодам, типу, банкам и категориям.
+   *
+   * @param filter критерии отбора транзакций
+   * @return агрегаты по активным транзакциям, удовлетворяющим фильтру
+   * @throws team.mephi.hackathon.exceptions.ValidationException если значения фильтра некорректны
+   */
+  DashboardDto getDashboard(TransactionFilterDto filter);
+
+  /**
+   * Группирует транзакции по одному признаку.
+   *
+   * @param dimension признак группировки
+   * @param filter критерии отбора транзакций
+   * @return группы в порядке значения признака
+   * @throws team.mephi.hackathon.exceptions.ValidationException если значения фильтра некорректны
+   */
+  List<AnalyticsBucketDto> aggregate(AnalyticsDimension dimension, TransactionFilterDto filter);
+}
@@ -9,7 +9,9 @@ import jakarta.validation.Valid;
 import java.util.List;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -19,6 +21,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 import team.mephi.hackathon.dto.CategoryRequestDto;
 import team.mephi.hackathon.dto.CategoryResponseDto;
 
@@ -33,11 +36,12 @@ import team.mephi.hackathon.dto.CategoryResponseDto;
     name = "Категории",
     description = "API для создания, чтения, обновления и удаления категорий транзакций")
 public class CategoryController {
-  /** Сервис для работы с категориями. Инжектируется через конструктор. */
-  private final CategoryService service;
+  /** Сервис для работы с категориями. Реализация выбирается профилем. */
+  private final ReactiveCategoryService service;
 
   /**
-   * Получает список всех доступных категорий.
+   * Получает список всех доступных категорий. Ответ помечается ETag по дайджесту содержимого:
+   * повторный запрос с {@code If-None-Match} получает 304 без тела, пока категории не изменились.
    *
    * @return список {@link CategoryResponseDto} с информацией о категориях
    */
@@ -46,10 +50,19 @@ public class CategoryController {
       summary = "Получить все категории",
       description = "Возвращает список всех активных категорий транзакций",
       responses = {
-        @ApiResponse(responseCode = "200", description = "Список категорий успешно получен")
+        @ApiResponse(responseCode = "200", description = "Список категорий успешно получен"),
+        @ApiResponse(responseCode = "304", description = "Категории не изменились")
       })
-  public List<CategoryResponseDto> getCategories() {
-    return service.getCategories();
+  public Mono<ResponseEntity<List<CategoryResponseDto>>> getCategories() {
+    return service
+        .getCategories()
+        .collectList()
+        .map(
+            categories ->
+                ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(ETags.of(categories))
+                    .body(categories));
   }
 
   /**
@@ -74,7 +87,7 @@ public class CategoryController {
             description = "Категория с таким именем уже существует",
             content = @Content(schema = @Schema(implementation = String.class)))
       })
-  public CategoryResponseDto createCategory(@Valid @RequestBody CategoryRequestDto dto) {
+  public Mono<CategoryResponseDto> createCategory(@Valid @RequestBody CategoryRequestDto dto) {
     return service.createCategory(dto);
   }
 
@@ -100,7 +113,7 @@ public class CategoryController {
             description = "Категория не найдена",
             content = @Content(schema = @Schema(implementation = String.class)))
       })
-  public CategoryResponseDto update(
+  public Mono<CategoryResponseDto> update(
       @PathVariable UUID id, @Valid @RequestBody CategoryRequestDto dto) {
     return service.updateCategory(id, dto);
   }
@@ -122,7 +135,7 @@ public class CategoryController {
             description = "Категория не найдена",
             content = @Content(schema = @Schema(implementation = String.class)))
       })
-  public void deleteCategory(@PathVariable UUID id) {
-    service.deleteCategory(id);
+  public Mono<Void> deleteCategory(@PathVariable UUID id) {
+    return service.deleteCategory(id);
   }
 }
@@ -0,0 +1,35 @@
+package team.mephi.hackathon.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Построение ETag по содержимому ответа: SHA-256 от JSON-представления тела. В отличие от {@code
+ * hashCode()} совпадение тегов у разных данных практически исключено, поэтому 304 не скроет
+ * изменения.
+ */
+final class ETags {
+  /** Сериализатор тела. Используется только для подсчёта дайджеста, не для ответа клиенту. */
+  private static final ObjectMapper MAPPER = JsonMapper.builder().findAndAddModules().build();
+
+  private ETags() {}
+
+  /**
+   * Строит слабый ETag по содержимому тела ответа.
+   *
+   * @param body тело ответа
+   * @return значение заголовка ETag
+   */
+  static String of(Object body) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(MAPPER.writeValueAsBytes(body));
+      return "W/\"" + HexFormat.of().formatHex(digest) + "\"";
+    } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Не удалось построить ETag", e);
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package team.mephi.hackathon.controller;
+
+import java.util.UUID;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import team.mephi.hackathon.dto.CategoryRequestDto;
+import team.mephi.hackathon.dto.CategoryResponseDto;
+
+/**
+ * Неблокирующий контракт сервиса категорий, используемый {@link CategoryController}. Реализация
+ * выбирается профилем так же, как для {@link ReactiveTransactionService}.
+ */
+public interface ReactiveCategoryService {
+  Flux<CategoryResponseDto> getCategories();
+
+  Mono<CategoryResponseDto> createCategory(CategoryRequestDto dto);
+
+  Mono<CategoryResponseDto> updateCategory(UUID id, CategoryRequestDto dto);
+
+  Mono<Void> deleteCategory(UUID id);
+}
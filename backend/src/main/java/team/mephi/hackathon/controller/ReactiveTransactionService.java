@@ -0,0 +1,41 @@
+package team.mephi.hackathon.controller;
+
+import java.util.UUID;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import team.mephi.hackathon.dto.TransactionBatchResultDto;
+import team.mephi.hackathon.dto.TransactionChangeDto;
+import team.mephi.hackathon.dto.TransactionDeltaDto;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.dto.TransactionPageDto;
+import team.mephi.hackathon.dto.TransactionRequestDto;
+import team.mephi.hackathon.dto.TransactionResponseDto;
+import team.mephi.hackathon.dto.TransactionStatusChangeDto;
+import team.mephi.hackathon.dto.TransactionStatusResultDto;
+
+/**
+ * Неблокирующий контракт сервиса транзакций, используемый {@link TransactionController}. Реализация
+ * выбирается профилем: по умолчанию вызовы {@link TransactionService} выполняются через слой
+ * выполнения блокирующих вызовов, в профиле {@code r2dbc} запросы идут в БД через R2DBC.
+ */
+public interface ReactiveTransactionService {
+  Mono<TransactionResponseDto> createTransaction(TransactionRequestDto dto);
+
+  Flux<TransactionBatchResultDto> createTransactions(Flux<TransactionRequestDto> rows);
+
+  Mono<TransactionResponseDto> getTransaction(UUID id);
+
+  Mono<TransactionPageDto> searchTransactions(TransactionFilterDto filter);
+
+  Flux<TransactionResponseDto> streamTransactions(TransactionFilterDto filter);
+
+  Mono<TransactionDeltaDto> getChangesSince(String token, Integer limit);
+
+  Mono<TransactionResponseDto> updateTransaction(UUID id, TransactionRequestDto dto);
+
+  Mono<Void> deleteTransaction(UUID id);
+
+  Flux<TransactionStatusResultDto> changeStatus(TransactionStatusChangeDto request);
+
+  Flux<TransactionChangeDto> changes();
+}
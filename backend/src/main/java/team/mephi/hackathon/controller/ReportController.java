@@ -5,18 +5,24 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import java.io.IOException;
-import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import team.mephi.hackathon.entity.Transaction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import team.mephi.hackathon.dto.TransactionFilterDto;
 import team.mephi.hackathon.exceptions.EntityNotFoundException;
+import team.mephi.hackathon.execution.Workload;
+import team.mephi.hackathon.execution.WorkloadExecutor;
 import team.mephi.hackathon.repository.TransactionRepository;
+import team.mephi.hackathon.specification.TransactionSpecification;
 
 /** REST-контроллер для генерации отчётов по транзакциям. Поддерживает форматы: PDF и Excel. */
 @RestController
@@ -32,20 +38,32 @@ public class ReportController {
   /** Сервис для генерации отчётов. Инжектируется через конструктор. */
   private final ReportService reportService;
 
+  /** Слой выполнения блокирующих вызовов вне цикла событий. */
+  private final WorkloadExecutor executor;
+
   /**
-   * Генерирует PDF-отчёт по транзакциям за указанный период.
+   * Генерирует PDF-отчёт по транзакциям, удовлетворяющим фильтру. Файл передаётся клиенту по мере
+   * формирования, без промежуточной копии в памяти.
    *
+   * @param filter критерии отбора транзакций из параметров запроса
+   * @param response HTTP-ответ, чьи буферы используются для передачи файла
    * @return PDF-файл с данными о транзакциях
    */
   @GetMapping(value = "/transactions/pdf", produces = MediaType.APPLICATION_PDF_VALUE)
   @Operation(
       summary = "Скачать PDF-отчёт",
-      description = "Генерирует и возвращает PDF-файл с транзакциями за указанный период",
+      description =
+          "Генерирует и возвращает PDF-файл с транзакциями, удовлетворяющими фильтру: период,"
+              + " диапазон сумм, банки, категория, статус и тип транзакции",
       responses = {
         @ApiResponse(
             responseCode = "200",
             description = "PDF-отчёт успешно сгенерирован",
             content = @Content(mediaType = "application/pdf")),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Некорректные значения фильтра",
+            content = @Content(schema = @Schema(implementation = String.class))),
         @ApiResponse(
             responseCode = "404",
             description = "Нет активных транзакций для отчёта",
@@ -55,22 +73,28 @@ public class ReportController {
             description = "Ошибка при генерации отчёта",
             content = @Content(schema = @Schema(implementation = String.class)))
       })
-  public ResponseEntity<byte[]> generatePdfReport() throws IOException {
-    List<Transaction> transactions = transactionRepository.findAllActive();
-
-    if (transactions.isEmpty()) {
-      throw new EntityNotFoundException("Нет активных транзакций для отчёта");
-    }
-
-    byte[] pdfBytes = reportService.generatePdfReport(transactions);
-    return ResponseEntity.ok()
-        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions-report.pdf")
-        .body(pdfBytes);
+  public Mono<ResponseEntity<Flux<DataBuffer>>> generatePdfReport(
+      @ParameterObject TransactionFilterDto filter, ServerHttpResponse response) {
+    Flux<DataBuffer> body =
+        executor.write(
+            Workload.REPORT,
+            response.bufferFactory(),
+            out -> reportService.writePdfReport(filter, out));
+    return executor
+        .run(Workload.REPORT, () -> requireActiveTransactions(filter))
+        .thenReturn(
+            ResponseEntity.ok()
+                .header(
+                    HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions-report.pdf")
+                .body(body));
   }
 
   /**
-   * Генерирует Excel-отчёт по транзакциям за указанный период.
+   * Генерирует Excel-отчёт по транзакциям, удовлетворяющим фильтру. Файл передаётся клиенту по мере
+   * формирования, без промежуточной копии в памяти.
    *
+   * @param filter критерии отбора транзакций из параметров запроса
+   * @param response HTTP-ответ, чьи буферы используются для передачи файла
    * @return XLSX-файл с данными о транзакциях
    */
   @GetMapping(
@@ -78,7 +102,9 @@ public class ReportController {
       produces = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
   @Operation(
       summary = "Скачать Excel-отчёт",
-      description = "Генерирует и возвращает Excel-файл с транзакциями за указанный период",
+      description =
+          "Генерирует и возвращает Excel-файл с транзакциями, удовлетворяющими фильтру: период,"
+              + " диапазон сумм, банки, категория, статус и тип транзакции",
       responses = {
         @ApiResponse(
             responseCode = "200",
@@ -87,6 +113,10 @@ public class ReportController {
                 @Content(
                     mediaType =
                         "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Некорректные значения фильтра",
+            content = @Content(schema = @Schema(implementation = String.class))),
         @ApiResponse(
             responseCode = "404",
             description = "Нет активных транзакций для отчёта",
@@ -96,16 +126,33 @@ public class ReportController {
             description = "Ошибка при генерации отчёта",
             content = @Content(schema = @Schema(implementation = String.class)))
       })
-  public ResponseEntity<byte[]> generateExcelReport() throws IOException {
-    List<Transaction> transactions = transactionRepository.findAllActive();
+  public Mono<ResponseEntity<Flux<DataBuffer>>> generateExcelReport(
+      @ParameterObject TransactionFilterDto filter, ServerHttpResponse response) {
+    Flux<DataBuffer> body =
+        executor.write(
+            Workload.REPORT,
+            response.bufferFactory(),
+            out -> reportService.writeExcelReport(filter, out));
+    return executor
+        .run(Workload.REPORT, () -> requireActiveTransactions(filter))
+        .thenReturn(
+            ResponseEntity.ok()
+                .header(
+                    HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=transactions-report.xlsx")
+                .body(body));
+  }
 
-    if (transactions.isEmpty()) {
+  /**
+   * Проверяет, что для отчёта есть активные транзакции, удовлетворяющие фильтру, не загружая их.
+   *
+   * @param filter критерии отбора транзакций
+   * @throws EntityNotFoundException если таких транзакций нет
+   * @throws team.mephi.hackathon.exceptions.ValidationException если значения фильтра некорректны
+   */
+  private void requireActiveTransactions(TransactionFilterDto filter) {
+    if (!transactionRepository.exists(TransactionSpecification.matches(filter))) {
       throw new EntityNotFoundException("Нет активных транзакций для отчёта");
     }
-
-    byte[] excelBytes = reportService.generateExcelReport(transactions);
-    return ResponseEntity.ok()
-        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions-report.xlsx")
-        .body(excelBytes);
   }
 }
@@ -0,0 +1,132 @@
+package team.mephi.hackathon.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import team.mephi.hackathon.dto.ReportJobDto;
+import team.mephi.hackathon.dto.ReportJobRequestDto;
+
+/**
+ * REST-контроллер фонового формирования отчётов. Клиент создаёт задание, опрашивает его состояние
+ * и скачивает готовый файл; длительное формирование не удерживает HTTP-запрос.
+ */
+@RestController
+@RequestMapping("/api/reports/jobs")
+@RequiredArgsConstructor
+@Tag(name = "Отчёты", description = "API для генерации отчётов по транзакциям")
+public class ReportJobController {
+  /** Сервис фонового формирования отчётов. Инжектируется через конструктор. */
+  private final ReportJobService jobService;
+
+  /**
+   * Создаёт задание на формирование отчёта.
+   *
+   * @param request формат отчёта и фильтр транзакций
+   * @return задание и ссылка на него в заголовке Location
+   */
+  @PostMapping
+  @Operation(
+      summary = "Создать задание на формирование отчёта",
+      description =
+          "Ставит формирование отчёта в очередь и сразу возвращает задание. Если отчёт того же"
+              + " формата с тем же фильтром уже формируется, возвращается существующее задание",
+      responses = {
+        @ApiResponse(responseCode = "202", description = "Задание принято"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Некорректный формат отчёта или значения фильтра",
+            content = @Content(schema = @Schema(implementation = String.class))),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Очередь формирования отчётов заполнена",
+            content = @Content(schema = @Schema(implementation = String.class)))
+      })
+  public Mono<ResponseEntity<ReportJobDto>> submit(
+      @Valid @RequestBody ReportJobRequestDto request) {
+    return Mono.fromCallable(() -> jobService.submit(request.getFormat(), request.getFilter()))
+        .map(
+            job ->
+                ResponseEntity.accepted()
+                    .location(URI.create("/api/reports/jobs/" + job.getId()))
+                    .body(job));
+  }
+
+  /**
+   * Возвращает состояние задания.
+   *
+   * @param id идентификатор задания
+   * @return задание на формирование отчёта
+   */
+  @GetMapping("/{id}")
+  @Operation(
+      summary = "Получить состояние задания",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "Задание найдено"),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Задание не найдено или срок его хранения истёк",
+            content = @Content(schema = @Schema(implementation = String.class)))
+      })
+  public Mono<ReportJobDto> getJob(@PathVariable UUID id) {
+    return Mono.fromCallable(() -> jobService.getJob(id));
+  }
+
+  /**
+   * Отдаёт файл готового отчёта. Поддерживаются запросы с заголовком Range для докачки; файл
+   * передаётся в сокет напрямую с диска, без копирования через память приложения.
+   *
+   * @param id идентификатор задания
+   * @return файл отчёта целиком или запрошенные диапазоны байт
+   */
+  @GetMapping("/{id}/file")
+  @Operation(
+      summary = "Скачать готовый отчёт",
+      description = "Поддерживает докачку через заголовок Range",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "Файл отчёта"),
+        @ApiResponse(responseCode = "206", description = "Запрошенная часть файла"),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Задание или файл отчёта не найдены, срок хранения истёк",
+            content = @Content(schema = @Schema(implementation = String.class))),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Отчёт ещё формируется или сформировать его не удалось",
+            content = @Content(schema = @Schema(implementation = String.class)))
+      })
+  public Mono<ResponseEntity<Resource>> download(@PathVariable UUID id) {
+    return Mono.fromCallable(
+        () -> {
+          Path file = jobService.getResultFile(id);
+          ReportJobDto job = jobService.getJob(id);
+          // Range и передачу файла через sendfile обеспечивает ResourceHttpMessageWriter
+          return ResponseEntity.ok()
+              .contentType(MediaType.parseMediaType(job.getFormat().getMediaType()))
+              .header(
+                  HttpHeaders.CONTENT_DISPOSITION,
+                  "attachment; filename=transactions-report." + job.getFormat().getExtension())
+              .eTag(job.getId().toString())
+              .lastModified(job.getFinishedAt())
+              .body(new FileSystemResource(file));
+        });
+  }
+}
@@ -0,0 +1,48 @@
+package team.mephi.hackathon.controller;
+
+import java.nio.file.Path;
+import java.util.UUID;
+import team.mephi.hackathon.dto.ReportFormat;
+import team.mephi.hackathon.dto.ReportJobDto;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+
+/**
+ * Сервис фонового формирования отчётов. Отчёт формируется в файл на локальном диске и хранится
+ * ограниченное время после завершения задания.
+ */
+public interface ReportJobService {
+  /**
+   * Ставит в очередь формирование отчёта. Если отчёт того же формата с тем же фильтром уже
+   * формируется, новое задание не создаётся и возвращается существующее.
+   *
+   * @param format формат отчёта
+   * @param filter критерии отбора транзакций
+   * @return задание на формирование отчёта
+   * @throws team.mephi.hackathon.exceptions.ValidationException если значения фильтра некорректны
+   * @throws team.mephi.hackathon.exceptions.WorkloadRejectedException если очередь формирования
+   *     отчётов заполнена
+   */
+  ReportJobDto submit(ReportFormat format, TransactionFilterDto filter);
+
+  /**
+   * Возвращает состояние задания.
+   *
+   * @param id идентификатор задания
+   * @return задание на формирование отчёта
+   * @throws team.mephi.hackathon.exceptions.EntityNotFoundException если задание не найдено или
+   *     его срок хранения истёк
+   */
+  ReportJobDto getJob(UUID id);
+
+  /**
+   * Возвращает файл сформированного отчёта.
+   *
+   * @param id идентификатор задания
+   * @return путь к файлу отчёта
+   * @throws team.mephi.hackathon.exceptions.EntityNotFoundException если задание не найдено, его
+   *     срок хранения истёк или файл отчёта удалён
+   * @throws team.mephi.hackathon.exceptions.ReportNotReadyException если отчёт ещё формируется
+   *     или сформировать его не удалось
+   */
+  Path getResultFile(UUID id);
+}
@@ -1,8 +1,8 @@
 package team.mephi.hackathon.controller;
 
 import java.io.IOException;
-import java.util.List;
-import team.mephi.hackathon.entity.Transaction;
+import java.io.OutputStream;
+import team.mephi.hackathon.dto.TransactionFilterDto;
 
 /**
  * Сервис генерации отчётов по транзакциям. Колонки в отчётах полностью соответствуют полям,
@@ -11,18 +11,22 @@ import team.mephi.hackathon.entity.Transaction;
 public interface ReportService {
 
   /**
-   * Создаёт PDF-отчёт по списку транзакций.
+   * Записывает PDF-отчёт по активным транзакциям, удовлетворяющим фильтру. Таблица разбивается на
+   * страницы с заголовком на каждой, текст выводится шрифтом с поддержкой кириллицы.
    *
-   * @param transactions список активных транзакций
-   * @return содержимое сформированного PDF-файла
+   * @param filter критерии отбора транзакций
+   * @param out поток, в который записывается содержимое PDF-файла
+   * @throws IOException если запись не удалась
    */
-  byte[] generatePdfReport(List<Transaction> transactions) throws IOException;
+  void writePdfReport(TransactionFilterDto filter, OutputStream out) throws IOException;
 
   /**
-   * Создаёт Excel-отчёт по списку транзакций.
+   * Записывает Excel-отчёт по активным транзакциям, удовлетворяющим фильтру. Транзакции читаются из
+   * БД по мере записи, поэтому объём используемой памяти не зависит от их количества.
    *
-   * @param transactions список активных транзакций
-   * @return содержимое сформированного XLSX-файла
+   * @param filter критерии отбора транзакций
+   * @param out поток, в который записывается содержимое XLSX-файла
+   * @throws IOException если запись не удалась
    */
-  byte[] generateExcelReport(List<Transaction> transactions) throws IOException;
+  void writeExcelReport(TransactionFilterDto filter, OutputStream out) throws IOException;
 }
@@ -7,14 +7,18 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
-import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -25,9 +29,17 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import team.mephi.hackathon.dto.TransactionBatchResultDto;
+import team.mephi.hackathon.dto.TransactionChangeDto;
+import team.mephi.hackathon.dto.TransactionDeltaDto;
 import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.dto.TransactionPageDto;
 import team.mephi.hackathon.dto.TransactionRequestDto;
 import team.mephi.hackathon.dto.TransactionResponseDto;
+import team.mephi.hackathon.dto.TransactionStatusChangeDto;
+import team.mephi.hackathon.dto.TransactionStatusResultDto;
 
 /**
  * REST-контроллер для работы с транзакциями. Обеспечивает CRUD операции и фильтрацию транзакций
@@ -35,16 +47,27 @@ import team.mephi.hackathon.dto.TransactionResponseDto;
  */
 @RestController
 @RequestMapping("/api/transactions")
-@RequiredArgsConstructor
 @Tag(name = "Транзакции", description = "API для управления финансовыми транзакциями")
 public class TransactionController {
+  /** Заголовок ответа, в котором передаётся курсор следующей страницы поиска. */
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
-  /** Сервис для работы с транзакциями. Инжектируется через конструктор. */
-  private final TransactionService service;
+  /** Сервис для работы с транзакциями. Реализация выбирается профилем. */
+  private final ReactiveTransactionService service;
+
+  /** Интервал пустых событий, по которым прокси и клиент видят, что поток изменений жив. */
+  private final Duration heartbeat;
 
   /** Логгер для записи информации об ошибках и событиях. */
   private static final Logger LOGGER = LoggerFactory.getLogger(TransactionController.class);
 
+  public TransactionController(
+      ReactiveTransactionService service,
+      @Value("${app.transactions.changes.heartbeat}") Duration heartbeat) {
+    this.service = service;
+    this.heartbeat = heartbeat;
+  }
+
   /**
    * Создаёт новую транзакцию.
    *
@@ -67,13 +90,72 @@ public class TransactionController {
             description = "Транзакция с таким ID уже существует",
             content = @Content(schema = @Schema(implementation = String.class)))
       })
-  public TransactionResponseDto create(@Valid @RequestBody TransactionRequestDto dto) {
+  public Mono<TransactionResponseDto> create(@Valid @RequestBody TransactionRequestDto dto) {
     LOGGER.debug("Received transaction: {}", dto);
     return service.createTransaction(dto);
   }
 
   /**
-   * Получает список всех транзакций с возможностью фильтрации.
+   * Создаёт транзакции пакетом. Тело запроса — JSON-массив или поток NDJSON (по объекту на строку);
+   * строки читаются и сохраняются по мере поступления. Ошибка в строке отклоняет только эту строку,
+   * результат возвращается по каждой строке в порядке поступления.
+   *
+   * @param rows строки с данными транзакций
+   * @return результаты обработки строк
+   */
+  @PostMapping(
+      value = "/batch",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  @Operation(
+      summary = "Создать транзакции пакетом",
+      description =
+          "Принимает JSON-массив или NDJSON-поток транзакций и возвращает результат по каждой"
+              + " строке: CREATED или REJECTED с причиной",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "Пакет обработан"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Тело запроса не удалось разобрать",
+            content = @Content(schema = @Schema(implementation = String.class)))
+      })
+  public Flux<TransactionBatchResultDto> createBatch(
+      @RequestBody Flux<TransactionRequestDto> rows) {
+    return service.createTransactions(rows);
+  }
+
+  /**
+   * Меняет статус транзакций, заданных списком идентификаторов или фильтром поиска. Статус {@code
+   * DELETED} помечает транзакции удалёнными. Транзакции, чей статус запрещает переход, отклоняются
+   * по отдельности; результат возвращается по каждой транзакции по мере обработки.
+   *
+   * @param request идентификаторы или фильтр и новый статус
+   * @return результаты смены статуса
+   */
+  @PostMapping(
+      value = "/status",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  @Operation(
+      summary = "Сменить статус транзакций",
+      description =
+          "Меняет статус транзакций по идентификаторам или фильтру и возвращает результат по каждой"
+              + " транзакции: UPDATED, REJECTED с причиной или NOT_FOUND",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "Запрос обработан"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Некорректный статус, фильтр или способ выбора транзакций",
+            content = @Content(schema = @Schema(implementation = String.class)))
+      })
+  public Flux<TransactionStatusResultDto> changeStatus(
+      @Valid @RequestBody TransactionStatusChangeDto request) {
+    return service.changeStatus(request);
+  }
+
+  /**
+   * Получает страницу транзакций с возможностью фильтрации. Если за страницей следуют другие
+   * записи, курсор следующей страницы возвращается в заголовке {@value #NEXT_CURSOR_HEADER}.
    *
    * @param senderBank имя банка-отправителя (опционально)
    * @param receiverBank имя банка-получателя (опционально)
@@ -82,14 +164,18 @@ public class TransactionController {
    * @param amountMin минимальная сумма транзакции (опционально)
    * @param amountMax максимальная сумма транзакции (опционально)
    * @param category категория транзакции (опционально)
-   * @return список {@link TransactionResponseDto} — найденные транзакции
+   * @param cursor курсор следующей страницы из предыдущего ответа (опционально)
+   * @param limit размер страницы (опционально)
+   * @return список {@link TransactionResponseDto} — найденные транзакции текущей страницы
    */
   @ApiResponse(responseCode = "200", description = "Successful operation")
   @GetMapping
   @Operation(
       summary = "Получить все транзакции",
-      description = "Возвращает список транзакций с возможностью фильтрации")
-  public List<TransactionResponseDto> search(
+      description =
+          "Возвращает страницу транзакций с возможностью фильтрации. Курсор следующей страницы"
+              + " передаётся в заголовке X-Next-Cursor")
+  public Mono<ResponseEntity<List<TransactionResponseDto>>> search(
       @RequestParam(required = false) String senderBank,
       @RequestParam(required = false) String receiverBank,
       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
@@ -98,16 +184,117 @@ public class TransactionController {
           LocalDateTime dateTo,
       @RequestParam(required = false) BigDecimal amountMin,
       @RequestParam(required = false) BigDecimal amountMax,
-      @RequestParam(required = false) String category) {
-    TransactionFilterDto filter = new TransactionFilterDto();
-    filter.setSenderBank(senderBank);
-    filter.setReceiverBank(receiverBank);
-    filter.setDateFrom(dateFrom);
-    filter.setDateTo(dateTo);
-    filter.setAmountMin(amountMin);
-    filter.setAmountMax(amountMax);
-    filter.setCategory(category);
-    return service.searchTransactions(filter);
+      @RequestParam(required = false) String category,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit) {
+    TransactionFilterDto filter =
+        toFilter(
+            senderBank, receiverBank, dateFrom, dateTo, amountMin, amountMax, category, cursor);
+    filter.setLimit(limit);
+    return service.searchTransactions(filter).map(TransactionController::toPageResponse);
+  }
+
+  /**
+   * Выдаёт все транзакции, соответствующие фильтру, потоком NDJSON или Server-Sent Events.
+   * Выбирается по заголовку {@code Accept}; фильтры совпадают с постраничным поиском, но результат
+   * не делится на страницы. Транзакции читаются из курсора БД по мере того, как клиент их
+   * принимает, поэтому первая транзакция отправляется сразу, а объём памяти не зависит от размера
+   * выборки.
+   *
+   * @param senderBank имя банка-отправителя (опционально)
+   * @param receiverBank имя банка-получателя (опционально)
+   * @param dateFrom начало временного диапазона (ISO 8601, опционально)
+   * @param dateTo конец временного диапазона (ISO 8601, опционально)
+   * @param amountMin минимальная сумма транзакции (опционально)
+   * @param amountMax максимальная сумма транзакции (опционально)
+   * @param category категория транзакции (опционально)
+   * @param cursor курсор, после которого продолжить выгрузку (опционально)
+   * @return поток {@link TransactionResponseDto} в порядке убывания даты операции
+   */
+  @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+  @Operation(
+      summary = "Выгрузить транзакции потоком",
+      description =
+          "Возвращает все транзакции, соответствующие фильтру, потоком NDJSON или Server-Sent"
+              + " Events без деления на страницы",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "Транзакции выдаются по мере чтения"),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Сервис перегружен",
+            content = @Content(schema = @Schema(implementation = String.class)))
+      })
+  public Flux<TransactionResponseDto> stream(
+      @RequestParam(required = false) String senderBank,
+      @RequestParam(required = false) String receiverBank,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime dateFrom,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime dateTo,
+      @RequestParam(required = false) BigDecimal amountMin,
+      @RequestParam(required = false) BigDecimal amountMax,
+      @RequestParam(required = false) String category,
+      @RequestParam(required = false) String cursor) {
+    return service.streamTransactions(
+        toFilter(
+            senderBank, receiverBank, dateFrom, dateTo, amountMin, amountMax, category, cursor));
+  }
+
+  /**
+   * Возвращает транзакции, созданные, изменённые или удалённые после токена из предыдущего ответа.
+   * Без токена возвращаются все транзакции; клиент запрашивает следующие части, пока {@code
+   * hasMore} равно {@code true}, а затем периодически получает только новые изменения.
+   *
+   * @param since токен из предыдущего ответа (опционально)
+   * @param limit максимальное количество изменений в ответе (опционально)
+   * @return изменённые и удалённые транзакции и токен следующего запроса
+   */
+  @GetMapping("/delta")
+  @Operation(
+      summary = "Получить изменения транзакций",
+      description =
+          "Возвращает транзакции, изменённые после токена, идентификаторы удалённых и новый токен",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "Изменения после токена"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Некорректный токен",
+            content = @Content(schema = @Schema(implementation = String.class)))
+      })
+  public Mono<TransactionDeltaDto> delta(
+      @RequestParam(required = false) String since,
+      @RequestParam(required = false) Integer limit) {
+    return service.getChangesSince(since, limit);
+  }
+
+  /**
+   * Выдаёт изменения транзакций в виде Server-Sent Events по мере их сохранения на любом экземпляре
+   * приложения. Имя события совпадает с видом изменения. Медленный клиент, переполнивший буфер
+   * событий, может быть отключён; после переподключения ему нужно перечитать список.
+   *
+   * @return поток событий изменения транзакций
+   */
+  @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(
+      summary = "Подписаться на изменения транзакций",
+      description =
+          "Поток Server-Sent Events с событиями CREATED, UPDATED и DELETED по каждой сохранённой"
+              + " транзакции и RESYNC после загрузки CSV")
+  @ApiResponse(responseCode = "200", description = "События выдаются по мере изменений")
+  public Flux<ServerSentEvent<TransactionChangeDto>> changes() {
+    Flux<ServerSentEvent<TransactionChangeDto>> events =
+        service
+            .changes()
+            .map(
+                change ->
+                    ServerSentEvent.builder(change).event(change.getType().name()).build());
+    Flux<ServerSentEvent<TransactionChangeDto>> heartbeats =
+        Flux.interval(Duration.ZERO, heartbeat)
+            .map(tick -> ServerSentEvent.<TransactionChangeDto>builder().comment("").build());
+    // Пустые события завершаются вместе с лентой, когда клиента отключают за переполнение
+    // буфера; prefetch 1 не добавляет к буферу ленты ещё один
+    return events.publish(
+        shared -> shared.mergeWith(heartbeats.takeUntilOther(shared.ignoreElements())), 1);
   }
 
   /**
@@ -127,7 +314,7 @@ public class TransactionController {
             description = "Транзакция не найдена",
             content = @Content(schema = @Schema(implementation = String.class)))
       })
-  public TransactionResponseDto getById(@PathVariable UUID id) {
+  public Mono<TransactionResponseDto> getById(@PathVariable UUID id) {
     return service.getTransaction(id);
   }
 
@@ -154,7 +341,7 @@ public class TransactionController {
             description = "Транзакция не найдена",
             content = @Content(schema = @Schema(implementation = String.class)))
       })
-  public TransactionResponseDto update(
+  public Mono<TransactionResponseDto> update(
       @PathVariable UUID id, @Valid @RequestBody TransactionRequestDto dto) {
     return service.updateTransaction(id, dto);
   }
@@ -180,7 +367,44 @@ public class TransactionController {
             description = "Транзакция не найдена",
             content = @Content(schema = @Schema(implementation = String.class)))
       })
-  public void delete(@PathVariable UUID id) {
-    service.deleteTransaction(id);
+  public Mono<Void> delete(@PathVariable UUID id) {
+    return service.deleteTransaction(id);
+  }
+
+  /** Собирает фильтр поиска из параметров запроса. */
+  private static TransactionFilterDto toFilter(
+      String senderBank,
+      String receiverBank,
+      LocalDateTime dateFrom,
+      LocalDateTime dateTo,
+      BigDecimal amountMin,
+      BigDecimal amountMax,
+      String category,
+      String cursor) {
+    TransactionFilterDto filter = new TransactionFilterDto();
+    filter.setSenderBank(senderBank);
+    filter.setReceiverBank(receiverBank);
+    filter.setDateFrom(dateFrom);
+    filter.setDateTo(dateTo);
+    filter.setAmountMin(amountMin);
+    filter.setAmountMax(amountMax);
+    filter.setCategory(category);
+    filter.setCursor(cursor);
+    return filter;
+  }
+
+  /**
+   * Формирует ответ со страницей транзакций и курсором следующей страницы в заголовке.
+   *
+   * @param page страница результатов поиска
+   * @return HTTP-ответ со списком транзакций
+   */
+  private static ResponseEntity<List<TransactionResponseDto>> toPageResponse(
+      TransactionPageDto page) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (page.getNext() != null) {
+      response.header(NEXT_CURSOR_HEADER, page.getNext());
+    }
+    return response.body(page.getItems());
   }
 }
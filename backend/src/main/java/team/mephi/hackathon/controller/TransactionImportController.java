@@ -0,0 +1,75 @@
+package team.mephi.hackathon.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.io.InputStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import team.mephi.hackathon.dto.TransactionImportReportDto;
+import team.mephi.hackathon.execution.Workload;
+import team.mephi.hackathon.execution.WorkloadExecutor;
+
+/** REST-контроллер массовой загрузки транзакций из файлов. */
+@RestController
+@RequestMapping("/api/transactions/import")
+@RequiredArgsConstructor
+@Tag(name = "Загрузка транзакций", description = "API для массовой загрузки транзакций")
+public class TransactionImportController {
+  /** Тип содержимого CSV-файла. */
+  static final String TEXT_CSV_VALUE = "text/csv";
+
+  /** Сколько фрагментов тела запроса запрашивается у сети наперёд при чтении файла. */
+  private static final int PREFETCH_BUFFERS = 16;
+
+  /** Сервис загрузки транзакций. Инжектируется через конструктор. */
+  private final TransactionImportService importService;
+
+  /** Слой выполнения блокирующих вызовов вне цикла событий. */
+  private final WorkloadExecutor executor;
+
+  /**
+   * Загружает транзакции из CSV-файла. Файл читается по мере поступления из сети, поэтому его
+   * размер не ограничен доступной памятью.
+   *
+   * @param body содержимое CSV-файла
+   * @return итоги загрузки
+   */
+  @PostMapping(consumes = TEXT_CSV_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(
+      summary = "Загрузить транзакции из CSV",
+      description =
+          "Принимает CSV-файл в кодировке UTF-8. Первая строка — заголовок с именами полей"
+              + " транзакции (personType, operationDate, amount и т.д.), столбец id необязателен."
+              + " Строки, не прошедшие проверку, пропускаются и перечисляются в отчёте",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "Файл загружен"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Некорректный заголовок или формат файла",
+            content = @Content(schema = @Schema(implementation = String.class))),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Слишком много одновременных загрузок",
+            content = @Content(schema = @Schema(implementation = String.class)))
+      })
+  public Mono<TransactionImportReportDto> importCsv(@RequestBody Flux<DataBuffer> body) {
+    return executor.call(
+        Workload.IMPORT,
+        () -> {
+          try (InputStream csv = DataBufferUtils.subscriberInputStream(body, PREFETCH_BUFFERS)) {
+            return importService.importCsv(csv);
+          }
+        });
+  }
+}
@@ -0,0 +1,18 @@
+package team.mephi.hackathon.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import team.mephi.hackathon.dto.TransactionImportReportDto;
+
+/** Сервис массовой загрузки транзакций из файлов. */
+public interface TransactionImportService {
+  /**
+   * Загружает транзакции из CSV-файла. Первая запись файла — заголовок с именами полей {@link
+   * team.mephi.hackathon.dto.TransactionRequestDto}.
+   *
+   * @param csv содержимое файла в кодировке UTF-8
+   * @return итоги загрузки
+   * @throws IOException если чтение файла или запись в БД не удались
+   */
+  TransactionImportReportDto importCsv(InputStream csv) throws IOException;
+}
@@ -2,22 +2,38 @@ package team.mephi.hackathon.controller;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 import org.springframework.data.jpa.domain.Specification;
+import team.mephi.hackathon.dto.TransactionBatchResultDto;
+import team.mephi.hackathon.dto.TransactionDeltaDto;
 import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.dto.TransactionPageDto;
 import team.mephi.hackathon.dto.TransactionRequestDto;
 import team.mephi.hackathon.dto.TransactionResponseDto;
+import team.mephi.hackathon.dto.TransactionStatusChangeDto;
+import team.mephi.hackathon.dto.TransactionStatusResultDto;
 import team.mephi.hackathon.entity.Transaction;
 
 public interface TransactionService {
   TransactionResponseDto createTransaction(TransactionRequestDto dto);
 
+  List<TransactionBatchResultDto> createTransactions(
+      List<TransactionRequestDto> rows, long firstIndex);
+
   List<Transaction> getTransactions(Specification<Transaction> specification);
 
   TransactionResponseDto getTransaction(UUID id);
 
-  List<TransactionResponseDto> searchTransactions(TransactionFilterDto filter);
+  TransactionPageDto searchTransactions(TransactionFilterDto filter);
+
+  void streamTransactions(TransactionFilterDto filter, Consumer<TransactionResponseDto> consumer);
+
+  TransactionDeltaDto getChangesSince(String token, Integer limit);
 
   TransactionResponseDto updateTransaction(UUID id, TransactionRequestDto dto);
 
   void deleteTransaction(UUID id);
+
+  void changeStatus(
+      TransactionStatusChangeDto request, Consumer<TransactionStatusResultDto> consumer);
 }
@@ -4,4 +4,6 @@ import team.mephi.hackathon.dto.TransactionRequestDto;
 
 public interface ValidationService {
   void validateTransaction(TransactionRequestDto dto);
+
+  void validateConstraints(TransactionRequestDto dto);
 }
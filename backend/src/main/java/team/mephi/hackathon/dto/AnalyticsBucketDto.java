@@ -0,0 +1,26 @@
+package team.mephi.hackathon.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** DTO (Data Transfer Object) одной группы транзакций в аналитике. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Группа транзакций")
+public class AnalyticsBucketDto {
+  /** Значение признака группировки: период, тип, банк или категория. */
+  @Schema(description = "Значение признака группировки", example = "2025-04")
+  private String name;
+
+  /** Количество транзакций в группе. */
+  @Schema(description = "Количество транзакций", example = "42")
+  private long count;
+
+  /** Сумма транзакций в группе. */
+  @Schema(description = "Сумма транзакций", example = "125000.50")
+  private BigDecimal amount;
+}
@@ -0,0 +1,24 @@
+package team.mephi.hackathon.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/** Признак, по которому группируются транзакции в аналитике. */
+@Schema(description = "Признак группировки")
+public enum AnalyticsDimension {
+  /** ISO-неделя даты операции, например {@code 2025-W14}. */
+  WEEK,
+  /** Месяц даты операции, например {@code 2025-04}. */
+  MONTH,
+  /** Квартал даты операции, например {@code 2025-Q2}. */
+  QUARTER,
+  /** Год даты операции, например {@code 2025}. */
+  YEAR,
+  /** Тип транзакции. */
+  TYPE,
+  /** Банк отправителя. */
+  SENDER_BANK,
+  /** Банк получателя. */
+  RECEIVER_BANK,
+  /** Категория. */
+  CATEGORY
+}
@@ -0,0 +1,47 @@
+package team.mephi.hackathon.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO (Data Transfer Object) с агрегатами для дашборда. Каждый список упорядочен по значению
+ * признака; периоды в таком порядке идут хронологически.
+ */
+@Data
+@NoArgsConstructor
+@Schema(description = "Агрегаты транзакций для дашборда")
+public class DashboardDto {
+  /** Группы по ISO-неделям. */
+  @Schema(description = "По неделям")
+  private List<AnalyticsBucketDto> byWeek;
+
+  /** Группы по месяцам. */
+  @Schema(description = "По месяцам")
+  private List<AnalyticsBucketDto> byMonth;
+
+  /** Группы по кварталам. */
+  @Schema(description = "По кварталам")
+  private List<AnalyticsBucketDto> byQuarter;
+
+  /** Группы по годам. */
+  @Schema(description = "По годам")
+  private List<AnalyticsBucketDto> byYear;
+
+  /** Группы по типу транзакции. */
+  @Schema(description = "По типу транзакции")
+  private List<AnalyticsBucketDto> byType;
+
+  /** Группы по банку отправителя. */
+  @Schema(description = "По банкам отправителей")
+  private List<AnalyticsBucketDto> bySenderBank;
+
+  /** Группы по банку получателя. */
+  @Schema(description = "По банкам получателей")
+  private List<AnalyticsBucketDto> byReceiverBank;
+
+  /** Группы по категории. */
+  @Schema(description = "По категориям")
+  private List<AnalyticsBucketDto> byCategory;
+}
@@ -0,0 +1,20 @@
+package team.mephi.hackathon.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** Формат файла отчёта по транзакциям. */
+@Getter
+@RequiredArgsConstructor
+@Schema(description = "Формат отчёта")
+public enum ReportFormat {
+  PDF("application/pdf", "pdf"),
+  EXCEL("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+  /** Тип содержимого файла. */
+  private final String mediaType;
+
+  /** Расширение имени файла. */
+  private final String extension;
+}
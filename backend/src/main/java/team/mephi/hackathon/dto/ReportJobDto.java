@@ -0,0 +1,49 @@
+package team.mephi.hackathon.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** DTO (Data Transfer Object) с состоянием задания на формирование отчёта. */
+@Data
+@NoArgsConstructor
+@Schema(description = "Задание на формирование отчёта")
+public class ReportJobDto {
+  /** Идентификатор задания. */
+  @Schema(description = "Идентификатор задания", example = "123e4567-e89b-12d3-a456-426614174000")
+  private UUID id;
+
+  /** Формат файла отчёта. */
+  @Schema(description = "Формат отчёта", example = "PDF")
+  private ReportFormat format;
+
+  /** Критерии отбора транзакций в отчёт. */
+  @Schema(description = "Фильтр транзакций")
+  private TransactionFilterDto filter;
+
+  /** Текущее состояние задания. */
+  @Schema(description = "Состояние задания", example = "RUNNING")
+  private ReportJobStatus status;
+
+  /** Момент создания задания. */
+  @Schema(description = "Время создания задания", example = "2025-04-05T12:30:00Z")
+  private Instant createdAt;
+
+  /** Момент начала формирования отчёта; {@code null}, пока задание в очереди. */
+  @Schema(description = "Время начала формирования", example = "2025-04-05T12:30:01Z")
+  private Instant startedAt;
+
+  /** Момент завершения задания, успешного или нет. */
+  @Schema(description = "Время завершения задания", example = "2025-04-05T12:31:00Z")
+  private Instant finishedAt;
+
+  /** Размер готового файла в байтах. */
+  @Schema(description = "Размер файла, байт", example = "1048576")
+  private Long size;
+
+  /** Причина неудачи для задания в состоянии {@link ReportJobStatus#FAILED}. */
+  @Schema(description = "Причина ошибки")
+  private String error;
+}
@@ -0,0 +1,23 @@
+package team.mephi.hackathon.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** DTO (Data Transfer Object) запроса на формирование отчёта по транзакциям. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Запрос на формирование отчёта")
+public class ReportJobRequestDto {
+  /** Формат файла отчёта. */
+  @NotNull(message = "Формат отчёта обязателен")
+  @Schema(description = "Формат отчёта", example = "PDF")
+  private ReportFormat format;
+
+  /** Критерии отбора транзакций; если не задан, в отчёт попадают все активные транзакции. */
+  @Schema(description = "Фильтр транзакций")
+  private TransactionFilterDto filter;
+}
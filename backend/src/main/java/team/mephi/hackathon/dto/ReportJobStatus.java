@@ -0,0 +1,13 @@
+package team.mephi.hackathon.dto;
+
+/** Состояние задания на формирование отчёта. */
+public enum ReportJobStatus {
+  /** Задание ожидает свободного места в пуле формирования отчётов. */
+  QUEUED,
+  /** Отчёт формируется. */
+  RUNNING,
+  /** Отчёт сформирован и доступен для скачивания. */
+  READY,
+  /** Отчёт сформировать не удалось. */
+  FAILED
+}
@@ -0,0 +1,51 @@
+package team.mephi.hackathon.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO (Data Transfer Object) с результатом обработки одной строки пакетной загрузки транзакций.
+ * Строки, не прошедшие проверку, отклоняются по отдельности и не отменяют сохранение остальных.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Результат сохранения строки пакетной загрузки")
+public class TransactionBatchResultDto {
+  /** Порядковый номер строки во входных данных, начиная с 0. */
+  @Schema(description = "Порядковый номер строки во входных данных, начиная с 0", example = "0")
+  private long index;
+
+  /** Идентификатор транзакции. Равен {@code null}, если строку не удалось разобрать. */
+  @Schema(
+      description = "Идентификатор транзакции",
+      example = "550e8400-e29b-41d4-a716-446655440000")
+  private UUID id;
+
+  /** Результат обработки строки. */
+  @Schema(description = "Результат обработки строки", example = "CREATED")
+  private Status status;
+
+  /** Причина отклонения строки. Равна {@code null} для сохранённых строк. */
+  @Schema(description = "Причина отклонения строки", example = "Некорректный ИНН")
+  private String error;
+
+  /** Результат обработки строки. */
+  public enum Status {
+    /** Транзакция сохранена. */
+    CREATED,
+    /** Строка отклонена, транзакция не сохранена. */
+    REJECTED
+  }
+
+  public static TransactionBatchResultDto created(long index, UUID id) {
+    return new TransactionBatchResultDto(index, id, Status.CREATED, null);
+  }
+
+  public static TransactionBatchResultDto rejected(long index, UUID id, String error) {
+    return new TransactionBatchResultDto(index, id, Status.REJECTED, error);
+  }
+}
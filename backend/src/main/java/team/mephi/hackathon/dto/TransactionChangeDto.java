@@ -0,0 +1,47 @@
+package team.mephi.hackathon.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO (Data Transfer Object) с событием изменения транзакции. Передаётся подписчикам потока {@code
+ * /api/transactions/changes} всех экземпляров приложения.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Событие изменения транзакции")
+public class TransactionChangeDto {
+  /** Вид изменения. */
+  @Schema(description = "Вид изменения", example = "UPDATED")
+  private Type type;
+
+  /** Идентификатор изменённой транзакции; {@code null} для {@link Type#RESYNC}. */
+  @Schema(
+      description = "Идентификатор транзакции",
+      example = "550e8400-e29b-41d4-a716-446655440000")
+  private UUID id;
+
+  /**
+   * Транзакция после изменения. Равна {@code null} для удалённой транзакции, а также если
+   * транзакция не поместилась в уведомление PostgreSQL; тогда её нужно запросить по
+   * идентификатору.
+   */
+  @Schema(description = "Транзакция после изменения; отсутствует для удалённой транзакции")
+  private TransactionResponseDto transaction;
+
+  /** Вид изменения транзакции. */
+  public enum Type {
+    /** Транзакция создана. */
+    CREATED,
+    /** Транзакция изменена. */
+    UPDATED,
+    /** Транзакция помечена удалённой. */
+    DELETED,
+    /** Изменено много транзакций сразу (загрузка CSV): данные нужно перечитать. */
+    RESYNC
+  }
+}
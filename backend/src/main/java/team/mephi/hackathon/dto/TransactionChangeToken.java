@@ -0,0 +1,74 @@
+package team.mephi.hackathon.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+import team.mephi.hackathon.exceptions.ValidationException;
+
+/**
+ * Позиция в журнале изменений транзакций. Все изменения до позиции включительно клиент уже
+ * получил. Изменения упорядочены по {@code (change_xid, change_seq, id)}: номеру транзакции БД,
+ * записавшей строку, порядковому номеру изменения и идентификатору. Клиенту передаётся в виде
+ * непрозрачной строки, полученной методом {@link #encode()}.
+ *
+ * @param xid номер транзакции БД последнего полученного изменения
+ * @param seq порядковый номер последнего полученного изменения
+ * @param id идентификатор транзакции последнего полученного изменения
+ */
+public record TransactionChangeToken(long xid, long seq, UUID id) {
+  /** Позиция перед первым изменением: с неё синхронизация начинается с полной выгрузки. */
+  public static final TransactionChangeToken START = horizon(0);
+
+  /** Разделитель полей внутри закодированной позиции. */
+  private static final String SEPARATOR = "|";
+
+  /**
+   * Позиция перед всеми изменениями транзакций БД с номером не меньше заданного.
+   *
+   * @param xid номер транзакции БД
+   * @return позиция
+   */
+  public static TransactionChangeToken horizon(long xid) {
+    return new TransactionChangeToken(xid, 0, new UUID(0, 0));
+  }
+
+  /**
+   * Кодирует позицию в непрозрачную строку, безопасную для передачи в URL.
+   *
+   * @return строковое представление позиции
+   */
+  public String encode() {
+    String raw = xid + SEPARATOR + seq + SEPARATOR + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Восстанавливает позицию из строки, полученной клиентом ранее.
+   *
+   * @param value закодированная позиция, может быть {@code null}
+   * @return позиция или {@link #START}, если значение не передано
+   * @throws ValidationException если строка не является корректной позицией
+   */
+  public static TransactionChangeToken decode(String value) {
+    if (value == null || value.isBlank()) {
+      return START;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+      String[] parts = raw.split("\\" + SEPARATOR, -1);
+      if (parts.length != 3) {
+        throw new ValidationException("Некорректный токен синхронизации");
+      }
+      long xid = Long.parseLong(parts[0]);
+      long seq = Long.parseLong(parts[1]);
+      if (xid < 0 || seq < 0) {
+        throw new ValidationException("Некорректный токен синхронизации");
+      }
+      return new TransactionChangeToken(xid, seq, UUID.fromString(parts[2]));
+    } catch (IllegalArgumentException ex) {
+      throw new ValidationException("Некорректный токен синхронизации");
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package team.mephi.hackathon.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+import team.mephi.hackathon.exceptions.ValidationException;
+
+/**
+ * Позиция курсора для постраничного (keyset) обхода транзакций. Указывает на последнюю выданную
+ * запись в порядке сортировки {@code (operationDate DESC, id DESC)}. Клиенту передаётся в виде
+ * непрозрачной строки, полученной методом {@link #encode()}.
+ *
+ * @param operationDate дата операции последней выданной транзакции
+ * @param id идентификатор последней выданной транзакции
+ */
+public record TransactionCursor(LocalDateTime operationDate, UUID id) {
+  /** Разделитель полей внутри закодированного курсора. */
+  private static final String SEPARATOR = "|";
+
+  /**
+   * Кодирует курсор в непрозрачную строку, безопасную для передачи в URL.
+   *
+   * @return строковое представление курсора
+   */
+  public String encode() {
+    String raw = operationDate + SEPARATOR + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Восстанавливает курсор из строки, полученной клиентом ранее.
+   *
+   * @param value закодированный курсор, может быть {@code null}
+   * @return курсор или {@code null}, если значение не передано
+   * @throws ValidationException если строка не является корректным курсором
+   */
+  public static TransactionCursor decode(String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+      int separator = raw.indexOf(SEPARATOR);
+      if (separator < 0) {
+        throw new ValidationException("Некорректный курсор");
+      }
+      return new TransactionCursor(
+          LocalDateTime.parse(raw.substring(0, separator)),
+          UUID.fromString(raw.substring(separator + 1)));
+    } catch (IllegalArgumentException | DateTimeParseException ex) {
+      throw new ValidationException("Некорректный курсор");
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package team.mephi.hackathon.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO (Data Transfer Object) для передачи изменений транзакций после позиции клиента. Содержит
+ * созданные и изменённые транзакции, идентификаторы удалённых и токен для следующего запроса.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Изменения транзакций после позиции клиента")
+public class TransactionDeltaDto {
+  /** Созданные и изменённые транзакции в порядке изменения. */
+  @Schema(description = "Созданные и изменённые транзакции")
+  private List<TransactionResponseDto> changed;
+
+  /** Идентификаторы транзакций, помеченных удалёнными. */
+  @Schema(description = "Идентификаторы удалённых транзакций")
+  private List<UUID> deleted;
+
+  /** Токен для следующего запроса изменений. */
+  @Schema(description = "Токен для следующего запроса", example = "MTIzNDV8MHwwMDAwMDAwMC0w...")
+  private String token;
+
+  /** Есть ли изменения после токена, не поместившиеся в ответ. */
+  @Schema(description = "Есть ли ещё изменения после токена", example = "false")
+  private boolean hasMore;
+}
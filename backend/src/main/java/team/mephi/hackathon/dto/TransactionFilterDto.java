@@ -6,10 +6,11 @@ import java.time.LocalDateTime;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 
 /**
- * DTO (Data Transfer Object) для фильтрации транзакций по различным критериям. Используется в
- * контроллере и сервисе транзакций при выполнении поисковых запросов.
+ * DTO (Data Transfer Object) для фильтрации транзакций по различным критериям. Используется при
+ * поиске транзакций и формировании отчётов; курсор и размер страницы отчётами не учитываются.
  */
 @Data
 @NoArgsConstructor
@@ -41,10 +42,12 @@ public class TransactionFilterDto {
 
   /** Начальная дата периода фильтрации (включительно). Формат: LocalDateTime. */
   @Schema(description = "Начальная дата периода (включительно)", example = "2025-04-01T12:00:00")
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
   private LocalDateTime dateFrom;
 
   /** Конечная дата периода фильтрации (включительно). Формат: LocalDateTime. */
   @Schema(description = "Конечная дата периода (включительно)", example = "2025-04-30T12:00:00")
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
   private LocalDateTime dateTo;
 
   /**
@@ -61,5 +64,16 @@ public class TransactionFilterDto {
   @Schema(description = "Максимальная сумма транзакции", example = "10000.00")
   private BigDecimal amountMax;
 
+  /**
+   * Курсор, полученный с предыдущей страницей результатов. Если не задан, возвращается первая
+   * страница.
+   */
+  @Schema(description = "Курсор следующей страницы из предыдущего ответа")
+  private String cursor;
+
+  /** Максимальное количество транзакций на странице. */
+  @Schema(description = "Размер страницы", example = "100")
+  private Integer limit;
+
   // Lombok генерирует getter'ы, setter'ы и toString()
 }
@@ -0,0 +1,41 @@
+package team.mephi.hackathon.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO (Data Transfer Object) с итогами загрузки транзакций из CSV-файла. Отклонённые строки
+ * перечисляются не более чем до {@code TransactionImportServiceImpl#MAX_REPORTED_REJECTIONS}, чтобы
+ * отчёт по файлу любого размера занимал ограниченный объём памяти.
+ */
+@Data
+@NoArgsConstructor
+@Schema(description = "Итоги загрузки транзакций из CSV-файла")
+public class TransactionImportReportDto {
+  /** Количество строк данных в файле без строки заголовка. */
+  @Schema(description = "Количество строк данных в файле", example = "100000")
+  private long total;
+
+  /** Количество сохранённых транзакций. */
+  @Schema(description = "Количество сохранённых транзакций", example = "99990")
+  private long imported;
+
+  /** Количество строк, прошедших проверку, но пропущенных из-за уже существующего ID. */
+  @Schema(description = "Количество строк с уже существующим ID", example = "3")
+  private long duplicates;
+
+  /** Количество строк, не прошедших проверку. */
+  @Schema(description = "Количество строк, не прошедших проверку", example = "7")
+  private long rejected;
+
+  /** Отклонённые строки с причинами; индекс — номер записи в файле, начиная с 1 для заголовка. */
+  @Schema(description = "Отклонённые строки с причинами")
+  private List<TransactionBatchResultDto> rejectedRows = new ArrayList<>();
+
+  /** Признак того, что в {@link #rejectedRows} перечислены не все отклонённые строки. */
+  @Schema(description = "Перечислены не все отклонённые строки", example = "false")
+  private boolean rejectedRowsTruncated;
+}
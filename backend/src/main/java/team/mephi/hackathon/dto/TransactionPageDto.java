@@ -0,0 +1,25 @@
+package team.mephi.hackathon.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO (Data Transfer Object) для передачи одной страницы результатов поиска транзакций. Содержит
+ * найденные транзакции и курсор для запроса следующей страницы.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Страница результатов поиска транзакций")
+public class TransactionPageDto {
+  /** Транзакции текущей страницы в порядке убывания даты операции. */
+  @Schema(description = "Транзакции текущей страницы")
+  private List<TransactionResponseDto> items;
+
+  /** Курсор следующей страницы. Равен {@code null}, если страница последняя. */
+  @Schema(description = "Курсор следующей страницы", example = "MjAyNS0wNC0wNVQxMjozMDp8...")
+  private String next;
+}
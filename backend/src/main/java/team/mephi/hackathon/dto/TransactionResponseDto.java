@@ -5,12 +5,17 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 import lombok.Data;
+import lombok.NoArgsConstructor;
+import team.mephi.hackathon.entity.PersonType;
+import team.mephi.hackathon.entity.TransactionStatus;
+import team.mephi.hackathon.entity.TransactionType;
 
 /**
  * DTO (Data Transfer Object) для передачи данных о транзакции клиенту. Используется как ответ на
  * запросы, связанные с операциями над транзакциями.
  */
 @Data
+@NoArgsConstructor
 @Schema(description = "Модель транзакции, возвращаемая клиенту")
 public class TransactionResponseDto {
   /** Уникальный идентификатор транзакции. Генерируется автоматически при создании транзакции. */
@@ -82,5 +87,44 @@ public class TransactionResponseDto {
       example = "+79876543210")
   private String receiverPhone;
 
+  /**
+   * Создаёт DTO из столбцов транзакции. Используется запросами-проекциями, которые строят ответ
+   * прямо из результата запроса, не загружая сущность в контекст персистентности.
+   */
+  public TransactionResponseDto(
+      UUID id,
+      PersonType personType,
+      LocalDateTime operationDate,
+      TransactionType transactionType,
+      String comment,
+      BigDecimal amount,
+      TransactionStatus status,
+      String senderBank,
+      String account,
+      String receiverBank,
+      String receiverInn,
+      String receiverAccount,
+      String category,
+      String receiverPhone) {
+    this.id = id;
+    this.personType = name(personType);
+    this.operationDate = operationDate;
+    this.transactionType = name(transactionType);
+    this.comment = comment;
+    this.amount = amount;
+    this.status = name(status);
+    this.senderBank = senderBank;
+    this.account = account;
+    this.receiverBank = receiverBank;
+    this.receiverInn = receiverInn;
+    this.receiverAccount = receiverAccount;
+    this.category = category;
+    this.receiverPhone = receiverPhone;
+  }
+
+  private static String name(Enum<?> value) {
+    return value == null ? null : value.name();
+  }
+
   // Lombok генерирует getter'ы, setter'ы и toString()
 }
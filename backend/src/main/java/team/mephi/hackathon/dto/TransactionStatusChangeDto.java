@@ -0,0 +1,36 @@
+package team.mephi.hackathon.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO (Data Transfer Object) для массовой смены статуса транзакций. Транзакции задаются либо
+ * списком идентификаторов, либо фильтром поиска. Статус {@code DELETED} помечает транзакции
+ * удалёнными.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Массовая смена статуса транзакций")
+public class TransactionStatusChangeDto {
+  /** Идентификаторы транзакций. Не задаётся вместе с фильтром. */
+  @Schema(description = "Идентификаторы транзакций")
+  private List<UUID> ids;
+
+  /** Фильтр поиска транзакций. Курсор и размер страницы не учитываются. */
+  @Schema(description = "Фильтр транзакций, если не заданы идентификаторы")
+  private TransactionFilterDto filter;
+
+  /** Новый статус транзакций. Обязательное поле. */
+  @Schema(
+      description = "Новый статус: CONFIRMED, IN_PROGRESS, COMPLETED, DELETED и т.д.",
+      example = "CONFIRMED",
+      requiredMode = Schema.RequiredMode.REQUIRED)
+  @NotBlank(message = "Статус обязателен")
+  private String status;
+}
@@ -0,0 +1,45 @@
+package team.mephi.hackathon.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO (Data Transfer Object) с результатом смены статуса одной транзакции при массовой смене.
+ * Транзакции, чей статус запрещает переход, отклоняются по отдельности и не отменяют остальные.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Результат смены статуса транзакции")
+public class TransactionStatusResultDto {
+  /** Идентификатор транзакции. */
+  @Schema(
+      description = "Идентификатор транзакции",
+      example = "550e8400-e29b-41d4-a716-446655440000")
+  private UUID id;
+
+  /** Результат смены статуса. */
+  @Schema(description = "Результат смены статуса", example = "UPDATED")
+  private Result result;
+
+  /** Статус транзакции после операции. Равен {@code null}, если транзакция не найдена. */
+  @Schema(description = "Статус транзакции после операции", example = "CONFIRMED")
+  private String status;
+
+  /** Причина отклонения. Равна {@code null} для изменённых транзакций. */
+  @Schema(description = "Причина отклонения", example = "Cannot update COMPLETED transaction")
+  private String error;
+
+  /** Результат смены статуса. */
+  public enum Result {
+    /** Статус изменён. */
+    UPDATED,
+    /** Текущий статус запрещает переход, транзакция не изменена. */
+    REJECTED,
+    /** Транзакция не найдена. */
+    NOT_FOUND
+  }
+}
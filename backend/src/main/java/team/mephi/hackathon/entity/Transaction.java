@@ -9,6 +9,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.UUID;
 import lombok.Data;
@@ -85,4 +86,12 @@ public class Transaction {
   /** Телефон получателя. Должен соответствовать формату: ^(\+7|8)\d{10}$. */
   @Column(length = 20)
   private String receiverPhone;
+
+  /** Момент создания транзакции. Заполняется БД при вставке, приложение его не записывает. */
+  @Column(nullable = false, insertable = false, updatable = false)
+  private Instant createdAt;
+
+  /** Момент последнего изменения транзакции. Обновляется триггером БД при каждом изменении. */
+  @Column(nullable = false, insertable = false, updatable = false)
+  private Instant updatedAt;
 }
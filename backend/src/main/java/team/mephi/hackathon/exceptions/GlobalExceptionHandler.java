@@ -76,4 +76,32 @@ public class GlobalExceptionHandler {
   public Mono<String> handleValidationException(ValidationException ex) {
     return Mono.just(ex.getMessage());
   }
+
+  /**
+   * Обрабатывает исключение {@link ReportNotReadyException}. Возвращает HTTP статус 409 (Conflict):
+   * файл отчёта ещё формируется или сформировать его не удалось.
+   *
+   * @param ex выброшенное исключение
+   * @return Mono с текстом ошибки
+   */
+  @ExceptionHandler(ReportNotReadyException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public Mono<String> handleReportNotReadyException(ReportNotReadyException ex) {
+    return Mono.just(ex.getMessage());
+  }
+
+  /**
+   * Обрабатывает исключение {@link WorkloadRejectedException}, возникающее при переполнении очереди
+   * блокирующих вызовов. Возвращает HTTP статус 503 (Service Unavailable), чтобы клиент повторил
+   * запрос позже.
+   *
+   * @param ex исключение отказа в обслуживании
+   * @return Mono с текстом ошибки
+   */
+  @ExceptionHandler(WorkloadRejectedException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  public Mono<String> handleWorkloadRejectedException(WorkloadRejectedException ex) {
+    LOGGER.warn("Request rejected: {}", ex.getMessage());
+    return Mono.just(ex.getMessage());
+  }
 }
@@ -0,0 +1,7 @@
+package team.mephi.hackathon.exceptions;
+
+public class ReportNotReadyException extends RuntimeException {
+  public ReportNotReadyException(String message) {
+    super(message);
+  }
+}
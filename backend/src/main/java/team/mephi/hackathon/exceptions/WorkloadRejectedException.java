@@ -0,0 +1,7 @@
+package team.mephi.hackathon.exceptions;
+
+public class WorkloadRejectedException extends RuntimeException {
+  public WorkloadRejectedException(String message) {
+    super(message);
+  }
+}
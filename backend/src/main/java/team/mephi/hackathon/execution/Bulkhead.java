@@ -0,0 +1,179 @@
+package team.mephi.hackathon.execution;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import team.mephi.hackathon.exceptions.WorkloadRejectedException;
+
+/**
+ * Ограничитель параллелизма для одного класса нагрузки. Каждая задача выполняется в отдельном
+ * виртуальном потоке; одновременно выполняется не более {@code maxConcurrency} задач, остальные
+ * ждут разрешения семафора. Если число ожидающих задач достигло {@code maxQueue}, новая задача
+ * отклоняется сразу, не занимая ресурсов. Место в очереди освобождается, когда виртуальный поток
+ * задачи завершился, а не когда подписчик отменил ожидание: задача, отменённая до получения
+ * разрешения, не выполняется, но место занимает, пока её поток ждёт семафор.
+ */
+public class Bulkhead implements MeterBinder, AutoCloseable {
+  /** Класс нагрузки, который обслуживает ограничитель. */
+  private final Workload workload;
+
+  /** Максимальное количество одновременно выполняемых задач. */
+  private final int maxConcurrency;
+
+  /** Максимальное количество задач, ожидающих выполнения. */
+  private final int maxQueue;
+
+  /** Разрешения на выполнение задач. */
+  private final Semaphore permits;
+
+  /** Количество принятых задач: выполняемых и ожидающих. */
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  /** Количество выполняемых в данный момент задач. */
+  private final AtomicInteger active = new AtomicInteger();
+
+  /** Количество отклонённых задач с момента запуска. */
+  private final AtomicLong rejected = new AtomicLong();
+
+  /** Планировщик Reactor, создающий виртуальный поток на каждую задачу. */
+  private final Scheduler scheduler;
+
+  public Bulkhead(Workload workload, int maxConcurrency, int maxQueue) {
+    if (maxConcurrency < 1 || maxQueue < 0) {
+      throw new IllegalArgumentException("Invalid limits for workload " + workload);
+    }
+    this.workload = workload;
+    this.maxConcurrency = maxConcurrency;
+    this.maxQueue = maxQueue;
+    this.permits = new Semaphore(maxConcurrency, true);
+    this.scheduler = Schedulers.fromExecutor(new VirtualThreadTaskExecutor(name() + "-"));
+  }
+
+  /**
+   * Выполняет блокирующую задачу вне потоков цикла событий.
+   *
+   * @param task блокирующая задача
+   * @param <T> тип результата
+   * @return Mono с результатом задачи; пустой, если задача вернула {@code null}
+   * @throws WorkloadRejectedException (в виде сигнала ошибки) если очередь заполнена
+   */
+  public <T> Mono<T> submit(Callable<T> task) {
+    return Mono.defer(
+        () -> {
+          if (inFlight.incrementAndGet() > maxConcurrency + maxQueue) {
+            inFlight.decrementAndGet();
+            rejected.incrementAndGet();
+            return Mono.error(
+                new WorkloadRejectedException("Сервис перегружен, повторите запрос позже"));
+          }
+          Ticket ticket = new Ticket();
+          return Mono.fromCallable(() -> callWithPermit(task, ticket))
+              .subscribeOn(scheduler)
+              .doFinally(
+                  signal -> {
+                    if (signal == SignalType.CANCEL) {
+                      ticket.cancelled = true;
+                    }
+                    // Поток задачи не запускался: место освобождается здесь, иначе — в потоке
+                    if (ticket.claimed.compareAndSet(false, true)) {
+                      inFlight.decrementAndGet();
+                    }
+                  });
+        });
+  }
+
+  /** Количество задач, ожидающих выполнения. */
+  public int getQueueDepth() {
+    return Math.max(0, inFlight.get() - active.get());
+  }
+
+  /** Количество выполняемых в данный момент задач. */
+  public int getActiveCount() {
+    return active.get();
+  }
+
+  /** Количество отклонённых задач с момента запуска. */
+  public long getRejectedCount() {
+    return rejected.get();
+  }
+
+  /** Количество потоков задач, ожидающих разрешения семафора. */
+  int getWaitingThreadCount() {
+    return permits.getQueueLength();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    String tag = workload.name().toLowerCase();
+    Gauge.builder("app.workload.queue.depth", this, Bulkhead::getQueueDepth)
+        .description("Задачи, ожидающие выполнения")
+        .tag("workload", tag)
+        .register(registry);
+    Gauge.builder("app.workload.active", this, Bulkhead::getActiveCount)
+        .description("Выполняемые задачи")
+        .tag("workload", tag)
+        .register(registry);
+    Gauge.builder("app.workload.limit", this, bulkhead -> bulkhead.maxConcurrency)
+        .description("Максимальное количество одновременно выполняемых задач")
+        .tag("workload", tag)
+        .register(registry);
+    FunctionCounter.builder("app.workload.rejected", this, Bulkhead::getRejectedCount)
+        .description("Задачи, отклонённые из-за переполнения очереди")
+        .tag("workload", tag)
+        .register(registry);
+  }
+
+  @Override
+  public void close() {
+    scheduler.dispose();
+  }
+
+  private <T> T callWithPermit(Callable<T> task, Ticket ticket) throws Exception {
+    if (!ticket.claimed.compareAndSet(false, true)) {
+      // Подписчик отменил задачу до запуска потока, место уже освобождено
+      return null;
+    }
+    try {
+      permits.acquire();
+      try {
+        if (ticket.cancelled) {
+          return null;
+        }
+        active.incrementAndGet();
+        try {
+          return task.call();
+        } finally {
+          active.decrementAndGet();
+        }
+      } finally {
+        permits.release();
+      }
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  /** Состояние одной принятой задачи. */
+  private static final class Ticket {
+    /** Место задачи в очереди занято потоком задачи или уже освобождено. */
+    final AtomicBoolean claimed = new AtomicBoolean();
+
+    /** Подписчик отменил задачу. */
+    volatile boolean cancelled;
+  }
+
+  private String name() {
+    return "workload-" + workload.name().toLowerCase();
+  }
+}
@@ -0,0 +1,22 @@
+package team.mephi.hackathon.execution;
+
+/**
+ * Перечисление, представляющее классы нагрузки на блокирующий слой доступа к данным. Для каждого
+ * класса выделяется собственный {@link Bulkhead}, чтобы тяжёлые запросы одного класса не вытесняли
+ * остальные.
+ */
+public enum Workload {
+  /** Создание, чтение по идентификатору, обновление и удаление записей. */
+  CRUD,
+  /** Поиск транзакций по фильтрам. */
+  SEARCH,
+  /** Генерация отчётов в форматах PDF и Excel. */
+  REPORT,
+  /**
+   * Потоковая выгрузка транзакций в NDJSON и Server-Sent Events. Выгрузка удерживает соединение с
+   * БД, пока клиент читает ответ, поэтому медленные клиенты не должны занимать места отчётов.
+   */
+  STREAM,
+  /** Массовая загрузка транзакций из файлов и массовая смена их статуса. */
+  IMPORT
+}
@@ -0,0 +1,248 @@
+package team.mephi.hackathon.execution;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Слой выполнения блокирующих вызовов сервисов. Переносит вызовы JPA из потоков цикла событий Netty
+ * в виртуальные потоки и распределяет их по отдельным {@link Bulkhead} для каждого класса нагрузки
+ * {@link Workload}.
+ */
+public class WorkloadExecutor implements MeterBinder, AutoCloseable {
+  /** Размер фрагмента данных, выдаваемого подписчику при потоковой записи, байт. */
+  static final int STREAM_CHUNK_SIZE = 64 * 1024;
+
+  /** Ограничители параллелизма по классам нагрузки. */
+  private final Map<Workload, Bulkhead> bulkheads = new EnumMap<>(Workload.class);
+
+  public WorkloadExecutor(
+      Bulkhead crud, Bulkhead search, Bulkhead report, Bulkhead stream, Bulkhead imports) {
+    bulkheads.put(Workload.CRUD, crud);
+    bulkheads.put(Workload.SEARCH, search);
+    bulkheads.put(Workload.REPORT, report);
+    bulkheads.put(Workload.STREAM, stream);
+    bulkheads.put(Workload.IMPORT, imports);
+  }
+
+  /**
+   * Выполняет блокирующий вызов в рамках указанного класса нагрузки.
+   *
+   * @param workload класс нагрузки
+   * @param task блокирующий вызов сервиса
+   * @param <T> тип результата
+   * @return Mono с результатом вызова
+   */
+  public <T> Mono<T> call(Workload workload, Callable<T> task) {
+    return bulkheads.get(workload).submit(task);
+  }
+
+  /**
+   * Выполняет блокирующий вызов без результата в рамках указанного класса нагрузки.
+   *
+   * @param workload класс нагрузки
+   * @param task блокирующий вызов сервиса
+   * @return Mono, завершающийся после выполнения вызова
+   */
+  public Mono<Void> run(Workload workload, Runnable task) {
+    return bulkheads
+        .get(workload)
+        .submit(
+            () -> {
+              task.run();
+              return null;
+            })
+        .then();
+  }
+
+  /**
+   * Выполняет блокирующую запись в поток в рамках указанного класса нагрузки. Записанные данные
+   * выдаются подписчику фрагментами по мере записи. Пока подписчик не запросил следующий фрагмент,
+   * запись приостанавливается, поэтому в памяти находится не больше одного фрагмента.
+   *
+   * @param workload класс нагрузки
+   * @param bufferFactory фабрика буферов, например буферов HTTP-ответа
+   * @param writer блокирующая запись данных
+   * @return Flux с записанными данными; завершается ошибкой, если запись не удалась
+   */
+  public Flux<DataBuffer> write(
+      Workload workload, DataBufferFactory bufferFactory, StreamWriter writer) {
+    return Flux.defer(
+        () -> {
+          // Отказ bulkhead приходит не через издателя потока, а через отдельный сигнал
+          Sinks.Empty<Void> task = Sinks.empty();
+          Flux<DataBuffer> data =
+              Flux.from(
+                  DataBufferUtils.outputStreamPublisher(
+                      out -> {
+                        try {
+                          writer.writeTo(out);
+                        } catch (IOException e) {
+                          throw new UncheckedIOException(e);
+                        }
+                      },
+                      bufferFactory,
+                      command ->
+                          run(workload, command)
+                              .subscribe(null, task::tryEmitError, task::tryEmitEmpty),
+                      STREAM_CHUNK_SIZE));
+          return data.mergeWith(task.asMono().then(Mono.<DataBuffer>empty()));
+        });
+  }
+
+  /** Блокирующая запись данных в поток. */
+  @FunctionalInterface
+  public interface StreamWriter {
+    /**
+     * Записывает данные.
+     *
+     * @param out поток, данные из которого передаются подписчику
+     * @throws IOException если запись не удалась
+     */
+    void writeTo(OutputStream out) throws IOException;
+  }
+
+  /**
+   * Выполняет блокирующее чтение элементов в рамках указанного класса нагрузки. Элементы выдаются
+   * подписчику по мере чтения. Пока подписчик не запросил следующий элемент, чтение
+   * приостанавливается, поэтому непрочитанные подписчиком элементы не накапливаются в памяти. При
+   * отмене подписки очередная выдача элемента прерывает чтение исключением {@link
+   * CancellationException}.
+   *
+   * @param workload класс нагрузки
+   * @param reader блокирующее чтение элементов
+   * @param <T> тип элементов
+   * @return Flux с прочитанными элементами; завершается ошибкой, если чтение не удалось
+   */
+  public <T> Flux<T> stream(Workload workload, StreamReader<T> reader) {
+    return Flux.create(
+        sink -> {
+          Demand demand = new Demand();
+          sink.onRequest(demand::add);
+          Disposable task =
+              run(
+                      workload,
+                      () ->
+                          reader.readTo(
+                              item -> {
+                                demand.take();
+                                sink.next(item);
+                              }))
+                  .subscribe(
+                      null,
+                      error -> {
+                        // После отмены ошибка прерванного чтения подписчику не нужна
+                        if (!sink.isCancelled()) {
+                          sink.error(error);
+                        }
+                      },
+                      sink::complete);
+          sink.onDispose(
+              () -> {
+                demand.cancel();
+                task.dispose();
+              });
+        });
+  }
+
+  /** Блокирующее чтение элементов. */
+  @FunctionalInterface
+  public interface StreamReader<T> {
+    /**
+     * Читает элементы и передаёт их по одному.
+     *
+     * @param consumer получатель элементов; блокируется, пока подписчик не запросит элемент
+     */
+    void readTo(Consumer<T> consumer);
+  }
+
+  /**
+   * Количество элементов, запрошенных подписчиком потока. Поток чтения ждёт запроса на условии
+   * {@link ReentrantLock}, а не в {@code synchronized}: ожидание в мониторе закрепило бы
+   * виртуальный поток за потоком-носителем.
+   */
+  private static final class Demand {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition requestedOrCancelled = lock.newCondition();
+    private long requested;
+    private boolean cancelled;
+
+    void add(long n) {
+      lock.lock();
+      try {
+        requested = Operators.addCap(requested, n);
+        requestedOrCancelled.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /** Ожидает запроса элемента и учитывает его выдачу. */
+    void take() {
+      lock.lock();
+      try {
+        while (requested == 0 && !cancelled) {
+          requestedOrCancelled.await();
+        }
+        if (cancelled) {
+          throw new CancellationException("Подписчик отменил чтение");
+        }
+        if (requested != Long.MAX_VALUE) {
+          requested--;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CancellationException("Чтение прервано");
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void cancel() {
+      lock.lock();
+      try {
+        cancelled = true;
+        requestedOrCancelled.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Возвращает ограничитель параллелизма указанного класса нагрузки.
+   *
+   * @param workload класс нагрузки
+   * @return ограничитель параллелизма
+   */
+  public Bulkhead bulkhead(Workload workload) {
+    return bulkheads.get(workload);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    bulkheads.values().forEach(bulkhead -> bulkhead.bindTo(registry));
+  }
+
+  @Override
+  public void close() {
+    bulkheads.values().forEach(Bulkhead::close);
+  }
+}
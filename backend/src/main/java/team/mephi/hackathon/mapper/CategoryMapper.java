@@ -0,0 +1,29 @@
+package team.mephi.hackathon.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import team.mephi.hackathon.dto.CategoryRequestDto;
+import team.mephi.hackathon.dto.CategoryResponseDto;
+import team.mephi.hackathon.entity.Category;
+
+/** Преобразование между сущностью {@link Category} и её DTO. Реализация генерируется MapStruct. */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface CategoryMapper {
+  /**
+   * Создаёт сущность из данных запроса. Идентификатор назначается при сохранении.
+   *
+   * @param dto данные категории
+   * @return новая сущность
+   */
+  @Mapping(target = "id", ignore = true)
+  Category toEntity(CategoryRequestDto dto);
+
+  /**
+   * Преобразует сущность в ответ клиенту.
+   *
+   * @param category категория
+   * @return DTO категории
+   */
+  CategoryResponseDto toDto(Category category);
+}
@@ -0,0 +1,73 @@
+package team.mephi.hackathon.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.MappingTarget;
+import team.mephi.hackathon.dto.TransactionRequestDto;
+import team.mephi.hackathon.dto.TransactionResponseDto;
+import team.mephi.hackathon.entity.PersonType;
+import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.entity.TransactionStatus;
+import team.mephi.hackathon.entity.TransactionType;
+import team.mephi.hackathon.exceptions.ValidationException;
+
+/**
+ * Преобразование между сущностью {@link Transaction} и её DTO. Реализация генерируется MapStruct
+ * при компиляции и копирует поля прямыми вызовами геттеров и сеттеров, без рефлексии.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface TransactionMapper {
+  /**
+   * Создаёт сущность из данных запроса.
+   *
+   * @param dto данные транзакции
+   * @return новая сущность
+   * @throws ValidationException если тип лица, тип транзакции или статус некорректны
+   */
+  @Mapping(target = "createdAt", ignore = true)
+  @Mapping(target = "updatedAt", ignore = true)
+  Transaction toEntity(TransactionRequestDto dto);
+
+  /**
+   * Заменяет поля сущности данными запроса, включая идентификатор.
+   *
+   * @param dto новые данные транзакции
+   * @param entity изменяемая сущность
+   * @throws ValidationException если тип лица, тип транзакции или статус некорректны
+   */
+  @Mapping(target = "createdAt", ignore = true)
+  @Mapping(target = "updatedAt", ignore = true)
+  void updateEntity(TransactionRequestDto dto, @MappingTarget Transaction entity);
+
+  /**
+   * Преобразует сущность в ответ клиенту.
+   *
+   * @param entity транзакция
+   * @return DTO транзакции
+   */
+  TransactionResponseDto toDto(Transaction entity);
+
+  default PersonType toPersonType(String value) {
+    return parse(PersonType.class, value, "personType");
+  }
+
+  default TransactionType toTransactionType(String value) {
+    return parse(TransactionType.class, value, "transactionType");
+  }
+
+  default TransactionStatus toTransactionStatus(String value) {
+    return parse(TransactionStatus.class, value, "status");
+  }
+
+  private static <E extends Enum<E>> E parse(Class<E> type, String value, String field) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      return Enum.valueOf(type, value);
+    } catch (IllegalArgumentException e) {
+      throw new ValidationException("Некорректное значение поля " + field + ": " + value);
+    }
+  }
+}
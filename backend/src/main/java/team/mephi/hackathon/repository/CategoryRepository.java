@@ -8,4 +8,13 @@ import team.mephi.hackathon.entity.Category;
 
 @Repository
 public interface CategoryRepository
-    extends JpaRepository<Category, UUID>, JpaSpecificationExecutor<Category> {}
+    extends JpaRepository<Category, UUID>, JpaSpecificationExecutor<Category> {
+
+  /**
+   * Проверяет, есть ли категория с таким наименованием.
+   *
+   * @param name наименование категории
+   * @return {@code true}, если категория существует
+   */
+  boolean existsByName(String name);
+}
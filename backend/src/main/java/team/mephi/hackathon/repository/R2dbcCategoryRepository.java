@@ -0,0 +1,83 @@
+package team.mephi.hackathon.repository;
+
+import io.r2dbc.spi.Readable;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import team.mephi.hackathon.entity.Category;
+
+/** Реактивный репозиторий категорий для профиля {@code r2dbc}. */
+@Repository
+@Profile("r2dbc")
+@RequiredArgsConstructor
+public class R2dbcCategoryRepository {
+  /** Клиент R2DBC. Инжектируется через конструктор. */
+  private final DatabaseClient client;
+
+  public Flux<Category> findAll() {
+    return client
+        .sql("SELECT id, name FROM categories")
+        .map(R2dbcCategoryRepository::toEntity)
+        .all();
+  }
+
+  public Mono<Category> findById(UUID id) {
+    return client
+        .sql("SELECT id, name FROM categories WHERE id = :id")
+        .bind("id", id)
+        .map(R2dbcCategoryRepository::toEntity)
+        .one();
+  }
+
+  /**
+   * Вставляет новую категорию. Идентификатор должен быть заполнен заранее.
+   *
+   * @param entity категория
+   * @return Mono с сохранённой категорией
+   */
+  public Mono<Category> insert(Category entity) {
+    return client
+        .sql("INSERT INTO categories (id, name) VALUES (:id, :name)")
+        .bind("id", entity.getId())
+        .bind("name", entity.getName())
+        .then()
+        .thenReturn(entity);
+  }
+
+  /**
+   * Обновляет имя категории.
+   *
+   * @param entity категория
+   * @return Mono с категорией, если она существует; пустой Mono иначе
+   */
+  public Mono<Category> update(Category entity) {
+    return client
+        .sql("UPDATE categories SET name = :name WHERE id = :id")
+        .bind("id", entity.getId())
+        .bind("name", entity.getName())
+        .fetch()
+        .rowsUpdated()
+        .filter(updated -> updated > 0)
+        .map(updated -> entity);
+  }
+
+  /**
+   * Удаляет категорию.
+   *
+   * @param id идентификатор категории
+   * @return Mono с количеством удалённых строк
+   */
+  public Mono<Long> deleteById(UUID id) {
+    return client.sql("DELETE FROM categories WHERE id = :id").bind("id", id).fetch().rowsUpdated();
+  }
+
+  private static Category toEntity(Readable row) {
+    Category category = new Category(row.get("name", String.class));
+    category.setId(row.get("id", UUID.class));
+    return category;
+  }
+}
@@ -0,0 +1,399 @@
+package team.mephi.hackathon.repository;
+
+import io.r2dbc.spi.Readable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import team.mephi.hackathon.dto.TransactionChangeToken;
+import team.mephi.hackathon.dto.TransactionCursor;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.entity.PersonType;
+import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.entity.TransactionStatus;
+import team.mephi.hackathon.entity.TransactionType;
+import team.mephi.hackathon.exceptions.ValidationException;
+import team.mephi.hackathon.specification.TransactionSpecification;
+
+/**
+ * Реактивный репозиторий транзакций для профиля {@code r2dbc}. Условия поиска совпадают с фильтрами
+ * {@code TransactionServiceImpl#searchTransactions} и {@code TransactionSpecification}; строки
+ * выдаются потоком по мере чтения из курсора БД.
+ */
+@Repository
+@Profile("r2dbc")
+@RequiredArgsConstructor
+public class R2dbcTransactionRepository {
+  /** Список столбцов таблицы в порядке вставки. */
+  static final String COLUMNS =
+      "id, person_type, operation_date, transaction_type, comment, amount, status, sender_bank,"
+          + " account, receiver_bank, receiver_inn, receiver_account, category, receiver_phone";
+
+  /** Количество строк, получаемых из курсора БД за одно обращение при потоковом чтении. */
+  static final int STREAM_FETCH_SIZE = 1000;
+
+  /** Клиент R2DBC. Инжектируется через конструктор. */
+  private final DatabaseClient client;
+
+  /**
+   * Ищет транзакцию по идентификатору.
+   *
+   * @param id идентификатор транзакции
+   * @return Mono с транзакцией или пустой Mono
+   */
+  public Mono<Transaction> findById(UUID id) {
+    return client
+        .sql("SELECT " + COLUMNS + " FROM transactions WHERE id = :id")
+        .bind("id", id)
+        .map(R2dbcTransactionRepository::toEntity)
+        .one();
+  }
+
+  /**
+   * Читает страницу не удалённых транзакций в порядке убывания даты операции и идентификатора.
+   *
+   * @param filter фильтр поиска
+   * @param after позиция последней выданной записи, может быть {@code null}
+   * @param limit максимальное количество записей
+   * @return поток транзакций страницы
+   */
+  public Flux<Transaction> findPage(
+      TransactionFilterDto filter, TransactionCursor after, int limit) {
+    Criteria criteria = where(filter, after);
+    DatabaseClient.GenericExecuteSpec spec =
+        client.sql(
+            "SELECT "
+                + COLUMNS
+                + " FROM transactions"
+                + criteria.sql()
+                + " ORDER BY operation_date DESC, id DESC LIMIT :limit");
+    for (Map.Entry<String, Object> param : criteria.params().entrySet()) {
+      spec = spec.bind(param.getKey(), param.getValue());
+    }
+    return spec.bind("limit", limit).map(R2dbcTransactionRepository::toEntity).all();
+  }
+
+  /**
+   * Читает все не удалённые транзакции, удовлетворяющие фильтру, в порядке убывания даты операции и
+   * идентификатора. Строки запрашиваются из курсора БД порциями по {@link #STREAM_FETCH_SIZE} по
+   * мере запроса подписчика.
+   *
+   * @param filter фильтр поиска
+   * @param after позиция последней выданной записи, может быть {@code null}
+   * @return поток транзакций
+   */
+  public Flux<Transaction> findAll(TransactionFilterDto filter, TransactionCursor after) {
+    Criteria criteria = where(filter, after);
+    DatabaseClient.GenericExecuteSpec spec =
+        client.sql(
+            "SELECT "
+                + COLUMNS
+                + " FROM transactions"
+                + criteria.sql()
+                + " ORDER BY operation_date DESC, id DESC");
+    for (Map.Entry<String, Object> param : criteria.params().entrySet()) {
+      spec = spec.bind(param.getKey(), param.getValue());
+    }
+    return spec.filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE))
+        .map(R2dbcTransactionRepository::toEntity)
+        .all();
+  }
+
+  /**
+   * Читает изменения транзакций после позиции, включая пометку удалённой. Запрос совпадает с
+   * {@link TransactionChangeRepository#CHANGES_SQL}.
+   *
+   * @param after позиция последнего полученного клиентом изменения
+   * @param limit максимальное количество изменений
+   * @return Mono с изменениями в порядке позиции и позицией конца прочитанного журнала
+   */
+  public Mono<TransactionChangeLog> findChanges(TransactionChangeToken after, int limit) {
+    return client
+        .sql(TransactionChangeRepository.CHANGES_SQL)
+        .bind("afterXid", after.xid())
+        .bind("afterSeq", after.seq())
+        .bind("afterId", after.id())
+        .bind("limit", limit)
+        .map(
+            row -> {
+              long horizon = Long.parseLong(row.get("horizon", String.class));
+              TransactionChangeLog.Entry entry = null;
+              if (row.get("id") != null) {
+                entry =
+                    new TransactionChangeLog.Entry(
+                        toEntity(row),
+                        new TransactionChangeToken(
+                            Long.parseLong(row.get("position_xid", String.class)),
+                            row.get("position_seq", Long.class),
+                            row.get("id", UUID.class)));
+              }
+              return new ChangeRow(horizon, entry);
+            })
+        .all()
+        .collectList()
+        .map(
+            rows ->
+                new TransactionChangeLog(
+                    rows.stream().map(ChangeRow::entry).filter(Objects::nonNull).toList(),
+                    TransactionChangeToken.horizon(rows.get(0).horizon())));
+  }
+
+  /**
+   * Меняет статус транзакций, чей текущий статус входит в допустимые, одним запросом. Запрос
+   * совпадает с {@link TransactionStatusRepository#UPDATE_STATUS_SQL}.
+   *
+   * @param ids идентификаторы транзакций без повторов
+   * @param status новый статус
+   * @param allowed статусы, из которых допустим переход
+   * @return Mono с результатом по каждой транзакции
+   */
+  public Mono<List<TransactionStatusRepository.StatusUpdate>> updateStatus(
+      Collection<UUID> ids, TransactionStatus status, Set<TransactionStatus> allowed) {
+    return client
+        .sql(TransactionStatusRepository.UPDATE_STATUS_SQL)
+        .bind("ids", ids.stream().map(UUID::toString).toArray(String[]::new))
+        .bind("status", status.name())
+        .bind("allowed", allowed.stream().map(Enum::name).toArray(String[]::new))
+        .map(
+            row ->
+                new TransactionStatusRepository.StatusUpdate(
+                    row.get("requested_id", UUID.class),
+                    enumValue(TransactionStatus.class, row.get("previous_status", String.class)),
+                    row.get("id") == null ? null : toEntity(row)))
+        .all()
+        .collectList();
+  }
+
+  /**
+   * Вставляет новую транзакцию. Идентификатор должен быть заполнен заранее.
+   *
+   * @param entity транзакция
+   * @return Mono с сохранённой транзакцией
+   */
+  public Mono<Transaction> insert(Transaction entity) {
+    return bindColumns(
+            client.sql(
+                "INSERT INTO transactions (" + COLUMNS + ") VALUES " + valuesRow("")),
+            entity)
+        .then()
+        .thenReturn(entity);
+  }
+
+  /**
+   * Вставляет транзакции многострочным запросом {@code TransactionBatchRepository#insertSql}.
+   * Строки, чей идентификатор уже занят в любой секции, пропускаются. Количество строк не должно
+   * превышать {@code TransactionBatchRepository#MAX_ROWS_PER_STATEMENT}.
+   *
+   * @param entities транзакции с заполненными идентификаторами
+   * @return поток идентификаторов вставленных транзакций
+   */
+  public Flux<UUID> insertAll(List<Transaction> entities) {
+    if (entities.isEmpty()) {
+      return Flux.empty();
+    }
+    List<String> rows = new ArrayList<>(entities.size());
+    for (int i = 0; i < entities.size(); i++) {
+      rows.add(valuesRow(Integer.toString(i)));
+    }
+    DatabaseClient.GenericExecuteSpec spec =
+        client.sql(TransactionBatchRepository.insertSql(String.join(", ", rows)));
+    for (int i = 0; i < entities.size(); i++) {
+      spec = bindColumns(spec, entities.get(i), Integer.toString(i));
+    }
+    return spec.map(row -> row.get("id", UUID.class)).all();
+  }
+
+  /**
+   * Перезаписывает все поля существующей транзакции.
+   *
+   * @param entity транзакция
+   * @return Mono с сохранённой транзакцией
+   */
+  public Mono<Transaction> update(Transaction entity) {
+    return bindColumns(
+            client.sql(
+                "UPDATE transactions SET person_type = :personType,"
+                    + " operation_date = :operationDate, transaction_type = :transactionType,"
+                    + " comment = :comment, amount = :amount, status = :status,"
+                    + " sender_bank = :senderBank, account = :account,"
+                    + " receiver_bank = :receiverBank, receiver_inn = :receiverInn,"
+                    + " receiver_account = :receiverAccount, category = :category,"
+                    + " receiver_phone = :receiverPhone WHERE id = :id"),
+            entity)
+        .then()
+        .thenReturn(entity);
+  }
+
+  /**
+   * Строит условие WHERE для поиска. Запись со статусом DELETED никогда не попадает в выборку.
+   *
+   * @param filter фильтр поиска
+   * @param after позиция последней выданной записи, может быть {@code null}
+   * @return текст условия и значения именованных параметров
+   * @throws ValidationException если тип или статус транзакции неизвестны
+   */
+  static Criteria where(TransactionFilterDto filter, TransactionCursor after) {
+    List<String> conditions = new ArrayList<>();
+    Map<String, Object> params = new LinkedHashMap<>();
+    addCondition(
+        conditions, params, "sender_bank = :senderBank", "senderBank", filter.getSenderBank());
+    addCondition(
+        conditions,
+        params,
+        "receiver_bank = :receiverBank",
+        "receiverBank",
+        filter.getReceiverBank());
+    addCondition(
+        conditions, params, "operation_date >= :dateFrom", "dateFrom", filter.getDateFrom());
+    addCondition(conditions, params, "operation_date <= :dateTo", "dateTo", filter.getDateTo());
+    if (filter.getTransactionType() != null) {
+      addCondition(
+          conditions,
+          params,
+          "transaction_type = :transactionType",
+          "transactionType",
+          TransactionSpecification.parse(
+                  TransactionType.class, filter.getTransactionType(), "transactionType")
+              .name());
+    }
+    if (filter.getStatus() != null) {
+      addCondition(
+          conditions,
+          params,
+          "status = :status",
+          "status",
+          TransactionSpecification.parse(TransactionStatus.class, filter.getStatus(), "status")
+              .name());
+    }
+    addCondition(conditions, params, "category = :category", "category", filter.getCategory());
+    addCondition(conditions, params, "amount >= :amountMin", "amountMin", filter.getAmountMin());
+    addCondition(conditions, params, "amount <= :amountMax", "amountMax", filter.getAmountMax());
+    conditions.add("status <> 'DELETED'");
+    if (after != null) {
+      conditions.add(
+          "operation_date <= :afterDate AND (operation_date < :afterDate OR id < :afterId)");
+      params.put("afterDate", after.operationDate());
+      params.put("afterId", after.id());
+    }
+    return new Criteria(" WHERE " + String.join(" AND ", conditions), params);
+  }
+
+  /**
+   * Условие WHERE с именованными параметрами.
+   *
+   * @param sql текст условия, начинающийся с пробела
+   * @param params значения параметров по именам
+   */
+  record Criteria(String sql, Map<String, Object> params) {}
+
+  /**
+   * Строка запроса журнала изменений.
+   *
+   * @param horizon xmin снимка, в котором читался журнал
+   * @param entry изменение или {@code null}, если изменений нет
+   */
+  private record ChangeRow(long horizon, TransactionChangeLog.Entry entry) {}
+
+  private static void addCondition(
+      List<String> conditions, Map<String, Object> params, String sql, String name, Object value) {
+    if (value != null) {
+      conditions.add(sql);
+      params.put(name, value);
+    }
+  }
+
+  private static DatabaseClient.GenericExecuteSpec bindColumns(
+      DatabaseClient.GenericExecuteSpec spec, Transaction entity) {
+    return bindColumns(spec, entity, "");
+  }
+
+  /**
+   * Привязывает значения полей транзакции к параметрам с именами вида {@code :amount<suffix>}.
+   */
+  private static DatabaseClient.GenericExecuteSpec bindColumns(
+      DatabaseClient.GenericExecuteSpec spec, Transaction entity, String suffix) {
+    spec = spec.bind("id" + suffix, entity.getId());
+    spec = bindNullable(spec, "personType" + suffix, name(entity.getPersonType()), String.class);
+    spec = spec.bind("operationDate" + suffix, entity.getOperationDate());
+    spec =
+        bindNullable(
+            spec, "transactionType" + suffix, name(entity.getTransactionType()), String.class);
+    spec = bindNullable(spec, "comment" + suffix, entity.getComment(), String.class);
+    spec = spec.bind("amount" + suffix, entity.getAmount());
+    spec = bindNullable(spec, "status" + suffix, name(entity.getStatus()), String.class);
+    spec = bindNullable(spec, "senderBank" + suffix, entity.getSenderBank(), String.class);
+    spec = bindNullable(spec, "account" + suffix, entity.getAccount(), String.class);
+    spec = bindNullable(spec, "receiverBank" + suffix, entity.getReceiverBank(), String.class);
+    spec = bindNullable(spec, "receiverInn" + suffix, entity.getReceiverInn(), String.class);
+    spec =
+        bindNullable(spec, "receiverAccount" + suffix, entity.getReceiverAccount(), String.class);
+    spec = bindNullable(spec, "category" + suffix, entity.getCategory(), String.class);
+    return bindNullable(spec, "receiverPhone" + suffix, entity.getReceiverPhone(), String.class);
+  }
+
+  /** Строит список параметров одной строки VALUES для {@link #bindColumns}. */
+  static String valuesRow(String suffix) {
+    return String.format(
+        "(CAST(:id%1$s AS uuid), :personType%1$s, CAST(:operationDate%1$s AS timestamp),"
+            + " :transactionType%1$s, :comment%1$s, CAST(:amount%1$s AS double precision),"
+            + " :status%1$s, :senderBank%1$s, :account%1$s, :receiverBank%1$s, :receiverInn%1$s,"
+            + " :receiverAccount%1$s, :category%1$s, :receiverPhone%1$s)",
+        suffix);
+  }
+
+  private static <T> DatabaseClient.GenericExecuteSpec bindNullable(
+      DatabaseClient.GenericExecuteSpec spec, String name, T value, Class<T> type) {
+    return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+  }
+
+  private static String name(Enum<?> value) {
+    return value == null ? null : value.name();
+  }
+
+  private static Transaction toEntity(Readable row) {
+    Transaction entity = new Transaction();
+    entity.setId(row.get("id", UUID.class));
+    entity.setPersonType(enumValue(PersonType.class, row.get("person_type", String.class)));
+    entity.setOperationDate(row.get("operation_date", LocalDateTime.class));
+    entity.setTransactionType(
+        enumValue(TransactionType.class, row.get("transaction_type", String.class)));
+    entity.setComment(row.get("comment", String.class));
+    entity.setAmount(toBigDecimal(row.get("amount")));
+    entity.setStatus(enumValue(TransactionStatus.class, row.get("status", String.class)));
+    entity.setSenderBank(row.get("sender_bank", String.class));
+    entity.setAccount(row.get("account", String.class));
+    entity.setReceiverBank(row.get("receiver_bank", String.class));
+    entity.setReceiverInn(row.get("receiver_inn", String.class));
+    entity.setReceiverAccount(row.get("receiver_account", String.class));
+    entity.setCategory(row.get("category", String.class));
+    entity.setReceiverPhone(row.get("receiver_phone", String.class));
+    return entity;
+  }
+
+  /**
+   * Приводит сумму к {@link BigDecimal}. Значения DOUBLE PRECISION переводятся через десятичную
+   * запись, как это делает Hibernate: иначе 123.45 превратилось бы в 123.4500000000000028...
+   */
+  private static BigDecimal toBigDecimal(Object value) {
+    if (value == null || value instanceof BigDecimal) {
+      return (BigDecimal) value;
+    }
+    return new BigDecimal(value.toString());
+  }
+
+  private static <E extends Enum<E>> E enumValue(Class<E> type, String value) {
+    return value == null ? null : Enum.valueOf(type, value);
+  }
+}
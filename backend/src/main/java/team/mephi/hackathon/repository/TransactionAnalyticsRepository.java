@@ -0,0 +1,194 @@
+package team.mephi.hackathon.repository;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import team.mephi.hackathon.dto.AnalyticsBucketDto;
+import team.mephi.hackathon.dto.AnalyticsDimension;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+
+/**
+ * Агрегаты транзакций для аналитики. Группы по нескольким признакам считаются одним запросом с
+ * {@code GROUPING SETS}: таблица читается один раз, а клиенту передаются только итоги групп. Если
+ * фильтр не требует отдельных транзакций, запрос читает дневные итоги {@code
+ * transaction_daily_rollup} вместо самой таблицы.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionAnalyticsRepository {
+  /** Сборка списка столбцов или наборов группировки через запятую. */
+  private static final Collector<CharSequence, ?, String> LIST = Collectors.joining(", ");
+
+  /** Последний момент дня с точностью хранения {@code operation_date}. */
+  private static final LocalTime END_OF_DAY = LocalTime.MAX.withNano(999_999_000);
+
+  /** Доступ к БД. Инжектируется через конструктор. */
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  /**
+   * Считает количество и сумму не удалённых транзакций, удовлетворяющих фильтру, по каждому
+   * признаку отдельно. Значения перечислений в фильтре должны быть проверены заранее.
+   *
+   * @param filter критерии отбора транзакций; курсор и размер страницы не учитываются
+   * @param dimensions признаки группировки
+   * @return группы по каждому признаку в порядке значения признака
+   */
+  public Map<AnalyticsDimension, List<AnalyticsBucketDto>> aggregate(
+      TransactionFilterDto filter, Set<AnalyticsDimension> dimensions) {
+    List<AnalyticsDimension> keys = List.copyOf(dimensions);
+    boolean rollup = fitsRollup(filter);
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    String columns = keys.stream().map(TransactionAnalyticsRepository::column).collect(LIST);
+    String totals =
+        rollup
+            ? "sum(tx_count) AS count, round(sum(amount_sum), 2) AS amount"
+            : "count(*) AS count, round(sum(amount)::numeric, 2) AS amount";
+    String source =
+        rollup
+            ? "tx_count, amount_sum FROM transaction_daily_rollup WHERE "
+                + rollupWhere(filter, params)
+            : "amount FROM transactions WHERE " + where(filter, params);
+    String sql =
+        "SELECT "
+            + columns
+            + ", GROUPING("
+            + columns
+            + ") AS grouping_id, "
+            + totals
+            + " FROM (SELECT "
+            + keys.stream().map(d -> expression(d, rollup) + " AS " + column(d)).collect(LIST)
+            + ", "
+            + source
+            + ") t GROUP BY GROUPING SETS ("
+            + keys.stream().map(d -> "(" + column(d) + ")").collect(LIST)
+            + ") ORDER BY grouping_id, "
+            + columns;
+
+    Map<AnalyticsDimension, List<AnalyticsBucketDto>> groups =
+        new EnumMap<>(AnalyticsDimension.class);
+    keys.forEach(dimension -> groups.put(dimension, new ArrayList<>()));
+    RowCallbackHandler collect =
+        rs -> {
+          // Бит признака в GROUPING сброшен, если строка сгруппирована по нему
+          int grouping = rs.getInt("grouping_id");
+          for (int i = 0; i < keys.size(); i++) {
+            if ((grouping & (1 << (keys.size() - 1 - i))) == 0) {
+              groups
+                  .get(keys.get(i))
+                  .add(
+                      new AnalyticsBucketDto(
+                          rs.getString(i + 1), rs.getLong("count"), rs.getBigDecimal("amount")));
+              break;
+            }
+          }
+        };
+    jdbcTemplate.query(sql, params, collect);
+    return groups;
+  }
+
+  /**
+   * Строит условие отбора по фильтру. Удалённые транзакции исключаются литералом, чтобы условие
+   * совпадало с предикатом частичных индексов.
+   */
+  private static String where(TransactionFilterDto filter, MapSqlParameterSource params) {
+    StringBuilder where = new StringBuilder("status <> 'DELETED'");
+    attributes(where, params, filter);
+    condition(where, params, "operation_date >= :dateFrom", "dateFrom", filter.getDateFrom());
+    condition(where, params, "operation_date <= :dateTo", "dateTo", filter.getDateTo());
+    condition(where, params, "amount >= :amountMin", "amountMin", filter.getAmountMin());
+    condition(where, params, "amount <= :amountMax", "amountMax", filter.getAmountMax());
+    return where.toString();
+  }
+
+  /**
+   * Проверяет, можно ли посчитать агрегаты по дневным итогам: фильтр не должен отбирать по сумме
+   * и делить дни. Границы периода допускаются только на начало и конец дня; конец дня сравнивается
+   * с точностью хранения {@code operation_date}.
+   */
+  private static boolean fitsRollup(TransactionFilterDto filter) {
+    return filter.getAmountMin() == null
+        && filter.getAmountMax() == null
+        && (filter.getDateFrom() == null
+            || filter.getDateFrom().toLocalTime().equals(LocalTime.MIDNIGHT))
+        && (filter.getDateTo() == null || !filter.getDateTo().toLocalTime().isBefore(END_OF_DAY));
+  }
+
+  /**
+   * Строит условие отбора дневных итогов. Итоги хранят пустую строку вместо {@code NULL}, поэтому
+   * группы без статуса исключаются так же, как сравнение с {@code NULL} исключает их в {@link
+   * #where}. Строки с нулевым количеством остаются после удаления транзакций и не учитываются.
+   */
+  private static String rollupWhere(TransactionFilterDto filter, MapSqlParameterSource params) {
+    StringBuilder where = new StringBuilder("status NOT IN ('', 'DELETED') AND tx_count <> 0");
+    attributes(where, params, filter);
+    if (filter.getDateFrom() != null) {
+      condition(where, params, "day >= :dateFrom", "dateFrom", filter.getDateFrom().toLocalDate());
+    }
+    if (filter.getDateTo() != null) {
+      condition(where, params, "day <= :dateTo", "dateTo", filter.getDateTo().toLocalDate());
+    }
+    return where.toString();
+  }
+
+  /** Добавляет условия на признаки, общие для таблицы транзакций и дневных итогов. */
+  private static void attributes(
+      StringBuilder where, MapSqlParameterSource params, TransactionFilterDto filter) {
+    condition(where, params, "sender_bank = :senderBank", "senderBank", filter.getSenderBank());
+    condition(
+        where, params, "receiver_bank = :receiverBank", "receiverBank", filter.getReceiverBank());
+    condition(where, params, "category = :category", "category", filter.getCategory());
+    condition(
+        where,
+        params,
+        "transaction_type = :transactionType",
+        "transactionType",
+        filter.getTransactionType());
+    condition(where, params, "status = :status", "status", filter.getStatus());
+  }
+
+  private static void condition(
+      StringBuilder where, MapSqlParameterSource params, String sql, String name, Object value) {
+    if (value != null) {
+      where.append(" AND ").append(sql);
+      params.addValue(name, value);
+    }
+  }
+
+  /**
+   * Выражение значения признака над строкой {@code transactions} или дневных итогов. В итогах
+   * отсутствующее значение хранится пустой строкой и возвращается как {@code NULL}.
+   */
+  private static String expression(AnalyticsDimension dimension, boolean rollup) {
+    String date = rollup ? "day::timestamp" : "operation_date";
+    return switch (dimension) {
+      case WEEK -> "to_char(" + date + ", 'IYYY-\"W\"IW')";
+      case MONTH -> "to_char(" + date + ", 'YYYY-MM')";
+      case QUARTER -> "to_char(" + date + ", 'YYYY-\"Q\"Q')";
+      case YEAR -> "to_char(" + date + ", 'YYYY')";
+      case TYPE -> nullable("transaction_type", rollup);
+      case SENDER_BANK -> nullable("sender_bank", rollup);
+      case RECEIVER_BANK -> nullable("receiver_bank", rollup);
+      case CATEGORY -> nullable("category", rollup);
+    };
+  }
+
+  private static String nullable(String column, boolean rollup) {
+    return rollup ? "nullif(" + column + ", '')" : column;
+  }
+
+  /** Имя столбца признака в подзапросе. */
+  private static String column(AnalyticsDimension dimension) {
+    return "key_" + dimension.name().toLowerCase(Locale.ROOT);
+  }
+}
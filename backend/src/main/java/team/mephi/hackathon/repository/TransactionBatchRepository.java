@@ -0,0 +1,117 @@
+package team.mephi.hackathon.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import team.mephi.hackathon.entity.Transaction;
+
+/**
+ * Пакетная вставка транзакций через JDBC. Вместо отдельного запроса на каждую запись строки
+ * вставляются многострочным {@code INSERT ... VALUES (...), (...)}; идентификаторы должны быть
+ * назначены заранее.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionBatchRepository {
+  /** Список столбцов таблицы в порядке вставки. */
+  static final String COLUMNS =
+      "id, person_type, operation_date, transaction_type, comment, amount, status, sender_bank,"
+          + " account, receiver_bank, receiver_inn, receiver_account, category, receiver_phone";
+
+  /** Количество столбцов, то есть параметров на одну строку. */
+  private static final int COLUMN_COUNT = 14;
+
+  /**
+   * Максимум строк в одном запросе: PostgreSQL допускает не более 32767 параметров в запросе.
+   */
+  static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+  /**
+   * Параметры одной строки VALUES. Строки вставляются из подзапроса, где тип параметра не выводится
+   * из столбца таблицы, поэтому дата, сумма и идентификатор приводятся явно.
+   */
+  private static final String ROW_PLACEHOLDERS =
+      "(CAST(? AS uuid), ?, CAST(? AS timestamp), ?, ?, CAST(? AS double precision), "
+          + String.join(", ", Collections.nCopies(COLUMN_COUNT - 6, "?"))
+          + ")";
+
+  /** Доступ к БД. Инжектируется через конструктор. */
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Вставляет транзакции. Каждый запрос атомарен: при ошибке не сохраняется ни одна строка
+   * запроса. Строки, чей идентификатор уже занят в любой секции, пропускаются и не попадают в
+   * результат.
+   *
+   * @param entities транзакции с заполненными идентификаторами
+   * @return идентификаторы вставленных транзакций
+   */
+  public List<UUID> insertAll(List<Transaction> entities) {
+    List<UUID> inserted = new ArrayList<>(entities.size());
+    for (int from = 0; from < entities.size(); from += MAX_ROWS_PER_STATEMENT) {
+      List<Transaction> chunk =
+          entities.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, entities.size()));
+      Object[] args = chunk.stream().flatMap(e -> values(e).stream()).toArray();
+      inserted.addAll(jdbcTemplate.queryForList(insertSql(chunk.size()), UUID.class, args));
+    }
+    return inserted;
+  }
+
+  /**
+   * Строит многострочный запрос вставки.
+   *
+   * @param rows количество строк
+   * @return текст запроса
+   */
+  static String insertSql(int rows) {
+    return insertSql(String.join(", ", Collections.nCopies(rows, ROW_PLACEHOLDERS)));
+  }
+
+  /**
+   * Строит запрос вставки строк VALUES. Первичный ключ секционированной таблицы включает дату
+   * операции, поэтому {@code ON CONFLICT} не видит строку с тем же id в другой секции: занятые
+   * идентификаторы проверяются по {@code transaction_ids} (миграция V3).
+   *
+   * @param values строки VALUES через запятую
+   * @return текст запроса
+   */
+  static String insertSql(String values) {
+    return "INSERT INTO transactions ("
+        + COLUMNS
+        + ") SELECT "
+        + COLUMNS
+        + " FROM (VALUES "
+        + values
+        + ") AS v ("
+        + COLUMNS
+        + ") WHERE NOT EXISTS (SELECT 1 FROM transaction_ids i WHERE i.id = v.id)"
+        + " ON CONFLICT DO NOTHING RETURNING id";
+  }
+
+  private static List<Object> values(Transaction entity) {
+    List<Object> values = new ArrayList<>(COLUMN_COUNT);
+    values.add(entity.getId());
+    values.add(name(entity.getPersonType()));
+    values.add(entity.getOperationDate());
+    values.add(name(entity.getTransactionType()));
+    values.add(entity.getComment());
+    values.add(entity.getAmount());
+    values.add(name(entity.getStatus()));
+    values.add(entity.getSenderBank());
+    values.add(entity.getAccount());
+    values.add(entity.getReceiverBank());
+    values.add(entity.getReceiverInn());
+    values.add(entity.getReceiverAccount());
+    values.add(entity.getCategory());
+    values.add(entity.getReceiverPhone());
+    return values;
+  }
+
+  private static String name(Enum<?> value) {
+    return value == null ? null : value.name();
+  }
+}
@@ -0,0 +1,22 @@
+package team.mephi.hackathon.repository;
+
+import java.util.List;
+import team.mephi.hackathon.dto.TransactionChangeToken;
+import team.mephi.hackathon.entity.Transaction;
+
+/**
+ * Часть журнала изменений транзакций после позиции клиента.
+ *
+ * @param entries изменённые транзакции в порядке изменения
+ * @param end позиция, до которой журнал прочитан полностью, если записей меньше запрошенного
+ *     количества
+ */
+public record TransactionChangeLog(List<Entry> entries, TransactionChangeToken end) {
+  /**
+   * Изменённая транзакция.
+   *
+   * @param transaction транзакция после изменения
+   * @param position позиция изменения в журнале
+   */
+  public record Entry(Transaction transaction, TransactionChangeToken position) {}
+}
@@ -0,0 +1,34 @@
+package team.mephi.hackathon.repository;
+
+import team.mephi.hackathon.dto.TransactionChangeToken;
+
+/**
+ * Чтение журнала изменений транзакций для синхронизации клиентов. Журнал — сами строки {@code
+ * transactions}, упорядоченные по позиции изменения, которую заполняет БД при каждой записи.
+ */
+public interface TransactionChangeRepository {
+  /**
+   * Запрос журнала. Выбирает изменения после позиции только из завершённых транзакций БД (номер
+   * меньше xmin снимка): изменение, которое станет видно позже, всегда окажется после выданных.
+   * Первая строка результата содержит xmin снимка даже при отсутствии изменений.
+   */
+  String CHANGES_SQL =
+      "SELECT h.horizon::text AS horizon, c.* FROM"
+          + " (SELECT pg_snapshot_xmin(pg_current_snapshot()) AS horizon) h"
+          + " LEFT JOIN LATERAL (SELECT "
+          + TransactionRows.COLUMNS
+          + ", change_xid::text AS position_xid, change_seq AS position_seq FROM transactions"
+          + " WHERE (change_xid, change_seq, id)"
+          + " > (CAST(CAST(:afterXid AS text) AS xid8), :afterSeq, :afterId)"
+          + " AND change_xid < h.horizon"
+          + " ORDER BY change_xid, change_seq, id LIMIT :limit) c ON true";
+
+  /**
+   * Читает изменения транзакций после позиции, включая пометку удалённой.
+   *
+   * @param after позиция последнего полученного клиентом изменения
+   * @param limit максимальное количество изменений
+   * @return изменения в порядке позиции и позиция конца прочитанного журнала
+   */
+  TransactionChangeLog findChanges(TransactionChangeToken after, int limit);
+}
@@ -0,0 +1,49 @@
+package team.mephi.hackathon.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import team.mephi.hackathon.dto.TransactionChangeToken;
+
+/**
+ * Реализация {@link TransactionChangeRepository} через JDBC: позиция изменения не отображается в
+ * сущность, а номер транзакции БД имеет тип {@code xid8}, которого нет в JPA.
+ */
+@RequiredArgsConstructor
+class TransactionChangeRepositoryImpl implements TransactionChangeRepository {
+  /** Доступ к БД с именованными параметрами. Инжектируется через конструктор. */
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Override
+  public TransactionChangeLog findChanges(TransactionChangeToken after, int limit) {
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("afterXid", after.xid())
+            .addValue("afterSeq", after.seq())
+            .addValue("afterId", after.id())
+            .addValue("limit", limit);
+    return jdbcTemplate.query(
+        CHANGES_SQL,
+        params,
+        rs -> {
+          List<TransactionChangeLog.Entry> entries = new ArrayList<>();
+          long horizon = 0;
+          while (rs.next()) {
+            horizon = Long.parseLong(rs.getString("horizon"));
+            if (rs.getObject("id") != null) {
+              entries.add(
+                  new TransactionChangeLog.Entry(
+                      TransactionRows.toEntity(rs),
+                      new TransactionChangeToken(
+                          Long.parseLong(rs.getString("position_xid")),
+                          rs.getLong("position_seq"),
+                          rs.getObject("id", UUID.class))));
+            }
+          }
+          return new TransactionChangeLog(entries, TransactionChangeToken.horizon(horizon));
+        });
+  }
+}
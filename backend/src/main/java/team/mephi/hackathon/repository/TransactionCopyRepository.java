@@ -0,0 +1,95 @@
+package team.mephi.hackathon.repository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import javax.sql.DataSource;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Массовая загрузка транзакций через протокол {@code COPY}. Строки копируются в отдельную
+ * нежурналируемую (UNLOGGED) промежуточную таблицу и переносятся в {@code transactions} одним
+ * запросом: вставка не пишет WAL для промежуточных данных и не проверяет ключи построчно.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionCopyRepository {
+  /** Размер буфера потока {@code COPY}, байт. */
+  private static final int COPY_BUFFER_SIZE = 1 << 16;
+
+  /** Источник соединений с БД. Инжектируется через конструктор. */
+  private final DataSource dataSource;
+
+  /** Источник строк для {@code COPY}. */
+  @FunctionalInterface
+  public interface CopySource {
+    /**
+     * Записывает строки в формате CSV со столбцами {@link TransactionBatchRepository#COLUMNS}.
+     * Пустое значение без кавычек означает {@code NULL}.
+     *
+     * @param out поток {@code COPY}
+     * @throws IOException если запись не удалась; загрузка при этом отменяется
+     */
+    void writeTo(Writer out) throws IOException;
+  }
+
+  /**
+   * Копирует строки в промежуточную таблицу и переносит их в {@code transactions}. Строки, чей
+   * идентификатор уже занят в любой секции, пропускаются; из строк файла с одинаковым
+   * идентификатором вставляется первая. Если источник завершился ошибкой, в {@code transactions}
+   * не попадает ни одна строка.
+   *
+   * @param source источник строк
+   * @return количество вставленных транзакций
+   * @throws IOException если источник завершился ошибкой
+   * @throws SQLException если БД отклонила данные
+   */
+  public long copyAndMerge(CopySource source) throws IOException, SQLException {
+    String staging = "transactions_import_" + UUID.randomUUID().toString().replace("-", "");
+    try (Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.execute(
+          "CREATE UNLOGGED TABLE " + staging + " (LIKE transactions INCLUDING DEFAULTS)");
+      try {
+        PGCopyOutputStream copy =
+            new PGCopyOutputStream(
+                connection.unwrap(PGConnection.class),
+                "COPY " + staging + " (" + TransactionBatchRepository.COLUMNS + ") FROM STDIN"
+                    + " WITH (FORMAT csv)",
+                COPY_BUFFER_SIZE);
+        Writer out = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8));
+        try {
+          source.writeTo(out);
+          // Закрытие потока завершает COPY
+          out.close();
+        } catch (IOException | RuntimeException e) {
+          if (copy.isActive()) {
+            copy.cancelCopy();
+          }
+          throw e;
+        }
+        // Занятые идентификаторы проверяются по transaction_ids: ключ таблицы включает дату
+        return statement.executeLargeUpdate(
+            "INSERT INTO transactions ("
+                + TransactionBatchRepository.COLUMNS
+                + ") SELECT DISTINCT ON (s.id) "
+                + TransactionBatchRepository.COLUMNS
+                + " FROM "
+                + staging
+                + " s WHERE NOT EXISTS (SELECT 1 FROM transaction_ids i WHERE i.id = s.id)"
+                + " ORDER BY s.id, s.ctid ON CONFLICT DO NOTHING");
+      } finally {
+        statement.execute("DROP TABLE IF EXISTS " + staging);
+      }
+    }
+  }
+}
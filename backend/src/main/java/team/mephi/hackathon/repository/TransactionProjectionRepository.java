@@ -0,0 +1,58 @@
+package team.mephi.hackathon.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.springframework.data.jpa.domain.Specification;
+import team.mephi.hackathon.dto.TransactionCursor;
+import team.mephi.hackathon.dto.TransactionResponseDto;
+import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.specification.TransactionSpecification;
+
+/**
+ * Запросы чтения транзакций, возвращающие {@link TransactionResponseDto} напрямую. Сущности не
+ * загружаются в контекст персистентности: нет снимков для проверки изменений и промежуточного
+ * преобразования сущности в DTO.
+ */
+public interface TransactionProjectionRepository {
+  /**
+   * Возвращает транзакцию по идентификатору.
+   *
+   * @param id идентификатор транзакции
+   * @return транзакция или пустое значение, если она не найдена
+   */
+  Optional<TransactionResponseDto> findResponseById(UUID id);
+
+  /**
+   * Возвращает страницу транзакций, идущих после курсора, без OFFSET и подсчёта общего количества.
+   *
+   * @param specification условия фильтрации
+   * @param after позиция последней записи предыдущей страницы, {@code null} для первой страницы
+   * @param limit максимальное количество записей
+   * @return транзакции в порядке {@link TransactionSpecification#KEYSET_SORT}
+   */
+  List<TransactionResponseDto> findResponsePage(
+      Specification<Transaction> specification, TransactionCursor after, int limit);
+
+  /**
+   * Возвращает позиции транзакций, идущих после курсора, без чтения остальных столбцов.
+   *
+   * @param specification условия фильтрации
+   * @param after позиция последней записи предыдущей порции, {@code null} для первой порции
+   * @param limit максимальное количество записей
+   * @return позиции транзакций в порядке {@link TransactionSpecification#KEYSET_SORT}
+   */
+  List<TransactionCursor> findPositions(
+      Specification<Transaction> specification, TransactionCursor after, int limit);
+
+  /**
+   * Читает все транзакции, удовлетворяющие условиям, через курсор БД. В памяти одновременно
+   * находится не более одной порции строк, поэтому объём выборки не ограничен. Должен вызываться
+   * внутри транзакции; поток необходимо закрыть после чтения.
+   *
+   * @param specification условия фильтрации
+   * @return транзакции в порядке {@link TransactionSpecification#KEYSET_SORT}
+   */
+  Stream<TransactionResponseDto> streamResponses(Specification<Transaction> specification);
+}
@@ -0,0 +1,121 @@
+package team.mephi.hackathon.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import team.mephi.hackathon.dto.TransactionCursor;
+import team.mephi.hackathon.dto.TransactionResponseDto;
+import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.specification.TransactionSpecification;
+
+/**
+ * Реализация {@link TransactionProjectionRepository} на Criteria API. Запросы выбирают только
+ * столбцы ответа и создают DTO конструктором {@link TransactionResponseDto}.
+ */
+@RequiredArgsConstructor
+class TransactionProjectionRepositoryImpl implements TransactionProjectionRepository {
+  /** Количество строк, получаемых из курсора БД за одно обращение. */
+  static final int STREAM_FETCH_SIZE = 1000;
+
+  /** Менеджер сущностей текущей транзакции. Инжектируется через конструктор. */
+  private final EntityManager entityManager;
+
+  @Override
+  public Optional<TransactionResponseDto> findResponseById(UUID id) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<TransactionResponseDto> query = cb.createQuery(TransactionResponseDto.class);
+    Root<Transaction> root = query.from(Transaction.class);
+    query.select(construct(cb, root)).where(cb.equal(root.get("id"), id));
+    return entityManager.createQuery(query).getResultStream().findFirst();
+  }
+
+  @Override
+  public List<TransactionResponseDto> findResponsePage(
+      Specification<Transaction> specification, TransactionCursor after, int limit) {
+    Specification<Transaction> page =
+        specification.and(TransactionSpecification.isAfterCursor(after));
+    return entityManager.createQuery(orderedQuery(page)).setMaxResults(limit).getResultList();
+  }
+
+  @Override
+  public List<TransactionCursor> findPositions(
+      Specification<Transaction> specification, TransactionCursor after, int limit) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<TransactionCursor> query = cb.createQuery(TransactionCursor.class);
+    Root<Transaction> root = query.from(Transaction.class);
+    Predicate predicate =
+        specification
+            .and(TransactionSpecification.isAfterCursor(after))
+            .toPredicate(root, query, cb);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    query
+        .select(cb.construct(TransactionCursor.class, root.get("operationDate"), root.get("id")))
+        .orderBy(QueryUtils.toOrders(TransactionSpecification.KEYSET_SORT, root, cb));
+    return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+  }
+
+  @Override
+  public Stream<TransactionResponseDto> streamResponses(Specification<Transaction> specification) {
+    return entityManager
+        .createQuery(orderedQuery(specification))
+        .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+        .getResultStream();
+  }
+
+  /**
+   * Строит запрос DTO по условиям в порядке {@link TransactionSpecification#KEYSET_SORT}.
+   *
+   * @param specification условия фильтрации
+   * @return запрос Criteria API
+   */
+  private CriteriaQuery<TransactionResponseDto> orderedQuery(
+      Specification<Transaction> specification) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<TransactionResponseDto> query = cb.createQuery(TransactionResponseDto.class);
+    Root<Transaction> root = query.from(Transaction.class);
+    Predicate predicate = specification.toPredicate(root, query, cb);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    return query
+        .select(construct(cb, root))
+        .orderBy(QueryUtils.toOrders(TransactionSpecification.KEYSET_SORT, root, cb));
+  }
+
+  /**
+   * Выражение конструктора DTO. Порядок аргументов совпадает с параметрами конструктора {@link
+   * TransactionResponseDto}.
+   */
+  private static CompoundSelection<TransactionResponseDto> construct(
+      CriteriaBuilder cb, Root<Transaction> root) {
+    return cb.construct(
+        TransactionResponseDto.class,
+        root.get("id"),
+        root.get("personType"),
+        root.get("operationDate"),
+        root.get("transactionType"),
+        root.get("comment"),
+        root.get("amount"),
+        root.get("status"),
+        root.get("senderBank"),
+        root.get("account"),
+        root.get("receiverBank"),
+        root.get("receiverInn"),
+        root.get("receiverAccount"),
+        root.get("category"),
+        root.get("receiverPhone"));
+  }
+}
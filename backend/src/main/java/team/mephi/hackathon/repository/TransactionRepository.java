@@ -3,18 +3,43 @@ package team.mephi.hackathon.repository;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.specification.TransactionSpecification;
 
 @Repository
 public interface TransactionRepository
-    extends JpaRepository<Transaction, UUID>, JpaSpecificationExecutor<Transaction> {
+    extends JpaRepository<Transaction, UUID>,
+        JpaSpecificationExecutor<Transaction>,
+        TransactionProjectionRepository,
+        TransactionStreamRepository,
+        TransactionChangeRepository,
+        TransactionStatusRepository {
 
+  /**
+   * Загружает все активные транзакции в память и в контекст персистентности.
+   *
+   * @return активные транзакции
+   * @deprecated объём результата не ограничен; для массового чтения используйте {@link
+   *     #streamActive()}
+   */
+  @Deprecated
   @Query("SELECT t FROM Transaction t WHERE t.status <> 'DELETED'")
   List<Transaction> findAllActive();
 
+  /**
+   * Читает все активные транзакции через курсор БД, не удерживая их в памяти. Должен вызываться
+   * внутри транзакции; поток необходимо закрыть после чтения.
+   *
+   * @return активные транзакции в порядке {@link TransactionSpecification#KEYSET_SORT}
+   */
+  default Stream<Transaction> streamActive() {
+    return streamAll(TransactionSpecification.isNotDeleted());
+  }
+
   Optional<Transaction> findById(UUID id);
 }
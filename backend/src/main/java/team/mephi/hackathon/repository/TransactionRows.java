@@ -0,0 +1,62 @@
+package team.mephi.hackathon.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import team.mephi.hackathon.entity.PersonType;
+import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.entity.TransactionStatus;
+import team.mephi.hackathon.entity.TransactionType;
+
+/** Чтение транзакций из результатов JDBC-запросов, выбирающих столбцы {@link #COLUMNS}. */
+final class TransactionRows {
+  /** Список столбцов таблицы, из которых собирается сущность. */
+  static final String COLUMNS = TransactionBatchRepository.COLUMNS;
+
+  private TransactionRows() {}
+
+  /**
+   * Список столбцов {@link #COLUMNS} с псевдонимом таблицы.
+   *
+   * @param alias псевдоним таблицы в запросе
+   * @return столбцы вида {@code alias.id, alias.person_type, ...}
+   */
+  static String columns(String alias) {
+    return Arrays.stream(COLUMNS.split(",\\s*"))
+        .map(column -> alias + "." + column)
+        .collect(Collectors.joining(", "));
+  }
+
+  /**
+   * Собирает сущность из текущей строки результата.
+   *
+   * @param rs результат запроса, установленный на строку
+   * @return отсоединённая транзакция
+   * @throws SQLException если столбец не удалось прочитать
+   */
+  static Transaction toEntity(ResultSet rs) throws SQLException {
+    Transaction entity = new Transaction();
+    entity.setId(rs.getObject("id", UUID.class));
+    entity.setPersonType(enumValue(PersonType.class, rs.getString("person_type")));
+    entity.setOperationDate(rs.getObject("operation_date", LocalDateTime.class));
+    entity.setTransactionType(enumValue(TransactionType.class, rs.getString("transaction_type")));
+    entity.setComment(rs.getString("comment"));
+    entity.setAmount(rs.getBigDecimal("amount"));
+    entity.setStatus(enumValue(TransactionStatus.class, rs.getString("status")));
+    entity.setSenderBank(rs.getString("sender_bank"));
+    entity.setAccount(rs.getString("account"));
+    entity.setReceiverBank(rs.getString("receiver_bank"));
+    entity.setReceiverInn(rs.getString("receiver_inn"));
+    entity.setReceiverAccount(rs.getString("receiver_account"));
+    entity.setCategory(rs.getString("category"));
+    entity.setReceiverPhone(rs.getString("receiver_phone"));
+    return entity;
+  }
+
+  static <E extends Enum<E>> E enumValue(Class<E> type, String value) {
+    return value == null ? null : Enum.valueOf(type, value);
+  }
+}
@@ -0,0 +1,48 @@
+package team.mephi.hackathon.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.entity.TransactionStatus;
+
+/** Массовая смена статуса транзакций одним условным запросом вместо чтения и записи каждой. */
+public interface TransactionStatusRepository {
+  /**
+   * Запрос смены статуса. Статус меняется только у транзакций с допустимым текущим статусом;
+   * для остальных запрос возвращает текущий статус. Соединение со снимком таблицы до изменения
+   * даёт прежний статус и для изменённых транзакций.
+   */
+  String UPDATE_STATUS_SQL =
+      "WITH requested AS (SELECT unnest(CAST(:ids AS uuid[])) AS id),"
+          + " changed AS (UPDATE transactions t SET status = :status FROM requested r"
+          + " WHERE t.id = r.id AND t.status = ANY(CAST(:allowed AS text[])) RETURNING t.*)"
+          + " SELECT r.id AS requested_id, p.status AS previous_status, "
+          + TransactionRows.columns("c")
+          + " FROM requested r"
+          + " LEFT JOIN transactions p ON p.id = r.id"
+          + " LEFT JOIN changed c ON c.id = r.id";
+
+  /**
+   * Результат смены статуса одной транзакции.
+   *
+   * @param id идентификатор транзакции
+   * @param previous статус до смены или {@code null}, если транзакция не найдена
+   * @param updated транзакция после смены или {@code null}, если статус не изменён
+   */
+  record StatusUpdate(UUID id, TransactionStatus previous, Transaction updated) {}
+
+  /**
+   * Меняет статус транзакций, чей текущий статус входит в допустимые, одним запросом. Запрос
+   * атомарен и блокирует только строки переданных транзакций; число идентификаторов ограничивает
+   * вызывающий.
+   *
+   * @param ids идентификаторы транзакций без повторов
+   * @param status новый статус
+   * @param allowed статусы, из которых допустим переход
+   * @return результат по каждой транзакции
+   */
+  List<StatusUpdate> updateStatus(
+      Collection<UUID> ids, TransactionStatus status, Set<TransactionStatus> allowed);
+}
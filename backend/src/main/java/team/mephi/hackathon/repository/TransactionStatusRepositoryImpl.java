@@ -0,0 +1,39 @@
+package team.mephi.hackathon.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import team.mephi.hackathon.entity.TransactionStatus;
+
+/**
+ * Реализация {@link TransactionStatusRepository} через JDBC: JPA выполняет массовое изменение без
+ * возврата изменённых строк и без прежних значений.
+ */
+@RequiredArgsConstructor
+class TransactionStatusRepositoryImpl implements TransactionStatusRepository {
+  /** Доступ к БД с именованными параметрами. Инжектируется через конструктор. */
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Override
+  public List<StatusUpdate> updateStatus(
+      Collection<UUID> ids, TransactionStatus status, Set<TransactionStatus> allowed) {
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("ids", ids.stream().map(UUID::toString).toArray(String[]::new))
+            .addValue("status", status.name())
+            .addValue("allowed", allowed.stream().map(Enum::name).toArray(String[]::new));
+    return jdbcTemplate.query(
+        UPDATE_STATUS_SQL,
+        params,
+        (rs, rowNum) ->
+            new StatusUpdate(
+                rs.getObject("requested_id", UUID.class),
+                TransactionRows.enumValue(
+                    TransactionStatus.class, rs.getString("previous_status")),
+                rs.getObject("id") == null ? null : TransactionRows.toEntity(rs)));
+  }
+}
@@ -0,0 +1,24 @@
+package team.mephi.hackathon.repository;
+
+import java.util.stream.Stream;
+import org.springframework.data.jpa.domain.Specification;
+import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.specification.TransactionSpecification;
+
+/**
+ * Потоковое чтение сущностей транзакций для массовой обработки: выгрузок, отчётов, аналитики.
+ * Сущности читаются через курсор БД сессией без состояния, поэтому не попадают в контекст
+ * персистентности и объём выборки ограничен только временем.
+ */
+public interface TransactionStreamRepository {
+  /**
+   * Читает все транзакции, удовлетворяющие условиям. Строки получаются из курсора порциями, а
+   * прочитанные сущности нигде не удерживаются и не отслеживаются на изменения. Должен вызываться
+   * внутри транзакции: курсор открывается на её JDBC-соединении. Поток необходимо закрыть после
+   * чтения.
+   *
+   * @param specification условия фильтрации
+   * @return отсоединённые транзакции в порядке {@link TransactionSpecification#KEYSET_SORT}
+   */
+  Stream<Transaction> streamAll(Specification<Transaction> specification);
+}
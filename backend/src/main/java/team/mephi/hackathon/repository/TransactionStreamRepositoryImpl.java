@@ -0,0 +1,60 @@
+package team.mephi.hackathon.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.sql.Connection;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.specification.TransactionSpecification;
+
+/**
+ * Реализация {@link TransactionStreamRepository} на сессии Hibernate без состояния. Сессия
+ * открывается на JDBC-соединении текущей транзакции: PostgreSQL отдаёт строки порциями только при
+ * выключенном autocommit, а чтение видит те же данные, что и остальные запросы транзакции.
+ */
+@RequiredArgsConstructor
+class TransactionStreamRepositoryImpl implements TransactionStreamRepository {
+  /** Менеджер сущностей текущей транзакции. Инжектируется через конструктор. */
+  private final EntityManager entityManager;
+
+  @Override
+  public Stream<Transaction> streamAll(Specification<Transaction> specification) {
+    Session session = entityManager.unwrap(Session.class);
+    Connection connection = session.doReturningWork(jdbc -> jdbc);
+    StatelessSession stateless =
+        session
+            .getSessionFactory()
+            .withStatelessOptions()
+            .connection(connection)
+            .openStatelessSession();
+    try {
+      CriteriaBuilder cb = stateless.getCriteriaBuilder();
+      CriteriaQuery<Transaction> query = cb.createQuery(Transaction.class);
+      Root<Transaction> root = query.from(Transaction.class);
+      Predicate predicate = specification.toPredicate(root, query, cb);
+      if (predicate != null) {
+        query.where(predicate);
+      }
+      query
+          .select(root)
+          .orderBy(QueryUtils.toOrders(TransactionSpecification.KEYSET_SORT, root, cb));
+      // Соединение принадлежит транзакции: закрытие сессии его не закрывает
+      return stateless
+          .createSelectionQuery(query)
+          .setFetchSize(TransactionProjectionRepositoryImpl.STREAM_FETCH_SIZE)
+          .getResultStream()
+          .onClose(stateless::close);
+    } catch (RuntimeException e) {
+      stateless.close();
+      throw e;
+    }
+  }
+}
@@ -26,6 +26,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsConfigurationSource;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
 import reactor.core.publisher.Mono;
+import team.mephi.hackathon.controller.TransactionController;
 
 /**
  * Конфигурационный класс для настройки безопасности приложения. Настраивает: - OAuth2 Resource
@@ -61,8 +62,9 @@ public class SecurityConfiguration {
   boolean authEnabled;
 
   /**
-   * Настраивает цепочку фильтров безопасности. Если аутентификация включена — защищает /api/** по
-   * ролям. Иначе — разрешает всё.
+   * Настраивает цепочку фильтров безопасности. Если аутентификация включена — защищает /api/** и
+   * служебные эндпоинты /actuator/** по ролям; открытой остаётся только проверка состояния
+   * /actuator/health. Иначе — разрешает всё.
    *
    * @param http конфигурация HttpSecurity
    * @return настроенная цепочка фильтров
@@ -74,7 +76,9 @@ public class SecurityConfiguration {
           .authorizeExchange(
               (authorize) ->
                   authorize
-                      .pathMatchers("/api/**")
+                      .pathMatchers("/actuator/health", "/actuator/health/**")
+                      .permitAll()
+                      .pathMatchers("/api/**", "/actuator/**")
                       .access(hasAuthority(userRole))
                       .anyExchange()
                       .permitAll())
@@ -115,6 +119,7 @@ public class SecurityConfiguration {
     configuration.setAllowedOrigins(httpCorsOrigins);
     configuration.setAllowedHeaders(httpCorsHeaders);
     configuration.setAllowedMethods(httpCorsMethods);
+    configuration.setExposedHeaders(List.of(TransactionController.NEXT_CURSOR_HEADER));
     UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
     source.registerCorsConfiguration("/**", configuration);
     return source;
@@ -0,0 +1,72 @@
+package team.mephi.hackathon.service;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import team.mephi.hackathon.controller.AnalyticsService;
+import team.mephi.hackathon.dto.AnalyticsBucketDto;
+import team.mephi.hackathon.dto.AnalyticsDimension;
+import team.mephi.hackathon.dto.DashboardDto;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.repository.TransactionAnalyticsRepository;
+import team.mephi.hackathon.specification.TransactionSpecification;
+
+/**
+ * Реализация {@link AnalyticsService}: все группы дашборда считаются одним проходом — по копии
+ * транзакций в памяти, если она включена и загружена, иначе одним запросом к БД.
+ */
+@Service
+@RequiredArgsConstructor
+public class AnalyticsServiceImpl implements AnalyticsService {
+  /** Репозиторий агрегатов транзакций. Инжектируется через конструктор. */
+  private final TransactionAnalyticsRepository repository;
+
+  /** Копия транзакций в памяти. Инжектируется через конструктор. */
+  private final ColumnarTransactionStore columnarStore;
+
+  @Override
+  @Transactional(readOnly = true)
+  public DashboardDto getDashboard(TransactionFilterDto filter) {
+    Map<AnalyticsDimension, List<AnalyticsBucketDto>> groups =
+        groups(validated(filter), EnumSet.allOf(AnalyticsDimension.class));
+    DashboardDto dashboard = new DashboardDto();
+    dashboard.setByWeek(groups.get(AnalyticsDimension.WEEK));
+    dashboard.setByMonth(groups.get(AnalyticsDimension.MONTH));
+    dashboard.setByQuarter(groups.get(AnalyticsDimension.QUARTER));
+    dashboard.setByYear(groups.get(AnalyticsDimension.YEAR));
+    dashboard.setByType(groups.get(AnalyticsDimension.TYPE));
+    dashboard.setBySenderBank(groups.get(AnalyticsDimension.SENDER_BANK));
+    dashboard.setByReceiverBank(groups.get(AnalyticsDimension.RECEIVER_BANK));
+    dashboard.setByCategory(groups.get(AnalyticsDimension.CATEGORY));
+    return dashboard;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<AnalyticsBucketDto> aggregate(
+      AnalyticsDimension dimension, TransactionFilterDto filter) {
+    return groups(validated(filter), EnumSet.of(dimension)).get(dimension);
+  }
+
+  private Map<AnalyticsDimension, List<AnalyticsBucketDto>> groups(
+      TransactionFilterDto filter, Set<AnalyticsDimension> dimensions) {
+    return columnarStore
+        .aggregate(filter, dimensions)
+        .orElseGet(() -> repository.aggregate(filter, dimensions));
+  }
+
+  /**
+   * Проверяет значения перечислений в фильтре теми же правилами, что и поиск.
+   *
+   * @param filter критерии отбора транзакций
+   * @return тот же фильтр
+   */
+  private static TransactionFilterDto validated(TransactionFilterDto filter) {
+    TransactionSpecification.matches(filter);
+    return filter;
+  }
+}
@@ -0,0 +1,182 @@
+package team.mephi.hackathon.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import team.mephi.hackathon.dto.CategoryResponseDto;
+import team.mephi.hackathon.mapper.CategoryMapper;
+import team.mephi.hackathon.repository.CategoryRepository;
+
+/**
+ * Справочник категорий в памяти. Читатели получают неизменяемый снимок без блокировок и без
+ * обращения к БД; изменение через сервисы категорий строит новый снимок из предыдущего и заменяет
+ * его целиком. Категории, изменённые в обход сервисов, подхватываются перезагрузкой по расписанию.
+ * Отсутствующее в снимке наименование перед отказом проверяется в БД: категорию могли создать
+ * через другой экземпляр приложения.
+ */
+@Service
+@RequiredArgsConstructor
+public class CategoryDictionary {
+  private static final Logger LOGGER = LoggerFactory.getLogger(CategoryDictionary.class);
+
+  /** Предел числа запомненных отсутствующих наименований. */
+  private static final int MAX_MISSES = 10_000;
+
+  /** Репозиторий категорий для загрузки снимка. Инжектируется через конструктор. */
+  private final CategoryRepository repository;
+
+  /** Маппер для преобразования сущности в DTO. Инжектируется через конструктор. */
+  private final CategoryMapper mapper;
+
+  /** Сколько помнить, что наименования нет в БД. */
+  @Value("${app.categories.miss-ttl}")
+  Duration missTtl = Duration.ofSeconds(10);
+
+  /** Текущий снимок или {@code null}, пока он не загружен. */
+  private volatile Snapshot snapshot;
+
+  /** Наименования, не найденные в БД, и момент ({@link System#nanoTime()}) истечения ответа. */
+  private final Map<String, Long> misses = new ConcurrentHashMap<>();
+
+  /**
+   * Неизменяемый снимок справочника.
+   *
+   * @param categories категории в порядке наименования
+   * @param names наименования категорий для проверки существования
+   */
+  private record Snapshot(List<CategoryResponseDto> categories, Set<String> names) {
+    static Snapshot of(List<CategoryResponseDto> categories) {
+      List<CategoryResponseDto> sorted =
+          categories.stream()
+              .sorted(
+                  Comparator.comparing(
+                          CategoryResponseDto::getName,
+                          Comparator.nullsLast(Comparator.naturalOrder()))
+                      .thenComparing(CategoryResponseDto::getId))
+              .toList();
+      Set<String> names =
+          sorted.stream()
+              .map(CategoryResponseDto::getName)
+              .filter(Objects::nonNull)
+              .collect(Collectors.toUnmodifiableSet());
+      return new Snapshot(sorted, names);
+    }
+  }
+
+  /**
+   * Возвращает все категории. Список и его элементы общие для всех запросов, изменять их нельзя.
+   *
+   * @return категории в порядке наименования
+   */
+  public List<CategoryResponseDto> categories() {
+    return current().categories();
+  }
+
+  /**
+   * Проверяет, есть ли категория с таким наименованием. Наименование, которого нет в снимке,
+   * проверяется в БД; найденное перезагружает снимок, отсутствующее запоминается на {@link
+   * #missTtl}, чтобы повторные строки с той же ошибкой не обращались к БД.
+   *
+   * @param name наименование категории
+   * @return {@code true}, если категория существует
+   */
+  public boolean contains(String name) {
+    if (name == null) {
+      return false;
+    }
+    if (current().names().contains(name)) {
+      return true;
+    }
+    long now = System.nanoTime();
+    Long expiresAt = misses.get(name);
+    if (expiresAt != null && expiresAt - now > 0) {
+      return false;
+    }
+    if (repository.existsByName(name)) {
+      misses.remove(name);
+      reload();
+      return true;
+    }
+    if (misses.size() >= MAX_MISSES) {
+      misses.clear();
+    }
+    misses.put(name, now + missTtl.toNanos());
+    return false;
+  }
+
+  /**
+   * Заменяет снимок снимком с созданной или изменённой категорией.
+   *
+   * @param category сохранённая категория
+   */
+  public synchronized void saved(CategoryResponseDto category) {
+    misses.remove(category.getName());
+    if (snapshot == null) {
+      return;
+    }
+    List<CategoryResponseDto> categories = new ArrayList<>(snapshot.categories());
+    categories.removeIf(existing -> existing.getId().equals(category.getId()));
+    categories.add(new CategoryResponseDto(category.getId(), category.getName()));
+    snapshot = Snapshot.of(categories);
+  }
+
+  /**
+   * Заменяет снимок снимком без удалённой категории.
+   *
+   * @param id идентификатор удалённой категории
+   */
+  public synchronized void deleted(UUID id) {
+    if (snapshot == null) {
+      return;
+    }
+    List<CategoryResponseDto> categories = new ArrayList<>(snapshot.categories());
+    categories.removeIf(existing -> existing.getId().equals(id));
+    snapshot = Snapshot.of(categories);
+  }
+
+  /** Загружает снимок при старте и далее по расписанию. */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(
+      fixedDelayString = "${app.categories.refresh-interval}",
+      initialDelayString = "${app.categories.refresh-interval}")
+  public synchronized void reload() {
+    // Под блокировкой: изменение, сохранённое во время загрузки, применится к новому снимку
+    try {
+      snapshot = load();
+    } catch (RuntimeException e) {
+      LOGGER.error("Не удалось загрузить справочник категорий", e);
+    }
+  }
+
+  private Snapshot current() {
+    Snapshot current = snapshot;
+    if (current != null) {
+      return current;
+    }
+    synchronized (this) {
+      if (snapshot == null) {
+        snapshot = load();
+      }
+      return snapshot;
+    }
+  }
+
+  private Snapshot load() {
+    return Snapshot.of(repository.findAll().stream().map(mapper::toDto).toList());
+  }
+}
@@ -3,13 +3,13 @@ package team.mephi.hackathon.service;
 import java.util.List;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 import team.mephi.hackathon.controller.CategoryService;
 import team.mephi.hackathon.dto.CategoryRequestDto;
 import team.mephi.hackathon.dto.CategoryResponseDto;
 import team.mephi.hackathon.entity.Category;
 import team.mephi.hackathon.exceptions.EntityNotFoundException;
+import team.mephi.hackathon.mapper.CategoryMapper;
 import team.mephi.hackathon.repository.CategoryRepository;
 
 /**
@@ -23,15 +23,18 @@ public class CategoryServiceImpl implements CategoryService {
   private final CategoryRepository repository;
 
   /** Маппер для преобразования между DTO и Entity. Инжектируется через конструктор. */
-  private final ModelMapper modelMapper;
+  private final CategoryMapper mapper;
+
+  /** Справочник категорий в памяти. Получает сохранённые изменения. */
+  private final CategoryDictionary dictionary;
 
   /**
-   * Получает список всех доступных категорий.
+   * Получает список всех доступных категорий из {@link CategoryDictionary} без обращения к БД.
    *
    * @return список {@link CategoryResponseDto} — все существующие категории
    */
   public List<CategoryResponseDto> getCategories() {
-    return repository.findAll().stream().map(this::mapToDto).toList();
+    return dictionary.categories();
   }
 
   /**
@@ -43,7 +46,9 @@ public class CategoryServiceImpl implements CategoryService {
   public CategoryResponseDto createCategory(CategoryRequestDto dto) {
     Category entity = mapToEntity(dto);
 
-    return mapToDto(repository.save(entity));
+    CategoryResponseDto created = mapToDto(repository.save(entity));
+    dictionary.saved(created);
+    return created;
   }
 
   /**
@@ -57,7 +62,9 @@ public class CategoryServiceImpl implements CategoryService {
     Category entity = getExistingCategoryOrThrowException(id);
     entity.setName(dto.getName());
 
-    return mapToDto(repository.save(entity));
+    CategoryResponseDto updated = mapToDto(repository.save(entity));
+    dictionary.saved(updated);
+    return updated;
   }
 
   /**
@@ -69,6 +76,7 @@ public class CategoryServiceImpl implements CategoryService {
     getExistingCategoryOrThrowException(id);
 
     repository.deleteById(id);
+    dictionary.deleted(id);
   }
 
   /**
@@ -78,7 +86,7 @@ public class CategoryServiceImpl implements CategoryService {
    * @return объект {@link CategoryResponseDto}
    */
   private CategoryResponseDto mapToDto(Category category) {
-    return modelMapper.map(category, CategoryResponseDto.class);
+    return mapper.toDto(category);
   }
 
   /**
@@ -88,7 +96,7 @@ public class CategoryServiceImpl implements CategoryService {
    * @return объект {@link Category}
    */
   private Category mapToEntity(CategoryRequestDto dto) {
-    return modelMapper.map(dto, Category.class);
+    return mapper.toEntity(dto);
   }
 
   /**
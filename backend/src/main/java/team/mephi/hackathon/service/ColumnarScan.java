@@ -0,0 +1,150 @@
+package team.mephi.hackathon.service;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Параллельный проход по столбцам {@link ColumnarTransactionStore}. Диапазон строк делится пополам,
+ * пока не станет меньше порога; каждая часть считает количество и сумму по всем осям за один
+ * проход, а результаты частей складываются.
+ */
+final class ColumnarScan extends RecursiveTask<ColumnarScan.Totals> {
+  /** Значение кода в условии, совпадающее с любой строкой. */
+  static final int ANY = -1;
+
+  /** Условия отбора строк в кодах и единицах хранения. */
+  record Predicate(
+      int type,
+      int status,
+      int senderBank,
+      int receiverBank,
+      int category,
+      long secondsFrom,
+      long secondsTo,
+      long amountMin,
+      long amountMax) {}
+
+  /**
+   * Столбцы, по которым идёт проход.
+   *
+   * @param seconds даты операций в секундах эпохи
+   * @param amounts суммы в копейках
+   * @param codes столбцы кодов типа, статуса, банков отправителя и получателя и категории
+   * @param firstDay первый день оси дней в днях эпохи
+   * @param days длина оси дней или 0, если группировка по периодам не нужна
+   * @param axes столбцы кодов, по которым нужна группировка
+   * @param axisSizes размеры словарей этих столбцов
+   */
+  record Columns(
+      long[] seconds,
+      long[] amounts,
+      int[][] codes,
+      int firstDay,
+      int days,
+      int[][] axes,
+      int[] axisSizes) {}
+
+  /**
+   * Количество и сумма по каждому значению каждой оси. Ось дней, если есть, идёт последней.
+   *
+   * @param counts количество строк по оси и коду
+   * @param sums сумма в копейках по оси и коду
+   */
+  record Totals(long[][] counts, long[][] sums) {
+    private static Totals empty(Columns columns) {
+      int axes = columns.axes().length + (columns.days() > 0 ? 1 : 0);
+      long[][] counts = new long[axes][];
+      long[][] sums = new long[axes][];
+      for (int a = 0; a < columns.axes().length; a++) {
+        counts[a] = new long[columns.axisSizes()[a]];
+        sums[a] = new long[columns.axisSizes()[a]];
+      }
+      if (columns.days() > 0) {
+        counts[axes - 1] = new long[columns.days()];
+        sums[axes - 1] = new long[columns.days()];
+      }
+      return new Totals(counts, sums);
+    }
+
+    private void add(Totals other) {
+      for (int a = 0; a < counts.length; a++) {
+        for (int i = 0; i < counts[a].length; i++) {
+          counts[a][i] += other.counts[a][i];
+          sums[a][i] += other.sums[a][i];
+        }
+      }
+    }
+  }
+
+  private static final long SECONDS_PER_DAY = 86_400;
+
+  private final Columns columns;
+  private final Predicate predicate;
+  private final int from;
+  private final int to;
+  private final int threshold;
+
+  ColumnarScan(Columns columns, Predicate predicate, int from, int to, int threshold) {
+    this.columns = columns;
+    this.predicate = predicate;
+    this.from = from;
+    this.to = to;
+    this.threshold = threshold;
+  }
+
+  @Override
+  protected Totals compute() {
+    if (to - from <= threshold) {
+      return scan();
+    }
+    int middle = (from + to) >>> 1;
+    ColumnarScan left = new ColumnarScan(columns, predicate, from, middle, threshold);
+    left.fork();
+    Totals right = new ColumnarScan(columns, predicate, middle, to, threshold).compute();
+    Totals totals = left.join();
+    totals.add(right);
+    return totals;
+  }
+
+  private Totals scan() {
+    Totals totals = Totals.empty(columns);
+    long[] seconds = columns.seconds();
+    long[] amounts = columns.amounts();
+    int[][] codes = columns.codes();
+    int[] wanted = {
+      predicate.type(),
+      predicate.status(),
+      predicate.senderBank(),
+      predicate.receiverBank(),
+      predicate.category()
+    };
+    int[][] axes = columns.axes();
+    int dayAxis = columns.days() > 0 ? axes.length : -1;
+    rows:
+    for (int i = from; i < to; i++) {
+      for (int c = 0; c < wanted.length; c++) {
+        if (wanted[c] != ANY && codes[c][i] != wanted[c]) {
+          continue rows;
+        }
+      }
+      long second = seconds[i];
+      long amount = amounts[i];
+      if (second < predicate.secondsFrom()
+          || second > predicate.secondsTo()
+          || amount < predicate.amountMin()
+          || amount > predicate.amountMax()) {
+        continue;
+      }
+      for (int a = 0; a < axes.length; a++) {
+        int code = axes[a][i];
+        totals.counts[a][code]++;
+        totals.sums[a][code] += amount;
+      }
+      if (dayAxis >= 0) {
+        int day = (int) (Math.floorDiv(second, SECONDS_PER_DAY) - columns.firstDay());
+        totals.counts[dayAxis][day]++;
+        totals.sums[dayAxis][day] += amount;
+      }
+    }
+    return totals;
+  }
+}
@@ -0,0 +1,314 @@
+package team.mephi.hackathon.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+import team.mephi.hackathon.dto.TransactionChangeToken;
+
+/**
+ * Файл снимка {@link ColumnarTable}. Формат версии 2, все числа little-endian:
+ *
+ * <pre>
+ * заголовок, 32 байта: магическое число "TXCS", версия, CRC32C тела, длина тела, число строк
+ * тело: позиция журнала изменений (номер транзакции БД, номер изменения, старшая и младшая
+ *       половины идентификатора, long), пять словарей (число значений, затем длина в байтах
+ *       UTF-8 или -1 для null и байты), выравнивание до 8 байт, столбцы старших и младших
+ *       половин идентификаторов, секунд и копеек (long), пять столбцов кодов (int)
+ * </pre>
+ *
+ * Снимок пишется во временный файл и заменяет прежний переименованием, поэтому прерванная запись
+ * не портит его. При чтении тело отображается в память через {@link FileChannel#map}, проверяется
+ * контрольная сумма, и столбцы копируются в массивы таблицы целиком.
+ */
+final class ColumnarSnapshot {
+  private static final int MAGIC = 0x53435854;
+  private static final int VERSION = 2;
+  private static final int HEADER_BYTES = 32;
+
+  /** Наибольший отображаемый за раз участок: {@link MappedByteBuffer} адресуется int. */
+  private static final int MAX_MAPPING = 1 << 30;
+
+  private static final int BUFFER_BYTES = 1 << 20;
+
+  private ColumnarSnapshot() {}
+
+  /**
+   * Записывает таблицу в файл снимка.
+   *
+   * @param table таблица; не должна меняться во время записи
+   * @param path файл снимка
+   * @throws IOException при ошибке записи
+   */
+  static void write(ColumnarTable table, Path path) throws IOException {
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel =
+        FileChannel.open(
+            temporary,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      channel.position(HEADER_BYTES);
+      Body body = new Body(channel);
+      body.putLong(table.position.xid());
+      body.putLong(table.position.seq());
+      body.putLong(table.position.id().getMostSignificantBits());
+      body.putLong(table.position.id().getLeastSignificantBits());
+      for (ColumnarTable.Dictionary dictionary : table.dictionaries) {
+        body.putInt(dictionary.values.size());
+        for (String value : dictionary.values) {
+          byte[] bytes = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+          body.putInt(bytes == null ? -1 : bytes.length);
+          if (bytes != null) {
+            body.put(bytes);
+          }
+        }
+      }
+      body.align();
+      int rows = table.size;
+      long[] half = new long[rows];
+      for (int i = 0; i < rows; i++) {
+        half[i] = table.ids[i].getMostSignificantBits();
+      }
+      body.put(half, rows);
+      for (int i = 0; i < rows; i++) {
+        half[i] = table.ids[i].getLeastSignificantBits();
+      }
+      body.put(half, rows);
+      body.put(table.seconds, rows);
+      body.put(table.amounts, rows);
+      for (int[] column : table.codes) {
+        body.put(column, rows);
+      }
+      body.flush();
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      header.putInt(MAGIC).putInt(VERSION).putLong(body.checksum.getValue());
+      header.putLong(body.length).putInt(rows).flip();
+      channel.write(header, 0);
+      channel.force(true);
+    }
+    Files.move(
+        temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Читает таблицу из файла снимка.
+   *
+   * @param path файл снимка
+   * @param budget память, которую может занять таблица, байт
+   * @return таблица или {@code null}, если снимок не помещается в бюджет
+   * @throws IOException если файл не читается, повреждён или записан другой версией формата
+   */
+  static ColumnarTable read(Path path, long budget) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      channel.read(header, 0);
+      header.flip();
+      if (header.remaining() < HEADER_BYTES
+          || header.getInt() != MAGIC
+          || header.getInt() != VERSION) {
+        throw new IOException("Неизвестный формат снимка " + path);
+      }
+      long checksum = header.getLong();
+      long length = header.getLong();
+      int rows = header.getInt();
+      if (HEADER_BYTES + length != channel.size()) {
+        throw new IOException("Снимок " + path + " обрезан");
+      }
+      CRC32C crc = new CRC32C();
+      for (long offset = 0; offset < length; offset += MAX_MAPPING) {
+        crc.update(map(channel, offset, Math.min(MAX_MAPPING, length - offset)));
+      }
+      if (crc.getValue() != checksum) {
+        throw new IOException("Контрольная сумма снимка " + path + " не совпадает");
+      }
+      if (rows * ColumnarTable.BYTES_PER_ROW > budget) {
+        return null;
+      }
+
+      Sections sections = new Sections(channel, length);
+      ByteBuffer position = sections.next(4 * Long.BYTES);
+      TransactionChangeToken token =
+          new TransactionChangeToken(
+              position.getLong(),
+              position.getLong(),
+              new UUID(position.getLong(), position.getLong()));
+      ColumnarTable.Dictionary[] dictionaries = new ColumnarTable.Dictionary[ColumnarTable.CODES];
+      for (int c = 0; c < dictionaries.length; c++) {
+        dictionaries[c] = new ColumnarTable.Dictionary();
+        int values = sections.next(Integer.BYTES).getInt();
+        for (int v = 0; v < values; v++) {
+          int bytes = sections.next(Integer.BYTES).getInt();
+          dictionaries[c].encode(
+              bytes < 0
+                  ? null
+                  : StandardCharsets.UTF_8.decode(sections.next(bytes)).toString());
+        }
+      }
+      sections.align();
+      long[] most = sections.longs(rows);
+      long[] least = sections.longs(rows);
+      UUID[] ids = new UUID[rows];
+      for (int i = 0; i < rows; i++) {
+        ids[i] = new UUID(most[i], least[i]);
+      }
+      long[] seconds = sections.longs(rows);
+      long[] amounts = sections.longs(rows);
+      int[][] codes = new int[ColumnarTable.CODES][];
+      for (int c = 0; c < codes.length; c++) {
+        codes[c] = sections.ints(rows);
+      }
+      ColumnarTable table = new ColumnarTable(budget, dictionaries, ids, seconds, amounts, codes);
+      table.position = token;
+      return table;
+    }
+  }
+
+  private static MappedByteBuffer map(FileChannel channel, long offset, long length)
+      throws IOException {
+    MappedByteBuffer buffer =
+        channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + offset, length);
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    return buffer;
+  }
+
+  /** Последовательная запись тела снимка через буфер с подсчётом контрольной суммы. */
+  private static final class Body {
+    private final FileChannel channel;
+    private final ByteBuffer buffer =
+        ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32C checksum = new CRC32C();
+    private long length;
+
+    Body(FileChannel channel) {
+      this.channel = channel;
+    }
+
+    void putInt(int value) throws IOException {
+      reserve(Integer.BYTES);
+      buffer.putInt(value);
+    }
+
+    void putLong(long value) throws IOException {
+      reserve(Long.BYTES);
+      buffer.putLong(value);
+    }
+
+    void put(byte[] bytes) throws IOException {
+      for (int offset = 0; offset < bytes.length; ) {
+        reserve(1);
+        int chunk = Math.min(buffer.remaining(), bytes.length - offset);
+        buffer.put(bytes, offset, chunk);
+        offset += chunk;
+      }
+    }
+
+    void put(long[] values, int count) throws IOException {
+      for (int offset = 0; offset < count; ) {
+        reserve(Long.BYTES);
+        int chunk = Math.min(buffer.remaining() / Long.BYTES, count - offset);
+        buffer.asLongBuffer().put(values, offset, chunk);
+        buffer.position(buffer.position() + chunk * Long.BYTES);
+        offset += chunk;
+      }
+    }
+
+    void put(int[] values, int count) throws IOException {
+      for (int offset = 0; offset < count; ) {
+        reserve(Integer.BYTES);
+        int chunk = Math.min(buffer.remaining() / Integer.BYTES, count - offset);
+        buffer.asIntBuffer().put(values, offset, chunk);
+        buffer.position(buffer.position() + chunk * Integer.BYTES);
+        offset += chunk;
+      }
+    }
+
+    /** Дополняет тело нулями до границы 8 байт. */
+    void align() throws IOException {
+      while ((length + buffer.position()) % Long.BYTES != 0) {
+        reserve(1);
+        buffer.put((byte) 0);
+      }
+    }
+
+    private void reserve(int bytes) throws IOException {
+      if (buffer.remaining() < bytes) {
+        flush();
+      }
+    }
+
+    void flush() throws IOException {
+      buffer.flip();
+      checksum.update(buffer.duplicate());
+      length += buffer.remaining();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+  }
+
+  /**
+   * Последовательное чтение тела снимка. Тело отображается в память окнами до {@link
+   * #MAX_MAPPING} байт; значения читаются из срезов текущего окна.
+   */
+  private static final class Sections {
+    private final FileChannel channel;
+    private final long length;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long offset;
+
+    Sections(FileChannel channel, long length) {
+      this.channel = channel;
+      this.length = length;
+    }
+
+    ByteBuffer next(int bytes) throws IOException {
+      if (offset + bytes > length) {
+        throw new IOException("Снимок короче, чем указано в заголовке");
+      }
+      if (window == null || offset + bytes > windowStart + window.capacity()) {
+        windowStart = offset;
+        window = map(channel, offset, Math.min(MAX_MAPPING, length - offset));
+      }
+      ByteBuffer slice =
+          window.slice((int) (offset - windowStart), bytes).order(ByteOrder.LITTLE_ENDIAN);
+      offset += bytes;
+      return slice;
+    }
+
+    void align() {
+      offset = (offset + Long.BYTES - 1) / Long.BYTES * Long.BYTES;
+    }
+
+    long[] longs(int count) throws IOException {
+      long[] values = new long[count];
+      for (int done = 0; done < count; ) {
+        int chunk = Math.min(MAX_MAPPING / Long.BYTES, count - done);
+        next(chunk * Long.BYTES).asLongBuffer().get(values, done, chunk);
+        done += chunk;
+      }
+      return values;
+    }
+
+    int[] ints(int count) throws IOException {
+      int[] values = new int[count];
+      for (int done = 0; done < count; ) {
+        int chunk = Math.min(MAX_MAPPING / Integer.BYTES, count - done);
+        next(chunk * Integer.BYTES).asIntBuffer().get(values, done, chunk);
+        done += chunk;
+      }
+      return values;
+    }
+  }
+}
@@ -0,0 +1,465 @@
+package team.mephi.hackathon.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import team.mephi.hackathon.dto.AnalyticsBucketDto;
+import team.mephi.hackathon.dto.AnalyticsDimension;
+import team.mephi.hackathon.dto.TransactionChangeToken;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.entity.TransactionStatus;
+
+/**
+ * Столбцы {@link ColumnarTransactionStore}. Строки {@code [0, size)} заняты; удалённую строку
+ * занимает последняя, поэтому столбцы не содержат пропусков. Класс не потокобезопасен: доступ
+ * согласует хранилище.
+ */
+final class ColumnarTable {
+  /**
+   * Оценка памяти на строку, байт: дата, сумма и пять кодов в массивах, ссылка на идентификатор,
+   * сам идентификатор и элемент индекса строк.
+   */
+  static final long BYTES_PER_ROW = 8 + 8 + 5 * 4 + 8 + 32 + 64;
+
+  /** Наибольшая длина оси дней: даты за пределами двух веков считает БД. */
+  static final int MAX_DAYS = 200 * 366;
+
+  /** Порядок столбцов кодов. */
+  static final int TYPE = 0;
+
+  static final int STATUS = 1;
+  static final int SENDER_BANK = 2;
+  static final int RECEIVER_BANK = 3;
+  static final int CATEGORY = 4;
+  static final int CODES = 5;
+
+  static final long SECONDS_PER_DAY = 86_400;
+
+  /** Наименьшее число строк в одной части параллельного прохода. */
+  private static final int MIN_CHUNK = 1 << 16;
+
+  private final long budget;
+  final Map<UUID, Integer> rows;
+  final Dictionary[] dictionaries;
+  UUID[] ids;
+  long[] seconds;
+  long[] amounts;
+  int[][] codes;
+  int size;
+  private long firstDay = Long.MAX_VALUE;
+  private long lastDay = Long.MIN_VALUE;
+  private boolean overBudget;
+
+  /** Позиция журнала изменений транзакций, до которой включительно таблица совпадает с БД. */
+  TransactionChangeToken position = TransactionChangeToken.START;
+
+  ColumnarTable(int capacity, long budget) {
+    this.budget = budget;
+    dictionaries = new Dictionary[CODES];
+    Arrays.setAll(dictionaries, c -> new Dictionary());
+    rows = new HashMap<>(capacity * 4 / 3 + 1);
+    ids = new UUID[capacity];
+    seconds = new long[capacity];
+    amounts = new long[capacity];
+    codes = new int[CODES][capacity];
+  }
+
+  /** Таблица над уже заполненными столбцами, например прочитанными из снимка. */
+  ColumnarTable(
+      long budget,
+      Dictionary[] dictionaries,
+      UUID[] ids,
+      long[] seconds,
+      long[] amounts,
+      int[][] codes) {
+    this(budget, dictionaries, ids, seconds, amounts, codes, new HashMap<>(ids.length * 4 / 3 + 1));
+    for (int i = 0; i < size; i++) {
+      rows.put(ids[i], i);
+      noteDay(seconds[i]);
+    }
+  }
+
+  private ColumnarTable(
+      long budget,
+      Dictionary[] dictionaries,
+      UUID[] ids,
+      long[] seconds,
+      long[] amounts,
+      int[][] codes,
+      Map<UUID, Integer> rows) {
+    this.budget = budget;
+    this.dictionaries = dictionaries;
+    this.ids = ids;
+    this.seconds = seconds;
+    this.amounts = amounts;
+    this.codes = codes;
+    this.rows = rows;
+    size = ids.length;
+  }
+
+  /**
+   * Копирует занятую часть столбцов и словари, чтобы записать снимок, не удерживая блокировку
+   * хранилища. Индекс строк не копируется, поэтому копия годится только для записи снимка.
+   *
+   * @return копия таблицы с той же позицией журнала изменений
+   */
+  ColumnarTable copy() {
+    Dictionary[] copiedDictionaries = new Dictionary[CODES];
+    for (int c = 0; c < CODES; c++) {
+      copiedDictionaries[c] = new Dictionary();
+      dictionaries[c].values.forEach(copiedDictionaries[c]::encode);
+    }
+    int[][] copiedCodes = new int[CODES][];
+    Arrays.setAll(copiedCodes, c -> Arrays.copyOf(codes[c], size));
+    ColumnarTable copy =
+        new ColumnarTable(
+            budget,
+            copiedDictionaries,
+            Arrays.copyOf(ids, size),
+            Arrays.copyOf(seconds, size),
+            Arrays.copyOf(amounts, size),
+            copiedCodes,
+            Map.of());
+    copy.position = position;
+    return copy;
+  }
+
+  /** Превысила ли таблица бюджет памяти: такую таблицу использовать нельзя. */
+  boolean overBudget() {
+    return overBudget;
+  }
+
+  /** Может ли таблица посчитать агрегаты: ось дней должна быть ограниченной. */
+  boolean aggregatable() {
+    return size == 0 || lastDay - firstDay < MAX_DAYS;
+  }
+
+  /** Применяет сохранённую транзакцию: удалённую убирает, остальные добавляет или обновляет. */
+  void apply(Row row) {
+    if (TransactionStatus.DELETED.name().equals(row.status())) {
+      remove(row.id());
+    } else {
+      upsert(row);
+    }
+  }
+
+  void upsert(Row row) {
+    Integer existing = rows.get(row.id());
+    int i;
+    if (existing != null) {
+      i = existing;
+    } else {
+      if ((size + 1) * BYTES_PER_ROW > budget) {
+        overBudget = true;
+        return;
+      }
+      if (size == ids.length) {
+        grow();
+      }
+      i = size++;
+      ids[i] = row.id();
+      rows.put(row.id(), i);
+    }
+    seconds[i] = row.seconds();
+    amounts[i] = row.amount();
+    codes[TYPE][i] = dictionaries[TYPE].encode(row.type());
+    codes[STATUS][i] = dictionaries[STATUS].encode(row.status());
+    codes[SENDER_BANK][i] = dictionaries[SENDER_BANK].encode(row.senderBank());
+    codes[RECEIVER_BANK][i] = dictionaries[RECEIVER_BANK].encode(row.receiverBank());
+    codes[CATEGORY][i] = dictionaries[CATEGORY].encode(row.category());
+    noteDay(row.seconds());
+  }
+
+  void remove(UUID id) {
+    Integer removed = rows.remove(id);
+    if (removed == null) {
+      return;
+    }
+    int last = --size;
+    if (removed != last) {
+      ids[removed] = ids[last];
+      seconds[removed] = seconds[last];
+      amounts[removed] = amounts[last];
+      for (int[] column : codes) {
+        column[removed] = column[last];
+      }
+      rows.put(ids[removed], removed);
+    }
+    ids[last] = null;
+  }
+
+  /**
+   * Убирает строки с датой операции в полуоткрытом диапазоне.
+   *
+   * @param from начало диапазона, секунды эпохи
+   * @param to конец диапазона, не включается, секунды эпохи
+   */
+  void removeBetween(long from, long to) {
+    // С конца: на место удалённой строки встаёт уже просмотренная
+    for (int i = size - 1; i >= 0; i--) {
+      if (seconds[i] >= from && seconds[i] < to) {
+        remove(ids[i]);
+      }
+    }
+  }
+
+  private void noteDay(long second) {
+    long day = Math.floorDiv(second, SECONDS_PER_DAY);
+    firstDay = Math.min(firstDay, day);
+    lastDay = Math.max(lastDay, day);
+  }
+
+  private void grow() {
+    int capacity = Math.max(16, ids.length + (ids.length >> 1));
+    ids = Arrays.copyOf(ids, capacity);
+    seconds = Arrays.copyOf(seconds, capacity);
+    amounts = Arrays.copyOf(amounts, capacity);
+    for (int c = 0; c < codes.length; c++) {
+      codes[c] = Arrays.copyOf(codes[c], capacity);
+    }
+  }
+
+  /**
+   * Считает количество и сумму строк, удовлетворяющих фильтру, по каждому признаку отдельно.
+   *
+   * @param filter критерии отбора
+   * @param dimensions признаки группировки
+   * @return группы по каждому признаку в порядке значения признака
+   */
+  Map<AnalyticsDimension, List<AnalyticsBucketDto>> aggregate(
+      TransactionFilterDto filter, Set<AnalyticsDimension> dimensions) {
+    Map<AnalyticsDimension, List<AnalyticsBucketDto>> groups =
+        new EnumMap<>(AnalyticsDimension.class);
+    dimensions.forEach(dimension -> groups.put(dimension, new ArrayList<>()));
+    ColumnarScan.Predicate predicate = predicate(filter);
+    if (size == 0 || predicate == null) {
+      return groups;
+    }
+
+    List<AnalyticsDimension> categorical =
+        dimensions.stream().filter(d -> column(d) >= 0).toList();
+    boolean periods = categorical.size() < dimensions.size();
+    int[][] axes = new int[categorical.size()][];
+    int[] axisSizes = new int[categorical.size()];
+    for (int a = 0; a < axes.length; a++) {
+      axes[a] = codes[column(categorical.get(a))];
+      axisSizes[a] = dictionaries[column(categorical.get(a))].size();
+    }
+    ColumnarScan.Columns columns =
+        new ColumnarScan.Columns(
+            seconds,
+            amounts,
+            codes,
+            (int) firstDay,
+            periods ? (int) (lastDay - firstDay + 1) : 0,
+            axes,
+            axisSizes);
+    int threshold = Math.max(MIN_CHUNK, size / (ForkJoinPool.getCommonPoolParallelism() * 4));
+    ColumnarScan scan = new ColumnarScan(columns, predicate, 0, size, threshold);
+    ColumnarScan.Totals totals = ForkJoinPool.commonPool().invoke(scan);
+
+    for (int a = 0; a < axes.length; a++) {
+      Dictionary dictionary = dictionaries[column(categorical.get(a))];
+      List<AnalyticsBucketDto> buckets = groups.get(categorical.get(a));
+      for (int code = 0; code < axisSizes[a]; code++) {
+        if (totals.counts()[a][code] > 0) {
+          buckets.add(
+              bucket(dictionary.decode(code), totals.counts()[a][code], totals.sums()[a][code]));
+        }
+      }
+      buckets.sort(
+          Comparator.comparing(
+              AnalyticsBucketDto::getName, Comparator.nullsLast(Comparator.naturalOrder())));
+    }
+    if (periods) {
+      long[] counts = totals.counts()[axes.length];
+      long[] sums = totals.sums()[axes.length];
+      for (AnalyticsDimension dimension : dimensions) {
+        if (column(dimension) < 0) {
+          groups.get(dimension).addAll(periods(dimension, counts, sums));
+        }
+      }
+    }
+    return groups;
+  }
+
+  /** Сворачивает дни в периоды признака в порядке названия периода. */
+  private List<AnalyticsBucketDto> periods(
+      AnalyticsDimension dimension, long[] counts, long[] sums) {
+    Map<String, long[]> periods = new TreeMap<>();
+    for (int day = 0; day < counts.length; day++) {
+      if (counts[day] > 0) {
+        long[] totals =
+            periods.computeIfAbsent(
+                period(dimension, LocalDate.ofEpochDay(firstDay + day)), p -> new long[2]);
+        totals[0] += counts[day];
+        totals[1] += sums[day];
+      }
+    }
+    List<AnalyticsBucketDto> buckets = new ArrayList<>(periods.size());
+    periods.forEach((name, totals) -> buckets.add(bucket(name, totals[0], totals[1])));
+    return buckets;
+  }
+
+  /** Условие отбора в кодах или {@code null}, если значения фильтра нет в словарях. */
+  private ColumnarScan.Predicate predicate(TransactionFilterDto filter) {
+    int[] wanted = {
+      dictionaries[TYPE].find(filter.getTransactionType()),
+      dictionaries[STATUS].find(filter.getStatus()),
+      dictionaries[SENDER_BANK].find(filter.getSenderBank()),
+      dictionaries[RECEIVER_BANK].find(filter.getReceiverBank()),
+      dictionaries[CATEGORY].find(filter.getCategory())
+    };
+    if (Arrays.stream(wanted).anyMatch(code -> code == Dictionary.MISSING)) {
+      return null;
+    }
+    return new ColumnarScan.Predicate(
+        wanted[TYPE],
+        wanted[STATUS],
+        wanted[SENDER_BANK],
+        wanted[RECEIVER_BANK],
+        wanted[CATEGORY],
+        filter.getDateFrom() == null ? Long.MIN_VALUE : seconds(filter.getDateFrom()),
+        filter.getDateTo() == null ? Long.MAX_VALUE : seconds(filter.getDateTo()),
+        filter.getAmountMin() == null
+            ? Long.MIN_VALUE
+            : cents(filter.getAmountMin(), RoundingMode.CEILING),
+        filter.getAmountMax() == null
+            ? Long.MAX_VALUE
+            : cents(filter.getAmountMax(), RoundingMode.FLOOR));
+  }
+
+  /** Столбец кодов признака или -1 для периодов. */
+  private static int column(AnalyticsDimension dimension) {
+    return switch (dimension) {
+      case TYPE -> TYPE;
+      case SENDER_BANK -> SENDER_BANK;
+      case RECEIVER_BANK -> RECEIVER_BANK;
+      case CATEGORY -> CATEGORY;
+      case WEEK, MONTH, QUARTER, YEAR -> -1;
+    };
+  }
+
+  /** Название периода в том же формате, что и {@code to_char} в запросах аналитики. */
+  private static String period(AnalyticsDimension dimension, LocalDate day) {
+    return switch (dimension) {
+      case WEEK ->
+          String.format(
+              "%04d-W%02d",
+              day.get(IsoFields.WEEK_BASED_YEAR),
+              day.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+      case MONTH -> String.format("%04d-%02d", day.getYear(), day.getMonthValue());
+      case QUARTER ->
+          String.format("%04d-Q%d", day.getYear(), day.get(IsoFields.QUARTER_OF_YEAR));
+      case YEAR -> String.format("%04d", day.getYear());
+      default -> throw new IllegalArgumentException(dimension + " is not a period");
+    };
+  }
+
+  private static AnalyticsBucketDto bucket(String name, long count, long cents) {
+    return new AnalyticsBucketDto(name, count, BigDecimal.valueOf(cents, 2));
+  }
+
+  static long seconds(LocalDateTime dateTime) {
+    return dateTime.toEpochSecond(ZoneOffset.UTC);
+  }
+
+  static long cents(BigDecimal amount) {
+    return cents(amount, RoundingMode.HALF_UP);
+  }
+
+  private static long cents(BigDecimal amount, RoundingMode rounding) {
+    return amount.movePointRight(2).setScale(0, rounding).longValue();
+  }
+
+  /** Значения одной транзакции, нужные аналитике. */
+  record Row(
+      UUID id,
+      long seconds,
+      long amount,
+      String type,
+      String status,
+      String senderBank,
+      String receiverBank,
+      String category) {
+
+    static Row of(Transaction transaction) {
+      return new Row(
+          transaction.getId(),
+          ColumnarTable.seconds(transaction.getOperationDate()),
+          cents(transaction.getAmount()),
+          transaction.getTransactionType() == null
+              ? null
+              : transaction.getTransactionType().name(),
+          transaction.getStatus() == null ? null : transaction.getStatus().name(),
+          transaction.getSenderBank(),
+          transaction.getReceiverBank(),
+          transaction.getCategory());
+    }
+
+    static Row of(ResultSet rs) throws SQLException {
+      return new Row(
+          rs.getObject("id", UUID.class),
+          ColumnarTable.seconds(rs.getObject("operation_date", LocalDateTime.class)),
+          cents(rs.getBigDecimal("amount")),
+          rs.getString("transaction_type"),
+          rs.getString("status"),
+          rs.getString("sender_bank"),
+          rs.getString("receiver_bank"),
+          rs.getString("category"));
+    }
+  }
+
+  /** Словарь значений строкового признака: код — номер значения в порядке появления. */
+  static final class Dictionary {
+    /** Код значения, которого нет в словаре. */
+    static final int MISSING = Integer.MIN_VALUE;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    final List<String> values = new ArrayList<>();
+
+    int encode(String value) {
+      return codes.computeIfAbsent(
+          value,
+          v -> {
+            values.add(v);
+            return values.size() - 1;
+          });
+    }
+
+    /** Код значения, в том числе {@code null}, или {@link #MISSING}. */
+    int codeOf(String value) {
+      return codes.getOrDefault(value, MISSING);
+    }
+
+    /** Код значения для условия отбора; {@code null} — не ограничивать. */
+    int find(String value) {
+      return value == null ? ColumnarScan.ANY : codeOf(value);
+    }
+
+    String decode(int code) {
+      return values.get(code);
+    }
+
+    int size() {
+      return values.size();
+    }
+  }
+}
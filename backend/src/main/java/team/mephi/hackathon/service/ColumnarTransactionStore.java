@@ -0,0 +1,435 @@
+package team.mephi.hackathon.service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import team.mephi.hackathon.dto.AnalyticsBucketDto;
+import team.mephi.hackathon.dto.AnalyticsDimension;
+import team.mephi.hackathon.dto.TransactionChangeToken;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.repository.TransactionChangeRepository;
+
+/**
+ * Копия не удалённых транзакций в памяти приложения для аналитики. Каждый признак хранится
+ * отдельным массивом ({@link ColumnarTable}): дата — секундами эпохи, сумма — копейками, строковые
+ * признаки — кодами словаря. Агрегаты считаются параллельным проходом по массивам ({@link
+ * ColumnarScan}) без обращения к БД.
+ *
+ * <p>При старте копия читается из файла снимка ({@link ColumnarSnapshot}), а без снимка — из БД.
+ * Изменения, сохранённые {@link TransactionServiceImpl}, применяются после фиксации транзакции.
+ * Записи в обход сервиса (импорт, SQL, профиль {@code r2dbc}) и изменения, сделанные после
+ * снимка, по расписанию дочитываются из журнала изменений ({@link
+ * TransactionChangeRepository#CHANGES_SQL}) с позиции, до которой копия совпадает с БД. Журнал
+ * содержит каждую вставку и изменение строки, поэтому находятся и изменения, не меняющие дневных
+ * итогов. Строки отсоединённых секций убирает {@link TransactionPartitionManager}; строки,
+ * удалённые прямо в БД, в журнал не попадают и остаются в копии до её полной загрузки. Снимок
+ * сохраняется по расписанию и при остановке. Если транзакции не помещаются в отведённую память,
+ * копия не используется и агрегаты считает БД.
+ */
+@Service
+@RequiredArgsConstructor
+public class ColumnarTransactionStore {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ColumnarTransactionStore.class);
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private static final int FETCH_SIZE = 10_000;
+
+  /** Наибольшее число изменений, читаемых из журнала одним запросом. */
+  private static final int CHANGES_BATCH = 10_000;
+
+  private static final String LOAD =
+      "SELECT id, operation_date, amount, transaction_type, status, sender_bank, receiver_bank,"
+          + " category FROM transactions WHERE status <> 'DELETED'";
+
+  /** xmin снимка: все транзакции БД с меньшим номером завершены. */
+  private static final String HORIZON = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text";
+
+  /** Доступ к БД для загрузки. Инжектируется через конструктор. */
+  private final JdbcTemplate jdbcTemplate;
+
+  /** Шаблон транзакций: курсор с порциями строк работает только внутри транзакции. */
+  private final TransactionTemplate transactionTemplate;
+
+  /** Включена ли копия. */
+  @Value("${app.analytics.columnar.enabled}")
+  boolean enabled;
+
+  /** Память, которую может занять копия. */
+  @Value("${app.analytics.columnar.memory-budget}")
+  DataSize memoryBudget;
+
+  /** Файл снимка; пустая строка — снимок не ведётся. */
+  @Value("${app.analytics.columnar.snapshot.path}")
+  String snapshotPath;
+
+  /** Запросы читают столбцы под общей блокировкой, изменения применяются под исключительной. */
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /** Текущие столбцы или {@code null}, если копия не загружена. */
+  private ColumnarTable table;
+
+  /** Изменения, сохранённые во время загрузки; применяются поверх загруженных строк. */
+  private List<Consumer<ColumnarTable>> pending;
+
+  /** Выполнялось ли обновление: снимок читается только при первом. */
+  private volatile boolean started;
+
+  /**
+   * Приводит копию в соответствие с БД, первый раз — при старте. Первое обновление читает снимок;
+   * если копии нет, загружаются все транзакции, иначе — только изменения после позиции копии.
+   */
+  @Scheduled(fixedDelayString = "${app.analytics.columnar.refresh-interval}")
+  public void refresh() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      if (!started) {
+        started = true;
+        restore();
+      }
+      if (current() == null) {
+        loadAll();
+      } else {
+        catchUp();
+      }
+    } catch (RuntimeException e) {
+      LOGGER.error("Не удалось обновить транзакции для аналитики в памяти", e);
+    }
+  }
+
+  /**
+   * Сохраняет снимок копии по расписанию. Под блокировкой столбцы только копируются, а файл
+   * пишется вне её, поэтому изменения не ждут записи на диск; на время записи копия занимает
+   * столько же памяти, сколько столбцы.
+   */
+  @Scheduled(
+      fixedDelayString = "${app.analytics.columnar.snapshot.interval}",
+      initialDelayString = "${app.analytics.columnar.snapshot.interval}")
+  public synchronized void snapshot() {
+    if (!enabled || snapshotPath.isBlank()) {
+      return;
+    }
+    ColumnarTable copy;
+    lock.readLock().lock();
+    try {
+      copy = table == null ? null : table.copy();
+    } finally {
+      lock.readLock().unlock();
+    }
+    if (copy == null) {
+      return;
+    }
+    try {
+      ColumnarSnapshot.write(copy, Path.of(snapshotPath));
+    } catch (IOException e) {
+      LOGGER.error("Не удалось сохранить снимок транзакций {}", snapshotPath, e);
+    }
+  }
+
+  /** Сохраняет снимок при остановке, чтобы следующий запуск не загружал все транзакции. */
+  @PreDestroy
+  public void close() {
+    snapshot();
+  }
+
+  /**
+   * Передаёт сохранённую транзакцию в копию после фиксации текущей транзакции БД, а вне транзакции
+   * — сразу. Удалённая транзакция убирается из копии.
+   *
+   * @param transaction сохранённая транзакция
+   */
+  public void saved(Transaction transaction) {
+    savedAll(List.of(transaction));
+  }
+
+  /**
+   * Передаёт сохранённые транзакции в копию, как {@link #saved(Transaction)}.
+   *
+   * @param transactions сохранённые транзакции
+   */
+  public void savedAll(Collection<Transaction> transactions) {
+    if (!enabled || transactions.isEmpty()) {
+      return;
+    }
+    // Значения копируются сразу: сущность может измениться до фиксации
+    List<ColumnarTable.Row> rows = transactions.stream().map(ColumnarTable.Row::of).toList();
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      applyAll(rows);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            applyAll(rows);
+          }
+        });
+  }
+
+  /**
+   * Убирает из копии транзакции за месяц отсоединённой секции: их удаление не проходит через
+   * журнал изменений.
+   *
+   * @param month месяц отсоединённой секции
+   */
+  public void detached(YearMonth month) {
+    if (!enabled) {
+      return;
+    }
+    long from = ColumnarTable.seconds(month.atDay(1).atStartOfDay());
+    long to = ColumnarTable.seconds(month.plusMonths(1).atDay(1).atStartOfDay());
+    withWriteLock(() -> apply(copy -> copy.removeBetween(from, to)));
+  }
+
+  /**
+   * Считает количество и сумму не удалённых транзакций, удовлетворяющих фильтру, по каждому
+   * признаку отдельно, так же как {@link
+   * team.mephi.hackathon.repository.TransactionAnalyticsRepository}. Дата сравнивается с точностью
+   * до секунды, сумма — до копейки. Значения перечислений в фильтре должны быть проверены заранее.
+   *
+   * @param filter критерии отбора транзакций
+   * @param dimensions признаки группировки
+   * @return группы по каждому признаку или пустое значение, если копия недоступна
+   */
+  public Optional<Map<AnalyticsDimension, List<AnalyticsBucketDto>>> aggregate(
+      TransactionFilterDto filter, Set<AnalyticsDimension> dimensions) {
+    if (!enabled) {
+      return Optional.empty();
+    }
+    lock.readLock().lock();
+    try {
+      if (table == null || !table.aggregatable()) {
+        return Optional.empty();
+      }
+      return Optional.of(table.aggregate(filter, dimensions));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Читает копию из снимка, если он есть и помещается в бюджет памяти. */
+  private void restore() {
+    if (snapshotPath.isBlank() || !Files.isReadable(Path.of(snapshotPath))) {
+      return;
+    }
+    try {
+      ColumnarTable restored = ColumnarSnapshot.read(Path.of(snapshotPath), budget());
+      if (restored == null) {
+        LOGGER.warn("Снимок {} не помещается в {}", snapshotPath, memoryBudget);
+        return;
+      }
+      withWriteLock(() -> table = restored);
+      LOGGER.info("Транзакции для аналитики прочитаны из снимка: {}", restored.size);
+    } catch (IOException e) {
+      LOGGER.warn("Снимок {} не прочитан, транзакции загружаются из БД", snapshotPath, e);
+    }
+  }
+
+  /** Загружает все транзакции и сохраняет снимок. */
+  private void loadAll() {
+    Long active =
+        jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM transactions WHERE status <> 'DELETED'", Long.class);
+    if (active == null || active * ColumnarTable.BYTES_PER_ROW > budget()) {
+      LOGGER.warn(
+          "Транзакции ({}) не помещаются в {}, аналитику считает БД", active, memoryBudget);
+      return;
+    }
+    ColumnarTable loaded = new ColumnarTable((int) Math.max(INITIAL_CAPACITY, active), budget());
+    // Изменения завершённых до загрузки транзакций БД в неё попадут, остальные дочитаются из
+    // журнала: повторное применение изменения ничего не портит
+    loaded.position = TransactionChangeToken.horizon(horizon());
+    withWriteLock(() -> pending = new ArrayList<>());
+    boolean complete = false;
+    try {
+      query(LOAD, List.of(), loaded::upsert);
+      complete = true;
+    } finally {
+      ColumnarTable fresh = complete ? loaded : null;
+      withWriteLock(
+          () -> {
+            table = fresh;
+            replayPending();
+          });
+    }
+    if (current() != null) {
+      LOGGER.info("Загружено транзакций для аналитики в памяти: {}", loaded.size);
+      snapshot();
+    }
+  }
+
+  /**
+   * Дочитывает журнал изменений с позиции копии порциями по {@link #CHANGES_BATCH}. Изменения,
+   * сохранённые сервисом за время чтения порции, применяются поверх неё: они не старше прочитанных.
+   */
+  private void catchUp() {
+    long applied = 0;
+    int read;
+    do {
+      ColumnarTable current = current();
+      if (current == null) {
+        return;
+      }
+      TransactionChangeToken after = current.position;
+      List<ColumnarTable.Row> rows = new ArrayList<>();
+      withWriteLock(() -> pending = new ArrayList<>());
+      TransactionChangeToken next = null;
+      try {
+        next = readChanges(after, rows);
+      } finally {
+        TransactionChangeToken reached = next;
+        withWriteLock(
+            () -> {
+              if (reached != null) {
+                rows.forEach(row -> apply(columns -> columns.apply(row)));
+                if (table != null) {
+                  table.position = reached;
+                }
+              }
+              replayPending();
+            });
+      }
+      applied += rows.size();
+      read = rows.size();
+    } while (read == CHANGES_BATCH);
+    if (applied > 0) {
+      LOGGER.info("К транзакциям для аналитики применено изменений: {}", applied);
+    }
+  }
+
+  /**
+   * Читает порцию журнала изменений.
+   *
+   * @param after позиция, после которой читаются изменения
+   * @param rows список, в который добавляются строки после изменения
+   * @return позиция последнего прочитанного изменения, если порция заполнена, иначе конец журнала
+   */
+  private TransactionChangeToken readChanges(
+      TransactionChangeToken after, List<ColumnarTable.Row> rows) {
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("afterXid", after.xid())
+            .addValue("afterSeq", after.seq())
+            .addValue("afterId", after.id())
+            .addValue("limit", CHANGES_BATCH);
+    return new NamedParameterJdbcTemplate(jdbcTemplate)
+        .query(
+            TransactionChangeRepository.CHANGES_SQL,
+            params,
+            rs -> {
+              long horizon = 0;
+              TransactionChangeToken last = null;
+              while (rs.next()) {
+                horizon = Long.parseLong(rs.getString("horizon"));
+                if (rs.getObject("id") != null) {
+                  rows.add(ColumnarTable.Row.of(rs));
+                  last =
+                      new TransactionChangeToken(
+                          Long.parseLong(rs.getString("position_xid")),
+                          rs.getLong("position_seq"),
+                          rs.getObject("id", UUID.class));
+                }
+              }
+              return rows.size() == CHANGES_BATCH ? last : TransactionChangeToken.horizon(horizon);
+            });
+  }
+
+  private long horizon() {
+    return Long.parseLong(jdbcTemplate.queryForObject(HORIZON, String.class));
+  }
+
+  /** Читает транзакции курсором, не держа результат запроса целиком в памяти. */
+  private void query(String sql, List<Object> params, Consumer<ColumnarTable.Row> consumer) {
+    RowCallbackHandler handler = rs -> consumer.accept(ColumnarTable.Row.of(rs));
+    transactionTemplate.executeWithoutResult(
+        status ->
+            jdbcTemplate.query(
+                connection -> {
+                  PreparedStatement statement = connection.prepareStatement(sql);
+                  statement.setFetchSize(FETCH_SIZE);
+                  for (int i = 0; i < params.size(); i++) {
+                    statement.setObject(i + 1, params.get(i));
+                  }
+                  return statement;
+                },
+                handler));
+  }
+
+  private void applyAll(List<ColumnarTable.Row> rows) {
+    withWriteLock(() -> rows.forEach(row -> apply(columns -> columns.apply(row))));
+  }
+
+  /** Применяет изменение; вызывается под исключительной блокировкой. */
+  private void apply(Consumer<ColumnarTable> change) {
+    if (pending != null) {
+      pending.add(change);
+    }
+    if (table == null) {
+      return;
+    }
+    change.accept(table);
+    if (table.overBudget()) {
+      LOGGER.warn("Транзакции не помещаются в {}, аналитику считает БД", memoryBudget);
+      table = null;
+    }
+  }
+
+  /** Применяет отложенные изменения; вызывается под исключительной блокировкой. */
+  private void replayPending() {
+    List<Consumer<ColumnarTable>> saved = pending;
+    pending = null;
+    saved.forEach(this::apply);
+  }
+
+  private ColumnarTable current() {
+    lock.readLock().lock();
+    try {
+      return table;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private long budget() {
+    return memoryBudget.toBytes();
+  }
+
+  private void withWriteLock(Runnable action) {
+    lock.writeLock().lock();
+    try {
+      action.run();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+}
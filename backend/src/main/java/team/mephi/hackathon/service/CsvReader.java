@@ -0,0 +1,120 @@
+package team.mephi.hackathon.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import team.mephi.hackathon.exceptions.ValidationException;
+
+/**
+ * Потоковый разбор CSV по RFC 4180: разделитель — запятая, значения в двойных кавычках могут
+ * содержать запятые, переводы строк и удвоенные кавычки. Записи читаются по одной, поэтому размер
+ * файла не влияет на потребление памяти.
+ */
+final class CsvReader implements Closeable {
+  private static final int EOF = -1;
+
+  private final Reader reader;
+
+  /** Символ, прочитанный заранее и ещё не обработанный, или {@code -2}, если его нет. */
+  private int pending = -2;
+
+  /** Номер последней прочитанной записи, начиная с 1. */
+  private long recordNumber;
+
+  CsvReader(Reader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * Читает следующую запись. Пустые строки пропускаются.
+   *
+   * @return значения полей записи или {@code null}, если файл закончился
+   * @throws IOException если чтение не удалось
+   * @throws ValidationException если кавычки в записи не закрыты до конца файла
+   */
+  List<String> next() throws IOException {
+    int c = read();
+    while (c == '\r' || c == '\n') {
+      c = read();
+    }
+    if (c == EOF) {
+      return null;
+    }
+    // Метка порядка байтов, которую добавляет Excel при сохранении в UTF-8
+    if (recordNumber == 0 && c == '\uFEFF') {
+      c = read();
+    }
+    recordNumber++;
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    while (true) {
+      if (c == '"' && field.isEmpty()) {
+        c = readQuoted(field);
+      }
+      if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else if (c == '\r' || c == '\n' || c == EOF) {
+        if (c == '\r') {
+          int lf = read();
+          if (lf != '\n') {
+            pending = lf;
+          }
+        }
+        fields.add(field.toString());
+        return fields;
+      } else {
+        field.append((char) c);
+      }
+      c = read();
+    }
+  }
+
+  /**
+   * Номер последней прочитанной записи, начиная с 1. Запись с переводами строк внутри кавычек
+   * считается одной.
+   *
+   * @return номер записи
+   */
+  long recordNumber() {
+    return recordNumber;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  /**
+   * Дочитывает значение в кавычках, начиная с символа после открывающей кавычки.
+   *
+   * @param field буфер значения
+   * @return первый символ после закрывающей кавычки
+   */
+  private int readQuoted(StringBuilder field) throws IOException {
+    while (true) {
+      int c = read();
+      if (c == EOF) {
+        throw new ValidationException("Незакрытая кавычка в записи " + recordNumber);
+      }
+      if (c == '"') {
+        int next = read();
+        if (next != '"') {
+          return next;
+        }
+      }
+      field.append((char) c);
+    }
+  }
+
+  private int read() throws IOException {
+    if (pending != -2) {
+      int c = pending;
+      pending = -2;
+      return c;
+    }
+    return reader.read();
+  }
+}
@@ -0,0 +1,46 @@
+package team.mephi.hackathon.service;
+
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import team.mephi.hackathon.controller.CategoryService;
+import team.mephi.hackathon.controller.ReactiveCategoryService;
+import team.mephi.hackathon.dto.CategoryRequestDto;
+import team.mephi.hackathon.dto.CategoryResponseDto;
+import team.mephi.hackathon.execution.Workload;
+import team.mephi.hackathon.execution.WorkloadExecutor;
+
+/**
+ * Реализация {@link ReactiveCategoryService} поверх JPA. Блокирующие вызовы {@link CategoryService}
+ * выполняются в виртуальных потоках слоя {@link WorkloadExecutor}. Используется во всех профилях,
+ * кроме {@code r2dbc}.
+ */
+@Service
+@Profile("!r2dbc")
+@RequiredArgsConstructor
+public class OffloadingCategoryService implements ReactiveCategoryService {
+  /** Блокирующий сервис категорий. Инжектируется через конструктор. */
+  private final CategoryService service;
+
+  /** Слой выполнения блокирующих вызовов сервиса вне цикла событий. */
+  private final WorkloadExecutor executor;
+
+  public Flux<CategoryResponseDto> getCategories() {
+    return executor.call(Workload.CRUD, service::getCategories).flatMapIterable(list -> list);
+  }
+
+  public Mono<CategoryResponseDto> createCategory(CategoryRequestDto dto) {
+    return executor.call(Workload.CRUD, () -> service.createCategory(dto));
+  }
+
+  public Mono<CategoryResponseDto> updateCategory(UUID id, CategoryRequestDto dto) {
+    return executor.call(Workload.CRUD, () -> service.updateCategory(id, dto));
+  }
+
+  public Mono<Void> deleteCategory(UUID id) {
+    return executor.run(Workload.CRUD, () -> service.deleteCategory(id));
+  }
+}
@@ -0,0 +1,111 @@
+package team.mephi.hackathon.service;
+
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import team.mephi.hackathon.controller.ReactiveTransactionService;
+import team.mephi.hackathon.controller.TransactionService;
+import team.mephi.hackathon.dto.TransactionBatchResultDto;
+import team.mephi.hackathon.dto.TransactionChangeDto;
+import team.mephi.hackathon.dto.TransactionDeltaDto;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.dto.TransactionPageDto;
+import team.mephi.hackathon.dto.TransactionRequestDto;
+import team.mephi.hackathon.dto.TransactionResponseDto;
+import team.mephi.hackathon.dto.TransactionStatusChangeDto;
+import team.mephi.hackathon.dto.TransactionStatusResultDto;
+import team.mephi.hackathon.execution.Workload;
+import team.mephi.hackathon.execution.WorkloadExecutor;
+
+/**
+ * Реализация {@link ReactiveTransactionService} поверх JPA. Блокирующие вызовы {@link
+ * TransactionService} выполняются в виртуальных потоках слоя {@link WorkloadExecutor}. Используется
+ * во всех профилях, кроме {@code r2dbc}.
+ */
+@Service
+@Profile("!r2dbc")
+@RequiredArgsConstructor
+public class OffloadingTransactionService implements ReactiveTransactionService {
+  /** Блокирующий сервис транзакций. Инжектируется через конструктор. */
+  private final TransactionService service;
+
+  /** Слой выполнения блокирующих вызовов сервиса вне цикла событий. */
+  private final WorkloadExecutor executor;
+
+  /** Лента изменений транзакций. Инжектируется через конструктор. */
+  private final TransactionChangeFeed changeFeed;
+
+  public Mono<TransactionResponseDto> createTransaction(TransactionRequestDto dto) {
+    return executor.call(Workload.CRUD, () -> service.createTransaction(dto));
+  }
+
+  /**
+   * Создаёт транзакции пакетами. Пакеты обрабатываются последовательно: следующий пакет читается
+   * из тела запроса только после сохранения предыдущего.
+   *
+   * @param rows строки в порядке поступления
+   * @return результат по каждой строке в порядке строк
+   */
+  public Flux<TransactionBatchResultDto> createTransactions(Flux<TransactionRequestDto> rows) {
+    return TransactionBatch.chunks(rows)
+        .concatMap(
+            chunk ->
+                executor.call(
+                    Workload.CRUD,
+                    () -> service.createTransactions(chunk.rows(), chunk.firstIndex())))
+        .flatMapIterable(results -> results);
+  }
+
+  public Mono<TransactionResponseDto> getTransaction(UUID id) {
+    return executor.call(Workload.CRUD, () -> service.getTransaction(id));
+  }
+
+  public Mono<TransactionPageDto> searchTransactions(TransactionFilterDto filter) {
+    return executor.call(Workload.SEARCH, () -> service.searchTransactions(filter));
+  }
+
+  /**
+   * Выдаёт транзакции, соответствующие фильтру, по мере чтения из БД. Выгрузка выполняется в
+   * рамках нагрузки {@link Workload#STREAM}: она удерживает соединение с БД, пока клиент не
+   * прочитает все транзакции, и не должна занимать места интерактивного поиска и отчётов.
+   *
+   * @param filter фильтр поиска и необязательный курсор
+   * @return транзакции в порядке убывания даты операции
+   */
+  public Flux<TransactionResponseDto> streamTransactions(TransactionFilterDto filter) {
+    return executor.stream(
+        Workload.STREAM, consumer -> service.streamTransactions(filter, consumer));
+  }
+
+  public Mono<TransactionDeltaDto> getChangesSince(String token, Integer limit) {
+    return executor.call(Workload.SEARCH, () -> service.getChangesSince(token, limit));
+  }
+
+  public Mono<TransactionResponseDto> updateTransaction(UUID id, TransactionRequestDto dto) {
+    return executor.call(Workload.CRUD, () -> service.updateTransaction(id, dto));
+  }
+
+  public Mono<Void> deleteTransaction(UUID id) {
+    return executor.run(Workload.CRUD, () -> service.deleteTransaction(id));
+  }
+
+  /**
+   * Меняет статус транзакций порциями и выдаёт результаты по мере обработки порций. Выполняется в
+   * рамках нагрузки {@link Workload#IMPORT}: массовая запись не должна занимать места одиночных
+   * операций.
+   *
+   * @param request запрос смены статуса
+   * @return результат по каждой транзакции
+   */
+  public Flux<TransactionStatusResultDto> changeStatus(TransactionStatusChangeDto request) {
+    return executor.stream(
+        Workload.IMPORT, consumer -> service.changeStatus(request, consumer));
+  }
+
+  public Flux<TransactionChangeDto> changes() {
+    return changeFeed.changes();
+  }
+}
@@ -0,0 +1,286 @@
+package team.mephi.hackathon.service;
+
+import java.awt.Color;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.util.Matrix;
+
+/**
+ * Постраничная запись таблицы в PDF. Текст ячеек переносится по словам в пределах ширины столбца,
+ * строка, не помещающаяся на странице, начинает новую страницу с повтором заголовка. Содержимое
+ * каждой страницы закрывается сразу после её заполнения, поэтому в памяти находится только
+ * текущая страница.
+ */
+final class PdfTableWriter implements Closeable {
+  /** Альбомный A4. */
+  private static final PDRectangle PAGE_SIZE =
+      new PDRectangle(PDRectangle.A4.getHeight(), PDRectangle.A4.getWidth());
+
+  private static final float MARGIN = 28;
+  private static final float TITLE_FONT_SIZE = 12;
+  private static final float FONT_SIZE = 7;
+  private static final float LEADING = FONT_SIZE * 1.25f;
+  private static final float CELL_PADDING = 2;
+  private static final float LINE_WIDTH = 0.5f;
+  private static final Color HEADER_BACKGROUND = new Color(217, 217, 217);
+
+  /** Максимальное количество строк текста в ячейке; остаток заменяется многоточием. */
+  static final int MAX_CELL_LINES = 10;
+
+  private static final String ELLIPSIS = "…";
+
+  private final PDDocument document;
+  private final PDFont font;
+  private final String title;
+  private final float[] columnWidths;
+  private final List<List<String>> header;
+  private final float headerHeight;
+  private final Map<Integer, Float> glyphWidths = new HashMap<>();
+
+  /** Содержимое текущей страницы, {@code null} до первой строки. */
+  private PDPageContentStream content;
+
+  /** Верхняя граница следующей строки таблицы. */
+  private float y;
+
+  private int pageNumber;
+
+  /**
+   * Создаёт таблицу. Ширина страницы между полями делится между столбцами пропорционально весам.
+   *
+   * @param document документ, в который добавляются страницы
+   * @param font шрифт текста; должен содержать глифы всех выводимых символов
+   * @param title заголовок на первой странице
+   * @param columns названия столбцов
+   * @param weights относительная ширина каждого столбца
+   * @throws IOException если не удалось измерить текст заголовка
+   */
+  PdfTableWriter(
+      PDDocument document, PDFont font, String title, String[] columns, float[] weights)
+      throws IOException {
+    this.document = document;
+    this.font = font;
+    this.title = printable(title);
+    float totalWeight = 0;
+    for (float weight : weights) {
+      totalWeight += weight;
+    }
+    float tableWidth = PAGE_SIZE.getWidth() - 2 * MARGIN;
+    columnWidths = new float[weights.length];
+    for (int i = 0; i < weights.length; i++) {
+      columnWidths[i] = tableWidth * weights[i] / totalWeight;
+    }
+    header = wrapRow(columns);
+    headerHeight = rowHeight(header);
+  }
+
+  /**
+   * Добавляет строку таблицы, при нехватке места — на новую страницу.
+   *
+   * @param cells значения ячеек в порядке столбцов
+   * @throws IOException если запись не удалась
+   */
+  void addRow(String... cells) throws IOException {
+    List<List<String>> lines = wrapRow(cells);
+    float height = rowHeight(lines);
+    if (content == null || y - height < MARGIN) {
+      newPage();
+    }
+    drawRow(lines, height);
+  }
+
+  /** Завершает последнюю страницу. Пустая таблица выводится как страница с заголовком. */
+  @Override
+  public void close() throws IOException {
+    if (content == null) {
+      newPage();
+    }
+    content.close();
+    content = null;
+  }
+
+  private void newPage() throws IOException {
+    if (content != null) {
+      content.close();
+    }
+    PDPage page = new PDPage(PAGE_SIZE);
+    document.addPage(page);
+    content = new PDPageContentStream(document, page);
+    content.setLineWidth(LINE_WIDTH);
+    pageNumber++;
+    y = PAGE_SIZE.getHeight() - MARGIN;
+
+    String footer = String.valueOf(pageNumber);
+    showText(footer, PAGE_SIZE.getWidth() - MARGIN - textWidth(footer), MARGIN / 2, FONT_SIZE);
+    if (pageNumber == 1) {
+      y -= TITLE_FONT_SIZE;
+      showText(title, MARGIN, y, TITLE_FONT_SIZE);
+      y -= TITLE_FONT_SIZE;
+    }
+
+    content.setNonStrokingColor(HEADER_BACKGROUND);
+    content.addRect(MARGIN, y - headerHeight, PAGE_SIZE.getWidth() - 2 * MARGIN, headerHeight);
+    content.fill();
+    content.setNonStrokingColor(Color.BLACK);
+    drawLine(y);
+    drawRow(header, headerHeight);
+  }
+
+  private void drawRow(List<List<String>> cells, float height) throws IOException {
+    content.beginText();
+    content.setFont(font, FONT_SIZE);
+    float x = MARGIN;
+    for (int column = 0; column < cells.size(); column++) {
+      float baseline = y - CELL_PADDING - FONT_SIZE;
+      for (String line : cells.get(column)) {
+        content.setTextMatrix(Matrix.getTranslateInstance(x + CELL_PADDING, baseline));
+        content.showText(line);
+        baseline -= LEADING;
+      }
+      x += columnWidths[column];
+    }
+    content.endText();
+    y -= height;
+    drawLine(y);
+  }
+
+  private void drawLine(float lineY) throws IOException {
+    content.moveTo(MARGIN, lineY);
+    content.lineTo(PAGE_SIZE.getWidth() - MARGIN, lineY);
+    content.stroke();
+  }
+
+  private void showText(String text, float x, float baseline, float size) throws IOException {
+    content.beginText();
+    content.setFont(font, size);
+    content.newLineAtOffset(x, baseline);
+    content.showText(text);
+    content.endText();
+  }
+
+  private float rowHeight(List<List<String>> cells) {
+    int lines = 1;
+    for (List<String> cell : cells) {
+      lines = Math.max(lines, cell.size());
+    }
+    return lines * LEADING + 2 * CELL_PADDING;
+  }
+
+  private List<List<String>> wrapRow(String[] cells) throws IOException {
+    List<List<String>> row = new ArrayList<>(columnWidths.length);
+    for (int i = 0; i < columnWidths.length; i++) {
+      String text = i < cells.length && cells[i] != null ? printable(cells[i]) : "";
+      row.add(wrap(text, columnWidths[i] - 2 * CELL_PADDING));
+    }
+    return row;
+  }
+
+  /**
+   * Разбивает текст на строки не шире заданной ширины: по пробелам, а слова, не помещающиеся в
+   * столбец целиком, — посимвольно.
+   */
+  private List<String> wrap(String text, float width) throws IOException {
+    List<String> lines = new ArrayList<>();
+    StringBuilder line = new StringBuilder();
+    float lineWidth = 0;
+    float spaceWidth = glyphWidth(' ');
+    for (String word : text.trim().split(" +")) {
+      float wordWidth = textWidth(word);
+      float needed = line.isEmpty() ? wordWidth : lineWidth + spaceWidth + wordWidth;
+      if (needed <= width) {
+        if (!line.isEmpty()) {
+          line.append(' ');
+        }
+        line.append(word);
+        lineWidth = needed;
+        continue;
+      }
+      if (!line.isEmpty()) {
+        lines.add(line.toString());
+        line.setLength(0);
+        lineWidth = 0;
+      }
+      for (int i = 0; i < word.length(); ) {
+        int codePoint = word.codePointAt(i);
+        float charWidth = glyphWidth(codePoint);
+        if (!line.isEmpty() && lineWidth + charWidth > width) {
+          lines.add(line.toString());
+          line.setLength(0);
+          lineWidth = 0;
+        }
+        line.appendCodePoint(codePoint);
+        lineWidth += charWidth;
+        i += Character.charCount(codePoint);
+      }
+    }
+    lines.add(line.toString());
+    if (lines.size() <= MAX_CELL_LINES) {
+      return lines;
+    }
+    String last = lines.get(MAX_CELL_LINES - 1);
+    while (!last.isEmpty() && textWidth(last + ELLIPSIS) > width) {
+      last = last.substring(0, last.offsetByCodePoints(last.length(), -1));
+    }
+    List<String> truncated = new ArrayList<>(lines.subList(0, MAX_CELL_LINES - 1));
+    truncated.add(last + ELLIPSIS);
+    return truncated;
+  }
+
+  /**
+   * Заменяет пробельные и управляющие символы пробелом, а символы, которых нет в шрифте, — знаком
+   * вопроса. Неразрывные пробелы сохраняются.
+   */
+  private String printable(String text) throws IOException {
+    StringBuilder result = new StringBuilder(text.length());
+    for (int i = 0; i < text.length(); ) {
+      int codePoint = text.codePointAt(i);
+      if (Character.isISOControl(codePoint) || Character.isWhitespace(codePoint)) {
+        result.append(' ');
+      } else if (glyphWidth(codePoint) < 0) {
+        result.append('?');
+      } else {
+        result.appendCodePoint(codePoint);
+      }
+      i += Character.charCount(codePoint);
+    }
+    return result.toString();
+  }
+
+  private float textWidth(String text) throws IOException {
+    float width = 0;
+    for (int i = 0; i < text.length(); ) {
+      int codePoint = text.codePointAt(i);
+      width += glyphWidth(codePoint);
+      i += Character.charCount(codePoint);
+    }
+    return width;
+  }
+
+  /**
+   * Возвращает ширину символа при размере {@link #FONT_SIZE} или {@code -1}, если в шрифте нет его
+   * глифа. Результат кэшируется: таблица выводит одни и те же символы сотни тысяч раз.
+   */
+  private float glyphWidth(int codePoint) throws IOException {
+    Float cached = glyphWidths.get(codePoint);
+    if (cached != null) {
+      return cached;
+    }
+    float width;
+    try {
+      width = font.getStringWidth(new String(Character.toChars(codePoint))) / 1000 * FONT_SIZE;
+    } catch (IllegalArgumentException e) {
+      width = -1;
+    }
+    glyphWidths.put(codePoint, width);
+    return width;
+  }
+}
@@ -0,0 +1,74 @@
+package team.mephi.hackathon.service;
+
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import team.mephi.hackathon.controller.ReactiveCategoryService;
+import team.mephi.hackathon.dto.CategoryRequestDto;
+import team.mephi.hackathon.dto.CategoryResponseDto;
+import team.mephi.hackathon.entity.Category;
+import team.mephi.hackathon.exceptions.EntityNotFoundException;
+import team.mephi.hackathon.mapper.CategoryMapper;
+import team.mephi.hackathon.repository.R2dbcCategoryRepository;
+
+/** Неблокирующая реализация сервиса категорий для профиля {@code r2dbc}. */
+@Service
+@Profile("r2dbc")
+@RequiredArgsConstructor
+public class R2dbcCategoryServiceImpl implements ReactiveCategoryService {
+  /** Реактивный репозиторий категорий. Инжектируется через конструктор. */
+  private final R2dbcCategoryRepository repository;
+
+  /** Маппер для преобразования между DTO и Entity. Инжектируется через конструктор. */
+  private final CategoryMapper mapper;
+
+  /** Справочник категорий в памяти, по которому проверяются транзакции. */
+  private final CategoryDictionary dictionary;
+
+  public Flux<CategoryResponseDto> getCategories() {
+    return repository.findAll().map(this::mapToDto);
+  }
+
+  public Mono<CategoryResponseDto> createCategory(CategoryRequestDto dto) {
+    return Mono.fromCallable(
+            () -> {
+              Category entity = mapper.toEntity(dto);
+              entity.setId(UUID.randomUUID());
+              return entity;
+            })
+        .flatMap(repository::insert)
+        .map(this::mapToDto)
+        .doOnNext(dictionary::saved);
+  }
+
+  public Mono<CategoryResponseDto> updateCategory(UUID id, CategoryRequestDto dto) {
+    return Mono.fromCallable(
+            () -> {
+              Category entity = new Category(dto.getName());
+              entity.setId(id);
+              return entity;
+            })
+        .flatMap(repository::update)
+        .switchIfEmpty(Mono.error(() -> notFound(id)))
+        .map(this::mapToDto)
+        .doOnNext(dictionary::saved);
+  }
+
+  public Mono<Void> deleteCategory(UUID id) {
+    return repository
+        .deleteById(id)
+        .flatMap(deleted -> deleted > 0 ? Mono.<Void>empty() : Mono.error(notFound(id)))
+        .doOnSuccess(done -> dictionary.deleted(id));
+  }
+
+  private CategoryResponseDto mapToDto(Category category) {
+    return mapper.toDto(category);
+  }
+
+  private static EntityNotFoundException notFound(UUID id) {
+    return new EntityNotFoundException("Category " + id + " not found.");
+  }
+}
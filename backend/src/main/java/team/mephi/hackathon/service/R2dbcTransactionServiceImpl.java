@@ -0,0 +1,332 @@
+package team.mephi.hackathon.service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import team.mephi.hackathon.controller.ReactiveTransactionService;
+import team.mephi.hackathon.controller.ValidationService;
+import team.mephi.hackathon.dto.TransactionBatchResultDto;
+import team.mephi.hackathon.dto.TransactionChangeDto;
+import team.mephi.hackathon.dto.TransactionChangeToken;
+import team.mephi.hackathon.dto.TransactionCursor;
+import team.mephi.hackathon.dto.TransactionDeltaDto;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.dto.TransactionPageDto;
+import team.mephi.hackathon.dto.TransactionRequestDto;
+import team.mephi.hackathon.dto.TransactionResponseDto;
+import team.mephi.hackathon.dto.TransactionStatusChangeDto;
+import team.mephi.hackathon.dto.TransactionStatusResultDto;
+import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.entity.TransactionStatus;
+import team.mephi.hackathon.exceptions.EntityNotFoundException;
+import team.mephi.hackathon.mapper.TransactionMapper;
+import team.mephi.hackathon.repository.R2dbcTransactionRepository;
+import team.mephi.hackathon.repository.TransactionStatusRepository.StatusUpdate;
+
+/**
+ * Неблокирующая реализация сервиса транзакций для профиля {@code r2dbc}. Бизнес-правила (проверки
+ * статусов, размер страницы, валидация) совпадают с {@link TransactionServiceImpl}. Записи
+ * публикуются в {@link TransactionChangeFeed} после фиксации, как и в реализации с JPA.
+ */
+@Service
+@Profile("r2dbc")
+@RequiredArgsConstructor
+public class R2dbcTransactionServiceImpl implements ReactiveTransactionService {
+  /** Реактивный репозиторий транзакций. Инжектируется через конструктор. */
+  private final R2dbcTransactionRepository repository;
+
+  /** Сервис валидации данных транзакции. Инжектируется через конструктор. */
+  private final ValidationService validationService;
+
+  /** Маппер для преобразования между DTO и Entity. Инжектируется через конструктор. */
+  private final TransactionMapper mapper;
+
+  /** Оператор транзакций БД для операций «прочитать и изменить». */
+  private final TransactionalOperator transactionalOperator;
+
+  /** Лента изменений транзакций. Инжектируется через конструктор. */
+  private final TransactionChangeFeed changeFeed;
+
+  /**
+   * Создаёт новую транзакцию на основе переданных данных.
+   *
+   * @param dto данные о новой транзакции
+   * @return Mono с созданной транзакцией
+   */
+  public Mono<TransactionResponseDto> createTransaction(TransactionRequestDto dto) {
+    return Mono.fromCallable(
+            () -> {
+              validationService.validateTransaction(dto);
+              Transaction entity = mapper.toEntity(dto);
+              entity.setId(UUID.randomUUID());
+              return entity;
+            })
+        .flatMap(repository::insert)
+        .map(this::mapToDto)
+        .flatMap(created -> publish(() -> changeFeed.created(created)).thenReturn(created));
+  }
+
+  /**
+   * Создаёт транзакции пакетами. Строки проверяются по отдельности, прошедшие проверку вставляются
+   * многострочным запросом; следующий пакет читается из тела запроса после сохранения предыдущего.
+   *
+   * @param rows строки в порядке поступления
+   * @return результат по каждой строке в порядке строк
+   */
+  public Flux<TransactionBatchResultDto> createTransactions(Flux<TransactionRequestDto> rows) {
+    return TransactionBatch.chunks(rows)
+        .concatMap(
+            chunk ->
+                Mono.fromCallable(
+                        () ->
+                            TransactionBatch.prepare(
+                                chunk.rows(), chunk.firstIndex(), validationService, mapper))
+                    .flatMap(batch -> insert(batch).then(publishInserted(batch)).thenReturn(batch)))
+        .flatMapIterable(TransactionBatch::results);
+  }
+
+  /**
+   * Возвращает транзакцию по её идентификатору.
+   *
+   * @param id идентификатор транзакции
+   * @return Mono с транзакцией; ошибка {@link EntityNotFoundException}, если её нет
+   */
+  public Mono<TransactionResponseDto> getTransaction(UUID id) {
+    return findExisting(id).map(this::mapToDto);
+  }
+
+  /**
+   * Получает страницу транзакций, соответствующих заданным фильтрам. Строки читаются из курсора БД
+   * потоком; запрашивается на одну запись больше, чтобы узнать, есть ли следующая страница.
+   *
+   * @param filter фильтр поиска, курсор и размер страницы
+   * @return Mono со страницей транзакций и курсором следующей страницы
+   */
+  public Mono<TransactionPageDto> searchTransactions(TransactionFilterDto filter) {
+    return Mono.defer(
+        () -> {
+          int limit = TransactionServiceImpl.resolvePageSize(filter.getLimit());
+          TransactionCursor after = TransactionCursor.decode(filter.getCursor());
+          return repository
+              .findPage(filter, after, limit + 1)
+              .collectList()
+              .map(rows -> toPage(rows, limit));
+        });
+  }
+
+  /**
+   * Выдаёт транзакции, соответствующие фильтру, по мере чтения из курсора БД, начиная с позиции
+   * курсора, если он указан.
+   *
+   * @param filter фильтр поиска и необязательный курсор
+   * @return транзакции в порядке убывания даты операции
+   */
+  public Flux<TransactionResponseDto> streamTransactions(TransactionFilterDto filter) {
+    return Flux.defer(
+        () ->
+            repository
+                .findAll(filter, TransactionCursor.decode(filter.getCursor()))
+                .map(this::mapToDto));
+  }
+
+  /**
+   * Возвращает изменения транзакций после токена, полученного клиентом в предыдущем ответе.
+   *
+   * @param token токен предыдущего ответа, может быть {@code null}
+   * @param limit максимальное количество изменений в ответе, может быть {@code null}
+   * @return Mono с изменёнными и удалёнными транзакциями и токеном следующего запроса
+   */
+  public Mono<TransactionDeltaDto> getChangesSince(String token, Integer limit) {
+    return Mono.defer(
+        () -> {
+          int size = TransactionServiceImpl.resolvePageSize(limit);
+          TransactionChangeToken after = TransactionChangeToken.decode(token);
+          return repository
+              .findChanges(after, size + 1)
+              .map(log -> TransactionServiceImpl.toDelta(log, size, mapper));
+        });
+  }
+
+  /**
+   * Обновляет существующую транзакцию, если её статус допускает редактирование.
+   *
+   * @param id идентификатор транзакции
+   * @param dto новые данные транзакции
+   * @return Mono с обновлённой транзакцией
+   */
+  public Mono<TransactionResponseDto> updateTransaction(UUID id, TransactionRequestDto dto) {
+    return findExisting(id)
+        .flatMap(
+            entity -> {
+              TransactionServiceImpl.checkUpdatable(entity.getStatus());
+              validationService.validateTransaction(dto);
+              mapper.updateEntity(dto, entity);
+              entity.setId(id);
+              return repository.update(entity);
+            })
+        .as(transactionalOperator::transactional)
+        .map(this::mapToDto)
+        .flatMap(updated -> publish(() -> changeFeed.updated(updated)).thenReturn(updated));
+  }
+
+  /**
+   * Помечает транзакцию удалённой, если её статус это допускает.
+   *
+   * @param id идентификатор транзакции
+   * @return Mono, завершающийся после удаления
+   */
+  public Mono<Void> deleteTransaction(UUID id) {
+    return findExisting(id)
+        .flatMap(
+            entity -> {
+              TransactionServiceImpl.checkDeletable(entity.getStatus());
+              entity.setStatus(TransactionStatus.DELETED);
+              return repository.update(entity);
+            })
+        .as(transactionalOperator::transactional)
+        .then(publish(() -> changeFeed.deleted(id)));
+  }
+
+  /**
+   * Меняет статус транзакций, заданных идентификаторами или фильтром, порциями по {@value
+   * TransactionServiceImpl#STATUS_CHUNK_SIZE}. Каждая порция меняется одним запросом; следующая
+   * порция читается после изменения предыдущей.
+   *
+   * @param request запрос смены статуса
+   * @return результат по каждой транзакции в порядке обработки
+   */
+  public Flux<TransactionStatusResultDto> changeStatus(TransactionStatusChangeDto request) {
+    return Flux.defer(
+        () -> {
+          TransactionStatus target = TransactionServiceImpl.resolveTargetStatus(request);
+          Set<TransactionStatus> sources = TransactionServiceImpl.statusSources(target);
+          int size = TransactionServiceImpl.STATUS_CHUNK_SIZE;
+          Flux<List<UUID>> chunks;
+          if (request.getIds() != null) {
+            chunks = Flux.fromStream(request.getIds().stream().distinct()).buffer(size);
+          } else {
+            // Порции читаются по курсору: изменённая транзакция может выйти из выборки фильтра
+            chunks =
+                positions(request.getFilter(), null, size)
+                    .expand(
+                        page ->
+                            page.size() < size
+                                ? Mono.empty()
+                                : positions(request.getFilter(), page.get(size - 1), size))
+                    .filter(page -> !page.isEmpty())
+                    .map(page -> page.stream().map(TransactionCursor::id).toList());
+          }
+          return chunks
+              .concatMap(
+                  ids ->
+                      repository
+                          .updateStatus(ids, target, sources)
+                          .flatMap(
+                              updates ->
+                                  publish(() -> publishStatus(updates, target))
+                                      .thenReturn(
+                                          TransactionServiceImpl.toStatusResults(
+                                              ids, updates, target))))
+              .flatMapIterable(results -> results);
+        });
+  }
+
+  /**
+   * Возвращает поток изменений транзакций.
+   *
+   * @return события изменения транзакций
+   */
+  public Flux<TransactionChangeDto> changes() {
+    return changeFeed.changes();
+  }
+
+  /**
+   * Вставляет строки пакета одним запросом. Если БД отклоняет запрос, строки вставляются по одной,
+   * чтобы отклонить только ошибочные.
+   */
+  private Mono<Void> insert(TransactionBatch batch) {
+    return repository
+        .insertAll(batch.accepted())
+        .collectList()
+        .doOnNext(ids -> batch.markInserted(batch.accepted(), ids))
+        .onErrorResume(
+            e ->
+                Flux.fromIterable(batch.accepted())
+                    .concatMap(
+                        entity ->
+                            repository
+                                .insertAll(List.of(entity))
+                                .collectList()
+                                .doOnNext(ids -> batch.markInserted(List.of(entity), ids))
+                                .onErrorResume(
+                                    rowError -> {
+                                      batch.reject(entity, rowError.getMessage());
+                                      return Mono.empty();
+                                    }))
+                    .then(Mono.empty()))
+        .then();
+  }
+
+  /**
+   * Публикует изменения в ленту. Уведомления отправляются через JDBC, поэтому публикация
+   * выполняется вне потока обработки запроса; ошибка отправки записи не отменяет.
+   */
+  private Mono<Void> publish(Runnable publication) {
+    return Mono.fromRunnable(publication).subscribeOn(Schedulers.boundedElastic()).then();
+  }
+
+  private Mono<Void> publishInserted(TransactionBatch batch) {
+    return publish(
+        () -> changeFeed.createdAll(batch.inserted().stream().map(this::mapToDto).toList()));
+  }
+
+  private void publishStatus(List<StatusUpdate> updates, TransactionStatus target) {
+    List<Transaction> changed =
+        updates.stream().map(StatusUpdate::updated).filter(Objects::nonNull).toList();
+    if (changed.isEmpty()) {
+      return;
+    }
+    if (target == TransactionStatus.DELETED) {
+      changeFeed.deletedAll(changed.stream().map(Transaction::getId).toList());
+    } else {
+      changeFeed.updatedAll(changed.stream().map(this::mapToDto).toList());
+    }
+  }
+
+  private Mono<List<TransactionCursor>> positions(
+      TransactionFilterDto filter, TransactionCursor after, int limit) {
+    return repository
+        .findPage(filter, after, limit)
+        .map(entity -> new TransactionCursor(entity.getOperationDate(), entity.getId()))
+        .collectList();
+  }
+
+  private TransactionPageDto toPage(List<Transaction> rows, int limit) {
+    String next = null;
+    if (rows.size() > limit) {
+      rows = rows.subList(0, limit);
+      Transaction last = rows.get(limit - 1);
+      next = new TransactionCursor(last.getOperationDate(), last.getId()).encode();
+    }
+    return new TransactionPageDto(rows.stream().map(this::mapToDto).toList(), next);
+  }
+
+  private TransactionResponseDto mapToDto(Transaction entity) {
+    return mapper.toDto(entity);
+  }
+
+  private Mono<Transaction> findExisting(UUID id) {
+    return repository
+        .findById(id)
+        .switchIfEmpty(
+            Mono.error(() -> new EntityNotFoundException("Transaction " + id + " not found.")));
+  }
+}
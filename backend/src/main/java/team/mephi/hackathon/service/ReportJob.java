@@ -0,0 +1,70 @@
+package team.mephi.hackathon.service;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.Getter;
+import team.mephi.hackathon.dto.ReportFormat;
+import team.mephi.hackathon.dto.ReportJobDto;
+import team.mephi.hackathon.dto.ReportJobStatus;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+
+/**
+ * Задание на формирование отчёта. Статус записывается последним, поэтому прочитавший его поток
+ * видит и заполненные вместе с ним поля.
+ */
+@Getter
+class ReportJob {
+  private final UUID id;
+  private final ReportFormat format;
+  private final TransactionFilterDto filter;
+  private final Instant createdAt;
+  private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+  private volatile Instant startedAt;
+  private volatile Instant finishedAt;
+  private volatile Path file;
+  private volatile long size;
+  private volatile String error;
+
+  ReportJob(UUID id, ReportFormat format, TransactionFilterDto filter, Instant createdAt) {
+    this.id = id;
+    this.format = format;
+    this.filter = filter;
+    this.createdAt = createdAt;
+  }
+
+  void start(Instant now) {
+    startedAt = now;
+    status = ReportJobStatus.RUNNING;
+  }
+
+  void complete(Path file, long size, Instant now) {
+    this.file = file;
+    this.size = size;
+    finishedAt = now;
+    status = ReportJobStatus.READY;
+  }
+
+  void fail(String error, Instant now) {
+    this.error = error;
+    finishedAt = now;
+    status = ReportJobStatus.FAILED;
+  }
+
+  ReportJobDto toDto() {
+    ReportJobStatus current = status;
+    ReportJobDto dto = new ReportJobDto();
+    dto.setId(id);
+    dto.setFormat(format);
+    dto.setFilter(filter);
+    dto.setStatus(current);
+    dto.setCreatedAt(createdAt);
+    dto.setStartedAt(startedAt);
+    dto.setFinishedAt(finishedAt);
+    if (current == ReportJobStatus.READY) {
+      dto.setSize(size);
+    }
+    dto.setError(error);
+    return dto;
+  }
+}
@@ -0,0 +1,284 @@
+package team.mephi.hackathon.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import team.mephi.hackathon.controller.ReportJobService;
+import team.mephi.hackathon.controller.ReportService;
+import team.mephi.hackathon.dto.ReportFormat;
+import team.mephi.hackathon.dto.ReportJobDto;
+import team.mephi.hackathon.dto.ReportJobStatus;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.exceptions.EntityNotFoundException;
+import team.mephi.hackathon.exceptions.ReportNotReadyException;
+import team.mephi.hackathon.exceptions.WorkloadRejectedException;
+import team.mephi.hackathon.execution.Workload;
+import team.mephi.hackathon.execution.WorkloadExecutor;
+import team.mephi.hackathon.specification.TransactionSpecification;
+
+/**
+ * Фоновое формирование отчётов. Задания выполняются в ограничителе {@link Workload#REPORT} и пишут
+ * отчёт в каталог {@code app.reports.directory}: сначала во временный файл, который после успешной
+ * записи переименовывается, так что незаконченный отчёт никогда не отдаётся клиенту. Запросы того
+ * же формата с тем же фильтром, поступившие, пока отчёт формируется, получают то же задание.
+ * Сведения о заданиях хранятся в памяти и удаляются через {@code app.reports.ttl} после
+ * завершения; файл снятого задания удаляется при следующей очистке, чтобы не оборвать начатую
+ * отдачу. Имена файлов начинаются с {@link #FILE_PREFIX} и идентификатора задания: при старте
+ * удаляются только такие файлы, даже если каталог общий.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReportJobServiceImpl implements ReportJobService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReportJobServiceImpl.class);
+
+  /** Начало имени файла отчёта, за которым следуют идентификатор задания и расширение. */
+  static final String FILE_PREFIX = "report-";
+
+  /** Расширение файла, в который идёт запись незавершённого отчёта. */
+  static final String PART_EXTENSION = "part";
+
+  /** Размер буфера записи в файл, байт. */
+  private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+  /** Сервис генерации отчётов. Инжектируется через конструктор. */
+  private final ReportService reportService;
+
+  /** Слой выполнения блокирующих вызовов. Инжектируется через конструктор. */
+  private final WorkloadExecutor executor;
+
+  /** Все задания, срок хранения которых не истёк. */
+  private final Map<UUID, ReportJob> jobs = new ConcurrentHashMap<>();
+
+  /** Незавершённые задания по формату и фильтру: к ним присоединяются одинаковые запросы. */
+  private final Map<Key, ReportJob> pending = new ConcurrentHashMap<>();
+
+  /** Файлы заданий, снятых предыдущей очисткой: удаляются следующей. */
+  private final Queue<Path> evictedFiles = new ConcurrentLinkedQueue<>();
+
+  /** Каталог файлов отчётов. */
+  @Value("${app.reports.directory}")
+  Path directory;
+
+  /** Сколько хранится завершённое задание и его файл. */
+  @Value("${app.reports.ttl}")
+  Duration ttl;
+
+  @Override
+  public ReportJobDto submit(ReportFormat format, TransactionFilterDto filter) {
+    TransactionFilterDto criteria = criteria(filter);
+    // Некорректный фильтр отклоняется сразу, а не заданием с ошибкой
+    TransactionSpecification.matches(criteria);
+    ReportJob created = new ReportJob(UUID.randomUUID(), format, criteria, Instant.now());
+    ReportJob existing = pending.putIfAbsent(new Key(format, criteria), created);
+    if (existing != null) {
+      return existing.toDto();
+    }
+    jobs.put(created.getId(), created);
+    // generate не выбрасывает исключений, поэтому ошибка здесь — только отказ ограничителя,
+    // который приходит сразу при подписке
+    executor
+        .run(Workload.REPORT, () -> generate(created))
+        .subscribe(null, error -> finish(created, null, error));
+    if (created.getStatus() == ReportJobStatus.FAILED && created.getStartedAt() == null) {
+      throw new WorkloadRejectedException(created.getError());
+    }
+    return created.toDto();
+  }
+
+  @Override
+  public ReportJobDto getJob(UUID id) {
+    return find(id).toDto();
+  }
+
+  @Override
+  public Path getResultFile(UUID id) {
+    ReportJob job = find(id);
+    return switch (job.getStatus()) {
+      case READY -> {
+        Path file = job.getFile();
+        // Файл удалён вне приложения: для клиента это то же, что истёкший срок хранения
+        if (!Files.exists(file)) {
+          throw new EntityNotFoundException("Файл отчёта не найден");
+        }
+        yield file;
+      }
+      case FAILED -> throw new ReportNotReadyException("Отчёт не сформирован: " + job.getError());
+      default -> throw new ReportNotReadyException("Отчёт ещё формируется");
+    };
+  }
+
+  /** Удаляет файлы, оставшиеся от предыдущего запуска: сведений о заданиях в памяти уже нет. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void removeOrphanedFiles() {
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+      for (Path file : files) {
+        if (isReportFile(file)) {
+          deleteQuietly(file);
+        }
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Failed to clean report directory {}", directory, e);
+    }
+  }
+
+  /** Удаляет задания, срок хранения которых истёк, вместе с их файлами. */
+  @Scheduled(fixedDelayString = "${app.reports.cleanup-interval}")
+  public void evictExpired() {
+    evictExpired(Instant.now());
+  }
+
+  /**
+   * Удаляет задания, завершённые раньше, чем {@code now} минус срок хранения. Файлы снятых заданий
+   * удаляются только при следующем вызове: клиент, уже получивший путь к файлу, успевает его
+   * открыть, а открытый файл отдаётся до конца и после удаления.
+   *
+   * @param now текущий момент
+   */
+  void evictExpired(Instant now) {
+    for (Path file = evictedFiles.poll(); file != null; file = evictedFiles.poll()) {
+      deleteQuietly(file);
+    }
+    Instant threshold = now.minus(ttl);
+    jobs.values()
+        .removeIf(
+            job -> {
+              Instant finishedAt = job.getFinishedAt();
+              if (finishedAt == null || !finishedAt.isBefore(threshold)) {
+                return false;
+              }
+              if (job.getFile() != null) {
+                evictedFiles.add(job.getFile());
+              }
+              return true;
+            });
+  }
+
+  private ReportJob find(UUID id) {
+    ReportJob job = jobs.get(id);
+    if (job == null) {
+      throw new EntityNotFoundException("Задание на формирование отчёта не найдено");
+    }
+    return job;
+  }
+
+  private void generate(ReportJob job) {
+    job.start(Instant.now());
+    Path part = directory.resolve(FILE_PREFIX + job.getId() + "." + PART_EXTENSION);
+    Path file =
+        directory.resolve(FILE_PREFIX + job.getId() + "." + job.getFormat().getExtension());
+    try {
+      Files.createDirectories(directory);
+      try (OutputStream out =
+          new BufferedOutputStream(Files.newOutputStream(part), WRITE_BUFFER_SIZE)) {
+        switch (job.getFormat()) {
+          case PDF -> reportService.writePdfReport(job.getFilter(), out);
+          case EXCEL -> reportService.writeExcelReport(job.getFilter(), out);
+        }
+      }
+      Files.move(part, file, StandardCopyOption.ATOMIC_MOVE);
+      finish(job, file, null);
+    } catch (Exception e) {
+      deleteQuietly(part);
+      finish(job, null, e);
+    }
+  }
+
+  private void finish(ReportJob job, Path file, Throwable error) {
+    try {
+      if (error == null) {
+        job.complete(file, Files.size(file), Instant.now());
+      } else {
+        LOGGER.warn("Report job {} failed", job.getId(), error);
+        job.fail(error.getMessage(), Instant.now());
+      }
+    } catch (IOException e) {
+      job.fail(e.getMessage(), Instant.now());
+    } finally {
+      // Задание снимается с ожидания после смены статуса: присоединившийся в этот момент запрос
+      // получит уже завершённое задание
+      pending.remove(new Key(job.getFormat(), job.getFilter()), job);
+    }
+  }
+
+  /**
+   * Копирует критерии отбора без курсора и размера страницы, которые на отчёт не влияют. Копия
+   * служит ключом объединения запросов и не меняется после создания задания.
+   */
+  private static TransactionFilterDto criteria(TransactionFilterDto filter) {
+    TransactionFilterDto criteria = new TransactionFilterDto();
+    if (filter != null) {
+      criteria.setSenderBank(filter.getSenderBank());
+      criteria.setReceiverBank(filter.getReceiverBank());
+      criteria.setCategory(filter.getCategory());
+      criteria.setTransactionType(filter.getTransactionType());
+      criteria.setStatus(filter.getStatus());
+      criteria.setDateFrom(filter.getDateFrom());
+      criteria.setDateTo(filter.getDateTo());
+      criteria.setAmountMin(normalize(filter.getAmountMin()));
+      criteria.setAmountMax(normalize(filter.getAmountMax()));
+    }
+    return criteria;
+  }
+
+  /** Приводит сумму к единому масштабу: 100 и 100.00 должны давать одинаковый ключ. */
+  private static BigDecimal normalize(BigDecimal amount) {
+    return amount == null ? null : amount.stripTrailingZeros();
+  }
+
+  /** Проверяет, что имя файла состоит из {@link #FILE_PREFIX}, UUID и расширения отчёта. */
+  private static boolean isReportFile(Path file) {
+    String name = file.getFileName().toString();
+    int dot = name.lastIndexOf('.');
+    if (!name.startsWith(FILE_PREFIX) || dot < 0) {
+      return false;
+    }
+    String extension = name.substring(dot + 1);
+    boolean known = extension.equals(PART_EXTENSION);
+    for (ReportFormat format : ReportFormat.values()) {
+      known |= extension.equals(format.getExtension());
+    }
+    if (!known) {
+      return false;
+    }
+    try {
+      UUID.fromString(name.substring(FILE_PREFIX.length(), dot));
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      LOGGER.warn("Failed to delete report file {}", file, e);
+    }
+  }
+
+  /** Ключ объединения одинаковых запросов. */
+  private record Key(ReportFormat format, TransactionFilterDto filter) {}
+}
@@ -1,170 +1,274 @@
 package team.mephi.hackathon.service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.text.NumberFormat;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Locale;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import team.mephi.hackathon.controller.ReportService;
-import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.dto.TransactionResponseDto;
+import team.mephi.hackathon.repository.TransactionRepository;
+import team.mephi.hackathon.specification.TransactionSpecification;
 
 /** Реализация сервиса генерации отчётов по транзакциям. Поддерживает форматы: PDF и Excel. */
 @Service
+@RequiredArgsConstructor
 public class ReportServiceImpl implements ReportService {
+  /** Количество строк листа Excel, хранимых в памяти; остальные сбрасываются во временный файл. */
+  static final int ROW_WINDOW = 100;
+
+  /** Максимальное количество строк данных на листе Excel, не считая заголовка. */
+  static final int MAX_DATA_ROWS_PER_SHEET = SpreadsheetVersion.EXCEL2007.getMaxRows() - 1;
+
+  /** Количество первых строк Excel-отчёта, по которым рассчитывается ширина столбцов. */
+  static final int WIDTH_SAMPLE_ROWS = 1000;
+
+  /** Максимальная ширина столбца Excel в единицах 1/256 символа. */
+  private static final int MAX_COLUMN_WIDTH = 255 * 256;
+
+  /** Заголовки столбцов Excel-отчёта. */
+  private static final String[] EXCEL_COLUMNS = {
+    "ID",
+    "Operation date",
+    "Transaction type",
+    "Comment",
+    "Amount",
+    "Status",
+    "Sender bank",
+    "Account",
+    "Receiver bank",
+    "Receiver inn",
+    "Receiver account",
+    "Category",
+    "Receiver phone"
+  };
 
   /** Форматтер даты для вывода в отчётах. Используется шаблон "dd.MM.yyyy HH:mm". */
   private static final DateTimeFormatter DATE_FORMATTER =
       DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
 
+  /** Локаль денежных значений в PDF-отчёте (например, запятая как десятичный разделитель). */
+  private static final Locale RU = new Locale("ru", "RU");
+
+  /** Заголовок PDF-отчёта. */
+  private static final String PDF_TITLE = "Transaction Report";
+
+  /** Заголовки столбцов PDF-отчёта. */
+  private static final String[] PDF_COLUMNS = {
+    "Person type",
+    "Operation date",
+    "Transaction type",
+    "Comment",
+    "Amount",
+    "Status",
+    "Sender bank",
+    "Account",
+    "Receiver bank",
+    "Receiver inn",
+    "Receiver account",
+    "Category",
+    "Receiver phone"
+  };
+
+  /** Относительная ширина столбцов PDF-отчёта. */
+  private static final float[] PDF_COLUMN_WEIGHTS = {5, 7, 5, 14, 7, 5, 8, 8, 8, 7, 8, 7, 7};
+
+  /** Репозиторий транзакций. Инжектируется через конструктор. */
+  private final TransactionRepository repository;
+
+  /** Общий для всех документов шрифт PDF-отчётов, разобранный при старте приложения. */
+  private final TrueTypeFont reportFont;
+
   /**
-   * Форматтер денежных значений. Использует русскую локаль (например, запятую как десятичный
-   * разделитель).
+   * Записывает PDF-отчёт по активным транзакциям, удовлетворяющим фильтру. Фильтр выполняется в
+   * БД, транзакции читаются курсором, содержимое страниц хранится во временном файле, а не в куче.
+   *
+   * @param filter критерии отбора транзакций
+   * @param out поток, в который записывается содержимое PDF-файла
+   * @throws IOException если запись не удалась
    */
-  private static final NumberFormat MONEY_FORMAT =
-      NumberFormat.getNumberInstance(new Locale("ru", "RU"));
+  @Transactional(readOnly = true)
+  public void writePdfReport(TransactionFilterDto filter, OutputStream out) throws IOException {
+    try (Stream<TransactionResponseDto> rows =
+        repository.streamResponses(TransactionSpecification.matches(filter))) {
+      writePdf(rows.iterator(), out);
+    }
+  }
 
   /**
-   * Генерирует PDF-отчёт по списку транзакций.
+   * Записывает транзакции в PDF-файл в виде таблицы с заголовком на каждой странице.
    *
-   * @param transactions список транзакций для включения в отчёт
-   * @return массив байт с содержимым PDF-документа
-   * @throws IOException если произошла ошибка при работе с PDF
+   * @param transactions транзакции в порядке вывода
+   * @param out поток, в который записывается содержимое файла
+   * @throws IOException если запись не удалась
    */
-  public byte[] generatePdfReport(List<Transaction> transactions) throws IOException {
-    try (PDDocument document = new PDDocument()) {
-      PDPage page = new PDPage();
-      document.addPage(page);
-
-      try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
-        contentStream.setFont(PDType1Font.HELVETICA_BOLD, 12);
-        contentStream.beginText();
-        contentStream.newLineAtOffset(50, 700);
-        contentStream.showText("Transaction Report");
-        contentStream.endText();
-
-        contentStream.setFont(PDType1Font.HELVETICA, 10);
-        float y = 650;
-        for (Transaction transaction : transactions) {
-          String row =
-              String.format(
-                  "%s | %s | %s | %s | %s | %s | %s | %s | %s | %s | %s | %s | %s",
-                  formatField(transaction.getPersonType()),
-                  transaction.getOperationDate().format(DATE_FORMATTER),
-                  formatField(transaction.getTransactionType()),
-                  formatField(transaction.getComment()),
-                  MONEY_FORMAT.format(transaction.getAmount()),
-                  formatField(transaction.getStatus()),
-                  formatField(transaction.getSenderBank()),
-                  formatField(transaction.getAccount()),
-                  formatField(transaction.getReceiverBank()),
-                  formatField(transaction.getReceiverInn()),
-                  formatField(transaction.getReceiverAccount()),
-                  formatField(transaction.getCategory()),
-                  formatField(transaction.getReceiverPhone()));
-          contentStream.beginText();
-          contentStream.newLineAtOffset(50, y);
-          contentStream.showText(row);
-          contentStream.endText();
-          y -= 20;
+  void writePdf(Iterator<TransactionResponseDto> transactions, OutputStream out)
+      throws IOException {
+    // NumberFormat не потокобезопасен, а отчёты формируются параллельно
+    NumberFormat moneyFormat = NumberFormat.getNumberInstance(RU);
+    moneyFormat.setMinimumFractionDigits(2);
+    moneyFormat.setMaximumFractionDigits(2);
+    try (PDDocument document = new PDDocument(MemoryUsageSetting.setupTempFileOnly())) {
+      PDFont font = PDType0Font.load(document, reportFont, true);
+      try (PdfTableWriter table =
+          new PdfTableWriter(document, font, PDF_TITLE, PDF_COLUMNS, PDF_COLUMN_WEIGHTS)) {
+        while (transactions.hasNext()) {
+          TransactionResponseDto transaction = transactions.next();
+          table.addRow(
+              formatField(transaction.getPersonType()),
+              transaction.getOperationDate().format(DATE_FORMATTER),
+              formatField(transaction.getTransactionType()),
+              formatField(transaction.getComment()),
+              moneyFormat.format(transaction.getAmount()),
+              formatField(transaction.getStatus()),
+              formatField(transaction.getSenderBank()),
+              formatField(transaction.getAccount()),
+              formatField(transaction.getReceiverBank()),
+              formatField(transaction.getReceiverInn()),
+              formatField(transaction.getReceiverAccount()),
+              formatField(transaction.getCategory()),
+              formatField(transaction.getReceiverPhone()));
         }
       }
+      document.save(out);
+    }
+  }
 
-      ByteArrayOutputStream baos = new ByteArrayOutputStream();
-      document.save(baos);
-      return baos.toByteArray();
+  /**
+   * Записывает Excel-отчёт по активным транзакциям, удовлетворяющим фильтру. Фильтр выполняется в
+   * БД, транзакции читаются курсором, строки листа сбрасываются на диск окнами по {@link
+   * #ROW_WINDOW} строк.
+   *
+   * @param filter критерии отбора транзакций
+   * @param out поток, в который записывается содержимое XLSX-файла
+   * @throws IOException если запись не удалась
+   */
+  @Transactional(readOnly = true)
+  public void writeExcelReport(TransactionFilterDto filter, OutputStream out) throws IOException {
+    try (Stream<TransactionResponseDto> rows =
+        repository.streamResponses(TransactionSpecification.matches(filter))) {
+      writeExcel(rows.iterator(), out, MAX_DATA_ROWS_PER_SHEET);
     }
   }
 
   /**
-   * Генерирует Excel-отчёт по списку транзакций.
+   * Записывает транзакции в XLSX-файл. Когда на листе заканчивается место, следующие строки
+   * переносятся на новый лист с тем же заголовком. Ширина столбцов рассчитывается по первым {@link
+   * #WIDTH_SAMPLE_ROWS} строкам.
    *
-   * @param transactions список транзакций для включения в отчёт
-   * @return массив байт с содержимым XLSX-файла
-   * @throws IOException если произошла ошибка при создании файла
+   * @param transactions транзакции в порядке вывода
+   * @param out поток, в который записывается содержимое файла
+   * @param maxRowsPerSheet максимальное количество строк данных на листе
+   * @throws IOException если запись не удалась
    */
-  public byte[] generateExcelReport(List<Transaction> transactions) throws IOException {
-    try (Workbook workbook = new XSSFWorkbook()) {
-      Sheet sheet = workbook.createSheet("Transactions");
-
-      // Заголовки
-      Row headerRow = sheet.createRow(0);
-      String[] columns = {
-        "ID",
-        "Operation date",
-        "Transaction type",
-        "Comment",
-        "Amount",
-        "Status",
-        "Sender bank",
-        "Account",
-        "Receiver bank",
-        "Receiver inn",
-        "Receiver account",
-        "Category",
-        "Receiver phone"
-      };
-      for (int i = 0; i < columns.length; i++) {
-        Cell cell = headerRow.createCell(i);
-        cell.setCellValue(columns[i]);
-      }
+  void writeExcel(
+      Iterator<TransactionResponseDto> transactions, OutputStream out, int maxRowsPerSheet)
+      throws IOException {
+    try (SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW)) {
+      workbook.setCompressTempFiles(true);
+      try {
+        DataFormat poiFormat = workbook.createDataFormat();
 
-      DataFormat poiFormat = workbook.createDataFormat();
+        CellStyle moneyStyle = workbook.createCellStyle();
+        moneyStyle.setDataFormat(poiFormat.getFormat("#,##0.00"));
 
-      CellStyle moneyStyle = workbook.createCellStyle();
-      moneyStyle.setDataFormat(poiFormat.getFormat("#,##0.00"));
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(poiFormat.getFormat("dd.mm.yyyy hh:mm"));
 
-      CellStyle dateStyle = workbook.createCellStyle();
-      dateStyle.setDataFormat(poiFormat.getFormat("dd.mm.yyyy hh:mm"));
+        DataFormatter formatter = new DataFormatter();
+        int[] widths = new int[EXCEL_COLUMNS.length];
+        for (int i = 0; i < EXCEL_COLUMNS.length; i++) {
+          widths[i] = EXCEL_COLUMNS[i].length();
+        }
 
-      // Данные
-      int rowNum = 1;
-      for (Transaction transaction : transactions) {
-        Row row = sheet.createRow(rowNum++);
-        row.createCell(0).setCellValue(formatField(transaction.getPersonType()));
+        Sheet sheet = createSheet(workbook);
+        int rowNum = 1;
+        long sampled = 0;
+        while (transactions.hasNext()) {
+          if (rowNum > maxRowsPerSheet) {
+            sheet = createSheet(workbook);
+            rowNum = 1;
+          }
+          TransactionResponseDto transaction = transactions.next();
+          Row row = sheet.createRow(rowNum++);
+          row.createCell(0).setCellValue(formatField(transaction.getPersonType()));
 
-        Cell dateCell = row.createCell(1);
-        dateCell.setCellValue(transaction.getOperationDate().format(DATE_FORMATTER));
-        dateCell.setCellStyle(dateStyle);
+          Cell dateCell = row.createCell(1);
+          dateCell.setCellValue(transaction.getOperationDate().format(DATE_FORMATTER));
+          dateCell.setCellStyle(dateStyle);
 
-        row.createCell(2).setCellValue(formatField(transaction.getTransactionType()));
-        row.createCell(3).setCellValue(formatField(transaction.getComment()));
+          row.createCell(2).setCellValue(formatField(transaction.getTransactionType()));
+          row.createCell(3).setCellValue(formatField(transaction.getComment()));
 
-        Cell amountCell = row.createCell(4);
-        amountCell.setCellValue(transaction.getAmount().doubleValue());
-        amountCell.setCellStyle(moneyStyle);
+          Cell amountCell = row.createCell(4);
+          amountCell.setCellValue(transaction.getAmount().doubleValue());
+          amountCell.setCellStyle(moneyStyle);
 
-        row.createCell(5).setCellValue(formatField(transaction.getStatus()));
-        row.createCell(6).setCellValue(formatField(transaction.getSenderBank()));
-        row.createCell(7).setCellValue(formatField(transaction.getAccount()));
-        row.createCell(8).setCellValue(formatField(transaction.getReceiverBank()));
-        row.createCell(9).setCellValue(formatField(transaction.getReceiverInn()));
-        row.createCell(10).setCellValue(formatField(transaction.getReceiverAccount()));
-        row.createCell(11).setCellValue(formatField(transaction.getCategory()));
-        row.createCell(12).setCellValue(formatField(transaction.getReceiverPhone()));
-      }
+          row.createCell(5).setCellValue(formatField(transaction.getStatus()));
+          row.createCell(6).setCellValue(formatField(transaction.getSenderBank()));
+          row.createCell(7).setCellValue(formatField(transaction.getAccount()));
+          row.createCell(8).setCellValue(formatField(transaction.getReceiverBank()));
+          row.createCell(9).setCellValue(formatField(transaction.getReceiverInn()));
+          row.createCell(10).setCellValue(formatField(transaction.getReceiverAccount()));
+          row.createCell(11).setCellValue(formatField(transaction.getCategory()));
+          row.createCell(12).setCellValue(formatField(transaction.getReceiverPhone()));
+
+          if (sampled++ < WIDTH_SAMPLE_ROWS) {
+            for (Cell cell : row) {
+              int width = formatter.formatCellValue(cell).length();
+              widths[cell.getColumnIndex()] = Math.max(widths[cell.getColumnIndex()], width);
+            }
+          }
+        }
 
-      // Авто-размер колонок
-      for (int i = 0; i < columns.length; i++) {
-        sheet.autoSizeColumn(i);
+        // Вместо autoSizeColumn, который требует всех строк листа в памяти
+        for (Sheet each : workbook) {
+          for (int i = 0; i < widths.length; i++) {
+            each.setColumnWidth(i, Math.min(MAX_COLUMN_WIDTH, (widths[i] + 2) * 256));
+          }
+        }
+
+        workbook.write(out);
+      } finally {
+        workbook.dispose();
       }
+    }
+  }
 
-      ByteArrayOutputStream baos = new ByteArrayOutputStream();
-      workbook.write(baos);
-      return baos.toByteArray();
+  /**
+   * Добавляет лист с заголовком. Первый лист называется «Transactions», следующие — с номером.
+   *
+   * @param workbook книга
+   * @return новый лист
+   */
+  private static Sheet createSheet(Workbook workbook) {
+    int number = workbook.getNumberOfSheets() + 1;
+    Sheet sheet = workbook.createSheet(number == 1 ? "Transactions" : "Transactions " + number);
+    Row headerRow = sheet.createRow(0);
+    for (int i = 0; i < EXCEL_COLUMNS.length; i++) {
+      headerRow.createCell(i).setCellValue(EXCEL_COLUMNS[i]);
     }
+    return sheet;
   }
 
   private static String formatField(Object value) {
@@ -0,0 +1,170 @@
+package team.mephi.hackathon.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import reactor.core.publisher.Flux;
+import team.mephi.hackathon.controller.ValidationService;
+import team.mephi.hackathon.dto.TransactionBatchResultDto;
+import team.mephi.hackathon.dto.TransactionRequestDto;
+import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.exceptions.ValidationException;
+import team.mephi.hackathon.mapper.TransactionMapper;
+
+/**
+ * Часть пакетной загрузки транзакций: проверяет строки по отдельности, готовит сущности для
+ * вставки одним запросом и собирает результат по каждой строке. Идентификаторы назначаются до
+ * вставки, поэтому БД не нужно возвращать сгенерированные ключи. Используется блокирующей и
+ * реактивной реализациями сервиса транзакций.
+ */
+final class TransactionBatch {
+  /** Количество строк в пакете: столько строк проверяется и вставляется за один вызов. */
+  static final int SIZE = 500;
+
+  /** Сообщение для строки, идентификатор которой уже занят. */
+  static final String DUPLICATE_ID = "Транзакция с таким ID уже существует";
+
+  private final long firstIndex;
+
+  private final TransactionBatchResultDto[] results;
+
+  /** Позиции строк, прошедших проверку, по их сущностям. */
+  private final Map<Transaction, Integer> positions = new IdentityHashMap<>();
+
+  private final List<Transaction> accepted = new ArrayList<>();
+
+  /** Вставленные сущности в порядке отметки. */
+  private final List<Transaction> saved = new ArrayList<>();
+
+  private TransactionBatch(long firstIndex, int size) {
+    this.firstIndex = firstIndex;
+    this.results = new TransactionBatchResultDto[size];
+  }
+
+  /**
+   * Разбивает входной поток строк на пакеты по {@link #SIZE} строк. Следующий пакет читается из
+   * входного потока только по запросу, поэтому в памяти держится ограниченное число строк.
+   *
+   * @param rows строки в порядке поступления
+   * @return пакеты с номером первой строки каждого пакета
+   */
+  static Flux<Chunk> chunks(Flux<TransactionRequestDto> rows) {
+    return rows.buffer(SIZE).index((i, chunk) -> new Chunk(i * SIZE, chunk));
+  }
+
+  /**
+   * Пакет входных строк.
+   *
+   * @param firstIndex номер первой строки пакета во входных данных
+   * @param rows строки пакета
+   */
+  record Chunk(long firstIndex, List<TransactionRequestDto> rows) {}
+
+  /**
+   * Проверяет строки и преобразует прошедшие проверку в сущности. Идентификатор из строки
+   * сохраняется, что позволяет безопасно повторять загрузку; иначе он генерируется.
+   *
+   * @param rows строки пакета
+   * @param firstIndex номер первой строки пакета во входных данных
+   * @param validationService сервис валидации
+   * @param mapper маппер DTO в сущность
+   * @return подготовленный пакет
+   */
+  static TransactionBatch prepare(
+      List<TransactionRequestDto> rows,
+      long firstIndex,
+      ValidationService validationService,
+      TransactionMapper mapper) {
+    TransactionBatch batch = new TransactionBatch(firstIndex, rows.size());
+    Set<UUID> ids = new HashSet<>();
+    for (int i = 0; i < rows.size(); i++) {
+      TransactionRequestDto dto = rows.get(i);
+      Transaction entity;
+      try {
+        validationService.validateConstraints(dto);
+        validationService.validateTransaction(dto);
+        entity = mapper.toEntity(dto);
+      } catch (ValidationException e) {
+        batch.results[i] =
+            TransactionBatchResultDto.rejected(firstIndex + i, dto.getId(), e.getMessage());
+        continue;
+      }
+      entity.setId(dto.getId() != null ? dto.getId() : UUID.randomUUID());
+      if (!ids.add(entity.getId())) {
+        batch.results[i] =
+            TransactionBatchResultDto.rejected(firstIndex + i, entity.getId(), DUPLICATE_ID);
+        continue;
+      }
+      batch.positions.put(entity, i);
+      batch.accepted.add(entity);
+    }
+    return batch;
+  }
+
+  /**
+   * Возвращает сущности строк, прошедших проверку, в порядке строк.
+   *
+   * @return сущности для вставки
+   */
+  List<Transaction> accepted() {
+    return accepted;
+  }
+
+  /**
+   * Возвращает сущности, вставленные в БД.
+   *
+   * @return вставленные сущности
+   */
+  List<Transaction> inserted() {
+    return saved;
+  }
+
+  /**
+   * Отмечает результат вставки. Сущность, идентификатор которой БД не вернула, не была вставлена
+   * из-за конфликта ключа.
+   *
+   * @param entities сущности, для которых выполнялась вставка
+   * @param inserted идентификаторы вставленных строк
+   */
+  void markInserted(Collection<Transaction> entities, Collection<UUID> inserted) {
+    Set<UUID> ids = new HashSet<>(inserted);
+    for (Transaction entity : entities) {
+      int position = positions.get(entity);
+      if (ids.contains(entity.getId())) {
+        saved.add(entity);
+        results[position] =
+            TransactionBatchResultDto.created(firstIndex + position, entity.getId());
+      } else {
+        results[position] =
+            TransactionBatchResultDto.rejected(firstIndex + position, entity.getId(), DUPLICATE_ID);
+      }
+    }
+  }
+
+  /**
+   * Отклоняет строку, которую не удалось сохранить.
+   *
+   * @param entity сущность строки
+   * @param error причина
+   */
+  void reject(Transaction entity, String error) {
+    int position = positions.get(entity);
+    results[position] =
+        TransactionBatchResultDto.rejected(firstIndex + position, entity.getId(), error);
+  }
+
+  /**
+   * Возвращает результаты по всем строкам пакета в порядке строк.
+   *
+   * @return результаты строк
+   */
+  List<TransactionBatchResultDto> results() {
+    return Arrays.asList(results);
+  }
+}
@@ -0,0 +1,421 @@
+package team.mephi.hackathon.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import team.mephi.hackathon.dto.TransactionChangeDto;
+import team.mephi.hackathon.dto.TransactionResponseDto;
+
+/**
+ * Лента изменений транзакций для всех экземпляров приложения. Изменения публикуются уведомлениями
+ * PostgreSQL ({@code NOTIFY}) в канал {@value #CHANNEL}; каждый экземпляр слушает канал отдельным
+ * соединением вне пула и раздаёт полученные события своим подписчикам. Уведомление, отправленное
+ * внутри транзакции БД, доставляется только после её фиксации.
+ *
+ * <p>Сервисы транзакций публикуют события отдельным запросом после того, как запись зафиксирована,
+ * а не в той же транзакции: иначе ошибка отправки откатила бы саму запись. Если приложение
+ * остановится между фиксацией и отправкой, событие теряется, как и при потере соединения.
+ *
+ * <p>Каждому подписчику выделяется буфер на {@code buffer-size} событий. Если подписчик не успевает
+ * их забирать, он либо теряет самые старые события ({@link Overflow#DROP_OLDEST}), либо
+ * отключается ({@link Overflow#DISCONNECT}) и после переподключения перечитывает данные. События,
+ * пришедшие, пока соединение для уведомлений было потеряно, не восстанавливаются.
+ *
+ * <p>Полученные события, в том числе от других экземпляров, убирают изменённые транзакции из кэшей
+ * этого экземпляра; после восстановления соединения кэши очищаются целиком.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionChangeFeed implements MeterBinder {
+  private static final Logger LOGGER = LoggerFactory.getLogger(TransactionChangeFeed.class);
+
+  /** Канал уведомлений PostgreSQL. */
+  static final String CHANNEL = "transaction_changes";
+
+  /** Наибольший размер уведомления, байт: PostgreSQL принимает до 8000 байт. */
+  static final int MAX_PAYLOAD_BYTES = 7900;
+
+  /** Сколько ждать уведомлений за одно обращение к соединению, мс. */
+  private static final int POLL_TIMEOUT_MILLIS = 1000;
+
+  /** Пауза перед повторным подключением после потери соединения. */
+  private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+
+  /** Исполнитель, выделяющий виртуальный поток для прослушивания канала. */
+  private static final VirtualThreadTaskExecutor LISTENERS =
+      new VirtualThreadTaskExecutor("transaction-changes-");
+
+  /** Что делать с подписчиком, чей буфер переполнен. */
+  public enum Overflow {
+    /** Вытеснять самые старые события из буфера подписчика. */
+    DROP_OLDEST,
+    /** Завершать поток подписчика: клиент переподключится и перечитает данные. */
+    DISCONNECT
+  }
+
+  /** Доступ к БД для отправки уведомлений. Инжектируется через конструктор. */
+  private final JdbcTemplate jdbcTemplate;
+
+  /** Параметры подключения к БД для отдельного соединения, слушающего канал. */
+  private final DataSourceProperties dataSourceProperties;
+
+  /** Сериализация событий в текст уведомления. */
+  private final ObjectMapper objectMapper;
+
+  /** Кэш страниц поиска, устаревающий при каждом изменении. */
+  private final TransactionSearchCache searchCache;
+
+  /** Кэш транзакций по идентификатору. */
+  private final TransactionIdCache idCache;
+
+  /** Размер буфера событий одного подписчика. */
+  @Value("${app.transactions.changes.buffer-size}")
+  int bufferSize;
+
+  /** Что делать с подписчиком, чей буфер переполнен. */
+  @Value("${app.transactions.changes.overflow}")
+  Overflow overflow;
+
+  /** Раздача событий подписчикам этого экземпляра. */
+  private final Sinks.Many<TransactionChangeDto> sink =
+      Sinks.many().multicast().directBestEffort();
+
+  private final LongAdder published = new LongAdder();
+  private final LongAdder received = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder disconnected = new LongAdder();
+
+  /** Задача, слушающая канал; {@code null}, пока лента не запущена. */
+  private Future<?> listener;
+
+  private volatile boolean running;
+
+  private volatile boolean listening;
+
+  /**
+   * Публикует создание транзакции.
+   *
+   * @param transaction созданная транзакция
+   */
+  public void created(TransactionResponseDto transaction) {
+    createdAll(List.of(transaction));
+  }
+
+  /**
+   * Публикует создание транзакций одним запросом к БД.
+   *
+   * @param transactions созданные транзакции
+   */
+  public void createdAll(List<TransactionResponseDto> transactions) {
+    publish(
+        transactions.stream()
+            .map(
+                transaction ->
+                    new TransactionChangeDto(
+                        TransactionChangeDto.Type.CREATED, transaction.getId(), transaction))
+            .toList());
+  }
+
+  /**
+   * Публикует изменение транзакции.
+   *
+   * @param transaction транзакция после изменения
+   */
+  public void updated(TransactionResponseDto transaction) {
+    updatedAll(List.of(transaction));
+  }
+
+  /**
+   * Публикует изменение транзакций одним запросом к БД.
+   *
+   * @param transactions транзакции после изменения
+   */
+  public void updatedAll(List<TransactionResponseDto> transactions) {
+    publish(
+        transactions.stream()
+            .map(
+                transaction ->
+                    new TransactionChangeDto(
+                        TransactionChangeDto.Type.UPDATED, transaction.getId(), transaction))
+            .toList());
+  }
+
+  /**
+   * Публикует удаление транзакции.
+   *
+   * @param id идентификатор удалённой транзакции
+   */
+  public void deleted(UUID id) {
+    deletedAll(List.of(id));
+  }
+
+  /**
+   * Публикует удаление транзакций одним запросом к БД.
+   *
+   * @param ids идентификаторы удалённых транзакций
+   */
+  public void deletedAll(List<UUID> ids) {
+    publish(
+        ids.stream()
+            .map(id -> new TransactionChangeDto(TransactionChangeDto.Type.DELETED, id, null))
+            .toList());
+  }
+
+  /**
+   * Публикует событие {@link TransactionChangeDto.Type#RESYNC}: изменений слишком много, чтобы
+   * передавать их по одному, и подписчикам нужно перечитать данные.
+   */
+  public void resync() {
+    publish(List.of(new TransactionChangeDto(TransactionChangeDto.Type.RESYNC, null, null)));
+  }
+
+  /**
+   * Возвращает поток событий для одного подписчика с ограниченным буфером.
+   *
+   * @return события в порядке получения; при {@link Overflow#DISCONNECT} поток завершается, как
+   *     только буфер переполнится
+   */
+  public Flux<TransactionChangeDto> changes() {
+    Flux<TransactionChangeDto> events = sink.asFlux();
+    if (overflow == Overflow.DROP_OLDEST) {
+      return events.onBackpressureBuffer(
+          bufferSize, event -> dropped.increment(), BufferOverflowStrategy.DROP_OLDEST);
+    }
+    // Ошибка переполнения буфера дошла бы до подписчика только после тех событий, что он ещё не
+    // забрал; поток завершается сразу, не дожидаясь их
+    return Flux.defer(
+        () -> {
+          Sinks.Empty<Void> overflowed = Sinks.empty();
+          return events
+              .onBackpressureBuffer(
+                  bufferSize,
+                  event -> overflowed.tryEmitEmpty(),
+                  BufferOverflowStrategy.DROP_LATEST)
+              .takeUntilOther(overflowed.asMono().doOnSuccess(done -> disconnected.increment()));
+        });
+  }
+
+  /** Начинает слушать канал после старта приложения. */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void start() {
+    if (listener != null) {
+      return;
+    }
+    running = true;
+    listener = LISTENERS.submit(this::listen);
+  }
+
+  /** Прекращает слушать канал и завершает потоки подписчиков. */
+  @PreDestroy
+  public synchronized void stop() {
+    running = false;
+    if (listener != null) {
+      listener.cancel(true);
+      listener = null;
+    }
+    sink.tryEmitComplete();
+  }
+
+  /**
+   * Отправляет события в канал. Ошибка отправки не отменяет записанные изменения: лента событий
+   * лишь дополняет ответы API.
+   *
+   * @param changes события
+   */
+  void publish(List<TransactionChangeDto> changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+    String[] payloads = changes.stream().map(this::toPayload).toArray(String[]::new);
+    try {
+      jdbcTemplate.query(
+          "SELECT pg_notify(?, payload) FROM unnest(?::text[]) AS payload",
+          (RowCallbackHandler) row -> {},
+          CHANNEL,
+          payloads);
+      published.add(payloads.length);
+    } catch (DataAccessException e) {
+      LOGGER.warn("Не удалось опубликовать изменения транзакций", e);
+    }
+  }
+
+  /**
+   * Убирает изменённую транзакцию из кэшей этого экземпляра и раздаёт полученное уведомление его
+   * подписчикам.
+   *
+   * @param payload текст уведомления
+   */
+  void deliver(String payload) {
+    TransactionChangeDto change;
+    try {
+      change = objectMapper.readValue(payload, TransactionChangeDto.class);
+    } catch (JsonProcessingException e) {
+      LOGGER.warn("Некорректное уведомление в канале {}: {}", CHANNEL, payload);
+      return;
+    }
+    received.increment();
+    // Запись могла быть сделана другим экземпляром, чьи кэши этот экземпляр иначе не заметит
+    searchCache.invalidate();
+    if (change.getId() != null) {
+      idCache.evict(change.getId());
+    } else {
+      idCache.clear();
+    }
+    // Уведомления раздаёт один поток; без подписчиков событие просто не нужно
+    sink.tryEmitNext(change);
+  }
+
+  /** Количество событий, отправленных этим экземпляром. */
+  public long getPublishedCount() {
+    return published.sum();
+  }
+
+  /** Количество событий, полученных этим экземпляром из канала. */
+  public long getReceivedCount() {
+    return received.sum();
+  }
+
+  /** Количество событий, вытесненных из буферов медленных подписчиков. */
+  public long getDroppedCount() {
+    return dropped.sum();
+  }
+
+  /** Количество подписчиков, отключённых из-за переполнения буфера. */
+  public long getDisconnectedCount() {
+    return disconnected.sum();
+  }
+
+  /** Слушает ли экземпляр канал уведомлений. */
+  public boolean isListening() {
+    return listening;
+  }
+
+  /** Количество подписчиков этого экземпляра. */
+  public int getSubscriberCount() {
+    return sink.currentSubscriberCount();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder(
+            "app.transactions.changes.events", this, TransactionChangeFeed::getPublishedCount)
+        .description("События изменения транзакций, отправленные в канал")
+        .tag("result", "published")
+        .register(registry);
+    FunctionCounter.builder(
+            "app.transactions.changes.events", this, TransactionChangeFeed::getReceivedCount)
+        .description("События изменения транзакций, полученные из канала")
+        .tag("result", "received")
+        .register(registry);
+    FunctionCounter.builder(
+            "app.transactions.changes.events", this, TransactionChangeFeed::getDroppedCount)
+        .description("События, вытесненные из буферов медленных подписчиков")
+        .tag("result", "dropped")
+        .register(registry);
+    FunctionCounter.builder(
+            "app.transactions.changes.disconnected",
+            this,
+            TransactionChangeFeed::getDisconnectedCount)
+        .description("Подписчики, отключённые из-за переполнения буфера")
+        .register(registry);
+    Gauge.builder(
+            "app.transactions.changes.subscribers", this, TransactionChangeFeed::getSubscriberCount)
+        .description("Подписчики ленты изменений транзакций")
+        .register(registry);
+  }
+
+  /**
+   * Сериализует событие. Если событие не помещается в уведомление, транзакция из него исключается:
+   * подписчик запросит её по идентификатору.
+   */
+  String toPayload(TransactionChangeDto change) {
+    try {
+      String payload = objectMapper.writeValueAsString(change);
+      if (payload.getBytes(StandardCharsets.UTF_8).length <= MAX_PAYLOAD_BYTES) {
+        return payload;
+      }
+      return objectMapper.writeValueAsString(
+          new TransactionChangeDto(change.getType(), change.getId(), null));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Не удалось сериализовать изменение транзакции", e);
+    }
+  }
+
+  /** Слушает канал, переподключаясь после потери соединения, пока лента не остановлена. */
+  private void listen() {
+    while (running) {
+      try (Connection connection = open()) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("LISTEN " + CHANNEL);
+        }
+        listening = true;
+        // Уведомления, пропущенные без соединения, не восстановить: кэши могли устареть
+        searchCache.invalidate();
+        idCache.clear();
+        LOGGER.info("Лента изменений транзакций слушает канал {}", CHANNEL);
+        PGConnection notifications = connection.unwrap(PGConnection.class);
+        while (running) {
+          PGNotification[] batch = notifications.getNotifications(POLL_TIMEOUT_MILLIS);
+          if (batch != null) {
+            for (PGNotification notification : batch) {
+              deliver(notification.getParameter());
+            }
+          }
+        }
+      } catch (SQLException e) {
+        listening = false;
+        if (!running) {
+          return;
+        }
+        LOGGER.warn(
+            "Соединение для канала {} потеряно, повтор через {}", CHANNEL, RECONNECT_DELAY, e);
+        try {
+          Thread.sleep(RECONNECT_DELAY.toMillis());
+        } catch (InterruptedException interrupted) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Открывает соединение вне пула: оно занято ожиданием уведомлений всё время работы приложения.
+   */
+  private Connection open() throws SQLException {
+    return DriverManager.getConnection(
+        dataSourceProperties.determineUrl(),
+        dataSourceProperties.determineUsername(),
+        dataSourceProperties.determinePassword());
+  }
+}
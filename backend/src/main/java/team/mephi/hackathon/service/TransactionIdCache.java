@@ -0,0 +1,196 @@
+package team.mephi.hackathon.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import team.mephi.hackathon.dto.TransactionResponseDto;
+
+/**
+ * Кэш транзакций по идентификатору. Найденная транзакция хранится {@code ttl}, отсутствие
+ * транзакции — {@code negative-ttl}, чтобы серия запросов несуществующего идентификатора не
+ * доходила до БД. Число записей ограничено; при переполнении вытесняется давно не запрошенная.
+ *
+ * <p>Запись транзакции через сервис убирает её идентификатор из кэша после фиксации. Результат
+ * чтения, начавшегося до записи любой транзакции, не сохраняется: иначе он мог бы вернуть в кэш
+ * прежнее значение. Записи в обход сервиса видны после истечения срока хранения.
+ */
+@Service
+public class TransactionIdCache implements MeterBinder {
+  /** Наибольшее число записей. */
+  @Value("${app.transactions.id-cache.max-entries}")
+  int maxEntries;
+
+  /** Срок хранения найденной транзакции. */
+  @Value("${app.transactions.id-cache.ttl}")
+  Duration ttl;
+
+  /** Срок хранения отсутствия транзакции. */
+  @Value("${app.transactions.id-cache.negative-ttl}")
+  Duration negativeTtl;
+
+  /** Записи в порядке обращения: первой вытесняется давно не запрошенная. */
+  private final Map<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** Номер последней записи транзакций. Изменяется под блокировкой {@link #entries}. */
+  private long version;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Запись кэша.
+   *
+   * @param transaction транзакция или {@code null}, если её нет
+   * @param expires момент, после которого запись устаревает
+   */
+  private record Entry(TransactionResponseDto transaction, Instant expires) {}
+
+  /**
+   * Возвращает транзакцию из кэша, а при её отсутствии загружает и сохраняет результат, в том
+   * числе отсутствие транзакции. Транзакция общая для всех запросов, изменять её нельзя.
+   *
+   * @param id идентификатор транзакции
+   * @param loader загрузка транзакции из БД
+   * @return транзакция или пустое значение, если её нет
+   */
+  public Optional<TransactionResponseDto> get(
+      UUID id, Function<UUID, Optional<TransactionResponseDto>> loader) {
+    return get(id, loader, Instant.now());
+  }
+
+  Optional<TransactionResponseDto> get(
+      UUID id, Function<UUID, Optional<TransactionResponseDto>> loader, Instant now) {
+    long readVersion;
+    synchronized (entries) {
+      Entry entry = fresh(id, now);
+      if (entry != null) {
+        hits.increment();
+        return Optional.ofNullable(entry.transaction());
+      }
+      readVersion = version;
+    }
+    misses.increment();
+    Optional<TransactionResponseDto> loaded = loader.apply(id);
+    Instant expires = now.plus(loaded.isPresent() ? ttl : negativeTtl);
+    synchronized (entries) {
+      if (readVersion == version) {
+        entries.put(id, new Entry(loaded.orElse(null), expires));
+        if (entries.size() > maxEntries) {
+          entries.remove(entries.keySet().iterator().next());
+        }
+      }
+    }
+    return loaded;
+  }
+
+  /**
+   * Проверяет, известно ли, что транзакции нет. Позволяет отклонить изменение несуществующей
+   * транзакции без обращения к БД.
+   *
+   * @param id идентификатор транзакции
+   * @return {@code true}, если кэш хранит отсутствие транзакции
+   */
+  public boolean isKnownMissing(UUID id) {
+    return isKnownMissing(id, Instant.now());
+  }
+
+  boolean isKnownMissing(UUID id, Instant now) {
+    synchronized (entries) {
+      Entry entry = fresh(id, now);
+      return entry != null && entry.transaction() == null;
+    }
+  }
+
+  /**
+   * Убирает записанную транзакцию из кэша. Внутри транзакции БД — после её фиксации, иначе —
+   * сразу.
+   *
+   * @param id идентификатор записанной транзакции
+   */
+  public void evict(UUID id) {
+    evictAll(List.of(id));
+  }
+
+  /**
+   * Убирает записанные транзакции из кэша, как {@link #evict(UUID)}.
+   *
+   * @param ids идентификаторы записанных транзакций
+   */
+  public void evictAll(Collection<UUID> ids) {
+    afterCommit(() -> ids.forEach(entries::remove));
+  }
+
+  /** Очищает кэш, если идентификаторы записанных транзакций неизвестны. */
+  public void clear() {
+    afterCommit(entries::clear);
+  }
+
+  /** Количество запросов, получивших результат из кэша. */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /** Количество запросов, выполненных в БД. */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("app.transactions.id-cache.gets", this, TransactionIdCache::getHitCount)
+        .description("Запросы транзакции по идентификатору, получившие результат из кэша")
+        .tag("result", "hit")
+        .register(registry);
+    FunctionCounter.builder(
+            "app.transactions.id-cache.gets", this, TransactionIdCache::getMissCount)
+        .description("Запросы транзакции по идентификатору, выполненные в БД")
+        .tag("result", "miss")
+        .register(registry);
+  }
+
+  /** Возвращает неустаревшую запись; вызывается под блокировкой {@link #entries}. */
+  private Entry fresh(UUID id, Instant now) {
+    Entry entry = entries.get(id);
+    if (entry != null && !now.isBefore(entry.expires())) {
+      entries.remove(id);
+      return null;
+    }
+    return entry;
+  }
+
+  /** Выполняет изменение кэша после фиксации текущей транзакции БД, а вне транзакции — сразу. */
+  private void afterCommit(Runnable change) {
+    Runnable write =
+        () -> {
+          synchronized (entries) {
+            version++;
+            change.run();
+          }
+        };
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      write.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            write.run();
+          }
+        });
+  }
+}
@@ -0,0 +1,363 @@
+package team.mephi.hackathon.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Service;
+import team.mephi.hackathon.controller.TransactionImportService;
+import team.mephi.hackathon.controller.ValidationService;
+import team.mephi.hackathon.dto.TransactionBatchResultDto;
+import team.mephi.hackathon.dto.TransactionImportReportDto;
+import team.mephi.hackathon.dto.TransactionRequestDto;
+import team.mephi.hackathon.entity.PersonType;
+import team.mephi.hackathon.entity.TransactionStatus;
+import team.mephi.hackathon.entity.TransactionType;
+import team.mephi.hackathon.exceptions.ValidationException;
+import team.mephi.hackathon.repository.TransactionCopyRepository;
+
+/**
+ * Загрузка транзакций из CSV через {@code COPY}. Разбор файла, проверка строк и передача их в БД
+ * выполняются параллельно в отдельных виртуальных потоках, связанных очередями ограниченного
+ * размера: медленная стадия притормаживает предыдущие, и в памяти одновременно находится не больше
+ * {@link #QUEUE_CAPACITY} строк на очередь независимо от размера файла.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionImportServiceImpl implements TransactionImportService {
+  /** Ёмкость очереди между соседними стадиями загрузки. */
+  static final int QUEUE_CAPACITY = 1024;
+
+  /** Сколько отклонённых строк перечисляется в отчёте. */
+  static final int MAX_REPORTED_REJECTIONS = 1000;
+
+  /** Поля CSV по именам столбцов заголовка. */
+  private static final Map<String, BiConsumer<TransactionRequestDto, String>> FIELDS =
+      new LinkedHashMap<>();
+
+  static {
+    FIELDS.put("id", (dto, value) -> dto.setId(UUID.fromString(value)));
+    FIELDS.put("personType", TransactionRequestDto::setPersonType);
+    FIELDS.put("operationDate", (dto, value) -> dto.setOperationDate(LocalDateTime.parse(value)));
+    FIELDS.put("transactionType", TransactionRequestDto::setTransactionType);
+    FIELDS.put("comment", TransactionRequestDto::setComment);
+    FIELDS.put("amount", (dto, value) -> dto.setAmount(new BigDecimal(value)));
+    FIELDS.put("status", TransactionRequestDto::setStatus);
+    FIELDS.put("senderBank", TransactionRequestDto::setSenderBank);
+    FIELDS.put("account", TransactionRequestDto::setAccount);
+    FIELDS.put("receiverBank", TransactionRequestDto::setReceiverBank);
+    FIELDS.put("receiverInn", TransactionRequestDto::setReceiverInn);
+    FIELDS.put("receiverAccount", TransactionRequestDto::setReceiverAccount);
+    FIELDS.put("category", TransactionRequestDto::setCategory);
+    FIELDS.put("receiverPhone", TransactionRequestDto::setReceiverPhone);
+  }
+
+  /** Признак конца разобранных строк. */
+  private static final ParsedRow END_OF_INPUT = new ParsedRow(0, List.of());
+
+  /** Признак конца проверенных строк: строки для {@code COPY} всегда непустые. */
+  private static final String END_OF_ROWS = "";
+
+  /** Исполнитель стадий разбора и проверки: каждая стадия получает свой виртуальный поток. */
+  private static final VirtualThreadTaskExecutor STAGES = new VirtualThreadTaskExecutor("import-");
+
+  /** Сервис валидации данных транзакции. Инжектируется через конструктор. */
+  private final ValidationService validationService;
+
+  /** Загрузка строк в БД через {@code COPY}. Инжектируется через конструктор. */
+  private final TransactionCopyRepository copyRepository;
+
+  /** Кэш страниц поиска. Сбрасывается, если загрузка добавила транзакции. */
+  private final TransactionSearchCache searchCache;
+
+  /** Кэш транзакций по идентификатору. Очищается, если загрузка добавила транзакции. */
+  private final TransactionIdCache idCache;
+
+  /** Лента изменений транзакций. Получает одно событие на загрузку, добавившую транзакции. */
+  private final TransactionChangeFeed changeFeed;
+
+  /**
+   * Запись CSV-файла.
+   *
+   * @param number номер записи в файле, начиная с 1 для заголовка
+   * @param fields значения полей
+   */
+  private record ParsedRow(long number, List<String> fields) {}
+
+  /**
+   * Загружает транзакции из CSV-файла. Строки проверяются по тем же правилам, что и при создании
+   * транзакции через API; отклонённые строки не прерывают загрузку и перечисляются в отчёте.
+   * Идентификатор из файла сохраняется, что позволяет безопасно повторять загрузку; иначе он
+   * генерируется. Если файл не удалось дочитать, не сохраняется ни одна строка.
+   *
+   * @param csv содержимое файла в кодировке UTF-8
+   * @return итоги загрузки
+   * @throws IOException если чтение файла или запись в БД не удались
+   * @throws ValidationException если заголовок файла некорректен
+   */
+  public TransactionImportReportDto importCsv(InputStream csv) throws IOException {
+    BlockingQueue<ParsedRow> parsed = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    BlockingQueue<String> valid = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    AtomicReference<Exception> failure = new AtomicReference<>();
+    TransactionImportReportDto report = new TransactionImportReportDto();
+
+    Future<?> parser =
+        STAGES.submit(
+            () -> {
+              try {
+                try {
+                  parse(csv, parsed);
+                } catch (IOException | RuntimeException e) {
+                  failure.compareAndSet(null, e);
+                }
+                parsed.put(END_OF_INPUT);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+    Future<?> validator =
+        STAGES.submit(
+            () -> {
+              try {
+                try {
+                  validate(parsed, valid, report);
+                } catch (RuntimeException e) {
+                  failure.compareAndSet(null, e);
+                }
+                valid.put(END_OF_ROWS);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+    try {
+      long imported =
+          copyRepository.copyAndMerge(
+              out -> {
+                copy(valid, out);
+                rethrow(failure.get());
+              });
+      // Стадии уже завершились: конец очереди выдаётся последним
+      validator.get();
+      report.setImported(imported);
+      if (imported > 0) {
+        searchCache.invalidate();
+        // Загруженные идентификаторы могли храниться в кэше как отсутствующие
+        idCache.clear();
+        // Строки уже зафиксированы; передавать их по одному событию слишком дорого
+        changeFeed.resync();
+      }
+      report.setDuplicates(report.getTotal() - report.getRejected() - imported);
+      return report;
+    } catch (SQLException e) {
+      throw new IOException("Не удалось сохранить транзакции: " + e.getMessage(), e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Стадия загрузки завершилась с ошибкой", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Загрузка прервана");
+    } finally {
+      parser.cancel(true);
+      validator.cancel(true);
+    }
+  }
+
+  /**
+   * Стадия разбора: читает записи файла и передаёт их следующей стадии.
+   *
+   * @param csv содержимое файла
+   * @param parsed очередь разобранных записей
+   */
+  private static void parse(InputStream csv, BlockingQueue<ParsedRow> parsed)
+      throws IOException, InterruptedException {
+    try (CsvReader reader =
+        new CsvReader(new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8)))) {
+      List<String> header = reader.next();
+      if (header == null) {
+        throw new ValidationException("Файл пуст");
+      }
+      parsed.put(new ParsedRow(reader.recordNumber(), header));
+      List<String> fields;
+      while ((fields = reader.next()) != null) {
+        parsed.put(new ParsedRow(reader.recordNumber(), fields));
+      }
+    }
+  }
+
+  /**
+   * Стадия проверки: проверяет строки и передаёт прошедшие проверку следующей стадии в формате
+   * {@code COPY}.
+   *
+   * @param parsed очередь разобранных записей, первая из них — заголовок
+   * @param valid очередь строк для {@code COPY}
+   * @param report отчёт, в котором учитываются отклонённые строки
+   */
+  private void validate(
+      BlockingQueue<ParsedRow> parsed,
+      BlockingQueue<String> valid,
+      TransactionImportReportDto report)
+      throws InterruptedException {
+    ParsedRow header = parsed.take();
+    if (header == END_OF_INPUT) {
+      return;
+    }
+    List<BiConsumer<TransactionRequestDto, String>> setters = setters(header.fields());
+    for (ParsedRow row = parsed.take(); row != END_OF_INPUT; row = parsed.take()) {
+      report.setTotal(report.getTotal() + 1);
+      TransactionRequestDto dto = new TransactionRequestDto();
+      try {
+        if (row.fields().size() != setters.size()) {
+          throw new ValidationException(
+              "Ожидалось полей: " + setters.size() + ", получено: " + row.fields().size());
+        }
+        for (int i = 0; i < setters.size(); i++) {
+          set(dto, header.fields().get(i), setters.get(i), row.fields().get(i));
+        }
+        validationService.validateConstraints(dto);
+        validationService.validateTransaction(dto);
+        valid.put(toCopyLine(dto));
+      } catch (ValidationException e) {
+        reject(report, row.number(), dto.getId(), e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Стадия записи: передаёт проверенные строки в поток {@code COPY}.
+   *
+   * @param valid очередь строк для {@code COPY}
+   * @param out поток {@code COPY}
+   */
+  private static void copy(BlockingQueue<String> valid, Writer out) throws IOException {
+    try {
+      for (String line = valid.take(); !line.isEmpty(); line = valid.take()) {
+        out.write(line);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Загрузка прервана");
+    }
+  }
+
+  /**
+   * Сопоставляет столбцы заголовка полям транзакции.
+   *
+   * @param header имена столбцов
+   * @return обработчики значений в порядке столбцов
+   * @throws ValidationException если столбец неизвестен или повторяется
+   */
+  private static List<BiConsumer<TransactionRequestDto, String>> setters(List<String> header) {
+    List<BiConsumer<TransactionRequestDto, String>> setters = new ArrayList<>(header.size());
+    for (String column : header) {
+      BiConsumer<TransactionRequestDto, String> setter = FIELDS.get(column.trim());
+      if (setter == null) {
+        throw new ValidationException("Неизвестный столбец: " + column);
+      }
+      if (setters.contains(setter)) {
+        throw new ValidationException("Столбец указан дважды: " + column);
+      }
+      setters.add(setter);
+    }
+    return setters;
+  }
+
+  /**
+   * Записывает значение поля в DTO. Пустое значение означает отсутствие поля.
+   *
+   * @throws ValidationException если значение не удалось разобрать
+   */
+  private static void set(
+      TransactionRequestDto dto,
+      String column,
+      BiConsumer<TransactionRequestDto, String> setter,
+      String value) {
+    if (value.isEmpty()) {
+      return;
+    }
+    try {
+      setter.accept(dto, value);
+    } catch (RuntimeException e) {
+      throw new ValidationException("Некорректное значение поля " + column.trim());
+    }
+  }
+
+  /**
+   * Преобразует проверенную строку в запись CSV для {@code COPY} со столбцами в порядке {@code
+   * TransactionBatchRepository#COLUMNS}.
+   *
+   * @throws ValidationException если тип лица, тип транзакции или статус некорректны
+   */
+  static String toCopyLine(TransactionRequestDto dto) {
+    try {
+      PersonType.valueOf(dto.getPersonType());
+      TransactionType.valueOf(dto.getTransactionType());
+      TransactionStatus.valueOf(dto.getStatus());
+    } catch (IllegalArgumentException e) {
+      throw new ValidationException("Некорректное значение типа лица, типа или статуса");
+    }
+    StringBuilder line = new StringBuilder(256);
+    appendValue(line, (dto.getId() != null ? dto.getId() : UUID.randomUUID()).toString());
+    appendValue(line.append(','), dto.getPersonType());
+    appendValue(line.append(','), dto.getOperationDate().toString());
+    appendValue(line.append(','), dto.getTransactionType());
+    appendValue(line.append(','), dto.getComment());
+    appendValue(line.append(','), dto.getAmount().toPlainString());
+    appendValue(line.append(','), dto.getStatus());
+    appendValue(line.append(','), dto.getSenderBank());
+    appendValue(line.append(','), dto.getAccount());
+    appendValue(line.append(','), dto.getReceiverBank());
+    appendValue(line.append(','), dto.getReceiverInn());
+    appendValue(line.append(','), dto.getReceiverAccount());
+    appendValue(line.append(','), dto.getCategory());
+    appendValue(line.append(','), dto.getReceiverPhone());
+    return line.append('\n').toString();
+  }
+
+  /**
+   * Добавляет значение в запись CSV. Значение всегда заключается в кавычки, чтобы пустая строка
+   * отличалась от {@code NULL}, который записывается пустым значением без кавычек.
+   */
+  private static void appendValue(StringBuilder line, String value) {
+    if (value == null) {
+      return;
+    }
+    line.append('"').append(value.replace("\"", "\"\"")).append('"');
+  }
+
+  private static void reject(
+      TransactionImportReportDto report, long number, UUID id, String error) {
+    report.setRejected(report.getRejected() + 1);
+    if (report.getRejectedRows().size() < MAX_REPORTED_REJECTIONS) {
+      report.getRejectedRows().add(TransactionBatchResultDto.rejected(number, id, error));
+    } else {
+      report.setRejectedRowsTruncated(true);
+    }
+  }
+
+  private static void rethrow(Exception failure) throws IOException {
+    if (failure instanceof IOException e) {
+      throw e;
+    }
+    if (failure instanceof RuntimeException e) {
+      throw e;
+    }
+  }
+}
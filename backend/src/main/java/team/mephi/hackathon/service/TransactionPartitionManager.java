@@ -0,0 +1,264 @@
+package team.mephi.hackathon.service;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Обслуживает месячные секции таблицы {@code transactions}: заранее создаёт секции на будущие
+ * месяцы и архивирует старые. Секция за месяц {@code 2025-03} называется {@code
+ * transactions_2025_03}; записи вне существующих секций попадают в {@code transactions_default}.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionPartitionManager {
+  private static final Logger LOGGER = LoggerFactory.getLogger(TransactionPartitionManager.class);
+
+  /** Секционированная таблица транзакций. */
+  static final String PARENT = "transactions";
+
+  /** Секция по умолчанию для записей вне созданных секций. */
+  static final String DEFAULT_PARTITION = PARENT + "_default";
+
+  /** Таблица занятых идентификаторов транзакций всех секций. */
+  private static final String TRANSACTION_IDS = "transaction_ids";
+
+  /** Ключ advisory-блокировки: не даёт нескольким экземплярам приложения создавать секции разом. */
+  private static final long LOCK_KEY = 0x7472616e73L;
+
+  private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+  private static final Pattern PARTITION_NAME = Pattern.compile(PARENT + "_(\\d{4})_(\\d{2})");
+
+  /** Пометка секции, уже сжатой в режиме {@link ArchiveMode#COMPACT}. */
+  private static final String COMPACTED = "compacted";
+
+  /** Режим обработки старых секций. */
+  public enum ArchiveMode {
+    /** Старые секции не трогаются. */
+    NONE,
+    /** Секция переписывается без «мёртвых» строк и замораживается, оставаясь доступной. */
+    COMPACT,
+    /** Секция отсоединяется и остаётся отдельной таблицей для выгрузки или удаления. */
+    DETACH
+  }
+
+  /** Доступ к БД для DDL-операций. Инжектируется через конструктор. */
+  private final JdbcTemplate jdbcTemplate;
+
+  /** Шаблон транзакций для атомарного создания секции. Инжектируется через конструктор. */
+  private final TransactionTemplate transactionTemplate;
+
+  /** Копия транзакций для аналитики: из неё убираются строки отсоединённых секций. */
+  private final ColumnarTransactionStore columnarStore;
+
+  /** На сколько месяцев вперёд создаются секции. */
+  @Value("${app.partitions.months-ahead}")
+  int monthsAhead;
+
+  /** Возраст секции в месяцах, после которого она архивируется; 0 — не архивировать. */
+  @Value("${app.partitions.archive-after-months}")
+  int archiveAfterMonths;
+
+  /** Что делать со старыми секциями. */
+  @Value("${app.partitions.archive-mode}")
+  ArchiveMode archiveMode;
+
+  /** Проверяет секции при старте приложения и далее по расписанию. */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(cron = "${app.partitions.cron}")
+  public void maintain() {
+    maintain(YearMonth.now());
+  }
+
+  /**
+   * Создаёт недостающие секции с текущего месяца на {@link #monthsAhead} месяцев вперёд и
+   * архивирует секции старше {@link #archiveAfterMonths} месяцев. Ошибка по одной секции не
+   * прерывает обработку остальных: записи без секции сохраняются в секции по умолчанию.
+   *
+   * @param current текущий месяц
+   */
+  void maintain(YearMonth current) {
+    for (int i = 0; i <= monthsAhead; i++) {
+      YearMonth month = current.plusMonths(i);
+      try {
+        if (createPartition(month)) {
+          LOGGER.info("Создана секция {}", partitionName(month));
+        }
+      } catch (RuntimeException e) {
+        LOGGER.error("Не удалось создать секцию {}", partitionName(month), e);
+      }
+    }
+    if (archiveMode == ArchiveMode.NONE || archiveAfterMonths <= 0) {
+      return;
+    }
+    YearMonth threshold = current.minusMonths(archiveAfterMonths);
+    for (YearMonth month : attachedMonths()) {
+      if (!month.isBefore(threshold)) {
+        continue;
+      }
+      try {
+        archive(month);
+      } catch (RuntimeException e) {
+        LOGGER.error("Не удалось архивировать секцию {}", partitionName(month), e);
+      }
+    }
+  }
+
+  /**
+   * Создаёт секцию за месяц, если её ещё нет. Таблица создаётся отдельно с ограничением {@code
+   * CHECK} по границам месяца и присоединяется через {@code ATTACH PARTITION}: в отличие от {@code
+   * CREATE TABLE ... PARTITION OF} это не блокирует чтение и запись в родительскую таблицу, а
+   * благодаря ограничению строки новой секции при присоединении не проверяются.
+   *
+   * <p>Секцию по умолчанию {@code ATTACH} блокирует в режиме {@code ACCESS EXCLUSIVE} до конца
+   * транзакции и просматривает целиком, проверяя, что в ней не осталось строк нового месяца:
+   * запросы, которые её затрагивают, на это время ждут. Поэтому секции создаются заранее ({@link
+   * #monthsAhead}), пока строк в секции по умолчанию нет или мало.
+   *
+   * <p>Строки этого месяца, уже попавшие в секцию по умолчанию, переносятся в новую секцию в той
+   * же транзакции. Удаление из секции по умолчанию освобождает их идентификаторы триггером, а
+   * вставка в ещё не присоединённую таблицу их не занимает, поэтому идентификаторы занимаются
+   * заново явно.
+   *
+   * @param month месяц секции
+   * @return {@code true}, если секция создана
+   */
+  public boolean createPartition(YearMonth month) {
+    String name = partitionName(month);
+    String from = lowerBound(month);
+    String to = lowerBound(month.plusMonths(1));
+    return Boolean.TRUE.equals(
+        transactionTemplate.execute(
+            status -> {
+              jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", LOCK_KEY);
+              if (exists(name)) {
+                return false;
+              }
+              jdbcTemplate.execute(
+                  String.format(
+                      "CREATE TABLE %s (LIKE %s INCLUDING DEFAULTS INCLUDING CONSTRAINTS)",
+                      name, PARENT));
+              jdbcTemplate.execute(
+                  String.format(
+                      "ALTER TABLE %s ADD CONSTRAINT %s_bounds CHECK (operation_date IS NOT NULL"
+                          + " AND operation_date >= '%s' AND operation_date < '%s')",
+                      name, name, from, to));
+              jdbcTemplate.execute(
+                  String.format(
+                      "WITH moved AS (DELETE FROM %s WHERE operation_date >= '%s'"
+                          + " AND operation_date < '%s' RETURNING *)"
+                          + " INSERT INTO %s SELECT * FROM moved",
+                      DEFAULT_PARTITION, from, to, name));
+              jdbcTemplate.execute(
+                  String.format("INSERT INTO %s SELECT id FROM %s", TRANSACTION_IDS, name));
+              jdbcTemplate.execute(
+                  String.format(
+                      "ALTER TABLE %s ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')",
+                      PARENT, name, from, to));
+              return true;
+            }));
+  }
+
+  /**
+   * Архивирует секцию согласно {@link #archiveMode}. Отсоединение выполняется без {@code
+   * CONCURRENTLY}: PostgreSQL не допускает его при наличии секции по умолчанию, поэтому операция
+   * кратко блокирует родительскую таблицу. Вместе с секцией удаляются её дневные итоги и её
+   * строки в копии для аналитики. Сжатие повторно не выполняется.
+   *
+   * @param month месяц секции
+   */
+  void archive(YearMonth month) {
+    String name = partitionName(month);
+    if (archiveMode == ArchiveMode.DETACH) {
+      // Строки отсоединённой секции не проходят через триггеры, поэтому её итоги удаляются явно
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            jdbcTemplate.execute(
+                String.format("ALTER TABLE %s DETACH PARTITION %s", PARENT, name));
+            jdbcTemplate.update(
+                "DELETE FROM " + TransactionRollupManager.ROLLUP + " WHERE day >= ? AND day < ?",
+                Date.valueOf(month.atDay(1)),
+                Date.valueOf(month.plusMonths(1).atDay(1)));
+          });
+      columnarStore.detached(month);
+      LOGGER.info("Секция {} отсоединена", name);
+    } else if (archiveMode == ArchiveMode.COMPACT && !isCompacted(name)) {
+      // VACUUM нельзя выполнять внутри транзакции, поэтому без transactionTemplate
+      jdbcTemplate.execute(String.format("VACUUM (FULL, FREEZE, ANALYZE) %s", name));
+      jdbcTemplate.execute(String.format("COMMENT ON TABLE %s IS '%s'", name, COMPACTED));
+      LOGGER.info("Секция {} сжата", name);
+    }
+  }
+
+  /**
+   * Возвращает месяцы секций, присоединённых к таблице транзакций, в порядке возрастания.
+   *
+   * @return месяцы присоединённых секций без секции по умолчанию
+   */
+  List<YearMonth> attachedMonths() {
+    return jdbcTemplate
+        .queryForList(
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid"
+                + " WHERE i.inhparent = ?::regclass ORDER BY c.relname",
+            String.class,
+            PARENT)
+        .stream()
+        .map(TransactionPartitionManager::monthOf)
+        .filter(Objects::nonNull)
+        .toList();
+  }
+
+  /**
+   * Возвращает имя секции за месяц.
+   *
+   * @param month месяц
+   * @return имя таблицы секции
+   */
+  static String partitionName(YearMonth month) {
+    return PARENT + "_" + month.format(SUFFIX);
+  }
+
+  /**
+   * Определяет месяц секции по имени таблицы.
+   *
+   * @param name имя таблицы
+   * @return месяц или {@code null}, если имя не соответствует месячной секции
+   */
+  static YearMonth monthOf(String name) {
+    Matcher matcher = PARTITION_NAME.matcher(name);
+    if (!matcher.matches()) {
+      return null;
+    }
+    return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+  }
+
+  private static String lowerBound(YearMonth month) {
+    return month.atDay(1) + " 00:00:00";
+  }
+
+  private boolean exists(String name) {
+    return Boolean.TRUE.equals(
+        jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name));
+  }
+
+  private boolean isCompacted(String name) {
+    return COMPACTED.equals(
+        jdbcTemplate.queryForObject(
+            "SELECT obj_description(?::regclass, 'pg_class')", String.class, name));
+  }
+}
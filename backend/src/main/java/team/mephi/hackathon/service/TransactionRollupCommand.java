@@ -0,0 +1,62 @@
+package team.mephi.hackathon.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Разовое обслуживание дневных итогов из командной строки. Запуск с {@code --rollups=rebuild}
+ * пересчитывает все итоги, с {@code --rollups=check} проверяет их; после этого приложение
+ * завершается с кодом 0 при успехе, 1 при найденных расхождениях и 2 при неизвестной команде. Без
+ * аргумента приложение работает как обычно.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionRollupCommand implements ApplicationRunner {
+  private static final Logger LOGGER = LoggerFactory.getLogger(TransactionRollupCommand.class);
+
+  /** Имя аргумента командной строки. */
+  static final String OPTION = "rollups";
+
+  /** Обслуживание итогов. Инжектируется через конструктор. */
+  private final TransactionRollupManager rollupManager;
+
+  /** Контекст приложения для завершения после команды. Инжектируется через конструктор. */
+  private final ConfigurableApplicationContext context;
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (!args.containsOption(OPTION)) {
+      return;
+    }
+    String command = String.join(",", args.getOptionValues(OPTION));
+    int code =
+        switch (command) {
+          case "rebuild" -> {
+            LOGGER.info("Пересчитано строк итогов: {}", rollupManager.rebuildAll());
+            yield 0;
+          }
+          case "check" -> {
+            List<LocalDate> days = rollupManager.checkAll();
+            if (days.isEmpty()) {
+              LOGGER.info("Дневные итоги согласованы с транзакциями");
+              yield 0;
+            }
+            LOGGER.warn("Дневные итоги расходятся с транзакциями за дни: {}", days);
+            yield 1;
+          }
+          default -> {
+            LOGGER.error("Неизвестная команда --{}={}", OPTION, command);
+            yield 2;
+          }
+        };
+    System.exit(SpringApplication.exit(context, () -> code));
+  }
+}
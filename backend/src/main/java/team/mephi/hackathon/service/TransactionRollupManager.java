@@ -0,0 +1,192 @@
+package team.mephi.hackathon.service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Пересчёт и проверка дневных итогов {@code transaction_daily_rollup}. Итоги обновляют триггеры на
+ * {@code transactions} (миграция V4); пересчёт нужен после операций в обход триггеров (TRUNCATE,
+ * ручные правки) и для заполнения итогов заново. Обе операции идут по месяцам, чтобы не держать
+ * долгих транзакций и блокировок.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionRollupManager {
+  private static final Logger LOGGER = LoggerFactory.getLogger(TransactionRollupManager.class);
+
+  /** Таблица дневных итогов. */
+  static final String ROLLUP = "transaction_daily_rollup";
+
+  /** Группы транзакций за полуоткрытый диапазон дат операции в столбцах таблицы итогов. */
+  private static final String AGGREGATE =
+      "SELECT operation_date::date AS day, coalesce(category, '') AS category,"
+          + " coalesce(transaction_type, '') AS transaction_type, coalesce(status, '') AS status,"
+          + " coalesce(sender_bank, '') AS sender_bank,"
+          + " coalesce(receiver_bank, '') AS receiver_bank,"
+          + " count(*) AS tx_count, sum(amount::numeric) AS amount_sum"
+          + " FROM transactions WHERE operation_date >= ? AND operation_date < ?"
+          + " GROUP BY 1, 2, 3, 4, 5, 6";
+
+  /** Дни, итоги которых расходятся с транзакциями. Строки с нулевым количеством не учитываются. */
+  private static final String MISMATCHED_DAYS =
+      "SELECT DISTINCT day FROM ("
+          + AGGREGATE
+          + ") actual FULL JOIN (SELECT * FROM "
+          + ROLLUP
+          + " WHERE day >= ? AND day < ? AND tx_count <> 0) stored"
+          + " USING (day, category, transaction_type, status, sender_bank, receiver_bank)"
+          + " WHERE actual.tx_count IS DISTINCT FROM stored.tx_count"
+          + " OR actual.amount_sum IS DISTINCT FROM stored.amount_sum"
+          + " ORDER BY day";
+
+  /** Доступ к БД. Инжектируется через конструктор. */
+  private final JdbcTemplate jdbcTemplate;
+
+  /** Шаблон транзакций для пересчёта месяца. Инжектируется через конструктор. */
+  private final TransactionTemplate transactionTemplate;
+
+  /** Пересчитывать ли дни с расхождениями, найденные плановой проверкой. */
+  @Value("${app.rollups.repair}")
+  boolean repair;
+
+  /**
+   * Проверяет все итоги по расписанию и записывает в журнал дни с расхождениями. Если включено
+   * исправление, эти дни пересчитываются.
+   */
+  @Scheduled(cron = "${app.rollups.check-cron}")
+  public void verify() {
+    List<LocalDate> days = checkAll();
+    if (days.isEmpty()) {
+      return;
+    }
+    LOGGER.warn("Дневные итоги расходятся с транзакциями за {} дн.: {}", days.size(), days);
+    if (repair) {
+      days.forEach(day -> rebuild(day, day.plusDays(1)));
+      LOGGER.info("Итоги за {} дн. пересчитаны", days.size());
+    }
+  }
+
+  /**
+   * Пересчитывает итоги за всё время: по датам транзакций и по датам уже сохранённых итогов.
+   *
+   * @return количество записанных строк итогов
+   */
+  public long rebuildAll() {
+    LocalDate[] bounds = bounds();
+    if (bounds == null) {
+      return 0;
+    }
+    return rebuild(bounds[0], bounds[1]);
+  }
+
+  /**
+   * Пересчитывает итоги за диапазон дней. Каждый месяц пересчитывается в отдельной транзакции под
+   * блокировкой таблицы итогов в режиме EXCLUSIVE: чтение итогов не блокируется, а триггеры
+   * параллельных изменений ждут и применяют свои изменения уже к пересчитанным строкам.
+   *
+   * @param from первый день
+   * @param to день после последнего
+   * @return количество записанных строк итогов
+   */
+  public long rebuild(LocalDate from, LocalDate to) {
+    long rows = 0;
+    for (LocalDate[] chunk : months(from, to)) {
+      Integer written =
+          transactionTemplate.execute(
+              status -> {
+                jdbcTemplate.execute("LOCK TABLE " + ROLLUP + " IN EXCLUSIVE MODE");
+                jdbcTemplate.update(
+                    "DELETE FROM " + ROLLUP + " WHERE day >= ? AND day < ?",
+                    Date.valueOf(chunk[0]),
+                    Date.valueOf(chunk[1]));
+                return jdbcTemplate.update(
+                    "INSERT INTO " + ROLLUP + " " + AGGREGATE,
+                    chunk[0].atStartOfDay(),
+                    chunk[1].atStartOfDay());
+              });
+      rows += written == null ? 0 : written;
+    }
+    return rows;
+  }
+
+  /**
+   * Сравнивает итоги с транзакциями за всё время.
+   *
+   * @return дни с расхождениями в порядке возрастания
+   */
+  public List<LocalDate> checkAll() {
+    LocalDate[] bounds = bounds();
+    return bounds == null ? List.of() : check(bounds[0], bounds[1]);
+  }
+
+  /**
+   * Сравнивает итоги с транзакциями за диапазон дней. Каждый месяц сравнивается одним запросом,
+   * который видит транзакции и итоги в одном снимке, поэтому параллельные изменения не дают ложных
+   * расхождений.
+   *
+   * @param from первый день
+   * @param to день после последнего
+   * @return дни с расхождениями в порядке возрастания
+   */
+  public List<LocalDate> check(LocalDate from, LocalDate to) {
+    List<LocalDate> days = new ArrayList<>();
+    for (LocalDate[] chunk : months(from, to)) {
+      days.addAll(
+          jdbcTemplate.queryForList(
+              MISMATCHED_DAYS,
+              LocalDate.class,
+              chunk[0].atStartOfDay(),
+              chunk[1].atStartOfDay(),
+              Date.valueOf(chunk[0]),
+              Date.valueOf(chunk[1])));
+    }
+    return days;
+  }
+
+  /**
+   * Возвращает диапазон дней, охватывающий и транзакции, и сохранённые итоги.
+   *
+   * @return первый день и день после последнего или {@code null}, если данных нет
+   */
+  private LocalDate[] bounds() {
+    Map<String, Object> row =
+        jdbcTemplate.queryForMap(
+            "SELECT least(t.first_day, r.first_day) AS first_day,"
+                + " greatest(t.last_day, r.last_day) AS last_day"
+                + " FROM (SELECT min(operation_date)::date AS first_day,"
+                + " max(operation_date)::date AS last_day FROM transactions) t,"
+                + " (SELECT min(day) AS first_day, max(day) AS last_day FROM "
+                + ROLLUP
+                + ") r");
+    if (row.get("first_day") == null) {
+      return null;
+    }
+    return new LocalDate[] {
+      ((Date) row.get("first_day")).toLocalDate(),
+      ((Date) row.get("last_day")).toLocalDate().plusDays(1)
+    };
+  }
+
+  /** Делит диапазон дней на части, не пересекающие границы месяцев. */
+  private static List<LocalDate[]> months(LocalDate from, LocalDate to) {
+    List<LocalDate[]> chunks = new ArrayList<>();
+    for (LocalDate start = from; start.isBefore(to); ) {
+      LocalDate nextMonth = start.withDayOfMonth(1).plusMonths(1);
+      LocalDate end = nextMonth.isBefore(to) ? nextMonth : to;
+      chunks.add(new LocalDate[] {start, end});
+      start = end;
+    }
+    return chunks;
+  }
+}
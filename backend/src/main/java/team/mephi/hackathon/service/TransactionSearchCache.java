@@ -0,0 +1,275 @@
+package team.mephi.hackathon.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+import team.mephi.hackathon.dto.TransactionCursor;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.dto.TransactionPageDto;
+import team.mephi.hackathon.dto.TransactionResponseDto;
+
+/**
+ * Кэш страниц поиска транзакций по нормализованному фильтру. Объём кэша и отдельной страницы
+ * ограничен оценкой занимаемой памяти; при переполнении вытесняются давно не запрошенные страницы.
+ *
+ * <p>Каждая страница помечается номером эпохи, прочитанным до запроса к БД. Запись транзакции через
+ * сервис увеличивает эпоху после фиксации, и все ранее сохранённые страницы перестают выдаваться
+ * без обхода кэша. Страница, запрос которой начался до записи, сохраняется со старой эпохой и
+ * поэтому тоже не выдаётся. Записи других экземпляров приложения приходят через {@link
+ * TransactionChangeFeed} и тоже увеличивают эпоху. Записи в обход сервисов (SQL) кэш не замечает,
+ * поэтому страница выдаётся не дольше {@code max-age} после сохранения.
+ */
+@Service
+public class TransactionSearchCache implements MeterBinder {
+  /**
+   * Оценка памяти на транзакцию без строковых полей, байт: DTO, идентификатор, дата, сумма и ссылки
+   * на строки с их заголовками.
+   */
+  static final long BYTES_PER_ITEM = 400;
+
+  /** Оценка памяти на страницу без транзакций, байт: ключ, запись кэша и курсор. */
+  static final long BYTES_PER_PAGE = 512;
+
+  /** Общий объём кэша. */
+  @Value("${app.search.cache.max-size}")
+  DataSize maxSize;
+
+  /** Объём одной страницы; более тяжёлые страницы не кэшируются. */
+  @Value("${app.search.cache.max-entry-size}")
+  DataSize maxEntrySize;
+
+  /** Сколько выдавать сохранённую страницу. */
+  @Value("${app.search.cache.max-age}")
+  Duration maxAge;
+
+  /** Текущая эпоха; страницы прошлых эпох устарели. */
+  private final AtomicLong epoch = new AtomicLong();
+
+  /** Страницы в порядке обращения: первой вытесняется давно не запрошенная. */
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** Оценка памяти, занятой страницами, байт. Изменяется под блокировкой {@link #entries}. */
+  private long weight;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Нормализованный фильтр поиска: одинаковые по смыслу запросы дают равные ключи.
+   *
+   * @param cursor разобранный курсор страницы
+   * @param limit итоговый размер страницы
+   */
+  record Key(
+      String senderBank,
+      String receiverBank,
+      String category,
+      String transactionType,
+      String status,
+      LocalDateTime dateFrom,
+      LocalDateTime dateTo,
+      BigDecimal amountMin,
+      BigDecimal amountMax,
+      TransactionCursor cursor,
+      int limit) {
+
+    /**
+     * Строит ключ страницы. Суммы приводятся к каноническому виду: {@code 100} и {@code 100.00}
+     * отбирают одни и те же транзакции.
+     *
+     * @param filter фильтр поиска
+     * @param cursor разобранный курсор
+     * @param limit итоговый размер страницы
+     * @return ключ страницы
+     */
+    static Key of(TransactionFilterDto filter, TransactionCursor cursor, int limit) {
+      return new Key(
+          filter.getSenderBank(),
+          filter.getReceiverBank(),
+          filter.getCategory(),
+          filter.getTransactionType(),
+          filter.getStatus(),
+          filter.getDateFrom(),
+          filter.getDateTo(),
+          canonical(filter.getAmountMin()),
+          canonical(filter.getAmountMax()),
+          cursor,
+          limit);
+    }
+
+    private static BigDecimal canonical(BigDecimal amount) {
+      return amount == null ? null : amount.stripTrailingZeros();
+    }
+  }
+
+  private record Entry(long epoch, TransactionPageDto page, long weight, Instant expires) {}
+
+  /**
+   * Возвращает текущую эпоху. Читается до запроса к БД и передаётся в {@link #put}.
+   *
+   * @return номер эпохи
+   */
+  long epoch() {
+    return epoch.get();
+  }
+
+  /**
+   * Возвращает сохранённую страницу текущей эпохи. Страница общая для всех запросов, изменять её
+   * нельзя.
+   *
+   * @param key ключ страницы
+   * @return страница или {@code null}, если её нет в кэше или она устарела
+   */
+  TransactionPageDto get(Key key) {
+    return get(key, Instant.now());
+  }
+
+  TransactionPageDto get(Key key, Instant now) {
+    synchronized (entries) {
+      Entry entry = entries.get(key);
+      if (entry != null && (entry.epoch() != epoch.get() || !now.isBefore(entry.expires()))) {
+        entries.remove(key);
+        weight -= entry.weight();
+        entry = null;
+      }
+      if (entry == null) {
+        misses.increment();
+        return null;
+      }
+      hits.increment();
+      return entry.page();
+    }
+  }
+
+  /**
+   * Сохраняет страницу, если за время запроса эпоха не сменилась и страница не превышает
+   * допустимого объёма.
+   *
+   * @param key ключ страницы
+   * @param readEpoch эпоха, прочитанная до запроса к БД
+   * @param page страница результатов
+   */
+  void put(Key key, long readEpoch, TransactionPageDto page) {
+    put(key, readEpoch, page, Instant.now());
+  }
+
+  void put(Key key, long readEpoch, TransactionPageDto page, Instant now) {
+    long pageWeight = weigh(page);
+    if (readEpoch != epoch.get() || pageWeight > maxEntrySize.toBytes()) {
+      return;
+    }
+    TransactionPageDto stored =
+        new TransactionPageDto(List.copyOf(page.getItems()), page.getNext());
+    synchronized (entries) {
+      Entry previous =
+          entries.put(key, new Entry(readEpoch, stored, pageWeight, now.plus(maxAge)));
+      weight += pageWeight - (previous == null ? 0 : previous.weight());
+      Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+      while (weight > maxSize.toBytes() && eldest.hasNext()) {
+        weight -= eldest.next().getValue().weight();
+        eldest.remove();
+        evictions.increment();
+      }
+    }
+  }
+
+  /**
+   * Делает устаревшими все сохранённые страницы. Внутри транзакции БД эпоха меняется после её
+   * фиксации, иначе — сразу.
+   */
+  public void invalidate() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      epoch.incrementAndGet();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            epoch.incrementAndGet();
+          }
+        });
+  }
+
+  /** Количество запросов, получивших страницу из кэша. */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /** Количество запросов, выполненных в БД. */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /** Количество страниц, вытесненных из-за переполнения. */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /** Оценка памяти, занятой страницами, байт. */
+  public long getWeight() {
+    synchronized (entries) {
+      return weight;
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("app.search.cache.gets", this, TransactionSearchCache::getHitCount)
+        .description("Запросы поиска, получившие страницу из кэша")
+        .tag("result", "hit")
+        .register(registry);
+    FunctionCounter.builder("app.search.cache.gets", this, TransactionSearchCache::getMissCount)
+        .description("Запросы поиска, выполненные в БД")
+        .tag("result", "miss")
+        .register(registry);
+    FunctionCounter.builder(
+            "app.search.cache.evictions", this, TransactionSearchCache::getEvictionCount)
+        .description("Страницы, вытесненные из-за переполнения кэша")
+        .register(registry);
+    Gauge.builder("app.search.cache.weight", this, TransactionSearchCache::getWeight)
+        .description("Оценка памяти, занятой страницами")
+        .baseUnit("bytes")
+        .register(registry);
+  }
+
+  /** Оценивает память, занимаемую страницей, байт. */
+  static long weigh(TransactionPageDto page) {
+    long bytes = BYTES_PER_PAGE + length(page.getNext());
+    for (TransactionResponseDto item : page.getItems()) {
+      bytes +=
+          BYTES_PER_ITEM
+              + length(item.getComment())
+              + length(item.getSenderBank())
+              + length(item.getAccount())
+              + length(item.getReceiverBank())
+              + length(item.getReceiverInn())
+              + length(item.getReceiverAccount())
+              + length(item.getCategory())
+              + length(item.getReceiverPhone());
+    }
+    return bytes;
+  }
+
+  /** Строки с кириллицей хранятся по два байта на символ. */
+  private static long length(String value) {
+    return value == null ? 0 : 2L * value.length();
+  }
+}
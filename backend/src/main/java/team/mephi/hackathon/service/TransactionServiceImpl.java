@@ -1,23 +1,43 @@
 package team.mephi.hackathon.service;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import team.mephi.hackathon.controller.TransactionService;
 import team.mephi.hackathon.controller.ValidationService;
+import team.mephi.hackathon.dto.TransactionBatchResultDto;
+import team.mephi.hackathon.dto.TransactionChangeToken;
+import team.mephi.hackathon.dto.TransactionCursor;
+import team.mephi.hackathon.dto.TransactionDeltaDto;
 import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.dto.TransactionPageDto;
 import team.mephi.hackathon.dto.TransactionRequestDto;
 import team.mephi.hackathon.dto.TransactionResponseDto;
+import team.mephi.hackathon.dto.TransactionStatusChangeDto;
+import team.mephi.hackathon.dto.TransactionStatusResultDto;
+import team.mephi.hackathon.dto.TransactionStatusResultDto.Result;
 import team.mephi.hackathon.entity.Transaction;
 import team.mephi.hackathon.entity.TransactionStatus;
-import team.mephi.hackathon.entity.TransactionType;
 import team.mephi.hackathon.exceptions.EntityNotFoundException;
 import team.mephi.hackathon.exceptions.ValidationException;
+import team.mephi.hackathon.mapper.TransactionMapper;
+import team.mephi.hackathon.repository.TransactionBatchRepository;
+import team.mephi.hackathon.repository.TransactionChangeLog;
 import team.mephi.hackathon.repository.TransactionRepository;
+import team.mephi.hackathon.repository.TransactionStatusRepository.StatusUpdate;
+import team.mephi.hackathon.specification.TransactionSpecification;
 
 /**
  * Реализация сервисного слоя для работы с транзакциями. Обеспечивает бизнес-логику создания,
@@ -26,6 +46,15 @@ import team.mephi.hackathon.repository.TransactionRepository;
 @Service
 @RequiredArgsConstructor
 public class TransactionServiceImpl implements TransactionService {
+  /** Размер страницы поиска, если клиент его не указал. */
+  static final int DEFAULT_PAGE_SIZE = 100;
+
+  /** Максимально допустимый размер страницы поиска. */
+  static final int MAX_PAGE_SIZE = 1000;
+
+  /** Количество транзакций, статус которых меняется одним запросом к БД. */
+  static final int STATUS_CHUNK_SIZE = 1000;
+
   /** Репозиторий для работы с сущностью {@link Transaction}. Инжектируется через конструктор. */
   private final TransactionRepository repository;
 
@@ -33,7 +62,22 @@ public class TransactionServiceImpl implements TransactionService {
   private final ValidationService validationService;
 
   /** Маппер для преобразования между DTO и Entity. Инжектируется через конструктор. */
-  private final ModelMapper modelMapper;
+  private final TransactionMapper mapper;
+
+  /** Пакетная вставка транзакций через JDBC. Инжектируется через конструктор. */
+  private final TransactionBatchRepository batchRepository;
+
+  /** Копия транзакций в памяти для аналитики. Получает сохранённые изменения. */
+  private final ColumnarTransactionStore columnarStore;
+
+  /** Кэш страниц поиска. Сбрасывается при каждой записи транзакций. */
+  private final TransactionSearchCache searchCache;
+
+  /** Кэш транзакций по идентификатору. Записанные транзакции из него убираются. */
+  private final TransactionIdCache idCache;
+
+  /** Лента изменений транзакций для подписчиков всех экземпляров приложения. */
+  private final TransactionChangeFeed changeFeed;
 
   public List<Transaction> getTransactions(Specification<Transaction> specification) {
     return repository.findAll(specification);
@@ -47,72 +91,182 @@ public class TransactionServiceImpl implements TransactionService {
    */
   public TransactionResponseDto createTransaction(TransactionRequestDto dto) {
     validationService.validateTransaction(dto);
-    Transaction entity = mapToEntity(dto);
-    return mapToDto(repository.save(entity));
+    Transaction entity = repository.save(mapToEntity(dto));
+    columnarStore.saved(entity);
+    searchCache.invalidate();
+    idCache.evict(entity.getId());
+    TransactionResponseDto created = mapToDto(entity);
+    changeFeed.created(created);
+    return created;
   }
 
   /**
-   * Возвращает транзакцию по её идентификатору.
+   * Создаёт транзакции пакетом. Строки проверяются по отдельности, прошедшие проверку вставляются
+   * многострочными запросами. Если БД отклоняет запрос, строки вставляются по одной, чтобы
+   * отклонить только ошибочные.
+   *
+   * @param rows строки пакета
+   * @param firstIndex номер первой строки пакета во входных данных
+   * @return результат по каждой строке в порядке строк
+   */
+  public List<TransactionBatchResultDto> createTransactions(
+      List<TransactionRequestDto> rows, long firstIndex) {
+    TransactionBatch batch =
+        TransactionBatch.prepare(rows, firstIndex, validationService, mapper);
+    try {
+      batch.markInserted(batch.accepted(), batchRepository.insertAll(batch.accepted()));
+    } catch (DataAccessException e) {
+      for (Transaction entity : batch.accepted()) {
+        try {
+          batch.markInserted(List.of(entity), batchRepository.insertAll(List.of(entity)));
+        } catch (DataAccessException rowError) {
+          batch.reject(entity, rowError.getMostSpecificCause().getMessage());
+        }
+      }
+    }
+    columnarStore.savedAll(batch.inserted());
+    if (!batch.inserted().isEmpty()) {
+      searchCache.invalidate();
+      idCache.evictAll(batch.inserted().stream().map(Transaction::getId).toList());
+      changeFeed.createdAll(batch.inserted().stream().map(this::mapToDto).toList());
+    }
+    return batch.results();
+  }
+
+  /**
+   * Возвращает транзакцию по её идентификатору. Результат, в том числе отсутствие транзакции,
+   * берётся из {@link TransactionIdCache}, если он там есть.
    *
    * @param id идентификатор транзакции
    * @return транзакция в виде {@link TransactionResponseDto}
    * @throws EntityNotFoundException если транзакция не найдена
    */
+  @Transactional(readOnly = true)
   public TransactionResponseDto getTransaction(UUID id) {
-    return mapToDto(getExistingTransactionOrThrowException(id));
+    return idCache
+        .get(id, repository::findResponseById)
+        .orElseThrow(() -> new EntityNotFoundException("Transaction " + id + " not found."));
   }
 
   /**
-   * Получает список всех транзакций, соответствующих заданным фильтрам.
+   * Получает страницу транзакций, соответствующих заданным фильтрам. Страницы выдаются в порядке
+   * убывания даты операции; следующая страница запрашивается по курсору из предыдущего ответа.
+   * Повторный запрос с тем же фильтром до следующей записи транзакций получает страницу из {@link
+   * TransactionSearchCache}.
    *
-   * @param filter фильтр поиска
-   * @return список транзакций
+   * @param filter фильтр поиска, курсор и размер страницы
+   * @return страница транзакций и курсор следующей страницы
+   * @throws ValidationException если размер страницы, курсор или значения фильтра некорректны
    */
-  public List<TransactionResponseDto> searchTransactions(TransactionFilterDto filter) {
-    Specification<Transaction> spec = Specification.where(null);
-
-    if (filter.getDateFrom() != null)
-      spec =
-          spec.and(
-              (root, q, cb) ->
-                  cb.greaterThanOrEqualTo(root.get("operationDate"), filter.getDateFrom()));
-
-    if (filter.getDateTo() != null)
-      spec =
-          spec.and(
-              (root, q, cb) -> cb.lessThanOrEqualTo(root.get("operationDate"), filter.getDateTo()));
-
-    if (filter.getTransactionType() != null)
-      spec =
-          spec.and(
-              (root, q, cb) ->
-                  cb.equal(
-                      root.get("transactionType"),
-                      TransactionType.valueOf(filter.getTransactionType())));
+  @Transactional(readOnly = true)
+  public TransactionPageDto searchTransactions(TransactionFilterDto filter) {
+    int limit = resolvePageSize(filter.getLimit());
+    TransactionCursor after = TransactionCursor.decode(filter.getCursor());
+    TransactionSearchCache.Key key = TransactionSearchCache.Key.of(filter, after, limit);
+    TransactionPageDto cached = searchCache.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    // Эпоха читается до запроса, чтобы запись во время запроса сделала страницу устаревшей
+    long epoch = searchCache.epoch();
 
-    if (filter.getStatus() != null)
-      spec =
-          spec.and(
-              (root, q, cb) ->
-                  cb.equal(root.get("status"), TransactionStatus.valueOf(filter.getStatus())));
+    Specification<Transaction> spec = TransactionSpecification.matches(filter);
 
-    if (filter.getCategory() != null)
-      spec = spec.and((root, q, cb) -> cb.equal(root.get("category"), filter.getCategory()));
+    // Запрашиваем на одну запись больше, чтобы узнать, есть ли следующая страница
+    List<TransactionResponseDto> rows = repository.findResponsePage(spec, after, limit + 1);
+    String next = null;
+    if (rows.size() > limit) {
+      rows = rows.subList(0, limit);
+      TransactionResponseDto last = rows.get(limit - 1);
+      next = new TransactionCursor(last.getOperationDate(), last.getId()).encode();
+    }
+    TransactionPageDto page = new TransactionPageDto(rows, next);
+    searchCache.put(key, epoch, page);
+    return page;
+  }
 
-    if (filter.getAmountMin() != null)
-      spec =
-          spec.and(
-              (root, q, cb) -> cb.greaterThanOrEqualTo(root.get("amount"), filter.getAmountMin()));
+  /**
+   * Передаёт все транзакции, соответствующие фильтру, начиная с позиции курсора, если он указан.
+   * Транзакции читаются из курсора БД порциями и передаются по одной, поэтому объём памяти не
+   * зависит от размера выборки. Кэш поиска не используется, размер страницы не учитывается.
+   *
+   * @param filter фильтр поиска и необязательный курсор
+   * @param consumer получатель транзакций в порядке убывания даты операции
+   * @throws ValidationException если курсор или значения фильтра некорректны
+   */
+  @Transactional(readOnly = true)
+  public void streamTransactions(
+      TransactionFilterDto filter, Consumer<TransactionResponseDto> consumer) {
+    TransactionCursor after = TransactionCursor.decode(filter.getCursor());
+    Specification<Transaction> spec =
+        TransactionSpecification.matches(filter)
+            .and(TransactionSpecification.isAfterCursor(after));
+    try (Stream<TransactionResponseDto> rows = repository.streamResponses(spec)) {
+      rows.forEach(consumer);
+    }
+  }
 
-    if (filter.getAmountMax() != null)
-      spec =
-          spec.and(
-              (root, q, cb) -> cb.lessThanOrEqualTo(root.get("amount"), filter.getAmountMax()));
+  /**
+   * Возвращает изменения транзакций после токена, полученного клиентом в предыдущем ответе. Без
+   * токена возвращаются все транзакции, поэтому первая синхронизация — полная выгрузка по частям.
+   *
+   * @param token токен предыдущего ответа, может быть {@code null}
+   * @param limit максимальное количество изменений в ответе, может быть {@code null}
+   * @return изменённые и удалённые транзакции и токен следующего запроса
+   * @throws ValidationException если токен или размер ответа некорректны
+   */
+  public TransactionDeltaDto getChangesSince(String token, Integer limit) {
+    int size = resolvePageSize(limit);
+    TransactionChangeToken after = TransactionChangeToken.decode(token);
+    // Запрашиваем на одно изменение больше, чтобы узнать, прочитан ли журнал до конца
+    return toDelta(repository.findChanges(after, size + 1), size, mapper);
+  }
 
-    // Фильтрация только по не удалённым
-    spec = spec.and((root, q, cb) -> cb.notEqual(root.get("status"), "DELETED"));
+  /**
+   * Собирает ответ из прочитанной части журнала изменений. Если журнал прочитан не полностью,
+   * токен указывает на последнее выданное изменение, иначе — на конец журнала.
+   *
+   * @param log прочитанная часть журнала, на одно изменение больше размера ответа
+   * @param limit размер ответа
+   * @param mapper маппер транзакций
+   * @return изменённые и удалённые транзакции и токен следующего запроса
+   */
+  static TransactionDeltaDto toDelta(
+      TransactionChangeLog log, int limit, TransactionMapper mapper) {
+    List<TransactionChangeLog.Entry> entries = log.entries();
+    boolean hasMore = entries.size() > limit;
+    if (hasMore) {
+      entries = entries.subList(0, limit);
+    }
+    List<TransactionResponseDto> changed = new ArrayList<>();
+    List<UUID> deleted = new ArrayList<>();
+    for (TransactionChangeLog.Entry entry : entries) {
+      Transaction transaction = entry.transaction();
+      if (transaction.getStatus() == TransactionStatus.DELETED) {
+        deleted.add(transaction.getId());
+      } else {
+        changed.add(mapper.toDto(transaction));
+      }
+    }
+    TransactionChangeToken next = hasMore ? entries.get(limit - 1).position() : log.end();
+    return new TransactionDeltaDto(changed, deleted, next.encode(), hasMore);
+  }
 
-    return repository.findAll(spec).stream().map(this::mapToDto).collect(Collectors.toList());
+  /**
+   * Определяет размер страницы поиска с учётом значения по умолчанию и верхней границы.
+   *
+   * @param limit запрошенный клиентом размер страницы, может быть {@code null}
+   * @return допустимый размер страницы
+   * @throws ValidationException если размер страницы меньше единицы
+   */
+  static int resolvePageSize(Integer limit) {
+    if (limit == null) {
+      return DEFAULT_PAGE_SIZE;
+    }
+    if (limit < 1) {
+      throw new ValidationException("Размер страницы должен быть положительным");
+    }
+    return Math.min(limit, MAX_PAGE_SIZE);
   }
 
   /**
@@ -126,21 +280,19 @@ public class TransactionServiceImpl implements TransactionService {
   public TransactionResponseDto updateTransaction(UUID id, TransactionRequestDto dto) {
     Transaction entity = getExistingTransactionOrThrowException(id);
 
-    switch (entity.getStatus()) {
-      case COMPLETED:
-      case CONFIRMED:
-      case IN_PROGRESS:
-      case CANCELED:
-      case DELETED:
-      case REFUND:
-        throw new ValidationException(
-            "Cannot update " + entity.getStatus().name() + " transaction");
-    }
-
+    checkUpdatable(entity.getStatus());
     validationService.validateTransaction(dto);
     updateEntity(entity, dto);
+    // DTO запроса содержит поле id: без восстановления save() создаст новую запись
+    entity.setId(id);
 
-    return mapToDto(repository.save(entity));
+    Transaction saved = repository.save(entity);
+    columnarStore.saved(saved);
+    searchCache.invalidate();
+    idCache.evict(id);
+    TransactionResponseDto updated = mapToDto(saved);
+    changeFeed.updated(updated);
+    return updated;
   }
 
   /**
@@ -152,18 +304,188 @@ public class TransactionServiceImpl implements TransactionService {
   public void deleteTransaction(UUID id) {
     Transaction entity = getExistingTransactionOrThrowException(id);
 
-    switch (entity.getStatus()) {
-      case IN_PROGRESS:
-      case CANCELED:
-      case CONFIRMED:
-      case COMPLETED:
-      case REFUND:
-        throw new ValidationException(
-            "Cannot delete " + entity.getStatus().name() + " transaction");
+    checkDeletable(entity.getStatus());
+    entity.setStatus(TransactionStatus.DELETED);
+    columnarStore.saved(repository.save(entity));
+    searchCache.invalidate();
+    idCache.evict(id);
+    changeFeed.deleted(id);
+  }
+
+  /**
+   * Меняет статус транзакций, заданных идентификаторами или фильтром. Переход проверяется теми же
+   * правилами, что и при изменении и удалении одной транзакции, но условием в самом запросе, без
+   * чтения транзакций. Транзакции обрабатываются порциями по {@value #STATUS_CHUNK_SIZE}; каждая
+   * порция меняется одним запросом в собственной транзакции БД, поэтому блокировки строк
+   * удерживаются недолго, а порции, изменённые до ошибки, остаются изменёнными.
+   *
+   * @param request запрос смены статуса
+   * @param consumer получатель результатов по каждой транзакции в порядке обработки
+   * @throws ValidationException если запрос или фильтр некорректны
+   */
+  public void changeStatus(
+      TransactionStatusChangeDto request, Consumer<TransactionStatusResultDto> consumer) {
+    TransactionStatus target = resolveTargetStatus(request);
+    Set<TransactionStatus> sources = statusSources(target);
+    if (request.getIds() != null) {
+      List<UUID> ids = request.getIds().stream().distinct().toList();
+      for (int from = 0; from < ids.size(); from += STATUS_CHUNK_SIZE) {
+        List<UUID> chunk = ids.subList(from, Math.min(from + STATUS_CHUNK_SIZE, ids.size()));
+        changeStatus(chunk, target, sources).forEach(consumer);
+      }
+      return;
+    }
+    Specification<Transaction> specification =
+        TransactionSpecification.matches(request.getFilter());
+    TransactionCursor after = null;
+    List<TransactionCursor> positions;
+    do {
+      positions = repository.findPositions(specification, after, STATUS_CHUNK_SIZE);
+      if (positions.isEmpty()) {
+        return;
+      }
+      List<UUID> chunk = positions.stream().map(TransactionCursor::id).toList();
+      changeStatus(chunk, target, sources).forEach(consumer);
+      after = positions.get(positions.size() - 1);
+    } while (positions.size() == STATUS_CHUNK_SIZE);
+  }
+
+  private List<TransactionStatusResultDto> changeStatus(
+      List<UUID> ids, TransactionStatus target, Set<TransactionStatus> sources) {
+    List<StatusUpdate> updates = repository.updateStatus(ids, target, sources);
+    List<Transaction> changed =
+        updates.stream().map(StatusUpdate::updated).filter(Objects::nonNull).toList();
+    if (!changed.isEmpty()) {
+      columnarStore.savedAll(changed);
+      searchCache.invalidate();
+      List<UUID> changedIds = changed.stream().map(Transaction::getId).toList();
+      idCache.evictAll(changedIds);
+      if (target == TransactionStatus.DELETED) {
+        changeFeed.deletedAll(changedIds);
+      } else {
+        changeFeed.updatedAll(changed.stream().map(this::mapToDto).toList());
+      }
     }
+    return toStatusResults(ids, updates, target);
+  }
 
-    entity.setStatus(TransactionStatus.DELETED);
-    repository.save(entity);
+  /**
+   * Проверяет, что транзакцию в данном статусе можно редактировать.
+   *
+   * @param status текущий статус транзакции
+   * @throws ValidationException если статус запрещает редактирование
+   */
+  static void checkUpdatable(TransactionStatus status) {
+    if (!isUpdatable(status)) {
+      throw new ValidationException(transitionError(status, TransactionStatus.NEW));
+    }
+  }
+
+  /**
+   * Проверяет, что транзакцию в данном статусе можно удалить.
+   *
+   * @param status текущий статус транзакции
+   * @throws ValidationException если статус запрещает удаление
+   */
+  static void checkDeletable(TransactionStatus status) {
+    if (!isDeletable(status)) {
+      throw new ValidationException(transitionError(status, TransactionStatus.DELETED));
+    }
+  }
+
+  /**
+   * Определяет, можно ли редактировать транзакцию в данном статусе, в том числе менять её статус.
+   *
+   * @param status текущий статус транзакции
+   * @return {@code true}, если редактирование разрешено
+   */
+  static boolean isUpdatable(TransactionStatus status) {
+    return status == TransactionStatus.NEW;
+  }
+
+  /**
+   * Определяет, можно ли удалить транзакцию в данном статусе.
+   *
+   * @param status текущий статус транзакции
+   * @return {@code true}, если удаление разрешено
+   */
+  static boolean isDeletable(TransactionStatus status) {
+    return status == TransactionStatus.NEW || status == TransactionStatus.DELETED;
+  }
+
+  /**
+   * Возвращает статусы, из которых допустим переход в заданный: удаление проверяется правилами
+   * {@link #isDeletable}, остальные переходы — правилами {@link #isUpdatable}.
+   *
+   * @param target новый статус
+   * @return допустимые текущие статусы
+   */
+  static Set<TransactionStatus> statusSources(TransactionStatus target) {
+    Set<TransactionStatus> sources = EnumSet.noneOf(TransactionStatus.class);
+    for (TransactionStatus status : TransactionStatus.values()) {
+      if (target == TransactionStatus.DELETED ? isDeletable(status) : isUpdatable(status)) {
+        sources.add(status);
+      }
+    }
+    return sources;
+  }
+
+  private static String transitionError(TransactionStatus current, TransactionStatus target) {
+    String action = target == TransactionStatus.DELETED ? "delete" : "update";
+    return "Cannot " + action + " " + current.name() + " transaction";
+  }
+
+  /**
+   * Проверяет запрос массовой смены статуса и возвращает новый статус.
+   *
+   * @param request запрос смены статуса
+   * @return новый статус
+   * @throws ValidationException если не задан ровно один из способов выбора транзакций, среди
+   *     идентификаторов есть пустые или статус некорректен
+   */
+  static TransactionStatus resolveTargetStatus(TransactionStatusChangeDto request) {
+    if ((request.getIds() == null) == (request.getFilter() == null)) {
+      throw new ValidationException("Укажите либо идентификаторы транзакций, либо фильтр");
+    }
+    if (request.getIds() != null && request.getIds().stream().anyMatch(Objects::isNull)) {
+      throw new ValidationException("Идентификатор транзакции не может быть пустым");
+    }
+    try {
+      return TransactionStatus.valueOf(request.getStatus());
+    } catch (IllegalArgumentException | NullPointerException e) {
+      throw new ValidationException("Некорректное значение поля status: " + request.getStatus());
+    }
+  }
+
+  /**
+   * Собирает результаты смены статуса порции транзакций в порядке запроса.
+   *
+   * @param ids идентификаторы порции в порядке запроса
+   * @param updates результаты запроса смены статуса
+   * @param target новый статус
+   * @return результат по каждой транзакции порции
+   */
+  static List<TransactionStatusResultDto> toStatusResults(
+      List<UUID> ids, List<StatusUpdate> updates, TransactionStatus target) {
+    Map<UUID, StatusUpdate> byId = new HashMap<>();
+    updates.forEach(update -> byId.put(update.id(), update));
+    List<TransactionStatusResultDto> results = new ArrayList<>(ids.size());
+    for (UUID id : ids) {
+      StatusUpdate update = byId.get(id);
+      if (update == null || update.previous() == null) {
+        results.add(
+            new TransactionStatusResultDto(
+                id, Result.NOT_FOUND, null, "Transaction " + id + " not found."));
+      } else if (update.updated() != null) {
+        results.add(new TransactionStatusResultDto(id, Result.UPDATED, target.name(), null));
+      } else {
+        TransactionStatus current = update.previous();
+        results.add(
+            new TransactionStatusResultDto(
+                id, Result.REJECTED, current.name(), transitionError(current, target)));
+      }
+    }
+    return results;
   }
 
   /**
@@ -171,9 +493,10 @@ public class TransactionServiceImpl implements TransactionService {
    *
    * @param dto исходные данные
    * @return объект {@link Transaction}
+   * @throws ValidationException если тип лица, тип транзакции или статус некорректны
    */
   Transaction mapToEntity(TransactionRequestDto dto) {
-    return modelMapper.map(dto, Transaction.class);
+    return mapper.toEntity(dto);
   }
 
   /**
@@ -181,9 +504,10 @@ public class TransactionServiceImpl implements TransactionService {
    *
    * @param entity целевая сущность
    * @param dto источник новых данных
+   * @throws ValidationException если тип лица, тип транзакции или статус некорректны
    */
   void updateEntity(Transaction entity, TransactionRequestDto dto) {
-    modelMapper.map(dto, entity);
+    mapper.updateEntity(dto, entity);
   }
 
   /**
@@ -193,17 +517,21 @@ public class TransactionServiceImpl implements TransactionService {
    * @return объект {@link TransactionResponseDto}
    */
   TransactionResponseDto mapToDto(Transaction entity) {
-    return modelMapper.map(entity, TransactionResponseDto.class);
+    return mapper.toDto(entity);
   }
 
   /**
-   * Возвращает существующую транзакцию или выбрасывает исключение.
+   * Возвращает существующую транзакцию или выбрасывает исключение. Если {@link TransactionIdCache}
+   * знает, что транзакции нет, БД не запрашивается.
    *
    * @param id идентификатор транзакции
    * @return найденная транзакция
    * @throws EntityNotFoundException если транзакция не найдена
    */
   private Transaction getExistingTransactionOrThrowException(UUID id) {
+    if (idCache.isKnownMissing(id)) {
+      throw new EntityNotFoundException("Transaction " + id + " not found.");
+    }
     return repository
         .findById(id)
         .orElseThrow(() -> new EntityNotFoundException("Transaction " + id + " not found."));
@@ -1,16 +1,48 @@
 package team.mephi.hackathon.service;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import team.mephi.hackathon.controller.ValidationService;
 import team.mephi.hackathon.dto.TransactionRequestDto;
 import team.mephi.hackathon.exceptions.ValidationException;
 
 @Service
+@RequiredArgsConstructor
 public class ValidationServiceImpl implements ValidationService {
+  /** Валидатор ограничений Bean Validation. Инжектируется через конструктор. */
+  private final Validator validator;
+
+  /** Справочник категорий в памяти. Инжектируется через конструктор. */
+  private final CategoryDictionary categories;
 
   public void validateTransaction(TransactionRequestDto dto) {
     validateInn(dto.getReceiverInn());
     validatePhone(dto.getReceiverPhone());
+    validateCategory(dto.getCategory());
+  }
+
+  /**
+   * Проверяет ограничения Bean Validation, объявленные в DTO. Нужна там, где {@code @Valid}
+   * неприменим, например при пакетной загрузке, когда ошибка одной строки не должна отклонять
+   * весь запрос.
+   *
+   * @param dto данные транзакции
+   * @throws ValidationException с перечнем нарушений в формате «поле: сообщение»
+   */
+  public void validateConstraints(TransactionRequestDto dto) {
+    Set<ConstraintViolation<TransactionRequestDto>> violations = validator.validate(dto);
+    if (!violations.isEmpty()) {
+      throw new ValidationException(
+          violations.stream()
+              .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+              .sorted(Comparator.naturalOrder())
+              .collect(Collectors.joining("; ")));
+    }
   }
 
   private void validateInn(String inn) {
@@ -26,6 +58,18 @@ public class ValidationServiceImpl implements ValidationService {
     }
   }
 
+  /**
+   * Категория проверяется по справочнику в памяти; к БД обращается только проверка наименования,
+   * которого нет в снимке и которое ещё не запомнено как отсутствующее.
+   */
+  private void validateCategory(String category) {
+    if (category == null) return;
+
+    if (!categories.contains(category)) {
+      throw new ValidationException("Неизвестная категория: " + category);
+    }
+  }
+
   private void validatePhone(String phone) {
     if (phone == null) return;
 
@@ -2,10 +2,21 @@ package team.mephi.hackathon.specification;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import team.mephi.hackathon.dto.TransactionCursor;
+import team.mephi.hackathon.dto.TransactionFilterDto;
 import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.entity.TransactionStatus;
+import team.mephi.hackathon.entity.TransactionType;
+import team.mephi.hackathon.exceptions.ValidationException;
 
 public class TransactionSpecification {
+  /** Порядок обхода для keyset-пагинации. Совпадает с индексом (operation_date, id). */
+  public static final Sort KEYSET_SORT =
+      Sort.by(Sort.Order.desc("operationDate"), Sort.Order.desc("id"));
+
   public static Specification<Transaction> hasSenderBank(String senderBank) {
     return (root, query, criteriaBuilder) ->
         senderBank == null ? null : criteriaBuilder.equal(root.get("senderBank"), senderBank);
@@ -48,4 +59,95 @@ public class TransactionSpecification {
     return (root, query, criteriaBuilder) ->
         category == null ? null : criteriaBuilder.equal(root.get("category"), category);
   }
+
+  public static Specification<Transaction> hasTransactionType(TransactionType transactionType) {
+    return (root, query, criteriaBuilder) ->
+        transactionType == null
+            ? null
+            : criteriaBuilder.equal(root.get("transactionType"), transactionType);
+  }
+
+  public static Specification<Transaction> hasStatus(TransactionStatus status) {
+    return (root, query, criteriaBuilder) ->
+        status == null ? null : criteriaBuilder.equal(root.get("status"), status);
+  }
+
+  /**
+   * Условия фильтра поиска по не удалённым транзакциям. Курсор и размер страницы не учитываются.
+   * Значения перечислений проверяются сразу, до обращения к БД.
+   *
+   * @param filter критерии фильтрации; незаданные поля не ограничивают выборку
+   * @return спецификация, выполняемая целиком в БД
+   * @throws ValidationException если тип транзакции или статус некорректны
+   */
+  public static Specification<Transaction> matches(TransactionFilterDto filter) {
+    return Specification.where(hasSenderBank(filter.getSenderBank()))
+        .and(hasReceiverBank(filter.getReceiverBank()))
+        .and(hasDateBetween(filter.getDateFrom(), filter.getDateTo()))
+        .and(
+            hasTransactionType(
+                parse(TransactionType.class, filter.getTransactionType(), "transactionType")))
+        .and(hasStatus(parse(TransactionStatus.class, filter.getStatus(), "status")))
+        .and(hasCategory(filter.getCategory()))
+        .and(hasAmountBetween(filter.getAmountMin(), filter.getAmountMax()))
+        .and(isNotDeleted());
+  }
+
+  /**
+   * Исключает удалённые транзакции. Статус передаётся литералом, а не параметром: иначе условие не
+   * совпадает с предикатом частичных индексов {@code WHERE status <> 'DELETED'} в обобщённом плане
+   * подготовленного запроса.
+   *
+   * @return спецификация {@code status <> 'DELETED'}
+   */
+  public static Specification<Transaction> isNotDeleted() {
+    return (root, query, criteriaBuilder) ->
+        criteriaBuilder.notEqual(
+            root.get("status"), criteriaBuilder.literal(TransactionStatus.DELETED));
+  }
+
+  /**
+   * Условие поиска записей, идущих после курсора в порядке {@link #KEYSET_SORT}. Строится как
+   * {@code operation_date <= :date AND (operation_date < :date OR id < :id)}: первое слагаемое
+   * задаёт границу диапазона индекса, поэтому стоимость любой страницы одинакова.
+   *
+   * @param cursor позиция последней выданной записи, может быть {@code null}
+   * @return спецификация или {@code null}-предикат для первой страницы
+   */
+  public static Specification<Transaction> isAfterCursor(TransactionCursor cursor) {
+    return (root, query, criteriaBuilder) -> {
+      if (cursor == null) {
+        return null;
+      }
+      return criteriaBuilder.and(
+          criteriaBuilder.lessThanOrEqualTo(
+              root.<LocalDateTime>get("operationDate"), cursor.operationDate()),
+          criteriaBuilder.or(
+              criteriaBuilder.lessThan(
+                  root.<LocalDateTime>get("operationDate"), cursor.operationDate()),
+              criteriaBuilder.lessThan(root.<UUID>get("id"), cursor.id())));
+    };
+  }
+
+  /**
+   * Разбирает значение перечисления из фильтра. Используется и реализацией поиска на R2DBC, чтобы
+   * некорректное значение в обоих профилях приводило к ответу 400.
+   *
+   * @param type класс перечисления
+   * @param value значение из запроса, может быть {@code null}
+   * @param field имя поля для сообщения об ошибке
+   * @param <E> тип перечисления
+   * @return значение перечисления или {@code null}, если значение не задано
+   * @throws ValidationException если значение не входит в перечисление
+   */
+  public static <E extends Enum<E>> E parse(Class<E> type, String value, String field) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      return Enum.valueOf(type, value);
+    } catch (IllegalArgumentException e) {
+      throw new ValidationException("Некорректное значение поля " + field + ": " + value);
+    }
+  }
 }
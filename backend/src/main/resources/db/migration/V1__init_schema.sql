@@ -1,3 +1,4 @@
+-- Исходная схема (бывший init.sql). Базы, созданные init.sql, получают эту версию как базовую.
 CREATE TABLE IF NOT EXISTS transactions (
     id UUID PRIMARY KEY,
     person_type TEXT,
@@ -15,6 +16,10 @@ CREATE TABLE IF NOT EXISTS transactions (
     receiver_phone VARCHAR(20)
     );
 
+-- Индекс для keyset-пагинации поиска: ORDER BY operation_date DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_transactions_operation_date_id
+    ON transactions (operation_date DESC, id DESC);
+
 CREATE TABLE IF NOT EXISTS categories (
     id UUID PRIMARY KEY,
     name VARCHAR(200)
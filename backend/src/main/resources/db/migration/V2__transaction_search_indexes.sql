@@ -0,0 +1,45 @@
+-- Индексы под фильтры поиска транзакций (TransactionSpecification, searchTransactions).
+-- Поиск всегда исключает удалённые записи и обходит их в порядке keyset-пагинации
+-- (operation_date DESC, id DESC), поэтому B-tree индексы частичные и заканчиваются этими полями:
+-- фильтр по равенству + сортировка + LIMIT читают ровно одну страницу индекса.
+-- Индексы строятся CONCURRENTLY, чтобы не блокировать запись (см. V2__...sql.conf).
+
+-- Страница без фильтров и фильтры только по диапазонам дат. Заменяет полный индекс из V1.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_active_date_id
+    ON transactions (operation_date DESC, id DESC)
+    WHERE status <> 'DELETED';
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_transactions_operation_date_id;
+
+-- Фильтр по категории. Сумма и тип операции включены в индекс для агрегатов по категориям.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_active_category
+    ON transactions (category, operation_date DESC, id DESC)
+    INCLUDE (amount, transaction_type)
+    WHERE status <> 'DELETED';
+
+-- Фильтры по банку-отправителю и банку-получателю.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_active_sender_bank
+    ON transactions (sender_bank, operation_date DESC, id DESC)
+    WHERE status <> 'DELETED';
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_active_receiver_bank
+    ON transactions (receiver_bank, operation_date DESC, id DESC)
+    WHERE status <> 'DELETED';
+
+-- Фильтр по статусу (NEW, CONFIRMED и т.д.).
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_active_status
+    ON transactions (status, operation_date DESC, id DESC)
+    WHERE status <> 'DELETED';
+
+-- Узкие диапазоны сумм. Поля сортировки включены, чтобы не читать таблицу до отсечения по LIMIT.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_active_amount
+    ON transactions (amount)
+    INCLUDE (operation_date, id)
+    WHERE status <> 'DELETED';
+
+-- Широкие диапазоны дат в отчётах и аналитике. Таблица пополняется почти в хронологическом
+-- порядке, поэтому BRIN в сотни раз компактнее B-tree и отсекает блоки вне периода.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_operation_date_brin
+    ON transactions USING BRIN (operation_date) WITH (pages_per_range = 32);
+
+ANALYZE transactions;
@@ -0,0 +1,122 @@
+-- Секционирование transactions по месяцам operation_date.
+-- Почти все запросы ограничены датой операции: планировщик отсекает лишние секции, а обслуживание
+-- индексов и VACUUM выполняются по небольшим секциям вместо одной монолитной таблицы.
+-- Будущие секции создаёт и старые архивирует TransactionPartitionManager.
+
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+ALTER TABLE transactions_unpartitioned RENAME CONSTRAINT transactions_pkey TO transactions_unpartitioned_pkey;
+
+-- Первичный ключ секционированной таблицы обязан включать ключ секционирования, поэтому сам по себе
+-- не запрещает две строки с одним id и разными датами. Уникальность id обеспечивает transaction_ids.
+CREATE TABLE transactions (
+    id UUID NOT NULL,
+    person_type TEXT,
+    operation_date TIMESTAMP NOT NULL,
+    transaction_type TEXT,
+    comment VARCHAR(500),
+    amount DOUBLE PRECISION NOT NULL,
+    status TEXT,
+    sender_bank TEXT,
+    account TEXT,
+    receiver_bank TEXT,
+    receiver_inn VARCHAR(12),
+    receiver_account TEXT,
+    category TEXT,
+    receiver_phone VARCHAR(20),
+    PRIMARY KEY (id, operation_date)
+    ) PARTITION BY RANGE (operation_date);
+
+-- Записи вне созданных секций (например, с датой в далёком будущем) не теряются.
+CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+
+-- Секции для месяцев с данными и на три месяца вперёд.
+DO $$
+DECLARE
+    month_start TIMESTAMP;
+BEGIN
+    FOR month_start IN
+        SELECT date_trunc('month', operation_date) FROM transactions_unpartitioned
+        UNION
+        SELECT date_trunc('month', now()::timestamp) + make_interval(months => n)
+        FROM generate_series(0, 3) n
+    LOOP
+        EXECUTE format(
+            'CREATE TABLE %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+            'transactions_' || to_char(month_start, 'YYYY_MM'),
+            month_start,
+            month_start + interval '1 month');
+    END LOOP;
+END $$;
+
+INSERT INTO transactions SELECT * FROM transactions_unpartitioned;
+
+DROP TABLE transactions_unpartitioned;
+
+-- Занятые идентификаторы транзакций. Несекционированная таблица с первичным ключом по id: вставка
+-- строки с занятым id завершается ошибкой уникальности transaction_ids_pkey в любой секции.
+-- Перенос строки в другую секцию при изменении даты выполняется как удаление и вставка: триггеры
+-- BEFORE DELETE и BEFORE INSERT освобождают и снова занимают id. Пакетная вставка и импорт заранее
+-- пропускают строки с занятым id (TransactionBatchRepository, TransactionCopyRepository).
+-- TRUNCATE transactions не вызывает триггеры: transaction_ids нужно очищать вместе с ней. Строки
+-- отсоединённых секций продолжают занимать свои id.
+CREATE TABLE transaction_ids (
+    id UUID PRIMARY KEY
+);
+
+INSERT INTO transaction_ids SELECT id FROM transactions;
+
+CREATE FUNCTION transactions_claim_id() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO transaction_ids (id) VALUES (NEW.id);
+    RETURN NEW;
+END
+$$;
+
+CREATE FUNCTION transactions_release_id() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    DELETE FROM transaction_ids WHERE id = OLD.id;
+    RETURN OLD;
+END
+$$;
+
+CREATE TRIGGER transactions_claim_id
+    BEFORE INSERT ON transactions
+    FOR EACH ROW EXECUTE FUNCTION transactions_claim_id();
+
+CREATE TRIGGER transactions_release_id
+    BEFORE DELETE ON transactions
+    FOR EACH ROW EXECUTE FUNCTION transactions_release_id();
+
+-- Индексы из V2 на секционированной таблице: создаются в каждой секции, включая будущие.
+CREATE INDEX idx_transactions_active_date_id
+    ON transactions (operation_date DESC, id DESC)
+    WHERE status <> 'DELETED';
+
+CREATE INDEX idx_transactions_active_category
+    ON transactions (category, operation_date DESC, id DESC)
+    INCLUDE (amount, transaction_type)
+    WHERE status <> 'DELETED';
+
+CREATE INDEX idx_transactions_active_sender_bank
+    ON transactions (sender_bank, operation_date DESC, id DESC)
+    WHERE status <> 'DELETED';
+
+CREATE INDEX idx_transactions_active_receiver_bank
+    ON transactions (receiver_bank, operation_date DESC, id DESC)
+    WHERE status <> 'DELETED';
+
+CREATE INDEX idx_transactions_active_status
+    ON transactions (status, operation_date DESC, id DESC)
+    WHERE status <> 'DELETED';
+
+CREATE INDEX idx_transactions_active_amount
+    ON transactions (amount)
+    INCLUDE (operation_date, id)
+    WHERE status <> 'DELETED';
+
+CREATE INDEX idx_transactions_operation_date_brin
+    ON transactions USING BRIN (operation_date) WITH (pages_per_range = 32);
+
+ANALYZE transactions;
@@ -0,0 +1,104 @@
+-- Дневные итоги транзакций для аналитики: количество и сумма по дню, категории, типу, статусу,
+-- банку отправителя и банку получателя. Статистика по периодам читает тысячи строк итогов вместо
+-- миллионов строк transactions.
+-- Итоги обновляются триггерами в той же транзакции, что и изменение transactions, поэтому их не
+-- обходит ни один путь записи: JPA, пакетная вставка, COPY при импорте, R2DBC. Триггеры уровня
+-- оператора с таблицами переходов обновляют каждую группу один раз на оператор, а не на строку.
+-- Пересчёт и проверку согласованности выполняет TransactionRollupManager.
+
+-- Пустая строка вместо NULL: столбцы ключа не допускают NULL, а UNIQUE NULLS NOT DISTINCT
+-- появился только в PostgreSQL 15.
+CREATE TABLE transaction_daily_rollup (
+    day DATE NOT NULL,
+    category TEXT NOT NULL,
+    transaction_type TEXT NOT NULL,
+    status TEXT NOT NULL,
+    sender_bank TEXT NOT NULL,
+    receiver_bank TEXT NOT NULL,
+    tx_count BIGINT NOT NULL,
+    amount_sum NUMERIC NOT NULL,
+    PRIMARY KEY (day, category, transaction_type, status, sender_bank, receiver_bank)
+);
+
+-- Строки с нулевым количеством остаются после удаления или смены статуса; их убирает пересчёт,
+-- а запросы аналитики отбрасывают условием WHERE tx_count <> 0.
+CREATE FUNCTION transaction_daily_rollup_apply() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    -- Группы вставляются в порядке ключа: параллельные операторы блокируют строки итогов в одном
+    -- порядке и не попадают во взаимоблокировку
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO transaction_daily_rollup AS r
+        SELECT operation_date::date, coalesce(category, ''), coalesce(transaction_type, ''),
+               coalesce(status, ''), coalesce(sender_bank, ''), coalesce(receiver_bank, ''),
+               count(*), sum(amount::numeric)
+        FROM new_rows
+        GROUP BY 1, 2, 3, 4, 5, 6
+        ORDER BY 1, 2, 3, 4, 5, 6
+        ON CONFLICT (day, category, transaction_type, status, sender_bank, receiver_bank)
+            DO UPDATE SET tx_count = r.tx_count + excluded.tx_count,
+                          amount_sum = r.amount_sum + excluded.amount_sum;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO transaction_daily_rollup AS r
+        SELECT operation_date::date, coalesce(category, ''), coalesce(transaction_type, ''),
+               coalesce(status, ''), coalesce(sender_bank, ''), coalesce(receiver_bank, ''),
+               -count(*), -sum(amount::numeric)
+        FROM old_rows
+        GROUP BY 1, 2, 3, 4, 5, 6
+        ORDER BY 1, 2, 3, 4, 5, 6
+        ON CONFLICT (day, category, transaction_type, status, sender_bank, receiver_bank)
+            DO UPDATE SET tx_count = r.tx_count + excluded.tx_count,
+                          amount_sum = r.amount_sum + excluded.amount_sum;
+    ELSE
+        -- Изменение, не затронувшее ключ и сумму (например, комментария), итоги не трогает
+        INSERT INTO transaction_daily_rollup AS r
+        SELECT day, category, transaction_type, status, sender_bank, receiver_bank,
+               sum(n), sum(amount)
+        FROM (SELECT operation_date::date AS day, coalesce(category, '') AS category,
+                     coalesce(transaction_type, '') AS transaction_type,
+                     coalesce(status, '') AS status, coalesce(sender_bank, '') AS sender_bank,
+                     coalesce(receiver_bank, '') AS receiver_bank,
+                     1 AS n, amount::numeric AS amount
+              FROM new_rows
+              UNION ALL
+              SELECT operation_date::date, coalesce(category, ''), coalesce(transaction_type, ''),
+                     coalesce(status, ''), coalesce(sender_bank, ''), coalesce(receiver_bank, ''),
+                     -1, -amount::numeric
+              FROM old_rows) delta
+        GROUP BY 1, 2, 3, 4, 5, 6
+        HAVING sum(n) <> 0 OR sum(amount) <> 0
+        ORDER BY 1, 2, 3, 4, 5, 6
+        ON CONFLICT (day, category, transaction_type, status, sender_bank, receiver_bank)
+            DO UPDATE SET tx_count = r.tx_count + excluded.tx_count,
+                          amount_sum = r.amount_sum + excluded.amount_sum;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+-- PostgreSQL не допускает таблицы переходов в триггере на несколько событий.
+-- Операторы, обращающиеся к секции напрямую (перенос строк при создании секции), триггеры
+-- родительской таблицы не вызывают: строки при этом не появляются и не исчезают. Итоги
+-- отсоединённой секции удаляет TransactionPartitionManager; после TRUNCATE нужен пересчёт.
+CREATE TRIGGER transactions_rollup_insert
+    AFTER INSERT ON transactions
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION transaction_daily_rollup_apply();
+
+CREATE TRIGGER transactions_rollup_update
+    AFTER UPDATE ON transactions
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION transaction_daily_rollup_apply();
+
+CREATE TRIGGER transactions_rollup_delete
+    AFTER DELETE ON transactions
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION transaction_daily_rollup_apply();
+
+-- Начальное заполнение в той же транзакции, что и создание триггеров.
+INSERT INTO transaction_daily_rollup
+SELECT operation_date::date, coalesce(category, ''), coalesce(transaction_type, ''),
+       coalesce(status, ''), coalesce(sender_bank, ''), coalesce(receiver_bank, ''),
+       count(*), sum(amount::numeric)
+FROM transactions
+GROUP BY 1, 2, 3, 4, 5, 6;
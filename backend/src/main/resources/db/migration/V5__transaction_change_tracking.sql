@@ -0,0 +1,47 @@
+-- Время создания и изменения транзакций и позиция изменения для синхронизации клиентов
+-- (GET /api/transactions/delta). Значения заполняет БД, поэтому их не обходит ни один путь
+-- записи: JPA, пакетная вставка, COPY при импорте, R2DBC.
+--
+-- Позиция изменения — (change_xid, change_seq, id): номер транзакции БД, записавшей строку,
+-- порядковый номер изменения и идентификатор. Номера последовательности выдаются в момент записи,
+-- а видны после фиксации, поэтому по одной последовательности нельзя понять, что все изменения до
+-- неё уже видны. Номер транзакции БД это позволяет: все транзакции с номером меньше xmin снимка
+-- завершены, и строки с такими номерами больше не появятся.
+
+CREATE SEQUENCE transaction_change_seq;
+
+-- Постоянные значения по умолчанию не переписывают таблицу: строки, существовавшие до миграции,
+-- получают время миграции и нулевую позицию, а новые строки — значения выражений ниже.
+ALTER TABLE transactions
+    ADD COLUMN created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    ADD COLUMN updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    ADD COLUMN change_xid XID8 NOT NULL DEFAULT '0',
+    ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE transactions
+    ALTER COLUMN created_at SET DEFAULT now(),
+    ALTER COLUMN updated_at SET DEFAULT now(),
+    ALTER COLUMN change_xid SET DEFAULT pg_current_xact_id(),
+    ALTER COLUMN change_seq SET DEFAULT nextval('transaction_change_seq');
+
+ALTER SEQUENCE transaction_change_seq OWNED BY transactions.change_seq;
+
+-- Изменение строки, в том числе пометка удалённой, переносит её в конец журнала изменений.
+CREATE FUNCTION transactions_track_change() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.updated_at := now();
+    NEW.change_xid := pg_current_xact_id();
+    NEW.change_seq := nextval('transaction_change_seq');
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER transactions_track_change
+    BEFORE UPDATE ON transactions
+    FOR EACH ROW EXECUTE FUNCTION transactions_track_change();
+
+-- Чтение журнала изменений после позиции клиента. Индексы по created_at и updated_at не нужны ни
+-- одному запросу, а замедлили бы каждую запись.
+CREATE INDEX idx_transactions_change
+    ON transactions (change_xid, change_seq, id);
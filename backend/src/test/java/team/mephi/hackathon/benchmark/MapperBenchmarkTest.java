@@ -0,0 +1,102 @@
+package team.mephi.hackathon.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import team.mephi.hackathon.dto.TransactionRequestDto;
+import team.mephi.hackathon.dto.TransactionResponseDto;
+import team.mephi.hackathon.entity.PersonType;
+import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.entity.TransactionStatus;
+import team.mephi.hackathon.entity.TransactionType;
+import team.mephi.hackathon.mapper.TransactionMapper;
+
+/**
+ * JMH-сравнение рефлексивного {@link ModelMapper} и сгенерированного {@link TransactionMapper} на
+ * преобразованиях, выполняемых при создании и чтении транзакций. Выводит среднее время одного
+ * преобразования. Запускается только явно: {@code mvn test -Dtest=MapperBenchmarkTest
+ * -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmarkTest {
+  private final ModelMapper modelMapper = new ModelMapper();
+  private final TransactionMapper mapper = Mappers.getMapper(TransactionMapper.class);
+  private final TransactionRequestDto request = request();
+  private final Transaction entity = mapper.toEntity(request);
+
+  @Test
+  void compareModelMapperAndGeneratedMapper() throws RunnerException {
+    Collection<RunResult> results =
+        new Runner(
+                new OptionsBuilder().include(MapperBenchmarkTest.class.getName() + "\\.").build())
+            .run();
+
+    assertThat(results).hasSize(4);
+  }
+
+  @Benchmark
+  public Transaction modelMapperToEntity() {
+    return modelMapper.map(request, Transaction.class);
+  }
+
+  @Benchmark
+  public Transaction generatedToEntity() {
+    return mapper.toEntity(request);
+  }
+
+  @Benchmark
+  public TransactionResponseDto modelMapperToDto() {
+    return modelMapper.map(entity, TransactionResponseDto.class);
+  }
+
+  @Benchmark
+  public TransactionResponseDto generatedToDto() {
+    return mapper.toDto(entity);
+  }
+
+  private static TransactionRequestDto request() {
+    TransactionRequestDto dto = new TransactionRequestDto();
+    dto.setId(UUID.randomUUID());
+    dto.setPersonType(PersonType.LEGAL.name());
+    dto.setOperationDate(LocalDateTime.of(2025, 4, 5, 12, 30));
+    dto.setTransactionType(TransactionType.INCOME.name());
+    dto.setComment("Зарплата за март");
+    dto.setAmount(new BigDecimal("1000.00"));
+    dto.setStatus(TransactionStatus.NEW.name());
+    dto.setSenderBank("Alpha Bank");
+    dto.setAccount("ACC123");
+    dto.setReceiverBank("Beta Bank");
+    dto.setReceiverInn("1234567890");
+    dto.setReceiverAccount("REC456");
+    dto.setCategory("SALARY");
+    dto.setReceiverPhone("+79876543210");
+    return dto;
+  }
+}
@@ -0,0 +1,198 @@
+package team.mephi.hackathon.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import team.mephi.hackathon.Application;
+
+/**
+ * Сравнение пропускной способности и p99-задержки JPA- и R2DBC-реализаций при 1000 одновременных
+ * клиентах. Нагрузка: 3/4 запросов — поиск страницы по категории, 1/4 — чтение по идентификатору.
+ * Запускается только явно: {@code mvn test -Dtest=PersistenceEngineBenchmarkTest -Dbenchmark=true}.
+ */
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PersistenceEngineBenchmarkTest {
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(PersistenceEngineBenchmarkTest.class);
+
+  private static final int CLIENTS = 1000;
+  private static final int ROWS = 50_000;
+  private static final int WARMUP_REQUESTS = 5_000;
+  private static final int REQUESTS = 50_000;
+
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:15")
+          .withDatabaseName("testdb")
+          .withUsername("test")
+          .withPassword("test");
+
+  private List<UUID> ids = List.of();
+
+  @Test
+  void compareJpaAndR2dbc() {
+    Result jpa = run("default");
+    Result r2dbc = run("r2dbc");
+
+    LOGGER.info("{}", jpa);
+    LOGGER.info("{}", r2dbc);
+    assertThat(jpa.errors()).isZero();
+    assertThat(r2dbc.errors()).isZero();
+  }
+
+  private Result run(String profile) {
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(Application.class)
+            .profiles(profile)
+            .properties(properties())
+            .run()) {
+      if (ids.isEmpty()) {
+        ids = seed(context.getBean(JdbcTemplate.class));
+      }
+      int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+      ConnectionProvider provider =
+          ConnectionProvider.builder("benchmark")
+              .maxConnections(CLIENTS)
+              .pendingAcquireMaxCount(-1)
+              .build();
+      WebClient client =
+          WebClient.builder()
+              .baseUrl("http://localhost:" + port)
+              .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)))
+              .build();
+      try {
+        measure(profile, client, WARMUP_REQUESTS);
+        return measure(profile, client, REQUESTS);
+      } finally {
+        provider.dispose();
+      }
+    }
+  }
+
+  private Result measure(String profile, WebClient client, int requests) {
+    ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+    AtomicInteger errors = new AtomicInteger();
+    long start = System.nanoTime();
+    Flux.range(0, requests)
+        .flatMap(
+            i -> {
+              long begin = System.nanoTime();
+              return request(client, i)
+                  .doOnSuccess(body -> latencies.add(System.nanoTime() - begin))
+                  .onErrorResume(
+                      e -> {
+                        errors.incrementAndGet();
+                        return Mono.empty();
+                      });
+            },
+            CLIENTS)
+        .blockLast();
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+    List<Long> sorted = new ArrayList<>(latencies);
+    sorted.sort(null);
+    long p99 = sorted.isEmpty() ? 0 : sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+    return new Result(
+        profile,
+        requests * 1000.0 / elapsed.toMillis(),
+        Duration.ofNanos(p99).toMillis(),
+        errors.get());
+  }
+
+  private Mono<String> request(WebClient client, int i) {
+    if (i % 4 == 0) {
+      return client
+          .get()
+          .uri("/api/transactions/{id}", ids.get(i % ids.size()))
+          .retrieve()
+          .bodyToMono(String.class);
+    }
+    return client
+        .get()
+        .uri(
+            builder ->
+                builder
+                    .path("/api/transactions")
+                    .queryParam("category", "CAT" + (i % 10))
+                    .queryParam("limit", 50)
+                    .build())
+        .retrieve()
+        .bodyToMono(String.class);
+  }
+
+  private static List<UUID> seed(JdbcTemplate jdbcTemplate) {
+    jdbcTemplate.update(
+        "INSERT INTO transactions (id, person_type, operation_date, transaction_type, amount,"
+            + " status, sender_bank, account, receiver_bank, receiver_account, category)"
+            + " SELECT gen_random_uuid(), 'LEGAL', now() - g * interval '1 minute', 'INCOME',"
+            + " g % 1000, 'NEW', 'Alpha', '123', 'Beta', '456', 'CAT' || (g % 10)"
+            + " FROM generate_series(1, ?) g",
+        ROWS);
+    return jdbcTemplate.queryForList("SELECT id FROM transactions LIMIT 1000", UUID.class);
+  }
+
+  private static Map<String, Object> properties() {
+    return Map.ofEntries(
+        Map.entry("server.port", 0),
+        Map.entry("spring.datasource.url", postgres.getJdbcUrl()),
+        Map.entry("spring.datasource.username", postgres.getUsername()),
+        Map.entry("spring.datasource.password", postgres.getPassword()),
+        Map.entry(
+            "app.r2dbc.url",
+            "r2dbc:postgresql://"
+                + postgres.getHost()
+                + ":"
+                + postgres.getFirstMappedPort()
+                + "/"
+                + postgres.getDatabaseName()),
+        Map.entry("app.r2dbc.username", postgres.getUsername()),
+        Map.entry("app.r2dbc.password", postgres.getPassword()),
+        // Очереди рассчитаны на всех клиентов, чтобы сравнивать задержку, а не отказы
+        Map.entry("app.execution.crud.max-queue", CLIENTS),
+        Map.entry("app.execution.search.max-queue", CLIENTS),
+        Map.entry("app.auth.enabled", false),
+        Map.entry("spring.jpa.show-sql", false),
+        Map.entry("logging.level.team.mephi.hackathon", "INFO"),
+        Map.entry("logging.level.org.hibernate.SQL", "INFO"),
+        Map.entry("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "INFO"));
+  }
+
+  /**
+   * Результат прогона одного профиля.
+   *
+   * @param profile профиль приложения
+   * @param throughput запросов в секунду
+   * @param p99Millis 99-й перцентиль задержки, мс
+   * @param errors количество неуспешных запросов
+   */
+  record Result(String profile, double throughput, long p99Millis, int errors) {
+    @Override
+    public String toString() {
+      return String.format(
+          "%-8s throughput=%.0f req/s p99=%d ms errors=%d", profile, throughput, p99Millis, errors);
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package team.mephi.hackathon.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import team.mephi.hackathon.Application;
+import team.mephi.hackathon.dto.TransactionResponseDto;
+import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.mapper.TransactionMapper;
+import team.mephi.hackathon.repository.TransactionRepository;
+import team.mephi.hackathon.specification.TransactionSpecification;
+
+/**
+ * Сравнение чтения 100 000 транзакций двумя способами: загрузка сущностей с последующим
+ * преобразованием в DTO (прежний путь поиска) и проекция прямо в {@link TransactionResponseDto} в
+ * read-only транзакции. Для каждого способа выводятся медианная задержка и объём памяти,
+ * выделенной потоком на один запрос. Запускается только явно: {@code mvn test
+ * -Dtest=ReadPathBenchmarkTest -Dbenchmark=true}.
+ */
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ReadPathBenchmarkTest {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReadPathBenchmarkTest.class);
+
+  private static final int ROWS = 100_000;
+  private static final int WARMUP_RUNS = 3;
+  private static final int RUNS = 10;
+
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:15")
+          .withDatabaseName("testdb")
+          .withUsername("test")
+          .withPassword("test");
+
+  @Test
+  void compareEntityMappingAndProjection() {
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(Application.class).properties(properties()).run()) {
+      seed(context.getBean(JdbcTemplate.class));
+      TransactionRepository repository = context.getBean(TransactionRepository.class);
+      TransactionMapper mapper = context.getBean(TransactionMapper.class);
+      TransactionTemplate readOnly =
+          new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+      readOnly.setReadOnly(true);
+      Specification<Transaction> spec = TransactionSpecification.isNotDeleted();
+
+      Result entities =
+          measure(
+              "entity+mapper",
+              () ->
+                  repository
+                      .findBy(
+                          spec,
+                          query ->
+                              query.sortBy(TransactionSpecification.KEYSET_SORT).limit(ROWS).all())
+                      .stream()
+                      .map(mapper::toDto)
+                      .toList());
+      Result projection =
+          measure(
+              "projection",
+              () -> readOnly.execute(status -> repository.findResponsePage(spec, null, ROWS)));
+
+      LOGGER.info("{}", entities);
+      LOGGER.info("{}", projection);
+      assertThat(entities.rows()).isEqualTo(ROWS);
+      assertThat(projection.rows()).isEqualTo(ROWS);
+    }
+  }
+
+  private static Result measure(String name, Supplier<List<TransactionResponseDto>> query) {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    List<Long> latencies = new ArrayList<>();
+    long allocated = 0;
+    int rows = 0;
+    for (int i = 0; i < WARMUP_RUNS + RUNS; i++) {
+      long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+      long begin = System.nanoTime();
+      rows = query.get().size();
+      long elapsed = System.nanoTime() - begin;
+      if (i >= WARMUP_RUNS) {
+        latencies.add(elapsed);
+        allocated += threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+      }
+    }
+    latencies.sort(null);
+    return new Result(
+        name,
+        rows,
+        Duration.ofNanos(latencies.get(latencies.size() / 2)).toMillis(),
+        allocated / RUNS / (1024 * 1024));
+  }
+
+  private static void seed(JdbcTemplate jdbcTemplate) {
+    jdbcTemplate.update(
+        "INSERT INTO transactions (id, person_type, operation_date, transaction_type, amount,"
+            + " status, sender_bank, account, receiver_bank, receiver_account, category, comment)"
+            + " SELECT gen_random_uuid(), 'LEGAL', now() - g * interval '1 minute', 'INCOME',"
+            + " g % 1000, 'NEW', 'Alpha', '123', 'Beta', '456', 'CAT' || (g % 10), 'row ' || g"
+            + " FROM generate_series(1, ?) g",
+        ROWS);
+  }
+
+  private static Map<String, Object> properties() {
+    return Map.ofEntries(
+        Map.entry("server.port", 0),
+        Map.entry("spring.datasource.url", postgres.getJdbcUrl()),
+        Map.entry("spring.datasource.username", postgres.getUsername()),
+        Map.entry("spring.datasource.password", postgres.getPassword()),
+        Map.entry("app.auth.enabled", false),
+        Map.entry("spring.jpa.show-sql", false),
+        Map.entry("logging.level.team.mephi.hackathon", "INFO"),
+        Map.entry("logging.level.org.hibernate.SQL", "INFO"),
+        Map.entry("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "INFO"));
+  }
+
+  /**
+   * Результат прогона одного способа чтения.
+   *
+   * @param name способ чтения
+   * @param rows количество прочитанных строк
+   * @param medianMillis медианная задержка запроса, мс
+   * @param allocatedMegabytes память, выделенная потоком на один запрос, МБ
+   */
+  record Result(String name, int rows, long medianMillis, long allocatedMegabytes) {
+    @Override
+    public String toString() {
+      return String.format(
+          "%-18s rows=%d median=%d ms allocated=%d MB/query",
+          name, rows, medianMillis, allocatedMegabytes);
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package team.mephi.hackathon.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import team.mephi.hackathon.Application;
+import team.mephi.hackathon.repository.TransactionRepository;
+import team.mephi.hackathon.specification.TransactionSpecification;
+
+/**
+ * Потоковое чтение 5 000 000 транзакций сущностями ({@code streamActive}) и DTO ({@code
+ * streamResponses}). Во время чтения периодически замеряется занятая куча после сборки мусора: она
+ * не должна расти вместе с числом прочитанных строк. Запускается только явно: {@code mvn test
+ * -Dtest=StreamingReadBenchmarkTest -Dbenchmark=true}.
+ */
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StreamingReadBenchmarkTest {
+  private static final Logger LOGGER = LoggerFactory.getLogger(StreamingReadBenchmarkTest.class);
+
+  private static final int ROWS = 5_000_000;
+  private static final int SAMPLE_EVERY = 500_000;
+
+  /** Допустимый рост кучи за время чтения, МБ. Удержание всех строк заняло бы гигабайты. */
+  private static final long MAX_GROWTH_MEGABYTES = 64;
+
+  @Container
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:15")
+          .withDatabaseName("testdb")
+          .withUsername("test")
+          .withPassword("test");
+
+  @Test
+  void heapStaysFlatWhileStreaming() {
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(Application.class).properties(properties()).run()) {
+      seed(context.getBean(JdbcTemplate.class));
+      TransactionRepository repository = context.getBean(TransactionRepository.class);
+      TransactionTemplate readOnly =
+          new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+      readOnly.setReadOnly(true);
+
+      Result entities =
+          readOnly.execute(status -> measure("entities", repository.streamActive()));
+      Result projection =
+          readOnly.execute(
+              status ->
+                  measure(
+                      "projection",
+                      repository.streamResponses(TransactionSpecification.isNotDeleted())));
+
+      LOGGER.info("{}", entities);
+      LOGGER.info("{}", projection);
+      assertThat(entities.rows()).isEqualTo(ROWS);
+      assertThat(projection.rows()).isEqualTo(ROWS);
+      assertThat(entities.growthMegabytes()).isLessThan(MAX_GROWTH_MEGABYTES);
+      assertThat(projection.growthMegabytes()).isLessThan(MAX_GROWTH_MEGABYTES);
+    }
+  }
+
+  private static Result measure(String name, Stream<?> rows) {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    long baseline = usedHeap(memory);
+    long peak = baseline;
+    int count = 0;
+    try (rows) {
+      Iterator<?> iterator = rows.iterator();
+      while (iterator.hasNext()) {
+        iterator.next();
+        count++;
+        if (count % SAMPLE_EVERY == 0) {
+          peak = Math.max(peak, usedHeap(memory));
+        }
+      }
+    }
+    return new Result(name, count, (peak - baseline) / (1024 * 1024));
+  }
+
+  private static long usedHeap(MemoryMXBean memory) {
+    System.gc();
+    return memory.getHeapMemoryUsage().getUsed();
+  }
+
+  private static void seed(JdbcTemplate jdbcTemplate) {
+    jdbcTemplate.update(
+        "INSERT INTO transactions (id, person_type, operation_date, transaction_type, amount,"
+            + " status, sender_bank, account, receiver_bank, receiver_account, category, comment)"
+            + " SELECT gen_random_uuid(), 'LEGAL', now() - g * interval '1 second', 'INCOME',"
+            + " g % 1000, 'NEW', 'Alpha', '123', 'Beta', '456', 'CAT' || (g % 10), 'row ' || g"
+            + " FROM generate_series(1, ?) g",
+        ROWS);
+    jdbcTemplate.execute("ANALYZE transactions");
+  }
+
+  private static Map<String, Object> properties() {
+    return Map.ofEntries(
+        Map.entry("server.port", 0),
+        Map.entry("spring.datasource.url", postgres.getJdbcUrl()),
+        Map.entry("spring.datasource.username", postgres.getUsername()),
+        Map.entry("spring.datasource.password", postgres.getPassword()),
+        Map.entry("app.auth.enabled", false),
+        Map.entry("spring.jpa.show-sql", false),
+        Map.entry("logging.level.team.mephi.hackathon", "INFO"),
+        Map.entry("logging.level.org.hibernate.SQL", "INFO"),
+        Map.entry("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "INFO"));
+  }
+
+  /**
+   * Результат потокового чтения.
+   *
+   * @param name способ чтения
+   * @param rows количество прочитанных строк
+   * @param growthMegabytes наибольший рост занятой кучи относительно начала чтения, МБ
+   */
+  record Result(String name, int rows, long growthMegabytes) {
+    @Override
+    public String toString() {
+      return String.format("%-10s rows=%d heap growth=%d MB", name, rows, growthMegabytes);
+    }
+  }
+}
@@ -0,0 +1,140 @@
+package team.mephi.hackathon.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import team.mephi.hackathon.dto.AnalyticsBucketDto;
+import team.mephi.hackathon.dto.AnalyticsDimension;
+import team.mephi.hackathon.dto.DashboardDto;
+import team.mephi.hackathon.exceptions.GlobalExceptionHandler;
+import team.mephi.hackathon.exceptions.ValidationException;
+import team.mephi.hackathon.execution.Bulkhead;
+import team.mephi.hackathon.execution.Workload;
+import team.mephi.hackathon.execution.WorkloadExecutor;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsControllerTest {
+
+  @Mock private AnalyticsService analyticsService;
+
+  private WorkloadExecutor executor;
+
+  private WebTestClient webTestClient;
+
+  @BeforeEach
+  void setup() {
+    executor =
+        new WorkloadExecutor(
+            new Bulkhead(Workload.CRUD, 4, 16),
+            new Bulkhead(Workload.SEARCH, 4, 16),
+            new Bulkhead(Workload.REPORT, 1, 4),
+            new Bulkhead(Workload.STREAM, 1, 1),
+            new Bulkhead(Workload.IMPORT, 1, 4));
+    AnalyticsController controller =
+        new AnalyticsController(analyticsService, executor, Duration.ofMinutes(1));
+    webTestClient =
+        WebTestClient.bindToController(controller)
+            .controllerAdvice(new GlobalExceptionHandler())
+            .build();
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.close();
+  }
+
+  @Test
+  void getDashboard_returnsAggregatesWithCacheHeaders() {
+    when(analyticsService.getDashboard(any())).thenReturn(dashboard());
+
+    webTestClient
+        .get()
+        .uri("/api/analytics/dashboard?senderBank=Alpha")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .cacheControl(CacheControl.maxAge(Duration.ofMinutes(1)).cachePrivate())
+        .expectHeader()
+        .exists(HttpHeaders.ETAG)
+        .expectBody()
+        .jsonPath("$.byMonth[0].name")
+        .isEqualTo("2025-04")
+        .jsonPath("$.byMonth[0].count")
+        .isEqualTo(3);
+  }
+
+  @Test
+  void getDashboard_withMatchingEtag_returnsNotModified() {
+    when(analyticsService.getDashboard(any())).thenReturn(dashboard());
+    String etag =
+        webTestClient
+            .get()
+            .uri("/api/analytics/dashboard")
+            .exchange()
+            .returnResult(DashboardDto.class)
+            .getResponseHeaders()
+            .getETag();
+
+    webTestClient
+        .get()
+        .uri("/api/analytics/dashboard")
+        .header(HttpHeaders.IF_NONE_MATCH, etag)
+        .exchange()
+        .expectStatus()
+        .isEqualTo(HttpStatus.NOT_MODIFIED)
+        .expectBody()
+        .isEmpty();
+  }
+
+  @Test
+  void aggregate_returnsGroupsForDimension() {
+    when(analyticsService.aggregate(eq(AnalyticsDimension.CATEGORY), any()))
+        .thenReturn(List.of(new AnalyticsBucketDto("Food", 2, new BigDecimal("150.00"))));
+
+    webTestClient
+        .get()
+        .uri("/api/analytics/CATEGORY")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$[0].name")
+        .isEqualTo("Food")
+        .jsonPath("$[0].amount")
+        .isEqualTo(150.00);
+  }
+
+  @Test
+  void aggregate_withInvalidFilter_returnsBadRequest() {
+    when(analyticsService.aggregate(eq(AnalyticsDimension.TYPE), any()))
+        .thenThrow(new ValidationException("Некорректное значение поля status: BOGUS"));
+
+    webTestClient
+        .get()
+        .uri("/api/analytics/TYPE?status=BOGUS")
+        .exchange()
+        .expectStatus()
+        .isBadRequest();
+  }
+
+  private static DashboardDto dashboard() {
+    DashboardDto dashboard = new DashboardDto();
+    dashboard.setByMonth(List.of(new AnalyticsBucketDto("2025-04", 3, new BigDecimal("300.00"))));
+    return dashboard;
+  }
+}
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
@@ -21,6 +22,7 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import team.mephi.hackathon.config.TestSecurityConfig;
 import team.mephi.hackathon.dto.CategoryRequestDto;
 import team.mephi.hackathon.dto.CategoryResponseDto;
+import team.mephi.hackathon.service.CategoryDictionary;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -47,9 +49,12 @@ class CategoryControllerIntegrationTest {
 
   @Autowired private JdbcTemplate jdbcTemplate;
 
+  @Autowired private CategoryDictionary categoryDictionary;
+
   @BeforeEach
   void cleanup() {
     jdbcTemplate.execute("TRUNCATE TABLE categories RESTART IDENTITY CASCADE");
+    categoryDictionary.reload();
   }
 
   private CategoryRequestDto createRequest(String name) {
@@ -147,6 +152,40 @@ class CategoryControllerIntegrationTest {
         .hasSize(2);
   }
 
+  @Test
+  void getAllCategories_withMatchingETag_returns304UntilChanged() {
+    createCategory("SALARY");
+    String etag =
+        webTestClient
+            .get()
+            .uri("/api/categories")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(CategoryResponseDto.class)
+            .getResponseHeaders()
+            .getETag();
+
+    webTestClient
+        .get()
+        .uri("/api/categories")
+        .header(HttpHeaders.IF_NONE_MATCH, etag)
+        .exchange()
+        .expectStatus()
+        .isNotModified();
+
+    createCategory("UTILITY");
+    webTestClient
+        .get()
+        .uri("/api/categories")
+        .header(HttpHeaders.IF_NONE_MATCH, etag)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBodyList(CategoryResponseDto.class)
+        .hasSize(2);
+  }
+
   private void createCategory(String name) {
     webTestClient
         .post()
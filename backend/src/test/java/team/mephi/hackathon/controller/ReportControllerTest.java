@@ -1,20 +1,30 @@
 package team.mephi.hackathon.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.List;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
-import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.execution.Bulkhead;
+import team.mephi.hackathon.execution.Workload;
+import team.mephi.hackathon.execution.WorkloadExecutor;
 import team.mephi.hackathon.repository.TransactionRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,18 +36,38 @@ class ReportControllerTest {
 
   private WebTestClient webTestClient;
 
+  private WorkloadExecutor executor;
+
+  @AfterEach
+  void tearDown() {
+    executor.close();
+  }
+
   @BeforeEach
   void setup() {
-    ReportController controller = new ReportController(transactionRepository, reportService);
+    executor =
+        new WorkloadExecutor(
+            new Bulkhead(Workload.CRUD, 4, 16),
+            new Bulkhead(Workload.SEARCH, 4, 16),
+            new Bulkhead(Workload.REPORT, 1, 4),
+            new Bulkhead(Workload.STREAM, 1, 1),
+            new Bulkhead(Workload.IMPORT, 1, 4));
+    ReportController controller =
+        new ReportController(transactionRepository, reportService, executor);
     webTestClient = WebTestClient.bindToController(controller).build();
   }
 
   @Test
-  void generatePdfReport_shouldReturnPdfBytes_whenTransactionsExist() throws IOException {
-    Transaction tx = new Transaction();
-    when(transactionRepository.findAllActive()).thenReturn(List.of(tx));
+  void generatePdfReport_shouldStreamPdfBytes_whenTransactionsExist() throws IOException {
+    when(transactionRepository.exists(any(Specification.class))).thenReturn(true);
     byte[] expected = new byte[] {1, 2, 3};
-    when(reportService.generatePdfReport(any())).thenReturn(expected);
+    doAnswer(
+            invocation -> {
+              invocation.<OutputStream>getArgument(1).write(expected);
+              return null;
+            })
+        .when(reportService)
+        .writePdfReport(any(), any());
 
     webTestClient
         .get()
@@ -55,9 +85,33 @@ class ReportControllerTest {
         .isEqualTo(expected);
   }
 
+  @Test
+  void generatePdfReport_shouldPassQueryFilterToReport() throws IOException {
+    when(transactionRepository.exists(any(Specification.class))).thenReturn(true);
+    ArgumentCaptor<TransactionFilterDto> filter =
+        ArgumentCaptor.forClass(TransactionFilterDto.class);
+
+    webTestClient
+        .get()
+        .uri(
+            "/api/reports/transactions/pdf?senderBank=Alpha&status=COMPLETED"
+                + "&dateFrom=2025-04-01T00:00:00&amountMin=100")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .isEmpty();
+
+    verify(reportService).writePdfReport(filter.capture(), any());
+    assertThat(filter.getValue().getSenderBank()).isEqualTo("Alpha");
+    assertThat(filter.getValue().getStatus()).isEqualTo("COMPLETED");
+    assertThat(filter.getValue().getDateFrom()).isEqualTo(LocalDateTime.of(2025, 4, 1, 0, 0));
+    assertThat(filter.getValue().getAmountMin()).isEqualByComparingTo(BigDecimal.valueOf(100));
+  }
+
   @Test
   void generatePdfReport_shouldReturnServerError_whenNoTransactions() {
-    when(transactionRepository.findAllActive()).thenReturn(Collections.emptyList());
+    when(transactionRepository.exists(any(Specification.class))).thenReturn(false);
 
     webTestClient
         .get()
@@ -68,11 +122,16 @@ class ReportControllerTest {
   }
 
   @Test
-  void generateExcelReport_shouldReturnExcelBytes_whenTransactionsExist() throws IOException {
-    Transaction tx = new Transaction();
-    when(transactionRepository.findAllActive()).thenReturn(List.of(tx));
+  void generateExcelReport_shouldStreamExcelBytes_whenTransactionsExist() throws IOException {
+    when(transactionRepository.exists(any(Specification.class))).thenReturn(true);
     byte[] expected = new byte[] {4, 5, 6};
-    when(reportService.generateExcelReport(any())).thenReturn(expected);
+    doAnswer(
+            invocation -> {
+              invocation.<OutputStream>getArgument(1).write(expected);
+              return null;
+            })
+        .when(reportService)
+        .writeExcelReport(any(), any());
 
     webTestClient
         .get()
@@ -94,7 +153,7 @@ class ReportControllerTest {
 
   @Test
   void generateExcelReport_shouldReturnServerError_whenNoTransactions() {
-    when(transactionRepository.findAllActive()).thenReturn(Collections.emptyList());
+    when(transactionRepository.exists(any(Specification.class))).thenReturn(false);
 
     webTestClient
         .get()
@@ -0,0 +1,136 @@
+package team.mephi.hackathon.controller;
+
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import team.mephi.hackathon.dto.ReportFormat;
+import team.mephi.hackathon.dto.ReportJobDto;
+import team.mephi.hackathon.dto.ReportJobRequestDto;
+import team.mephi.hackathon.dto.ReportJobStatus;
+import team.mephi.hackathon.exceptions.GlobalExceptionHandler;
+import team.mephi.hackathon.exceptions.ReportNotReadyException;
+
+@ExtendWith(MockitoExtension.class)
+class ReportJobControllerTest {
+
+  private static final byte[] CONTENT = "0123456789".getBytes();
+
+  @Mock private ReportJobService jobService;
+
+  @TempDir Path directory;
+
+  private WebTestClient webTestClient;
+
+  @BeforeEach
+  void setup() {
+    webTestClient =
+        WebTestClient.bindToController(new ReportJobController(jobService))
+            .controllerAdvice(new GlobalExceptionHandler())
+            .build();
+  }
+
+  @Test
+  void submit_returnsAcceptedJobWithLocation() {
+    ReportJobDto job = job(ReportJobStatus.QUEUED);
+    when(jobService.submit(ReportFormat.PDF, null)).thenReturn(job);
+
+    webTestClient
+        .post()
+        .uri("/api/reports/jobs")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(new ReportJobRequestDto(ReportFormat.PDF, null))
+        .exchange()
+        .expectStatus()
+        .isAccepted()
+        .expectHeader()
+        .location("/api/reports/jobs/" + job.getId())
+        .expectBody()
+        .jsonPath("$.status")
+        .isEqualTo("QUEUED");
+  }
+
+  @Test
+  void download_whenReady_returnsWholeFile() throws IOException {
+    ReportJobDto job = readyJob();
+
+    webTestClient
+        .get()
+        .uri("/api/reports/jobs/{id}/file", job.getId())
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .contentType(MediaType.APPLICATION_PDF)
+        .expectHeader()
+        .valueEquals(HttpHeaders.ACCEPT_RANGES, "bytes")
+        .expectHeader()
+        .valueEquals(
+            HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions-report.pdf")
+        .expectBody(byte[].class)
+        .isEqualTo(CONTENT);
+  }
+
+  @Test
+  void download_withRange_returnsRequestedPart() throws IOException {
+    ReportJobDto job = readyJob();
+
+    webTestClient
+        .get()
+        .uri("/api/reports/jobs/{id}/file", job.getId())
+        .header(HttpHeaders.RANGE, "bytes=4-")
+        .exchange()
+        .expectStatus()
+        .isEqualTo(HttpStatus.PARTIAL_CONTENT)
+        .expectHeader()
+        .valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 4-9/10")
+        .expectBody(byte[].class)
+        .isEqualTo("456789".getBytes());
+  }
+
+  @Test
+  void download_whenNotReady_returnsConflict() {
+    UUID id = UUID.randomUUID();
+    when(jobService.getResultFile(id))
+        .thenThrow(new ReportNotReadyException("Отчёт ещё формируется"));
+
+    webTestClient
+        .get()
+        .uri("/api/reports/jobs/{id}/file", id)
+        .exchange()
+        .expectStatus()
+        .isEqualTo(HttpStatus.CONFLICT);
+  }
+
+  private ReportJobDto readyJob() throws IOException {
+    ReportJobDto job = job(ReportJobStatus.READY);
+    job.setFinishedAt(Instant.now());
+    job.setSize((long) CONTENT.length);
+    Path file = Files.write(directory.resolve(job.getId() + ".pdf"), CONTENT);
+    when(jobService.getResultFile(job.getId())).thenReturn(file);
+    when(jobService.getJob(job.getId())).thenReturn(job);
+    return job;
+  }
+
+  private static ReportJobDto job(ReportJobStatus status) {
+    ReportJobDto job = new ReportJobDto();
+    job.setId(UUID.randomUUID());
+    job.setFormat(ReportFormat.PDF);
+    job.setStatus(status);
+    job.setCreatedAt(Instant.now());
+    return job;
+  }
+}
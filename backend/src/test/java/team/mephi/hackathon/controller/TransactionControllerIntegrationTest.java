@@ -1,9 +1,13 @@
 package team.mephi.hackathon.controller;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +15,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
@@ -20,9 +25,20 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
 import team.mephi.hackathon.config.TestSecurityConfig;
+import team.mephi.hackathon.dto.TransactionBatchResultDto;
+import team.mephi.hackathon.dto.TransactionChangeDto;
+import team.mephi.hackathon.dto.TransactionDeltaDto;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.dto.TransactionImportReportDto;
 import team.mephi.hackathon.dto.TransactionRequestDto;
 import team.mephi.hackathon.dto.TransactionResponseDto;
+import team.mephi.hackathon.dto.TransactionStatusChangeDto;
+import team.mephi.hackathon.dto.TransactionStatusResultDto;
+import team.mephi.hackathon.dto.TransactionStatusResultDto.Result;
+import team.mephi.hackathon.service.CategoryDictionary;
+import team.mephi.hackathon.service.TransactionChangeFeed;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -49,9 +65,19 @@ class TransactionControllerIntegrationTest {
 
   @Autowired private JdbcTemplate jdbcTemplate;
 
+  @Autowired private CategoryDictionary categoryDictionary;
+
+  @Autowired private TransactionChangeFeed changeFeed;
+
   @BeforeEach
   void cleanup() {
-    jdbcTemplate.execute("TRUNCATE TABLE transactions RESTART IDENTITY CASCADE");
+    jdbcTemplate.execute("TRUNCATE TABLE transactions, transaction_ids RESTART IDENTITY CASCADE");
+    // Категории транзакций проверяются по справочнику
+    jdbcTemplate.execute("TRUNCATE TABLE categories");
+    jdbcTemplate.execute(
+        "INSERT INTO categories (id, name) SELECT gen_random_uuid(), name"
+            + " FROM unnest(ARRAY['CAT', 'CAT1', 'CAT2']) AS name");
+    categoryDictionary.reload();
   }
 
   private TransactionRequestDto createRequest(
@@ -154,6 +180,158 @@ class TransactionControllerIntegrationTest {
         .hasSize(1);
   }
 
+  @Test
+  void stream_returnsAllMatchingTransactionsAsNdjsonAndEventStream() {
+    createTransaction(BigDecimal.valueOf(50), "CAT1", "BankA");
+    createTransaction(BigDecimal.valueOf(150), "CAT2", "BankB");
+    createTransaction(BigDecimal.valueOf(250), "CAT2", "BankC");
+
+    webTestClient
+        .get()
+        .uri(
+            uriBuilder ->
+                uriBuilder.path("/api/transactions").queryParam("category", "CAT2").build())
+        .accept(MediaType.APPLICATION_NDJSON)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        .expectBodyList(TransactionResponseDto.class)
+        .value(
+            list ->
+                assertThat(list)
+                    .extracting(TransactionResponseDto::getSenderBank)
+                    .containsExactlyInAnyOrder("BankB", "BankC"));
+
+    List<TransactionResponseDto> events =
+        webTestClient
+            .get()
+            .uri("/api/transactions")
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(TransactionResponseDto.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+    assertThat(events).hasSize(3);
+  }
+
+  @Test
+  void changes_streamsCreatedTransaction() throws InterruptedException {
+    for (int i = 0; i < 100 && !changeFeed.isListening(); i++) {
+      Thread.sleep(100);
+    }
+    Flux<TransactionChangeDto> changes =
+        webTestClient
+            .get()
+            .uri("/api/transactions/changes")
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(TransactionChangeDto.class)
+            .getResponseBody();
+
+    createTransaction(BigDecimal.valueOf(75), "CAT", "BankA");
+
+    TransactionChangeDto change = changes.blockFirst(Duration.ofSeconds(10));
+    assertThat(change).isNotNull();
+    assertThat(change.getType()).isEqualTo(TransactionChangeDto.Type.CREATED);
+    assertThat(change.getTransaction().getSenderBank()).isEqualTo("BankA");
+  }
+
+  @Test
+  void delta_returnsChangesAndDeletionsSinceToken() {
+    createTransaction(BigDecimal.valueOf(10), "CAT", "BankA");
+    createTransaction(BigDecimal.valueOf(20), "CAT", "BankB");
+
+    TransactionDeltaDto first = delta(null, 1);
+    assertThat(first.getChanged()).hasSize(1);
+    assertThat(first.isHasMore()).isTrue();
+    TransactionDeltaDto second = delta(first.getToken(), 1);
+    assertThat(second.getChanged()).hasSize(1);
+    assertThat(second.getChanged().get(0).getId())
+        .isNotEqualTo(first.getChanged().get(0).getId());
+    assertThat(second.isHasMore()).isFalse();
+    assertThat(delta(second.getToken(), 10).getChanged()).isEmpty();
+
+    UUID id = first.getChanged().get(0).getId();
+    webTestClient
+        .delete()
+        .uri("/api/transactions/{id}", id)
+        .exchange()
+        .expectStatus()
+        .isNoContent();
+
+    TransactionDeltaDto afterDelete = delta(second.getToken(), 10);
+    assertThat(afterDelete.getChanged()).isEmpty();
+    assertThat(afterDelete.getDeleted()).containsExactly(id);
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT updated_at > created_at FROM transactions WHERE id = ?",
+                Boolean.class,
+                id))
+        .isTrue();
+
+    webTestClient
+        .get()
+        .uri("/api/transactions/delta?since=not-a-token")
+        .exchange()
+        .expectStatus()
+        .isBadRequest();
+  }
+
+  @Test
+  void changeStatus_updatesAllowedTransactionsAndReportsTheRest() {
+    createTransaction(BigDecimal.valueOf(10), "CAT", "BankA");
+    createTransaction(BigDecimal.valueOf(20), "CAT", "BankB");
+    createTransaction(BigDecimal.valueOf(30), "CAT", "BankC");
+    UUID first = transactionId("BankA");
+    UUID second = transactionId("BankB");
+    UUID missing = UUID.randomUUID();
+
+    List<TransactionStatusResultDto> confirmed =
+        changeStatus(
+            new TransactionStatusChangeDto(List.of(first, second, missing), null, "CONFIRMED"));
+    assertThat(confirmed)
+        .extracting(TransactionStatusResultDto::getId, TransactionStatusResultDto::getResult)
+        .containsExactly(
+            tuple(first, Result.UPDATED),
+            tuple(second, Result.UPDATED),
+            tuple(missing, Result.NOT_FOUND));
+
+    List<TransactionStatusResultDto> canceled =
+        changeStatus(new TransactionStatusChangeDto(List.of(first), null, "CANCELED"));
+    assertThat(canceled.get(0).getResult()).isEqualTo(Result.REJECTED);
+    assertThat(canceled.get(0).getStatus()).isEqualTo("CONFIRMED");
+
+    TransactionFilterDto filter = new TransactionFilterDto();
+    filter.setCategory("CAT");
+    List<TransactionStatusResultDto> deleted =
+        changeStatus(new TransactionStatusChangeDto(null, filter, "DELETED"));
+    assertThat(deleted)
+        .extracting(TransactionStatusResultDto::getId, TransactionStatusResultDto::getResult)
+        .containsExactlyInAnyOrder(
+            tuple(first, Result.REJECTED),
+            tuple(second, Result.REJECTED),
+            tuple(transactionId("BankC"), Result.UPDATED));
+    assertThat(
+            jdbcTemplate.queryForList(
+                "SELECT status FROM transactions ORDER BY sender_bank", String.class))
+        .containsExactly("CONFIRMED", "CONFIRMED", "DELETED");
+
+    webTestClient
+        .post()
+        .uri("/api/transactions/status")
+        .bodyValue(new TransactionStatusChangeDto(List.of(first), filter, "CONFIRMED"))
+        .exchange()
+        .expectStatus()
+        .isBadRequest();
+  }
+
   @Test
   void validationErrors() {
     // Missing operationDate
@@ -207,6 +385,131 @@ class TransactionControllerIntegrationTest {
         .isNotFound();
   }
 
+  @Test
+  void batchCreate_savesValidRowsAndRejectsInvalid() {
+    TransactionRequestDto invalid = createRequest(BigDecimal.ONE, "CAT", "SBP");
+    invalid.setReceiverInn("12");
+    TransactionRequestDto withId = createRequest(BigDecimal.TEN, "CAT", "SBP");
+    withId.setId(UUID.randomUUID());
+
+    List<TransactionBatchResultDto> results =
+        webTestClient
+            .post()
+            .uri("/api/transactions/batch")
+            .bodyValue(
+                List.of(
+                    createRequest(BigDecimal.valueOf(100), "CAT", "SBP"), invalid, withId, withId))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(TransactionBatchResultDto.class)
+            .returnResult()
+            .getResponseBody();
+
+    assertThat(results)
+        .extracting(TransactionBatchResultDto::getStatus)
+        .containsExactly(
+            TransactionBatchResultDto.Status.CREATED,
+            TransactionBatchResultDto.Status.REJECTED,
+            TransactionBatchResultDto.Status.CREATED,
+            TransactionBatchResultDto.Status.REJECTED);
+    assertThat(results.get(2).getId()).isEqualTo(withId.getId());
+    assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM transactions", Long.class))
+        .isEqualTo(2);
+
+    // повторная загрузка строки с тем же идентификатором не создаёт дубликат
+    webTestClient
+        .post()
+        .uri("/api/transactions/batch")
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(Flux.just(withId), TransactionRequestDto.class)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$[0].status")
+        .isEqualTo("REJECTED");
+  }
+
+  @Test
+  void importCsv_copiesValidRowsAndReportsRejected() {
+    UUID id = UUID.randomUUID();
+    String row =
+        ",LEGAL,2025-04-05T12:30:00,INCOME,\"Оплата, счёт \"\"1\"\"\",100.50,NEW,Alpha,1,Beta,"
+            + "1234567890,2,CAT,+71234567890\n";
+    String csv =
+        "id,personType,operationDate,transactionType,comment,amount,status,senderBank,account,"
+            + "receiverBank,receiverInn,receiverAccount,category,receiverPhone\n"
+            + id
+            + row
+            + row
+            + row.replace("1234567890", "12")
+            + id
+            + row;
+
+    TransactionImportReportDto report =
+        webTestClient
+            .post()
+            .uri("/api/transactions/import")
+            .contentType(MediaType.parseMediaType("text/csv"))
+            .bodyValue(csv)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(TransactionImportReportDto.class)
+            .returnResult()
+            .getResponseBody();
+
+    assertThat(report).isNotNull();
+    assertThat(report.getTotal()).isEqualTo(4);
+    assertThat(report.getImported()).isEqualTo(2);
+    assertThat(report.getDuplicates()).isEqualTo(1);
+    assertThat(report.getRejected()).isEqualTo(1);
+    assertThat(report.getRejectedRows())
+        .extracting(TransactionBatchResultDto::getIndex)
+        .containsExactly(4L);
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT comment FROM transactions WHERE id = ?", String.class, id))
+        .isEqualTo("Оплата, счёт \"1\"");
+  }
+
+  private TransactionDeltaDto delta(String since, int limit) {
+    return webTestClient
+        .get()
+        .uri(
+            builder ->
+                builder
+                    .path("/api/transactions/delta")
+                    .queryParamIfPresent("since", Optional.ofNullable(since))
+                    .queryParam("limit", limit)
+                    .build())
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody(TransactionDeltaDto.class)
+        .returnResult()
+        .getResponseBody();
+  }
+
+  private List<TransactionStatusResultDto> changeStatus(TransactionStatusChangeDto request) {
+    return webTestClient
+        .post()
+        .uri("/api/transactions/status")
+        .bodyValue(request)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBodyList(TransactionStatusResultDto.class)
+        .returnResult()
+        .getResponseBody();
+  }
+
+  private UUID transactionId(String senderBank) {
+    return jdbcTemplate.queryForObject(
+        "SELECT id FROM transactions WHERE sender_bank = ?", UUID.class, senderBank);
+  }
+
   private void createTransaction(BigDecimal amount, String category, String senderBank) {
     webTestClient
         .post()
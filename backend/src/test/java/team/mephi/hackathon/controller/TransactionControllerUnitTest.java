@@ -2,34 +2,66 @@ package team.mephi.hackathon.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import team.mephi.hackathon.dto.TransactionBatchResultDto;
+import team.mephi.hackathon.dto.TransactionPageDto;
 import team.mephi.hackathon.dto.TransactionRequestDto;
 import team.mephi.hackathon.dto.TransactionResponseDto;
+import team.mephi.hackathon.execution.Bulkhead;
+import team.mephi.hackathon.execution.Workload;
+import team.mephi.hackathon.execution.WorkloadExecutor;
+import team.mephi.hackathon.service.OffloadingTransactionService;
+import team.mephi.hackathon.service.TransactionChangeFeed;
 
 @ExtendWith(MockitoExtension.class)
 class TransactionControllerUnitTest {
 
   @Mock private TransactionService transactionService;
 
+  @Mock private TransactionChangeFeed changeFeed;
+
   private WebTestClient webTestClient;
 
+  private WorkloadExecutor executor;
+
+  @AfterEach
+  void tearDown() {
+    executor.close();
+  }
+
   @BeforeEach
   void setup() {
-    TransactionController controller = new TransactionController(transactionService);
+    executor =
+        new WorkloadExecutor(
+            new Bulkhead(Workload.CRUD, 4, 16),
+            new Bulkhead(Workload.SEARCH, 4, 16),
+            new Bulkhead(Workload.REPORT, 1, 4),
+            new Bulkhead(Workload.STREAM, 1, 1),
+            new Bulkhead(Workload.IMPORT, 1, 4));
+    TransactionController controller =
+        new TransactionController(
+            new OffloadingTransactionService(transactionService, executor, changeFeed),
+            Duration.ofSeconds(15));
     webTestClient = WebTestClient.bindToController(controller).build();
   }
 
@@ -134,7 +166,8 @@ class TransactionControllerUnitTest {
   void searchTransactions_shouldReturnList() {
     TransactionResponseDto dto = new TransactionResponseDto();
     dto.setId(UUID.randomUUID());
-    when(transactionService.searchTransactions(any())).thenReturn(List.of(dto));
+    when(transactionService.searchTransactions(any()))
+        .thenReturn(new TransactionPageDto(List.of(dto), null));
 
     webTestClient
         .get()
@@ -151,7 +184,8 @@ class TransactionControllerUnitTest {
     TransactionResponseDto dto = new TransactionResponseDto();
     UUID id = UUID.randomUUID();
     dto.setId(id);
-    when(transactionService.searchTransactions(any())).thenReturn(List.of(dto));
+    when(transactionService.searchTransactions(any()))
+        .thenReturn(new TransactionPageDto(List.of(dto), null));
 
     LocalDateTime now = LocalDateTime.now();
     webTestClient
@@ -180,7 +214,8 @@ class TransactionControllerUnitTest {
 
   @Test
   void getTransactions_noParams_shouldReturnEmptyList() {
-    when(transactionService.searchTransactions(any())).thenReturn(List.of());
+    when(transactionService.searchTransactions(any()))
+        .thenReturn(new TransactionPageDto(List.of(), null));
 
     webTestClient
         .get()
@@ -193,4 +228,96 @@ class TransactionControllerUnitTest {
 
     verify(transactionService).searchTransactions(any());
   }
+
+  @Test
+  void search_withNextPage_shouldReturnCursorHeader() {
+    TransactionResponseDto dto = new TransactionResponseDto();
+    dto.setId(UUID.randomUUID());
+    when(transactionService.searchTransactions(any()))
+        .thenReturn(new TransactionPageDto(List.of(dto), "next-page"));
+
+    webTestClient
+        .get()
+        .uri(
+            uriBuilder ->
+                uriBuilder
+                    .path("/api/transactions")
+                    .queryParam("limit", 1)
+                    .queryParam("cursor", "prev-page")
+                    .build())
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .valueEquals(TransactionController.NEXT_CURSOR_HEADER, "next-page")
+        .expectBodyList(TransactionResponseDto.class)
+        .hasSize(1);
+
+    verify(transactionService)
+        .searchTransactions(
+            argThat(filter -> filter.getLimit() == 1 && "prev-page".equals(filter.getCursor())));
+  }
+
+  @Test
+  void stream_ndjson_returnsAllMatchingTransactions() {
+    TransactionResponseDto first = new TransactionResponseDto();
+    first.setId(UUID.randomUUID());
+    TransactionResponseDto second = new TransactionResponseDto();
+    second.setId(UUID.randomUUID());
+    doAnswer(
+            invocation -> {
+              Consumer<TransactionResponseDto> consumer = invocation.getArgument(1);
+              consumer.accept(first);
+              consumer.accept(second);
+              return null;
+            })
+        .when(transactionService)
+        .streamTransactions(argThat(filter -> "CAT".equals(filter.getCategory())), any());
+
+    webTestClient
+        .get()
+        .uri(
+            uriBuilder ->
+                uriBuilder.path("/api/transactions").queryParam("category", "CAT").build())
+        .accept(MediaType.APPLICATION_NDJSON)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        .expectBodyList(TransactionResponseDto.class)
+        .value(
+            list ->
+                assertEquals(
+                    List.of(first.getId(), second.getId()),
+                    list.stream().map(TransactionResponseDto::getId).toList()));
+  }
+
+  @Test
+  void createBatch_ndjson_returnsResultPerRow() {
+    UUID id = UUID.randomUUID();
+    when(transactionService.createTransactions(argThat(rows -> rows.size() == 2), eq(0L)))
+        .thenReturn(
+            List.of(
+                TransactionBatchResultDto.created(0, id),
+                TransactionBatchResultDto.rejected(1, null, "Некорректный ИНН")));
+
+    List<TransactionBatchResultDto> results =
+        webTestClient
+            .post()
+            .uri("/api/transactions/batch")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .bodyValue("{\"category\":\"A\"}\n{\"category\":\"B\",\"receiverInn\":\"1\"}\n")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(TransactionBatchResultDto.class)
+            .returnResult()
+            .getResponseBody();
+
+    assertEquals(2, results.size());
+    assertEquals(TransactionBatchResultDto.Status.CREATED, results.get(0).getStatus());
+    assertEquals(id, results.get(0).getId());
+    assertEquals("Некорректный ИНН", results.get(1).getError());
+  }
 }
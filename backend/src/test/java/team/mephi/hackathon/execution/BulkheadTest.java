@@ -0,0 +1,95 @@
+package team.mephi.hackathon.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import team.mephi.hackathon.exceptions.WorkloadRejectedException;
+
+class BulkheadTest {
+
+  private final Bulkhead bulkhead = new Bulkhead(Workload.REPORT, 1, 1);
+
+  @AfterEach
+  void tearDown() {
+    bulkhead.close();
+  }
+
+  @Test
+  void submit_runsTaskOffCallerThread() {
+    assertThat(bulkhead.submit(() -> Thread.currentThread().getName()).block())
+        .startsWith("workload-report-");
+  }
+
+  @Test
+  void submit_whenQueueFull_rejectsAndCountsMetrics() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    Disposable running =
+        bulkhead
+            .submit(
+                () -> {
+                  started.countDown();
+                  return release.await(5, TimeUnit.SECONDS);
+                })
+            .subscribe();
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    Disposable queued = bulkhead.submit(() -> "queued").subscribe();
+
+    assertThatThrownBy(() -> bulkhead.submit(() -> "rejected").block())
+        .isInstanceOf(WorkloadRejectedException.class);
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    bulkhead.bindTo(registry);
+    assertThat(bulkhead.getActiveCount()).isEqualTo(1);
+    assertThat(bulkhead.getQueueDepth()).isEqualTo(1);
+    assertThat(registry.get("app.workload.rejected").tag("workload", "report").functionCounter())
+        .satisfies(counter -> assertThat(counter.count()).isEqualTo(1.0));
+    assertThat(registry.get("app.workload.queue.depth").gauge().value()).isEqualTo(1.0);
+
+    release.countDown();
+    running.dispose();
+    queued.dispose();
+  }
+
+  @Test
+  void submit_whenQueuedTaskCancelled_keepsSlotUntilThreadExitsAndSkipsTask()
+      throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicBoolean queuedRan = new AtomicBoolean();
+    Disposable running =
+        bulkhead
+            .submit(
+                () -> {
+                  started.countDown();
+                  return release.await(5, TimeUnit.SECONDS);
+                })
+            .subscribe();
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    Disposable queued = bulkhead.submit(() -> queuedRan.getAndSet(true)).subscribe();
+    for (int i = 0; i < 100 && bulkhead.getWaitingThreadCount() == 0; i++) {
+      Thread.sleep(10);
+    }
+
+    queued.dispose();
+
+    // Поток отменённой задачи всё ещё ждёт разрешения и занимает место в очереди
+    assertThatThrownBy(() -> bulkhead.submit(() -> "rejected").block())
+        .isInstanceOf(WorkloadRejectedException.class);
+    release.countDown();
+    for (int i = 0; i < 100 && bulkhead.getQueueDepth() + bulkhead.getActiveCount() > 0; i++) {
+      Thread.sleep(10);
+    }
+    assertThat(bulkhead.submit(() -> "accepted").block()).isEqualTo("accepted");
+    assertThat(queuedRan).isFalse();
+    running.dispose();
+  }
+}
@@ -0,0 +1,126 @@
+package team.mephi.hackathon.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+
+class WorkloadExecutorTest {
+
+  private final WorkloadExecutor executor =
+      new WorkloadExecutor(
+          new Bulkhead(Workload.CRUD, 1, 1),
+          new Bulkhead(Workload.SEARCH, 1, 1),
+          new Bulkhead(Workload.REPORT, 1, 1),
+          new Bulkhead(Workload.STREAM, 1, 1),
+          new Bulkhead(Workload.IMPORT, 1, 1));
+
+  @AfterEach
+  void tearDown() {
+    executor.close();
+  }
+
+  @Test
+  void stream_readsOnlyRequestedItems() throws InterruptedException {
+    AtomicInteger read = new AtomicInteger();
+    List<Integer> received = new CopyOnWriteArrayList<>();
+    CountDownLatch firstTwo = new CountDownLatch(2);
+    CountDownLatch completed = new CountDownLatch(1);
+    BaseSubscriber<Integer> subscriber =
+        new BaseSubscriber<>() {
+          @Override
+          protected void hookOnSubscribe(Subscription subscription) {
+            request(2);
+          }
+
+          @Override
+          protected void hookOnNext(Integer value) {
+            received.add(value);
+            firstTwo.countDown();
+          }
+
+          @Override
+          protected void hookOnComplete() {
+            completed.countDown();
+          }
+        };
+
+    executor
+        .<Integer>stream(
+            Workload.STREAM,
+            consumer ->
+                IntStream.range(0, 100)
+                    .forEach(
+                        i -> {
+                          read.incrementAndGet();
+                          consumer.accept(i);
+                        }))
+        .subscribe(subscriber);
+
+    assertThat(firstTwo.await(5, TimeUnit.SECONDS)).isTrue();
+    Thread.sleep(100);
+    // Третий элемент прочитан, но ждёт запроса подписчика
+    assertThat(read).hasValue(3);
+    assertThat(received).containsExactly(0, 1);
+
+    subscriber.requestUnbounded();
+    assertThat(completed.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(received).hasSize(100);
+  }
+
+  @Test
+  void stream_cancel_stopsReadingAndReleasesWorkload() throws InterruptedException {
+    CountDownLatch finished = new CountDownLatch(1);
+
+    Integer first =
+        executor
+            .<Integer>stream(
+                Workload.STREAM,
+                consumer -> {
+                  try {
+                    IntStream.iterate(0, i -> i + 1).forEach(consumer::accept);
+                  } finally {
+                    finished.countDown();
+                  }
+                })
+            .take(1)
+            .blockLast();
+
+    assertThat(first).isZero();
+    assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(executor.call(Workload.STREAM, () -> "next").block()).isEqualTo("next");
+  }
+
+  @Test
+  void stream_slowClient_doesNotOccupyReportWorkload() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    BaseSubscriber<Integer> slowClient =
+        new BaseSubscriber<>() {
+          @Override
+          protected void hookOnSubscribe(Subscription subscription) {
+            request(1);
+          }
+        };
+
+    executor
+        .<Integer>stream(
+            Workload.STREAM,
+            consumer -> {
+              started.countDown();
+              IntStream.iterate(0, i -> i + 1).forEach(consumer::accept);
+            })
+        .subscribe(slowClient);
+
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(executor.call(Workload.REPORT, () -> "report").block()).isEqualTo("report");
+    slowClient.dispose();
+  }
+}
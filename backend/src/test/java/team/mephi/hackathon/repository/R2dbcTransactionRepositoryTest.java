@@ -0,0 +1,91 @@
+package team.mephi.hackathon.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import team.mephi.hackathon.dto.TransactionCursor;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.exceptions.ValidationException;
+
+class R2dbcTransactionRepositoryTest {
+
+  @Test
+  void where_emptyFilter_excludesOnlyDeleted() {
+    R2dbcTransactionRepository.Criteria criteria =
+        R2dbcTransactionRepository.where(new TransactionFilterDto(), null);
+
+    assertThat(criteria.sql()).isEqualTo(" WHERE status <> 'DELETED'");
+    assertThat(criteria.params()).isEmpty();
+  }
+
+  @Test
+  void where_fullFilter_addsEveryConditionWithParameters() {
+    LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+    LocalDateTime to = LocalDateTime.of(2025, 2, 1, 0, 0);
+    TransactionFilterDto filter = new TransactionFilterDto();
+    filter.setSenderBank("Alpha");
+    filter.setReceiverBank("Beta");
+    filter.setDateFrom(from);
+    filter.setDateTo(to);
+    filter.setTransactionType("INCOME");
+    filter.setStatus("NEW");
+    filter.setCategory("SALARY");
+    filter.setAmountMin(BigDecimal.ONE);
+    filter.setAmountMax(BigDecimal.TEN);
+
+    R2dbcTransactionRepository.Criteria criteria = R2dbcTransactionRepository.where(filter, null);
+
+    assertThat(criteria.sql())
+        .isEqualTo(
+            " WHERE sender_bank = :senderBank AND receiver_bank = :receiverBank"
+                + " AND operation_date >= :dateFrom AND operation_date <= :dateTo"
+                + " AND transaction_type = :transactionType AND status = :status"
+                + " AND category = :category AND amount >= :amountMin AND amount <= :amountMax"
+                + " AND status <> 'DELETED'");
+    assertThat(criteria.params())
+        .containsEntry("senderBank", "Alpha")
+        .containsEntry("dateFrom", from)
+        .containsEntry("transactionType", "INCOME")
+        .containsEntry("amountMax", BigDecimal.TEN)
+        .hasSize(9);
+  }
+
+  @Test
+  void where_withCursor_addsKeysetCondition() {
+    TransactionCursor cursor = new TransactionCursor(LocalDateTime.now(), UUID.randomUUID());
+
+    R2dbcTransactionRepository.Criteria criteria =
+        R2dbcTransactionRepository.where(new TransactionFilterDto(), cursor);
+
+    assertThat(criteria.sql())
+        .endsWith(
+            "operation_date <= :afterDate AND (operation_date < :afterDate OR id < :afterId)");
+    assertThat(criteria.params())
+        .containsEntry("afterDate", cursor.operationDate())
+        .containsEntry("afterId", cursor.id());
+  }
+
+  @Test
+  void where_unknownStatus_throwsValidationException() {
+    TransactionFilterDto filter = new TransactionFilterDto();
+    filter.setStatus("UNKNOWN");
+
+    assertThatThrownBy(() -> R2dbcTransactionRepository.where(filter, null))
+        .isInstanceOf(ValidationException.class)
+        .hasMessageContaining("status");
+  }
+
+  @Test
+  void where_unknownTransactionType_throwsValidationException() {
+    TransactionFilterDto filter = new TransactionFilterDto();
+    filter.setTransactionType("UNKNOWN");
+
+    assertThatThrownBy(() -> R2dbcTransactionRepository.where(filter, null))
+        .isInstanceOf(ValidationException.class)
+        .hasMessageContaining("transactionType");
+  }
+}
@@ -0,0 +1,181 @@
+package team.mephi.hackathon.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import team.mephi.hackathon.dto.AnalyticsBucketDto;
+import team.mephi.hackathon.dto.AnalyticsDimension;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@DisplayName("Интеграционные тесты TransactionAnalyticsRepository")
+class TransactionAnalyticsRepositoryTest {
+
+  @Container
+  static PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>("postgres:15")
+          .withDatabaseName("testdb")
+          .withUsername("test")
+          .withPassword("test");
+
+  @DynamicPropertySource
+  static void configure(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private TransactionAnalyticsRepository repository;
+
+  @BeforeEach
+  void seed() {
+    repository = new TransactionAnalyticsRepository(new NamedParameterJdbcTemplate(jdbcTemplate));
+    jdbcTemplate.update("DELETE FROM transactions");
+    insert("2024-12-30T10:00", "INCOME", 100, "NEW", "Alpha", "Beta", "Food");
+    insert("2025-01-15T10:00", "OUTCOME", 50.25, "NEW", "Alpha", "Gamma", "Rent");
+    insert("2025-04-01T10:00", "INCOME", 200, "COMPLETED", "Beta", "Beta", "Food");
+    insert("2025-04-02T10:00", "INCOME", 999, "DELETED", "Alpha", "Beta", "Food");
+  }
+
+  @Test
+  @DisplayName("Все признаки считаются одним запросом; удалённые транзакции не учитываются")
+  void aggregate_allDimensions_groupsEachDimensionSeparately() {
+    Map<AnalyticsDimension, List<AnalyticsBucketDto>> groups =
+        repository.aggregate(new TransactionFilterDto(), EnumSet.allOf(AnalyticsDimension.class));
+
+    assertThat(groups).containsOnlyKeys(AnalyticsDimension.values());
+    assertThat(groups.get(AnalyticsDimension.MONTH))
+        .extracting(AnalyticsBucketDto::getName, AnalyticsBucketDto::getCount)
+        .containsExactly(
+            tuple("2024-12", 1L),
+            tuple("2025-01", 1L),
+            tuple("2025-04", 1L));
+    // 30 декабря 2024 года относится к первой ISO-неделе 2025 года
+    assertThat(groups.get(AnalyticsDimension.WEEK))
+        .extracting(AnalyticsBucketDto::getName)
+        .containsExactly("2025-W01", "2025-W03", "2025-W14");
+    assertThat(groups.get(AnalyticsDimension.QUARTER))
+        .extracting(AnalyticsBucketDto::getName)
+        .containsExactly("2024-Q4", "2025-Q1", "2025-Q2");
+    assertThat(groups.get(AnalyticsDimension.YEAR))
+        .extracting(AnalyticsBucketDto::getName, AnalyticsBucketDto::getCount)
+        .containsExactly(
+            tuple("2024", 1L),
+            tuple("2025", 2L));
+    assertThat(groups.get(AnalyticsDimension.TYPE))
+        .extracting(AnalyticsBucketDto::getName, AnalyticsBucketDto::getCount)
+        .containsExactly(
+            tuple("INCOME", 2L),
+            tuple("OUTCOME", 1L));
+    assertThat(groups.get(AnalyticsDimension.RECEIVER_BANK))
+        .extracting(AnalyticsBucketDto::getName)
+        .containsExactly("Beta", "Gamma");
+    AnalyticsBucketDto food = groups.get(AnalyticsDimension.CATEGORY).get(0);
+    assertThat(food.getName()).isEqualTo("Food");
+    assertThat(food.getCount()).isEqualTo(2);
+    assertThat(food.getAmount()).isEqualByComparingTo("300");
+  }
+
+  @Test
+  @DisplayName("Фильтр применяется до группировки")
+  void aggregate_withFilter_countsOnlyMatchingRows() {
+    TransactionFilterDto filter = new TransactionFilterDto();
+    filter.setSenderBank("Alpha");
+    filter.setDateFrom(LocalDateTime.of(2025, 1, 1, 0, 0));
+    filter.setAmountMax(new BigDecimal("60"));
+
+    List<AnalyticsBucketDto> categories =
+        repository
+            .aggregate(filter, EnumSet.of(AnalyticsDimension.CATEGORY))
+            .get(AnalyticsDimension.CATEGORY);
+
+    assertThat(categories).hasSize(1);
+    assertThat(categories.get(0).getName()).isEqualTo("Rent");
+    assertThat(categories.get(0).getAmount()).isEqualByComparingTo("50.25");
+  }
+
+  @Test
+  @DisplayName("Фильтр по целым дням считается по дневным итогам")
+  void aggregate_withWholeDays_readsRollup() {
+    TransactionFilterDto filter = new TransactionFilterDto();
+    filter.setDateFrom(LocalDateTime.of(2025, 1, 1, 0, 0));
+    filter.setDateTo(LocalDate.of(2025, 3, 31).atTime(LocalTime.MAX));
+    // Итоги расходятся с таблицей только в этом тесте: ответ показывает, откуда он прочитан
+    jdbcTemplate.update(
+        "UPDATE transaction_daily_rollup SET tx_count = 7 WHERE day = '2025-01-15'");
+
+    List<AnalyticsBucketDto> categories =
+        repository
+            .aggregate(filter, EnumSet.of(AnalyticsDimension.CATEGORY))
+            .get(AnalyticsDimension.CATEGORY);
+
+    assertThat(categories)
+        .extracting(AnalyticsBucketDto::getName, AnalyticsBucketDto::getCount)
+        .containsExactly(tuple("Rent", 7L));
+    assertThat(categories.get(0).getAmount()).isEqualByComparingTo("50.25");
+  }
+
+  @Test
+  @DisplayName("Изменения транзакций сразу отражаются в агрегатах по итогам")
+  void aggregate_afterUpdateAndDelete_reflectsChanges() {
+    jdbcTemplate.update("UPDATE transactions SET status = 'DELETED' WHERE category = 'Rent'");
+    jdbcTemplate.update("UPDATE transactions SET amount = 150 WHERE status = 'COMPLETED'");
+    jdbcTemplate.update("DELETE FROM transactions WHERE operation_date < '2025-01-01'");
+
+    List<AnalyticsBucketDto> categories =
+        repository
+            .aggregate(new TransactionFilterDto(), EnumSet.of(AnalyticsDimension.CATEGORY))
+            .get(AnalyticsDimension.CATEGORY);
+
+    assertThat(categories)
+        .extracting(AnalyticsBucketDto::getName, AnalyticsBucketDto::getCount)
+        .containsExactly(tuple("Food", 1L));
+    assertThat(categories.get(0).getAmount()).isEqualByComparingTo("150");
+  }
+
+  private void insert(
+      String date,
+      String type,
+      double amount,
+      String status,
+      String senderBank,
+      String receiverBank,
+      String category) {
+    jdbcTemplate.update(
+        "INSERT INTO transactions (id, person_type, operation_date, transaction_type, amount,"
+            + " status, sender_bank, account, receiver_bank, receiver_account, category)"
+            + " VALUES (gen_random_uuid(), 'LEGAL', ?, ?, ?, ?, ?, '1', ?, '2', ?)",
+        LocalDateTime.parse(date),
+        type,
+        amount,
+        status,
+        senderBank,
+        receiverBank,
+        category);
+  }
+}
@@ -0,0 +1,218 @@
+package team.mephi.hackathon.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import team.mephi.hackathon.service.ColumnarTransactionStore;
+import team.mephi.hackathon.service.TransactionPartitionManager;
+
+/**
+ * Проверяет, что миграции создают индексы, которые планировщик выбирает для типовых запросов
+ * поиска, а условия по дате отсекают лишние секции. Запросы повторяют SQL, генерируемый из {@code
+ * TransactionSpecification} и keyset-пагинации. Индексы секций в планах заменяются именами индексов
+ * родительской таблицы.
+ */
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@DisplayName("Планы запросов поиска транзакций")
+class TransactionIndexPlanTest {
+
+  private static final String PAGE = " ORDER BY operation_date DESC, id DESC LIMIT 101";
+
+  /** Узел сортировки в плане; строка {@code Sort Key} узла Merge Append сортировкой не является. */
+  private static final String SORT_NODE = "(?m)^\\s*(->\\s+)?Sort\\s+\\(";
+
+  @Container
+  static PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>("postgres:15")
+          .withDatabaseName("testdb")
+          .withUsername("test")
+          .withPassword("test");
+
+  @DynamicPropertySource
+  static void configure(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @BeforeEach
+  void seed() {
+    // 100 000 записей за ~2 года в хронологическом порядке; 5% удалённых.
+    // Записи сначала попадают в секцию по умолчанию и переносятся при создании месячных секций.
+    jdbcTemplate.update(
+        "INSERT INTO transactions (id, person_type, operation_date, transaction_type, amount,"
+            + " status, sender_bank, account, receiver_bank, receiver_account, category)"
+            + " SELECT gen_random_uuid(), 'LEGAL', timestamp '2023-01-01' + g * interval '10"
+            + " minutes', CASE WHEN g % 2 = 0 THEN 'INCOME' ELSE 'OUTCOME' END, g % 10000 + 0.5,"
+            + " CASE WHEN g % 20 = 0 THEN 'DELETED' WHEN g % 7 = 0 THEN 'COMPLETED' ELSE 'NEW'"
+            + " END, 'BANK' || g % 40, '1', 'BANK' || g % 37, '2', 'CAT' || g % 50"
+            + " FROM generate_series(1, 100000) g");
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    TransactionPartitionManager partitions =
+        new TransactionPartitionManager(
+            jdbcTemplate,
+            transactionTemplate,
+            new ColumnarTransactionStore(jdbcTemplate, transactionTemplate));
+    for (YearMonth month = YearMonth.of(2023, 1);
+        month.isBefore(YearMonth.of(2025, 1));
+        month = month.plusMonths(1)) {
+      partitions.createPartition(month);
+    }
+    jdbcTemplate.execute("ANALYZE transactions");
+  }
+
+  @Test
+  @DisplayName("Первая страница без фильтров сливает секции по частичному индексу без сортировки")
+  void firstPage_usesPartialKeysetIndex() {
+    assertThat(explain("SELECT * FROM transactions WHERE status <> 'DELETED'" + PAGE))
+        .contains("Merge Append")
+        .contains("Index Scan using idx_transactions_active_date_id")
+        .doesNotContainPattern(SORT_NODE);
+  }
+
+  @Test
+  @DisplayName("Диапазон дат со страницей читает одну секцию по частичному индексу")
+  void dateRangePage_usesPartialKeysetIndex() {
+    assertThat(
+            explain(
+                "SELECT * FROM transactions WHERE operation_date BETWEEN '2023-03-01'"
+                    + " AND '2023-03-31' AND status <> 'DELETED'"
+                    + PAGE))
+        .contains("Index Scan using idx_transactions_active_date_id")
+        .contains("on transactions_2023_03")
+        .doesNotContain("Append")
+        .doesNotContainPattern(SORT_NODE);
+  }
+
+  @Test
+  @DisplayName("Диапазон дат на границе месяцев читает только две секции")
+  void dateRangeAcrossMonths_prunesPartitions() {
+    assertThat(
+            explain(
+                "SELECT * FROM transactions WHERE operation_date BETWEEN '2023-03-20'"
+                    + " AND '2023-04-10' AND status <> 'DELETED'"
+                    + PAGE))
+        .contains("on transactions_2023_03")
+        .contains("on transactions_2023_04")
+        .doesNotContain("transactions_2023_02")
+        .doesNotContain("transactions_2023_05")
+        .doesNotContain("transactions_default");
+  }
+
+  @Test
+  @DisplayName("Фильтр по категории использует составной индекс")
+  void category_usesCompositeIndex() {
+    assertThat(
+            explain(
+                "SELECT * FROM transactions WHERE category = 'CAT7' AND status <> 'DELETED'"
+                    + PAGE))
+        .contains("idx_transactions_active_category")
+        .doesNotContain("Seq Scan");
+  }
+
+  @Test
+  @DisplayName("Следующая страница по категории использует составной индекс")
+  void categoryWithCursor_usesCompositeIndex() {
+    assertThat(
+            explain(
+                "SELECT * FROM transactions WHERE category = 'CAT7' AND status <> 'DELETED'"
+                    + " AND operation_date <= '2023-06-01' AND (operation_date < '2023-06-01'"
+                    + " OR id < '00000000-0000-0000-0000-000000000000')"
+                    + PAGE))
+        .contains("idx_transactions_active_category")
+        .doesNotContain("Seq Scan");
+  }
+
+  @Test
+  @DisplayName("Фильтры по банкам используют составные индексы")
+  void banks_useCompositeIndexes() {
+    assertThat(
+            explain(
+                "SELECT * FROM transactions WHERE sender_bank = 'BANK3' AND status <> 'DELETED'"
+                    + PAGE))
+        .contains("idx_transactions_active_sender_bank");
+    assertThat(
+            explain(
+                "SELECT * FROM transactions WHERE receiver_bank = 'BANK5'"
+                    + " AND status <> 'DELETED'"
+                    + PAGE))
+        .contains("idx_transactions_active_receiver_bank");
+  }
+
+  @Test
+  @DisplayName("Фильтр по статусу использует составной индекс")
+  void status_usesCompositeIndex() {
+    assertThat(
+            explain(
+                "SELECT * FROM transactions WHERE status = 'COMPLETED' AND status <> 'DELETED'"
+                    + PAGE))
+        .contains("idx_transactions_active_status");
+  }
+
+  @Test
+  @DisplayName("Узкий диапазон сумм использует индекс по сумме")
+  void amountRange_usesAmountIndex() {
+    assertThat(
+            explain(
+                "SELECT * FROM transactions WHERE amount >= 100 AND amount <= 101"
+                    + " AND status <> 'DELETED'"
+                    + PAGE))
+        .contains("idx_transactions_active_amount")
+        // пустые будущие секции дешевле прочитать целиком
+        .doesNotContain("Seq Scan on transactions_2023");
+  }
+
+  @Test
+  @DisplayName("Агрегат за месяц читает только секцию этого месяца")
+  void monthAggregate_readsSinglePartition() {
+    assertThat(
+            explain(
+                "SELECT count(*), sum(amount) FROM transactions"
+                    + " WHERE operation_date >= '2023-06-01' AND operation_date < '2023-07-01'"))
+        .contains("on transactions_2023_06")
+        .doesNotContain("Append");
+  }
+
+  private String explain(String sql) {
+    String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    for (Map.Entry<String, String> index : parentIndexes().entrySet()) {
+      plan = plan.replace(" " + index.getKey() + " ", " " + index.getValue() + " ");
+    }
+    return plan;
+  }
+
+  /** Имена индексов секций и соответствующих им индексов родительской таблицы. */
+  private Map<String, String> parentIndexes() {
+    return jdbcTemplate
+        .queryForList(
+            "SELECT c.relname AS child, p.relname AS parent FROM pg_inherits i"
+                + " JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent"
+                + " WHERE c.relkind = 'i'")
+        .stream()
+        .collect(
+            Collectors.toMap(row -> (String) row.get("child"), row -> (String) row.get("parent")));
+  }
+}
@@ -1,11 +1,16 @@
 package team.mephi.hackathon.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -19,6 +24,8 @@ import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
+import team.mephi.hackathon.dto.TransactionCursor;
+import team.mephi.hackathon.dto.TransactionResponseDto;
 import team.mephi.hackathon.entity.PersonType;
 import team.mephi.hackathon.entity.Transaction;
 import team.mephi.hackathon.entity.TransactionStatus;
@@ -93,15 +100,43 @@ class TransactionRepositoryTest {
   }
 
   @Test
-  @DisplayName("Пустая БД: findAllActive() и findAll(spec) возвращают пустой список")
+  @DisplayName("Идентификатор уникален во всех секциях, перенос в другую секцию его сохраняет")
+  void id_isUniqueAcrossPartitions() {
+    LocalDateTime now = LocalDateTime.now().withNano(0);
+    Transaction saved =
+        repository.saveAndFlush(
+            buildTx(now, TransactionType.INCOME, TransactionStatus.NEW, "Food"));
+    saved.setOperationDate(now.plusMonths(1));
+    repository.saveAndFlush(saved);
+    em.clear();
+    assertThat(repository.findById(saved.getId()))
+        .get()
+        .extracting(Transaction::getOperationDate)
+        .isEqualTo(now.plusMonths(1));
+
+    assertThatThrownBy(
+            () ->
+                em.createNativeQuery(
+                        "INSERT INTO transactions (id, operation_date, amount) VALUES (?1, ?2, 1)")
+                    .setParameter(1, saved.getId())
+                    .setParameter(2, now.plusMonths(2))
+                    .executeUpdate())
+        .isInstanceOf(PersistenceException.class)
+        .hasStackTraceContaining("transaction_ids_pkey");
+  }
+
+  @Test
+  @DisplayName("Пустая БД: streamActive() и findAll(spec) ничего не возвращают")
   void whenEmptyDatabase_thenReturnsEmpty() {
-    assertThat(repository.findAllActive()).isEmpty();
+    try (Stream<Transaction> active = repository.streamActive()) {
+      assertThat(active).isEmpty();
+    }
     assertThat(repository.findAll(filterSpec(null, null, null, null, null))).isEmpty();
   }
 
   @Test
-  @DisplayName("Флаг deleted: findAllActive() возвращает только не удалённые")
-  void givenDeletedFlag_thenFindAllActiveFiltersDeleted() {
+  @DisplayName("Флаг deleted: streamActive() возвращает только не удалённые")
+  void givenDeletedFlag_thenStreamActiveFiltersDeleted() {
     Transaction kept =
         buildTx(LocalDateTime.now(), TransactionType.INCOME, TransactionStatus.NEW, "CAT");
     Transaction gone =
@@ -110,8 +145,9 @@ class TransactionRepositoryTest {
     em.persist(gone);
     em.flush();
 
-    List<Transaction> result = repository.findAllActive();
-    assertThat(result).hasSize(1).allMatch(tx -> !tx.getStatus().equals(TransactionStatus.DELETED));
+    try (Stream<Transaction> active = repository.streamActive()) {
+      assertThat(active).extracting(Transaction::getId).containsExactly(kept.getId());
+    }
   }
 
   @Test
@@ -182,4 +218,104 @@ class TransactionRepositoryTest {
     List<Transaction> all = repository.findAll(filterSpec(null, null, null, null, null));
     assertThat(all).containsExactlyInAnyOrder(inc, out);
   }
+
+  @Test
+  @DisplayName("Keyset-пагинация: страницы идут по убыванию даты без пропусков и повторов")
+  void givenCursor_whenFindResponsePage_thenReturnsNextRowsInOrder() {
+    LocalDateTime now = LocalDateTime.now().withNano(0);
+    for (int i = 0; i < 5; i++) {
+      em.persist(buildTx(now.minusDays(i), TransactionType.INCOME, TransactionStatus.NEW, "CAT"));
+    }
+    // Две записи с одинаковой датой: порядок между ними задаёт id
+    em.persist(buildTx(now.minusDays(2), TransactionType.INCOME, TransactionStatus.NEW, "CAT"));
+    em.flush();
+
+    Specification<Transaction> spec = filterSpec(null, null, null, null, null);
+    List<TransactionResponseDto> first = repository.findResponsePage(spec, null, 4);
+    TransactionResponseDto last = first.get(first.size() - 1);
+    List<TransactionResponseDto> second =
+        repository.findResponsePage(
+            spec, new TransactionCursor(last.getOperationDate(), last.getId()), 4);
+
+    assertThat(first).hasSize(4);
+    assertThat(second)
+        .hasSize(2)
+        .extracting(TransactionResponseDto::getId)
+        .doesNotContainAnyElementsOf(
+            first.stream().map(TransactionResponseDto::getId).toList());
+    assertThat(first.get(0).getOperationDate()).isEqualTo(now);
+    assertThat(second.get(1).getOperationDate()).isEqualTo(now.minusDays(4));
+  }
+
+  @Test
+  @DisplayName("Проекция: страницы строятся сразу в DTO в порядке keyset-пагинации")
+  void givenCursor_whenFindResponsePage_thenMatchesEntityOrder() {
+    LocalDateTime now = LocalDateTime.now().withNano(0);
+    for (int i = 0; i < 5; i++) {
+      em.persist(buildTx(now.minusDays(i), TransactionType.INCOME, TransactionStatus.NEW, "CAT"));
+    }
+    em.flush();
+    Specification<Transaction> spec = filterSpec(null, null, null, null, null);
+    List<UUID> expected;
+    try (Stream<Transaction> active = repository.streamActive()) {
+      expected = active.map(Transaction::getId).toList();
+    }
+    em.clear();
+
+    List<TransactionResponseDto> first = repository.findResponsePage(spec, null, 3);
+    TransactionResponseDto last = first.get(first.size() - 1);
+    List<TransactionResponseDto> second =
+        repository.findResponsePage(
+            spec, new TransactionCursor(last.getOperationDate(), last.getId()), 3);
+
+    assertThat(first).hasSize(3);
+    assertThat(second).hasSize(2);
+    assertThat(Stream.concat(first.stream(), second.stream()))
+        .extracting(TransactionResponseDto::getId)
+        .containsExactlyElementsOf(expected);
+    assertThat(first.get(0).getStatus()).isEqualTo("NEW");
+    assertThat(first.get(0).getAmount()).isEqualByComparingTo("100");
+    // Ни одна сущность не попала в контекст персистентности
+    assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("Проекция по идентификатору возвращает DTO без загрузки сущности")
+  void givenId_whenFindResponseById_thenReturnsDto() {
+    Transaction tx =
+        buildTx(LocalDateTime.now(), TransactionType.OUTCOME, TransactionStatus.NEW, "CAT");
+    em.persist(tx);
+    em.flush();
+    em.clear();
+
+    TransactionResponseDto dto = repository.findResponseById(tx.getId()).orElseThrow();
+
+    assertThat(dto.getTransactionType()).isEqualTo("OUTCOME");
+    assertThat(dto.getSenderBank()).isEqualTo("BankA");
+    assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    assertThat(repository.findResponseById(UUID.randomUUID())).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Потоковое чтение: только активные, по убыванию даты, вне контекста персистентности")
+  void givenTransactions_whenStreamActive_thenReturnsDetachedRowsInOrder() {
+    LocalDateTime now = LocalDateTime.now().withNano(0);
+    for (int i = 0; i < 3; i++) {
+      em.persist(buildTx(now.minusDays(i), TransactionType.INCOME, TransactionStatus.NEW, "CAT"));
+    }
+    em.persist(buildTx(now, TransactionType.INCOME, TransactionStatus.DELETED, "CAT"));
+    em.flush();
+    em.clear();
+
+    List<Transaction> streamed;
+    try (Stream<Transaction> rows = repository.streamActive()) {
+      streamed = rows.toList();
+    }
+
+    assertThat(streamed)
+        .extracting(Transaction::getOperationDate)
+        .containsExactly(now, now.minusDays(1), now.minusDays(2));
+    assertThat(streamed).noneMatch(em::contains);
+    assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+  }
 }
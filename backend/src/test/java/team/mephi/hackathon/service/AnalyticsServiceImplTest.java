@@ -0,0 +1,79 @@
+package team.mephi.hackathon.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import team.mephi.hackathon.dto.AnalyticsBucketDto;
+import team.mephi.hackathon.dto.AnalyticsDimension;
+import team.mephi.hackathon.dto.DashboardDto;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.exceptions.ValidationException;
+import team.mephi.hackathon.repository.TransactionAnalyticsRepository;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsServiceImplTest {
+
+  @Mock private TransactionAnalyticsRepository repository;
+
+  @Mock private ColumnarTransactionStore columnarStore;
+
+  @InjectMocks private AnalyticsServiceImpl service;
+
+  @Test
+  void getDashboard_mapsEveryDimensionFromSingleQuery() {
+    Map<AnalyticsDimension, List<AnalyticsBucketDto>> groups =
+        new EnumMap<>(AnalyticsDimension.class);
+    for (AnalyticsDimension dimension : AnalyticsDimension.values()) {
+      groups.put(dimension, List.of(new AnalyticsBucketDto(dimension.name(), 1, BigDecimal.ONE)));
+    }
+    when(repository.aggregate(any(), eq(EnumSet.allOf(AnalyticsDimension.class))))
+        .thenReturn(groups);
+
+    DashboardDto dashboard = service.getDashboard(new TransactionFilterDto());
+
+    assertThat(dashboard.getByWeek().get(0).getName()).isEqualTo("WEEK");
+    assertThat(dashboard.getByMonth().get(0).getName()).isEqualTo("MONTH");
+    assertThat(dashboard.getByQuarter().get(0).getName()).isEqualTo("QUARTER");
+    assertThat(dashboard.getByYear().get(0).getName()).isEqualTo("YEAR");
+    assertThat(dashboard.getByType().get(0).getName()).isEqualTo("TYPE");
+    assertThat(dashboard.getBySenderBank().get(0).getName()).isEqualTo("SENDER_BANK");
+    assertThat(dashboard.getByReceiverBank().get(0).getName()).isEqualTo("RECEIVER_BANK");
+    assertThat(dashboard.getByCategory().get(0).getName()).isEqualTo("CATEGORY");
+  }
+
+  @Test
+  void aggregate_whenColumnarStoreLoaded_doesNotQueryDatabase() {
+    List<AnalyticsBucketDto> months = List.of(new AnalyticsBucketDto("2025-04", 2, BigDecimal.TEN));
+    when(columnarStore.aggregate(any(), eq(EnumSet.of(AnalyticsDimension.MONTH))))
+        .thenReturn(Optional.of(Map.of(AnalyticsDimension.MONTH, months)));
+
+    assertThat(service.aggregate(AnalyticsDimension.MONTH, new TransactionFilterDto()))
+        .isEqualTo(months);
+    verifyNoInteractions(repository);
+  }
+
+  @Test
+  void aggregate_withInvalidStatus_throwsBeforeQuery() {
+    TransactionFilterDto filter = new TransactionFilterDto();
+    filter.setStatus("BOGUS");
+
+    assertThatThrownBy(() -> service.aggregate(AnalyticsDimension.MONTH, filter))
+        .isInstanceOf(ValidationException.class);
+    verifyNoInteractions(repository);
+  }
+}
@@ -4,16 +4,18 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.modelmapper.ModelMapper;
+import org.mapstruct.factory.Mappers;
 import team.mephi.hackathon.controller.CategoryService;
 import team.mephi.hackathon.dto.CategoryRequestDto;
 import team.mephi.hackathon.dto.CategoryResponseDto;
 import team.mephi.hackathon.entity.Category;
+import team.mephi.hackathon.mapper.CategoryMapper;
 import team.mephi.hackathon.repository.CategoryRepository;
 
 class CategoryServiceTest {
@@ -25,8 +27,53 @@ class CategoryServiceTest {
   @BeforeEach
   void setUp() {
     categoryRepository = mock(CategoryRepository.class);
-    ModelMapper modelMapper = new ModelMapper();
-    categoryService = new CategoryServiceImpl(categoryRepository, modelMapper);
+    CategoryMapper mapper = Mappers.getMapper(CategoryMapper.class);
+    categoryService =
+        new CategoryServiceImpl(
+            categoryRepository, mapper, new CategoryDictionary(categoryRepository, mapper));
+  }
+
+  @Test
+  void shouldServeCategoriesFromSnapshotUpdatedOnWrite() {
+    Category existing = new Category();
+    existing.setId(categoryId);
+    existing.setName("SALARY");
+    Category created = new Category();
+    created.setId(UUID.randomUUID());
+    created.setName("FOOD");
+    when(categoryRepository.findAll()).thenReturn(List.of(existing));
+    when(categoryRepository.save(any(Category.class))).thenReturn(created);
+
+    assertThat(categoryService.getCategories())
+        .extracting(CategoryResponseDto::getName)
+        .containsExactly("SALARY");
+    categoryService.createCategory(new CategoryRequestDto("FOOD"));
+
+    assertThat(categoryService.getCategories())
+        .extracting(CategoryResponseDto::getName)
+        .containsExactly("FOOD", "SALARY");
+    verify(categoryRepository, times(1)).findAll();
+  }
+
+  @Test
+  void shouldCheckDatabaseBeforeRejectingUnknownCategory() {
+    CategoryMapper mapper = Mappers.getMapper(CategoryMapper.class);
+    CategoryDictionary dictionary = new CategoryDictionary(categoryRepository, mapper);
+    Category remote = new Category();
+    remote.setId(UUID.randomUUID());
+    remote.setName("FOOD");
+    when(categoryRepository.findAll()).thenReturn(List.of(), List.of(remote));
+    when(categoryRepository.existsByName("FOOD")).thenReturn(true);
+    when(categoryRepository.existsByName("UNKNOWN")).thenReturn(false);
+
+    assertThat(dictionary.contains("FOOD")).isTrue();
+    assertThat(dictionary.contains("FOOD")).isTrue();
+    assertThat(dictionary.contains("UNKNOWN")).isFalse();
+    assertThat(dictionary.contains("UNKNOWN")).isFalse();
+
+    verify(categoryRepository, times(1)).existsByName("FOOD");
+    verify(categoryRepository, times(1)).existsByName("UNKNOWN");
+    verify(categoryRepository, times(2)).findAll();
   }
 
   @Test
@@ -47,11 +94,12 @@ class CategoryServiceTest {
 
   @Test
   void shouldThrowExceptionWhenCreatingWithNullName() {
-    CategoryRequestDto dto = new CategoryRequestDto("");
+    CategoryRequestDto dto = new CategoryRequestDto(null);
 
     assertThatThrownBy(() -> categoryService.createCategory(dto))
-        .isInstanceOf(IllegalArgumentException.class)
-        .hasMessageContaining("source cannot be null");
+        .isInstanceOf(NullPointerException.class)
+        .hasMessageContaining("name is marked non-null");
+    verify(categoryRepository, never()).save(any(Category.class));
   }
 
   @Test
@@ -0,0 +1,287 @@
+package team.mephi.hackathon.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static team.mephi.hackathon.dto.AnalyticsDimension.CATEGORY;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import team.mephi.hackathon.dto.AnalyticsBucketDto;
+import team.mephi.hackathon.dto.AnalyticsDimension;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.entity.PersonType;
+import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.entity.TransactionStatus;
+import team.mephi.hackathon.entity.TransactionType;
+import team.mephi.hackathon.repository.TransactionAnalyticsRepository;
+
+/** Тесты копии транзакций в памяти: результаты должны совпадать с агрегатами БД. */
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Копия транзакций в памяти для аналитики")
+class ColumnarTransactionStoreTest {
+
+  @Container
+  static PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>("postgres:15")
+          .withDatabaseName("testdb")
+          .withUsername("test")
+          .withPassword("test");
+
+  @DynamicPropertySource
+  static void configure(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private ColumnarTransactionStore store;
+
+  private TransactionAnalyticsRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    store = store("");
+    repository = new TransactionAnalyticsRepository(new NamedParameterJdbcTemplate(jdbcTemplate));
+    insert("2024-12-30T10:00", "INCOME", 100, "NEW", "Alpha", "Beta", "Food");
+    insert("2025-01-15T10:00", "OUTCOME", 50.25, "NEW", "Alpha", "Gamma", "Rent");
+    insert("2025-04-01T10:00", "INCOME", 200, "COMPLETED", "Beta", "Beta", "Food");
+    insert("2025-04-02T10:00", "INCOME", 999, "DELETED", "Alpha", "Beta", "Food");
+  }
+
+  @AfterEach
+  void cleanUp() {
+    jdbcTemplate.update("DELETE FROM transactions");
+  }
+
+  @Test
+  @DisplayName("Без загрузки копия недоступна и агрегаты считает БД")
+  void aggregate_beforeReload_isEmpty() {
+    assertThat(store.aggregate(new TransactionFilterDto(), EnumSet.of(AnalyticsDimension.YEAR)))
+        .isEmpty();
+  }
+
+  @Test
+  @DisplayName("Агрегаты по всем признакам совпадают с агрегатами БД")
+  void aggregate_matchesDatabase() {
+    store.refresh();
+    TransactionFilterDto amountFilter = new TransactionFilterDto();
+    amountFilter.setAmountMin(new BigDecimal("50.25"));
+    amountFilter.setSenderBank("Alpha");
+    TransactionFilterDto dateFilter = new TransactionFilterDto();
+    dateFilter.setDateFrom(LocalDateTime.of(2025, 1, 1, 0, 0));
+    dateFilter.setDateTo(LocalDateTime.of(2025, 4, 1, 10, 0));
+
+    for (TransactionFilterDto filter :
+        List.of(new TransactionFilterDto(), amountFilter, dateFilter)) {
+      assertThat(store.aggregate(filter, EnumSet.allOf(AnalyticsDimension.class)))
+          .contains(repository.aggregate(filter, EnumSet.allOf(AnalyticsDimension.class)));
+    }
+  }
+
+  @Test
+  @DisplayName("Значение фильтра, которого нет в словаре, даёт пустые группы")
+  void aggregate_unknownFilterValue_returnsEmptyGroups() {
+    store.refresh();
+    TransactionFilterDto filter = new TransactionFilterDto();
+    filter.setCategory("Travel");
+
+    assertThat(store.aggregate(filter, EnumSet.of(AnalyticsDimension.CATEGORY)))
+        .contains(Map.of(AnalyticsDimension.CATEGORY, List.of()));
+  }
+
+  @Test
+  @DisplayName("Сохранённые сервисом изменения сразу попадают в копию")
+  void saved_updatesLoadedCopy() {
+    store.refresh();
+    Transaction created = transaction("Travel", new BigDecimal("10.10"), TransactionStatus.NEW);
+    Transaction deleted = transaction("Travel", new BigDecimal("5"), TransactionStatus.NEW);
+    store.savedAll(List.of(created, deleted));
+    deleted.setStatus(TransactionStatus.DELETED);
+    store.saved(deleted);
+
+    assertThat(categories())
+        .extracting(AnalyticsBucketDto::getName, AnalyticsBucketDto::getCount)
+        .containsExactly(tuple("Food", 2L), tuple("Rent", 1L), tuple("Travel", 1L));
+    assertThat(categories().get(2).getAmount()).isEqualByComparingTo("10.10");
+  }
+
+  @Test
+  @DisplayName("Копия, не помещающаяся в бюджет памяти, не используется")
+  void refresh_overBudget_fallsBackToDatabase() {
+    store.memoryBudget = DataSize.ofBytes(ColumnarTable.BYTES_PER_ROW * 2);
+    store.refresh();
+
+    assertThat(store.aggregate(new TransactionFilterDto(), EnumSet.of(AnalyticsDimension.YEAR)))
+        .isEmpty();
+  }
+
+  @Test
+  @DisplayName("Обновление дочитывает изменения, сделанные в обход сервиса")
+  void refresh_appliesChangesMadeInDatabase() {
+    store.refresh();
+    jdbcTemplate.update("UPDATE transactions SET category = 'Travel' WHERE category = 'Rent'");
+    insert("2025-04-01T12:00", "OUTCOME", 1.5, "NEW", "Gamma", "Alpha", "Food");
+
+    store.refresh();
+
+    assertThat(store.aggregate(new TransactionFilterDto(), EnumSet.allOf(AnalyticsDimension.class)))
+        .contains(
+            repository.aggregate(
+                new TransactionFilterDto(), EnumSet.allOf(AnalyticsDimension.class)));
+  }
+
+  @Test
+  @DisplayName("Обновление находит изменения, не меняющие дневных итогов")
+  void refresh_appliesChangesKeepingDailyTotals() {
+    insert("2025-01-15T18:00", "OUTCOME", 10, "NEW", "Alpha", "Gamma", "Rent");
+    store.refresh();
+    // Суммы двух транзакций одного дня и группы меняются местами, а дата сдвигается внутри дня
+    jdbcTemplate.update(
+        "UPDATE transactions SET amount = CASE WHEN amount = 10 THEN 50.25 ELSE 10 END,"
+            + " operation_date = operation_date + interval '1 hour'"
+            + " WHERE operation_date >= '2025-01-15' AND operation_date < '2025-01-16'");
+
+    store.refresh();
+
+    TransactionFilterDto morning = new TransactionFilterDto();
+    morning.setDateFrom(LocalDateTime.of(2025, 1, 15, 0, 0));
+    morning.setDateTo(LocalDateTime.of(2025, 1, 15, 10, 30));
+    TransactionFilterDto large = new TransactionFilterDto();
+    large.setDateFrom(LocalDateTime.of(2025, 1, 15, 0, 0));
+    large.setDateTo(LocalDateTime.of(2025, 1, 15, 12, 0));
+    large.setAmountMin(new BigDecimal("50"));
+    for (TransactionFilterDto filter : List.of(new TransactionFilterDto(), morning, large)) {
+      assertThat(store.aggregate(filter, EnumSet.allOf(AnalyticsDimension.class)))
+          .contains(repository.aggregate(filter, EnumSet.allOf(AnalyticsDimension.class)));
+    }
+  }
+
+  @Test
+  @DisplayName("Строки отсоединённой секции убираются из копии")
+  void detached_removesMonth() {
+    store.refresh();
+
+    store.detached(YearMonth.of(2025, 1));
+
+    assertThat(categories())
+        .extracting(AnalyticsBucketDto::getName, AnalyticsBucketDto::getCount)
+        .containsExactly(tuple("Food", 2L));
+  }
+
+  @Test
+  @DisplayName("Копия восстанавливается из снимка и дополняется изменениями после него")
+  void refresh_restoresSnapshot(@TempDir Path directory) {
+    String snapshot = directory.resolve("analytics.snapshot").toString();
+    store = store(snapshot);
+    store.refresh();
+    insert("2025-06-01T10:00", "INCOME", 7, "NEW", "Alpha", "Beta", "Travel");
+    jdbcTemplate.update("UPDATE transactions SET amount = 60 WHERE category = 'Rent'");
+
+    ColumnarTransactionStore restarted = store(snapshot);
+    restarted.refresh();
+
+    assertThat(restarted.aggregate(new TransactionFilterDto(), EnumSet.of(CATEGORY)))
+        .contains(repository.aggregate(new TransactionFilterDto(), EnumSet.of(CATEGORY)));
+  }
+
+  @Test
+  @DisplayName("Повреждённый снимок не используется, копия загружается из БД")
+  void refresh_corruptSnapshot_loadsFromDatabase(@TempDir Path directory) throws IOException {
+    Path snapshot = directory.resolve("analytics.snapshot");
+    Files.write(snapshot, new byte[64]);
+    store = store(snapshot.toString());
+
+    store.refresh();
+
+    assertThat(store.aggregate(new TransactionFilterDto(), EnumSet.of(CATEGORY)))
+        .contains(repository.aggregate(new TransactionFilterDto(), EnumSet.of(CATEGORY)));
+  }
+
+  private ColumnarTransactionStore store(String snapshotPath) {
+    ColumnarTransactionStore created =
+        new ColumnarTransactionStore(jdbcTemplate, new TransactionTemplate(transactionManager));
+    created.enabled = true;
+    created.memoryBudget = DataSize.ofMegabytes(16);
+    created.snapshotPath = snapshotPath;
+    return created;
+  }
+
+  private List<AnalyticsBucketDto> categories() {
+    return store
+        .aggregate(new TransactionFilterDto(), EnumSet.of(AnalyticsDimension.CATEGORY))
+        .orElseThrow()
+        .get(AnalyticsDimension.CATEGORY);
+  }
+
+  private static Transaction transaction(
+      String category, BigDecimal amount, TransactionStatus status) {
+    Transaction transaction = new Transaction();
+    transaction.setId(UUID.randomUUID());
+    transaction.setPersonType(PersonType.LEGAL);
+    transaction.setOperationDate(LocalDateTime.of(2025, 5, 1, 12, 0));
+    transaction.setTransactionType(TransactionType.INCOME);
+    transaction.setAmount(amount);
+    transaction.setStatus(status);
+    transaction.setSenderBank("Alpha");
+    transaction.setReceiverBank("Beta");
+    transaction.setCategory(category);
+    return transaction;
+  }
+
+  private void insert(
+      String date,
+      String type,
+      double amount,
+      String status,
+      String senderBank,
+      String receiverBank,
+      String category) {
+    jdbcTemplate.update(
+        "INSERT INTO transactions (id, person_type, operation_date, transaction_type, amount,"
+            + " status, sender_bank, account, receiver_bank, receiver_account, category)"
+            + " VALUES (gen_random_uuid(), 'LEGAL', ?, ?, ?, ?, ?, '1', ?, '2', ?)",
+        LocalDateTime.parse(date),
+        type,
+        amount,
+        status,
+        senderBank,
+        receiverBank,
+        category);
+  }
+}
@@ -0,0 +1,169 @@
+package team.mephi.hackathon.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mapstruct.factory.Mappers;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import team.mephi.hackathon.controller.ValidationService;
+import team.mephi.hackathon.dto.TransactionCursor;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.dto.TransactionPageDto;
+import team.mephi.hackathon.dto.TransactionStatusChangeDto;
+import team.mephi.hackathon.dto.TransactionStatusResultDto;
+import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.entity.TransactionStatus;
+import team.mephi.hackathon.exceptions.EntityNotFoundException;
+import team.mephi.hackathon.exceptions.ValidationException;
+import team.mephi.hackathon.mapper.TransactionMapper;
+import team.mephi.hackathon.repository.R2dbcTransactionRepository;
+import team.mephi.hackathon.repository.TransactionStatusRepository.StatusUpdate;
+
+@ExtendWith(MockitoExtension.class)
+class R2dbcTransactionServiceImplTest {
+
+  @Mock private R2dbcTransactionRepository repository;
+
+  @Mock private ValidationService validationService;
+
+  @Mock private TransactionalOperator transactionalOperator;
+
+  @Mock private TransactionChangeFeed changeFeed;
+
+  private R2dbcTransactionServiceImpl service;
+
+  @BeforeEach
+  void setup() {
+    lenient()
+        .when(transactionalOperator.transactional(any(Mono.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    service =
+        new R2dbcTransactionServiceImpl(
+            repository,
+            validationService,
+            Mappers.getMapper(TransactionMapper.class),
+            transactionalOperator,
+            changeFeed);
+  }
+
+  @Test
+  void searchTransactions_returnsNextCursorWhenMoreRowsExist() {
+    TransactionFilterDto filter = new TransactionFilterDto();
+    filter.setLimit(2);
+    when(repository.findPage(eq(filter), isNull(), eq(3)))
+        .thenReturn(Flux.just(transaction(3), transaction(2), transaction(1)));
+
+    TransactionPageDto page = service.searchTransactions(filter).block();
+
+    assertThat(page.getItems()).hasSize(2);
+    assertThat(page.getNext()).isNotNull();
+  }
+
+  @Test
+  void searchTransactions_lastPageHasNoCursor() {
+    TransactionFilterDto filter = new TransactionFilterDto();
+    when(repository.findPage(
+            eq(filter), isNull(), eq(TransactionServiceImpl.DEFAULT_PAGE_SIZE + 1)))
+        .thenReturn(Flux.just(transaction(1)));
+
+    TransactionPageDto page = service.searchTransactions(filter).block();
+
+    assertThat(page.getItems()).hasSize(1);
+    assertThat(page.getNext()).isNull();
+  }
+
+  @Test
+  void streamTransactions_mapsEveryRowWithoutLimit() {
+    TransactionCursor cursor = new TransactionCursor(LocalDateTime.now(), UUID.randomUUID());
+    TransactionFilterDto filter = new TransactionFilterDto();
+    filter.setCursor(cursor.encode());
+    when(repository.findAll(filter, cursor))
+        .thenReturn(Flux.just(transaction(3), transaction(2), transaction(1)));
+
+    assertThat(service.streamTransactions(filter).collectList().block()).hasSize(3);
+  }
+
+  @Test
+  void getTransaction_notFound_throws() {
+    UUID id = UUID.randomUUID();
+    when(repository.findById(id)).thenReturn(Mono.empty());
+
+    assertThatThrownBy(() -> service.getTransaction(id).block())
+        .isInstanceOf(EntityNotFoundException.class);
+  }
+
+  @Test
+  void deleteTransaction_marksDeleted() {
+    Transaction entity = transaction(1);
+    when(repository.findById(entity.getId())).thenReturn(Mono.just(entity));
+    when(repository.update(entity)).thenReturn(Mono.just(entity));
+
+    service.deleteTransaction(entity.getId()).block();
+
+    assertThat(entity.getStatus()).isEqualTo(TransactionStatus.DELETED);
+    verify(changeFeed).deleted(entity.getId());
+  }
+
+  @Test
+  void deleteTransaction_completed_throwsValidation() {
+    Transaction entity = transaction(1);
+    entity.setStatus(TransactionStatus.COMPLETED);
+    when(repository.findById(entity.getId())).thenReturn(Mono.just(entity));
+
+    assertThatThrownBy(() -> service.deleteTransaction(entity.getId()).block())
+        .isInstanceOf(ValidationException.class);
+    verify(repository, never()).update(any());
+    verify(changeFeed, never()).deleted(any());
+  }
+
+  @Test
+  void changeStatus_byFilter_updatesFoundTransactionsInOneStatement() {
+    Transaction entity = transaction(1);
+    TransactionFilterDto filter = new TransactionFilterDto();
+    when(repository.findPage(eq(filter), isNull(), eq(TransactionServiceImpl.STATUS_CHUNK_SIZE)))
+        .thenReturn(Flux.just(entity));
+    when(repository.updateStatus(
+            List.of(entity.getId()), TransactionStatus.CONFIRMED, Set.of(TransactionStatus.NEW)))
+        .thenReturn(
+            Mono.just(List.of(new StatusUpdate(entity.getId(), TransactionStatus.NEW, entity))));
+
+    List<TransactionStatusResultDto> results =
+        service
+            .changeStatus(new TransactionStatusChangeDto(null, filter, "CONFIRMED"))
+            .collectList()
+            .block();
+
+    assertThat(results)
+        .extracting(TransactionStatusResultDto::getResult)
+        .containsExactly(TransactionStatusResultDto.Result.UPDATED);
+    verify(changeFeed).updatedAll(any());
+  }
+
+  private static Transaction transaction(int day) {
+    Transaction entity = new Transaction();
+    entity.setId(UUID.randomUUID());
+    entity.setOperationDate(LocalDateTime.of(2025, 1, day, 0, 0));
+    entity.setAmount(BigDecimal.TEN);
+    entity.setStatus(TransactionStatus.NEW);
+    return entity;
+  }
+}
@@ -0,0 +1,282 @@
+package team.mephi.hackathon.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.stubbing.Stubber;
+import team.mephi.hackathon.controller.ReportService;
+import team.mephi.hackathon.dto.ReportFormat;
+import team.mephi.hackathon.dto.ReportJobDto;
+import team.mephi.hackathon.dto.ReportJobStatus;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.exceptions.EntityNotFoundException;
+import team.mephi.hackathon.exceptions.ReportNotReadyException;
+import team.mephi.hackathon.exceptions.ValidationException;
+import team.mephi.hackathon.exceptions.WorkloadRejectedException;
+import team.mephi.hackathon.execution.Bulkhead;
+import team.mephi.hackathon.execution.Workload;
+import team.mephi.hackathon.execution.WorkloadExecutor;
+
+class ReportJobServiceImplTest {
+
+  private static final byte[] CONTENT = {1, 2, 3, 4};
+
+  @TempDir Path directory;
+
+  private final ReportService reportService = mock(ReportService.class);
+
+  private WorkloadExecutor executor;
+
+  private ReportJobServiceImpl service;
+
+  @BeforeEach
+  void setUp() {
+    createService(4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.close();
+  }
+
+  @Test
+  void submit_writesReportToFile() throws Exception {
+    writes(CONTENT).when(reportService).writePdfReport(any(), any());
+
+    ReportJobDto job = service.submit(ReportFormat.PDF, null);
+    ReportJobDto done = awaitFinished(job.getId());
+
+    assertThat(done.getStatus()).isEqualTo(ReportJobStatus.READY);
+    assertThat(done.getSize()).isEqualTo(CONTENT.length);
+    Path file = service.getResultFile(job.getId());
+    assertThat(file)
+        .hasFileName(ReportJobServiceImpl.FILE_PREFIX + job.getId() + ".pdf")
+        .hasBinaryContent(CONTENT);
+    assertThat(
+            directory.resolve(
+                ReportJobServiceImpl.FILE_PREFIX
+                    + job.getId()
+                    + "."
+                    + ReportJobServiceImpl.PART_EXTENSION))
+        .doesNotExist();
+  }
+
+  @Test
+  void submit_whileSameReportIsRunning_returnsExistingJob() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    blocksUntil(release).when(reportService).writeExcelReport(any(), any());
+
+    ReportJobDto first = service.submit(ReportFormat.EXCEL, null);
+    ReportJobDto second = service.submit(ReportFormat.EXCEL, null);
+    release.countDown();
+
+    assertThat(second.getId()).isEqualTo(first.getId());
+    assertThat(awaitFinished(first.getId()).getStatus()).isEqualTo(ReportJobStatus.READY);
+    verify(reportService, times(1)).writeExcelReport(any(), any());
+  }
+
+  @Test
+  void submit_withDifferentFilters_createsSeparateJobs() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    blocksUntil(release).when(reportService).writeExcelReport(any(), any());
+    TransactionFilterDto alpha = new TransactionFilterDto();
+    alpha.setSenderBank("Alpha");
+    alpha.setAmountMin(new BigDecimal("100.00"));
+    TransactionFilterDto samePage = new TransactionFilterDto();
+    samePage.setSenderBank("Alpha");
+    samePage.setAmountMin(new BigDecimal("100"));
+    samePage.setLimit(10);
+    TransactionFilterDto beta = new TransactionFilterDto();
+    beta.setSenderBank("Beta");
+
+    ReportJobDto first = service.submit(ReportFormat.EXCEL, alpha);
+    ReportJobDto same = service.submit(ReportFormat.EXCEL, samePage);
+    ReportJobDto other = service.submit(ReportFormat.EXCEL, beta);
+    release.countDown();
+
+    assertThat(same.getId()).isEqualTo(first.getId());
+    assertThat(other.getId()).isNotEqualTo(first.getId());
+    assertThat(awaitFinished(first.getId()).getStatus()).isEqualTo(ReportJobStatus.READY);
+    assertThat(awaitFinished(other.getId()).getStatus()).isEqualTo(ReportJobStatus.READY);
+  }
+
+  @Test
+  void submit_withInvalidFilter_throwsValidationException() {
+    TransactionFilterDto filter = new TransactionFilterDto();
+    filter.setStatus("BOGUS");
+
+    assertThatThrownBy(() -> service.submit(ReportFormat.PDF, filter))
+        .isInstanceOf(ValidationException.class);
+    verifyNoInteractions(reportService);
+  }
+
+  @Test
+  void submit_whenReportPoolIsFull_rejects() throws Exception {
+    executor.close();
+    createService(0);
+    CountDownLatch release = new CountDownLatch(1);
+    blocksUntil(release).when(reportService).writePdfReport(any(), any());
+
+    ReportJobDto running = service.submit(ReportFormat.PDF, null);
+    awaitStarted(running.getId());
+
+    assertThatThrownBy(() -> service.submit(ReportFormat.EXCEL, null))
+        .isInstanceOf(WorkloadRejectedException.class);
+    release.countDown();
+    assertThat(awaitFinished(running.getId()).getStatus()).isEqualTo(ReportJobStatus.READY);
+  }
+
+  @Test
+  void submit_whenGenerationFails_marksJobFailedAndRemovesPartialFile() throws Exception {
+    doThrow(new IOException("disk full")).when(reportService).writePdfReport(any(), any());
+
+    ReportJobDto job = service.submit(ReportFormat.PDF, null);
+    ReportJobDto done = awaitFinished(job.getId());
+
+    assertThat(done.getStatus()).isEqualTo(ReportJobStatus.FAILED);
+    assertThat(done.getError()).isEqualTo("disk full");
+    assertThatThrownBy(() -> service.getResultFile(job.getId()))
+        .isInstanceOf(ReportNotReadyException.class);
+    try (Stream<Path> files = Files.list(directory)) {
+      assertThat(files).isEmpty();
+    }
+  }
+
+  @Test
+  void getResultFile_whileRunning_throwsNotReady() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    blocksUntil(release).when(reportService).writePdfReport(any(), any());
+
+    ReportJobDto job = service.submit(ReportFormat.PDF, null);
+
+    assertThatThrownBy(() -> service.getResultFile(job.getId()))
+        .isInstanceOf(ReportNotReadyException.class)
+        .hasMessage("Отчёт ещё формируется");
+    release.countDown();
+    awaitFinished(job.getId());
+  }
+
+  @Test
+  void getJob_withUnknownId_throwsNotFound() {
+    assertThatThrownBy(() -> service.getJob(UUID.randomUUID()))
+        .isInstanceOf(EntityNotFoundException.class);
+  }
+
+  @Test
+  void evictExpired_removesOldJobsWithFiles() throws Exception {
+    writes(CONTENT).when(reportService).writePdfReport(any(), any());
+    ReportJobDto job = service.submit(ReportFormat.PDF, null);
+    awaitFinished(job.getId());
+    Path file = service.getResultFile(job.getId());
+
+    service.evictExpired(Instant.now());
+    assertThat(service.getJob(job.getId())).isNotNull();
+
+    service.evictExpired(Instant.now().plus(Duration.ofHours(2)));
+    assertThatThrownBy(() -> service.getJob(job.getId()))
+        .isInstanceOf(EntityNotFoundException.class);
+    // Файл остаётся до следующей очистки, чтобы начатая отдача успела его открыть
+    assertThat(file).exists();
+
+    service.evictExpired(Instant.now().plus(Duration.ofHours(2)));
+    assertThat(file).doesNotExist();
+  }
+
+  @Test
+  void getResultFile_whenFileWasRemoved_throwsNotFound() throws Exception {
+    writes(CONTENT).when(reportService).writePdfReport(any(), any());
+    ReportJobDto job = service.submit(ReportFormat.PDF, null);
+    awaitFinished(job.getId());
+    Files.delete(service.getResultFile(job.getId()));
+
+    assertThatThrownBy(() -> service.getResultFile(job.getId()))
+        .isInstanceOf(EntityNotFoundException.class);
+  }
+
+  @Test
+  void removeOrphanedFiles_deletesOnlyReportFiles() throws IOException {
+    String prefix = ReportJobServiceImpl.FILE_PREFIX;
+    Path orphan = Files.createFile(directory.resolve(prefix + UUID.randomUUID() + ".xlsx"));
+    Path part = Files.createFile(directory.resolve(prefix + UUID.randomUUID() + ".part"));
+    Path other = Files.createFile(directory.resolve("notes.txt"));
+    Path foreign = Files.createFile(directory.resolve(UUID.randomUUID() + ".pdf"));
+    Path similar = Files.createFile(directory.resolve(prefix + "draft.pdf"));
+
+    service.removeOrphanedFiles();
+
+    assertThat(orphan).doesNotExist();
+    assertThat(part).doesNotExist();
+    assertThat(other).exists();
+    assertThat(foreign).exists();
+    assertThat(similar).exists();
+  }
+
+  private void createService(int reportQueue) {
+    executor =
+        new WorkloadExecutor(
+            new Bulkhead(Workload.CRUD, 1, 1),
+            new Bulkhead(Workload.SEARCH, 1, 1),
+            new Bulkhead(Workload.REPORT, 1, reportQueue),
+            new Bulkhead(Workload.STREAM, 1, 1),
+            new Bulkhead(Workload.IMPORT, 1, 1));
+    service = new ReportJobServiceImpl(reportService, executor);
+    service.directory = directory;
+    service.ttl = Duration.ofHours(1);
+  }
+
+  private static Stubber writes(byte[] content) {
+    return doAnswer(
+        invocation -> {
+          invocation.<OutputStream>getArgument(1).write(content);
+          return null;
+        });
+  }
+
+  private static Stubber blocksUntil(CountDownLatch release) {
+    return doAnswer(
+        invocation -> {
+          release.await(5, TimeUnit.SECONDS);
+          invocation.<OutputStream>getArgument(1).write(CONTENT);
+          return null;
+        });
+  }
+
+  private void awaitStarted(UUID id) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (service.getJob(id).getStartedAt() == null && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  private ReportJobDto awaitFinished(UUID id) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    ReportJobDto job = service.getJob(id);
+    while (job.getFinishedAt() == null && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+      job = service.getJob(id);
+    }
+    return job;
+  }
+}
@@ -3,37 +3,58 @@ package team.mephi.hackathon.service;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.apache.fontbox.ttf.TrueTypeFont;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import team.mephi.hackathon.config.ReportConfig;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.dto.TransactionResponseDto;
 import team.mephi.hackathon.entity.PersonType;
-import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.repository.TransactionRepository;
 
 class ReportServiceImplTest {
 
-  private final ReportServiceImpl reportService = new ReportServiceImpl();
+  private static TrueTypeFont font;
+
+  private ReportServiceImpl reportService;
+
+  @BeforeAll
+  static void loadFont() throws IOException {
+    font = new ReportConfig().reportFont();
+  }
+
+  @AfterAll
+  static void closeFont() throws IOException {
+    font.close();
+  }
+
+  @BeforeEach
+  void setUp() {
+    reportService = new ReportServiceImpl(Mockito.mock(TransactionRepository.class), font);
+  }
 
   @Test
   void generatePdfReport_withSingleTransaction_returnsValidPdf() throws IOException {
-    Transaction transaction = new Transaction();
-    transaction.setId(UUID.randomUUID());
-    transaction.setAmount(BigDecimal.valueOf(100.0));
-    transaction.setComment("Test transaction");
-    transaction.setOperationDate(LocalDateTime.now());
-    List<Transaction> transactions = List.of(transaction);
-
-    byte[] pdfBytes = reportService.generatePdfReport(transactions);
+    byte[] pdfBytes = writePdf(List.of(transaction("Test transaction")));
 
     assertNotNull(pdfBytes);
     assertTrue(pdfBytes.length > 0);
@@ -48,23 +69,77 @@ class ReportServiceImplTest {
 
   @Test
   void generatePdfReport_withEmptyList_returnsValidPdf() throws IOException {
-    byte[] pdfBytes = reportService.generatePdfReport(Collections.emptyList());
+    byte[] pdfBytes = writePdf(List.of());
 
     assertNotNull(pdfBytes);
     assertTrue(pdfBytes.length > 0);
     assertTrue(new String(pdfBytes, StandardCharsets.US_ASCII).startsWith("%PDF"));
   }
 
+  @Test
+  void writePdf_withCyrillicText_rendersIt() throws IOException {
+    TransactionResponseDto transaction = transaction("Зарплата за март");
+    transaction.setSenderBank("Сбербанк");
+
+    try (PDDocument document = PDDocument.load(writePdf(List.of(transaction)))) {
+      String text = new PDFTextStripper().getText(document);
+      assertTrue(text.contains("Зарплата за март"));
+      assertTrue(text.contains("Сбербанк"));
+    }
+  }
+
+  @Test
+  void writePdf_withManyRows_repeatsHeaderOnEveryPage() throws IOException {
+    List<TransactionResponseDto> transactions =
+        IntStream.range(0, 200).mapToObj(i -> transaction("Row " + i)).toList();
+
+    try (PDDocument document = PDDocument.load(writePdf(transactions))) {
+      assertTrue(document.getNumberOfPages() > 1);
+      PDFTextStripper stripper = new PDFTextStripper();
+      for (int page = 1; page <= document.getNumberOfPages(); page++) {
+        stripper.setStartPage(page);
+        stripper.setEndPage(page);
+        // Заголовок узкого столбца переносится, поэтому пробельные символы нормализуются
+        assertTrue(stripper.getText(document).replaceAll("\\s+", " ").contains("Receiver phone"));
+      }
+      stripper.setStartPage(1);
+      stripper.setEndPage(document.getNumberOfPages());
+      String text = stripper.getText(document);
+      assertTrue(text.contains("Row 0"));
+      assertTrue(text.contains("Row 199"));
+    }
+  }
+
+  @Test
+  void writePdf_withLongComment_wrapsItWithinColumn() throws IOException {
+    String comment = "Оплата по договору поставки оборудования ".repeat(5).trim();
+
+    try (PDDocument document = PDDocument.load(writePdf(List.of(transaction(comment))))) {
+      String text = new PDFTextStripper().getText(document);
+      assertFalse(text.contains(comment));
+      assertTrue(text.replaceAll("\\s+", " ").contains(comment));
+    }
+  }
+
+  @Test
+  void writePdfReport_readsActiveTransactionsFromRepository() throws IOException {
+    TransactionRepository repository = Mockito.mock(TransactionRepository.class);
+    Mockito.when(repository.streamResponses(Mockito.any()))
+        .thenReturn(Stream.of(transaction("Streamed")));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    new ReportServiceImpl(repository, font).writePdfReport(new TransactionFilterDto(), out);
+
+    try (PDDocument document = PDDocument.load(out.toByteArray())) {
+      assertTrue(new PDFTextStripper().getText(document).contains("Streamed"));
+    }
+  }
+
   @Test
   void generateExcelReport_withSingleTransaction_returnsValidExcel() throws IOException {
-    Transaction transaction = new Transaction();
-    transaction.setPersonType(PersonType.LEGAL);
-    transaction.setAmount(BigDecimal.valueOf(100.0));
-    transaction.setComment("Test transaction");
-    transaction.setOperationDate(LocalDateTime.now());
-    List<Transaction> transactions = List.of(transaction);
+    TransactionResponseDto transaction = transaction("Test transaction");
 
-    byte[] excelBytes = reportService.generateExcelReport(transactions);
+    byte[] excelBytes = writeExcel(List.of(transaction), ReportServiceImpl.MAX_DATA_ROWS_PER_SHEET);
 
     assertNotNull(excelBytes);
     assertTrue(excelBytes.length > 0);
@@ -88,14 +163,14 @@ class ReportServiceImplTest {
       assertEquals("Receiver phone", headerRow.getCell(12).getStringCellValue());
 
       Row dataRow = sheet.getRow(1);
-      assertEquals(transaction.getPersonType().toString(), dataRow.getCell(0).getStringCellValue());
+      assertEquals(transaction.getPersonType(), dataRow.getCell(0).getStringCellValue());
       assertEquals(transaction.getComment(), dataRow.getCell(3).getStringCellValue());
     }
   }
 
   @Test
   void generateExcelReport_withEmptyList_returnsValidExcel() throws IOException {
-    byte[] excelBytes = reportService.generateExcelReport(Collections.emptyList());
+    byte[] excelBytes = writeExcel(List.of(), ReportServiceImpl.MAX_DATA_ROWS_PER_SHEET);
 
     assertNotNull(excelBytes);
     assertTrue(excelBytes.length > 0);
@@ -121,4 +196,75 @@ class ReportServiceImplTest {
       assertNull(sheet.getRow(1)); // Только заголовки, данных нет
     }
   }
+
+  @Test
+  void writeExcelReport_readsActiveTransactionsFromRepository() throws IOException {
+    TransactionRepository repository = Mockito.mock(TransactionRepository.class);
+    Mockito.when(repository.streamResponses(Mockito.any()))
+        .thenReturn(Stream.of(transaction("Streamed")));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    new ReportServiceImpl(repository, font).writeExcelReport(new TransactionFilterDto(), out);
+
+    try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+      assertEquals("Streamed", workbook.getSheetAt(0).getRow(1).getCell(3).getStringCellValue());
+    }
+  }
+
+  @Test
+  void writeExcel_whenSheetIsFull_continuesOnNewSheetWithHeader() throws IOException {
+    List<TransactionResponseDto> transactions =
+        Stream.of("1", "2", "3", "4", "5").map(ReportServiceImplTest::transaction).toList();
+
+    byte[] excelBytes = writeExcel(transactions, 2);
+
+    try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(excelBytes))) {
+      assertEquals(3, workbook.getNumberOfSheets());
+      assertEquals("Transactions", workbook.getSheetName(0));
+      assertEquals("Transactions 2", workbook.getSheetName(1));
+      Sheet last = workbook.getSheetAt(2);
+      assertEquals("ID", last.getRow(0).getCell(0).getStringCellValue());
+      assertEquals("5", last.getRow(1).getCell(3).getStringCellValue());
+      assertNull(last.getRow(2));
+    }
+  }
+
+  @Test
+  void writeExcel_sizesColumnsFromSampledContent() throws IOException {
+    String comment = "Очень длинный комментарий к переводу";
+
+    byte[] excelBytes = writeExcel(List.of(transaction(comment)), 10);
+
+    try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(excelBytes))) {
+      Sheet sheet = workbook.getSheetAt(0);
+      // Ширина по самому длинному значению столбца, включая заголовок, плюс два символа
+      assertEquals((comment.length() + 2) * 256, sheet.getColumnWidth(3));
+      assertEquals(("LEGAL".length() + 2) * 256, sheet.getColumnWidth(0));
+      assertEquals(("Receiver phone".length() + 2) * 256, sheet.getColumnWidth(12));
+    }
+  }
+
+  private byte[] writePdf(List<TransactionResponseDto> transactions) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    reportService.writePdf(transactions.iterator(), out);
+    return out.toByteArray();
+  }
+
+  private byte[] writeExcel(List<TransactionResponseDto> transactions, int maxRowsPerSheet)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Iterator<TransactionResponseDto> rows = transactions.iterator();
+    reportService.writeExcel(rows, out, maxRowsPerSheet);
+    return out.toByteArray();
+  }
+
+  private static TransactionResponseDto transaction(String comment) {
+    TransactionResponseDto transaction = new TransactionResponseDto();
+    transaction.setId(UUID.randomUUID());
+    transaction.setPersonType(PersonType.LEGAL.name());
+    transaction.setAmount(BigDecimal.valueOf(100.0));
+    transaction.setComment(comment);
+    transaction.setOperationDate(LocalDateTime.now());
+    return transaction;
+  }
 }
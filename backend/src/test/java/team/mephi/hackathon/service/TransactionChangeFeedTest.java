@@ -0,0 +1,157 @@
+package team.mephi.hackathon.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import reactor.core.publisher.BaseSubscriber;
+import team.mephi.hackathon.dto.TransactionChangeDto;
+import team.mephi.hackathon.dto.TransactionResponseDto;
+
+@DisplayName("Лента изменений транзакций")
+class TransactionChangeFeedTest {
+
+  private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+  private final TransactionSearchCache searchCache = mock(TransactionSearchCache.class);
+
+  private final TransactionIdCache idCache = mock(TransactionIdCache.class);
+
+  private TransactionChangeFeed feed;
+
+  @BeforeEach
+  void setUp() {
+    feed =
+        new TransactionChangeFeed(
+            mock(JdbcTemplate.class),
+            mock(DataSourceProperties.class),
+            objectMapper,
+            searchCache,
+            idCache);
+    feed.bufferSize = 2;
+    feed.overflow = TransactionChangeFeed.Overflow.DISCONNECT;
+  }
+
+  @Test
+  @DisplayName("Транзакция, не помещающаяся в уведомление, исключается из события")
+  void toPayload_tooLarge_keepsOnlyTypeAndId() throws Exception {
+    TransactionResponseDto transaction = new TransactionResponseDto();
+    transaction.setId(UUID.randomUUID());
+    transaction.setComment("Ю".repeat(TransactionChangeFeed.MAX_PAYLOAD_BYTES / 2));
+
+    TransactionChangeDto change =
+        objectMapper.readValue(
+            feed.toPayload(
+                new TransactionChangeDto(
+                    TransactionChangeDto.Type.UPDATED, transaction.getId(), transaction)),
+            TransactionChangeDto.class);
+
+    assertThat(change.getType()).isEqualTo(TransactionChangeDto.Type.UPDATED);
+    assertThat(change.getId()).isEqualTo(transaction.getId());
+    assertThat(change.getTransaction()).isNull();
+  }
+
+  @Test
+  @DisplayName("Подписчик, переполнивший буфер, отключается")
+  void changes_disconnect_completesSlowSubscriber() {
+    Subscriber subscriber = new Subscriber();
+    feed.changes().subscribe(subscriber);
+
+    deliver(3);
+
+    assertThat(subscriber.completed).isTrue();
+    assertThat(subscriber.received).isEmpty();
+    assertThat(feed.getDisconnectedCount()).isEqualTo(1);
+    assertThat(feed.getSubscriberCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("Медленный подписчик теряет самые старые события")
+  void changes_dropOldest_keepsLatestEvents() {
+    feed.overflow = TransactionChangeFeed.Overflow.DROP_OLDEST;
+    Subscriber subscriber = new Subscriber();
+    feed.changes().subscribe(subscriber);
+    List<UUID> ids = deliver(3);
+
+    subscriber.request(Long.MAX_VALUE);
+
+    assertThat(subscriber.received)
+        .extracting(TransactionChangeDto::getId)
+        .containsExactly(ids.get(1), ids.get(2));
+    assertThat(subscriber.completed).isFalse();
+    assertThat(feed.getDroppedCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Полученное событие убирает транзакцию из кэшей этого экземпляра")
+  void deliver_change_invalidatesCaches() {
+    List<UUID> ids = deliver(1);
+
+    verify(searchCache).invalidate();
+    verify(idCache).evict(ids.get(0));
+  }
+
+  @Test
+  @DisplayName("Событие RESYNC очищает кэш транзакций целиком")
+  void deliver_resync_clearsIdCache() {
+    feed.deliver(
+        feed.toPayload(new TransactionChangeDto(TransactionChangeDto.Type.RESYNC, null, null)));
+
+    verify(searchCache).invalidate();
+    verify(idCache).clear();
+  }
+
+  @Test
+  @DisplayName("Некорректное уведомление пропускается")
+  void deliver_malformedPayload_isIgnored() {
+    Subscriber subscriber = new Subscriber();
+    feed.changes().subscribe(subscriber);
+    subscriber.request(Long.MAX_VALUE);
+
+    feed.deliver("not json");
+
+    assertThat(subscriber.received).isEmpty();
+    assertThat(feed.getReceivedCount()).isZero();
+  }
+
+  private List<UUID> deliver(int count) {
+    List<UUID> ids = new CopyOnWriteArrayList<>();
+    for (int i = 0; i < count; i++) {
+      UUID id = UUID.randomUUID();
+      ids.add(id);
+      feed.deliver(
+          feed.toPayload(new TransactionChangeDto(TransactionChangeDto.Type.DELETED, id, null)));
+    }
+    return ids;
+  }
+
+  /** Подписчик, который сам ничего не запрашивает. */
+  private static class Subscriber extends BaseSubscriber<TransactionChangeDto> {
+    private final List<TransactionChangeDto> received = new CopyOnWriteArrayList<>();
+    private volatile boolean completed;
+
+    @Override
+    protected void hookOnSubscribe(Subscription subscription) {}
+
+    @Override
+    protected void hookOnNext(TransactionChangeDto change) {
+      received.add(change);
+    }
+
+    @Override
+    protected void hookOnComplete() {
+      completed = true;
+    }
+  }
+}
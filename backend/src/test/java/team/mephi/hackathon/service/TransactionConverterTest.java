@@ -1,24 +1,27 @@
 package team.mephi.hackathon.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.modelmapper.ModelMapper;
+import org.mapstruct.factory.Mappers;
 import team.mephi.hackathon.dto.TransactionRequestDto;
 import team.mephi.hackathon.dto.TransactionResponseDto;
 import team.mephi.hackathon.entity.PersonType;
 import team.mephi.hackathon.entity.Transaction;
 import team.mephi.hackathon.entity.TransactionStatus;
 import team.mephi.hackathon.entity.TransactionType;
+import team.mephi.hackathon.exceptions.ValidationException;
+import team.mephi.hackathon.mapper.TransactionMapper;
 
 public class TransactionConverterTest {
   private TransactionRequestDto dto;
   private Transaction entity;
-  private ModelMapper modelMapper;
+  private TransactionMapper mapper;
 
   @BeforeEach
   void setUp() {
@@ -53,12 +56,12 @@ public class TransactionConverterTest {
     entity.setCategory("OLD_SALARY");
     entity.setReceiverPhone("80000000000");
 
-    modelMapper = new ModelMapper();
+    mapper = Mappers.getMapper(TransactionMapper.class);
   }
 
   @Test
   void mapToEntity_shouldConvertAllFieldsCorrectly() {
-    Transaction result = modelMapper.map(dto, Transaction.class);
+    Transaction result = mapper.toEntity(dto);
 
     assertThat(result).isNotNull();
 
@@ -79,7 +82,7 @@ public class TransactionConverterTest {
 
   @Test
   void mapToDto_shouldConvertAllFieldsCorrectly() {
-    TransactionResponseDto result = modelMapper.map(entity, TransactionResponseDto.class);
+    TransactionResponseDto result = mapper.toDto(entity);
 
     assertThat(result).isNotNull();
 
@@ -101,7 +104,7 @@ public class TransactionConverterTest {
   @Test
   void updateEntity_shouldReplaceAllFieldsCorrectly() {
     Transaction updatedEntity = new Transaction();
-    modelMapper.map(dto, updatedEntity);
+    mapper.updateEntity(dto, updatedEntity);
 
     assertThat(updatedEntity.getPersonType()).isEqualTo(PersonType.LEGAL);
     assertThat(updatedEntity.getTransactionType()).isEqualTo(TransactionType.INCOME);
@@ -121,7 +124,7 @@ public class TransactionConverterTest {
   @Test
   void mapToEntity_withNullFields_shouldHandleGracefully() {
     TransactionRequestDto emptyDto = new TransactionRequestDto();
-    Transaction result = modelMapper.map(emptyDto, Transaction.class);
+    Transaction result = mapper.toEntity(emptyDto);
 
     assertThat(result.getPersonType()).isNull();
     assertThat(result.getTransactionType()).isNull();
@@ -137,4 +140,13 @@ public class TransactionConverterTest {
     assertThat(result.getCategory()).isNull();
     assertThat(result.getReceiverPhone()).isNull();
   }
+
+  @Test
+  void mapToEntity_withUnknownEnumValue_shouldThrowValidationException() {
+    dto.setStatus("UNKNOWN");
+
+    assertThatThrownBy(() -> mapper.toEntity(dto))
+        .isInstanceOf(ValidationException.class)
+        .hasMessageContaining("status");
+  }
 }
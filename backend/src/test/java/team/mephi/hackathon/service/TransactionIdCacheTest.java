@@ -0,0 +1,116 @@
+package team.mephi.hackathon.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.mephi.hackathon.dto.TransactionResponseDto;
+
+@DisplayName("Кэш транзакций по идентификатору")
+class TransactionIdCacheTest {
+
+  private static final Instant NOW = Instant.parse("2025-04-01T10:00:00Z");
+
+  private TransactionIdCache cache;
+
+  /** Количество обращений к БД. */
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    cache = new TransactionIdCache();
+    cache.maxEntries = 2;
+    cache.ttl = Duration.ofSeconds(30);
+    cache.negativeTtl = Duration.ofSeconds(2);
+  }
+
+  @Test
+  @DisplayName("Найденная транзакция хранится до истечения срока")
+  void get_withinTtl_loadsOnce() {
+    UUID id = UUID.randomUUID();
+
+    cache.get(id, found(), NOW);
+    cache.get(id, found(), NOW.plusSeconds(29));
+    cache.get(id, found(), NOW.plusSeconds(30));
+
+    assertThat(loads).hasValue(2);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Отсутствие транзакции хранится короткий срок")
+  void get_missing_isCachedForNegativeTtl() {
+    UUID id = UUID.randomUUID();
+
+    assertThat(cache.get(id, missing(), NOW)).isEmpty();
+
+    assertThat(cache.isKnownMissing(id, NOW.plusSeconds(1))).isTrue();
+    assertThat(cache.isKnownMissing(id, NOW.plusSeconds(2))).isFalse();
+  }
+
+  @Test
+  @DisplayName("Запись транзакции убирает её из кэша")
+  void evict_removesEntry() {
+    UUID id = UUID.randomUUID();
+    cache.get(id, missing(), NOW);
+
+    cache.evict(id);
+
+    assertThat(cache.isKnownMissing(id, NOW)).isFalse();
+    assertThat(cache.get(id, found(), NOW)).isPresent();
+  }
+
+  @Test
+  @DisplayName("Результат чтения, во время которого была запись, не сохраняется")
+  void get_writeDuringLoad_isNotCached() {
+    UUID id = UUID.randomUUID();
+    Function<UUID, Optional<TransactionResponseDto>> staleRead =
+        key -> {
+          cache.evict(key);
+          return missing().apply(key);
+        };
+
+    cache.get(id, staleRead, NOW);
+
+    assertThat(cache.isKnownMissing(id, NOW)).isFalse();
+  }
+
+  @Test
+  @DisplayName("При переполнении вытесняется давно не запрошенная транзакция")
+  void get_overMaxEntries_evictsLeastRecentlyUsed() {
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    cache.get(first, found(), NOW);
+    cache.get(second, found(), NOW);
+    cache.get(first, found(), NOW);
+
+    cache.get(UUID.randomUUID(), found(), NOW);
+    cache.get(first, found(), NOW);
+    cache.get(second, found(), NOW);
+
+    assertThat(loads).hasValue(4);
+  }
+
+  private Function<UUID, Optional<TransactionResponseDto>> found() {
+    return id -> {
+      loads.incrementAndGet();
+      TransactionResponseDto transaction = new TransactionResponseDto();
+      transaction.setId(id);
+      return Optional.of(transaction);
+    };
+  }
+
+  private Function<UUID, Optional<TransactionResponseDto>> missing() {
+    return id -> {
+      loads.incrementAndGet();
+      return Optional.empty();
+    };
+  }
+}
@@ -0,0 +1,151 @@
+package team.mephi.hackathon.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import jakarta.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import team.mephi.hackathon.dto.TransactionBatchResultDto;
+import team.mephi.hackathon.dto.TransactionImportReportDto;
+import team.mephi.hackathon.exceptions.ValidationException;
+import team.mephi.hackathon.repository.TransactionCopyRepository;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionImportServiceImplTest {
+  private static final String HEADER =
+      "personType,operationDate,transactionType,comment,amount,status,senderBank,account,"
+          + "receiverBank,receiverInn,receiverAccount,category,receiverPhone\r\n";
+
+  private static final String ROW =
+      "LEGAL,2025-04-05T12:30:00,INCOME,,100.50,NEW,Alpha,1,Beta,1234567890,2,CAT,+71234567890\r\n";
+
+  @Mock private TransactionCopyRepository copyRepository;
+
+  @Mock private TransactionSearchCache searchCache;
+
+  @Mock private TransactionIdCache idCache;
+
+  @Mock private CategoryDictionary categories;
+
+  @Mock private TransactionChangeFeed changeFeed;
+
+  private TransactionImportServiceImpl importService;
+
+  /** Строки, переданные в {@code COPY}. */
+  private final StringWriter copied = new StringWriter();
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(categories.contains("CAT")).thenReturn(true);
+    importService =
+        new TransactionImportServiceImpl(
+            new ValidationServiceImpl(
+                Validation.buildDefaultValidatorFactory().getValidator(), categories),
+            copyRepository,
+            searchCache,
+            idCache,
+            changeFeed);
+  }
+
+  /** Передаёт строки источника в {@link #copied}, как если бы вставилось {@code imported} строк. */
+  private void copyAll(long imported) throws Exception {
+    when(copyRepository.copyAndMerge(any()))
+        .thenAnswer(
+            invocation -> {
+              invocation.<TransactionCopyRepository.CopySource>getArgument(0).writeTo(copied);
+              return imported;
+            });
+  }
+
+  @Test
+  void importCsv_copiesValidRowsAndReportsRejected() throws Exception {
+    copyAll(2);
+    String csv =
+        HEADER
+            + ROW
+            + ROW.replace(",,", ",\"Многострочный\nкомментарий, \"\"в кавычках\"\"\",")
+            + ROW.replace("+71234567890", "123")
+            + ROW.replace("LEGAL", "NOBODY");
+
+    TransactionImportReportDto report = importService.importCsv(stream(csv));
+
+    assertThat(report.getTotal()).isEqualTo(4);
+    assertThat(report.getImported()).isEqualTo(2);
+    assertThat(report.getDuplicates()).isZero();
+    assertThat(report.getRejected()).isEqualTo(2);
+    assertThat(report.getRejectedRows())
+        .extracting(TransactionBatchResultDto::getIndex)
+        .containsExactly(4L, 5L);
+    assertThat(report.getRejectedRows().get(0).getError()).contains("receiverPhone");
+    assertThat(copied.toString())
+        .contains(
+            ",\"LEGAL\",\"2025-04-05T12:30\",\"INCOME\",,\"100.50\",\"NEW\"",
+            "\"Многострочный\nкомментарий, \"\"в кавычках\"\"\"");
+    verify(searchCache).invalidate();
+    verify(idCache).clear();
+    verify(changeFeed).resync();
+  }
+
+  @Test
+  void importCsv_withDuplicateIds_countsSkippedRows() throws Exception {
+    copyAll(1);
+    String row = "550e8400-e29b-41d4-a716-446655440000," + ROW;
+
+    TransactionImportReportDto report =
+        importService.importCsv(stream("id," + HEADER + row + row));
+
+    assertThat(report.getImported()).isEqualTo(1);
+    assertThat(report.getDuplicates()).isEqualTo(1);
+  }
+
+  @Test
+  void importCsv_withUnknownColumn_failsWholeImport() throws Exception {
+    copyAll(0);
+
+    assertThatThrownBy(() -> importService.importCsv(stream("unknown," + HEADER + "x," + ROW)))
+        .isInstanceOf(ValidationException.class)
+        .hasMessageContaining("unknown");
+    verifyNoInteractions(changeFeed);
+  }
+
+  @Test
+  void importCsv_withUnterminatedQuote_failsWholeImport() throws Exception {
+    copyAll(0);
+
+    assertThatThrownBy(() -> importService.importCsv(stream(HEADER + ROW + "\"LEGAL,")))
+        .isInstanceOf(ValidationException.class)
+        .hasMessageContaining("кавычка");
+  }
+
+  @Test
+  void importCsv_capsRejectedRowsInReport() throws Exception {
+    copyAll(0);
+    String invalid = ROW.replace("CAT", "");
+    String csv = HEADER + invalid.repeat(TransactionImportServiceImpl.MAX_REPORTED_REJECTIONS + 5);
+
+    TransactionImportReportDto report = importService.importCsv(stream(csv));
+
+    assertThat(report.getRejected())
+        .isEqualTo(TransactionImportServiceImpl.MAX_REPORTED_REJECTIONS + 5);
+    assertThat(report.getRejectedRows())
+        .hasSize(TransactionImportServiceImpl.MAX_REPORTED_REJECTIONS);
+    assertThat(report.isRejectedRowsTruncated()).isTrue();
+  }
+
+  private static InputStream stream(String csv) {
+    return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+  }
+}
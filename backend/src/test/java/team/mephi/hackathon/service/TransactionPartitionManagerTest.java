@@ -0,0 +1,194 @@
+package team.mephi.hackathon.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.YearMonth;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/** Тесты обслуживания месячных секций таблицы транзакций. VACUUM требует работы вне транзакции. */
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Секции таблицы транзакций")
+class TransactionPartitionManagerTest {
+
+  @Container
+  static PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>("postgres:15")
+          .withDatabaseName("testdb")
+          .withUsername("test")
+          .withPassword("test");
+
+  @DynamicPropertySource
+  static void configure(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private TransactionPartitionManager manager;
+
+  @BeforeEach
+  void setUp() {
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    manager =
+        new TransactionPartitionManager(
+            jdbcTemplate,
+            transactionTemplate,
+            new ColumnarTransactionStore(jdbcTemplate, transactionTemplate));
+    manager.monthsAhead = 2;
+    manager.archiveAfterMonths = 0;
+    manager.archiveMode = TransactionPartitionManager.ArchiveMode.NONE;
+  }
+
+  @AfterEach
+  void cleanUp() {
+    jdbcTemplate.update("DELETE FROM transactions");
+    jdbcTemplate
+        .queryForList(
+            "SELECT relname FROM pg_class WHERE relname ~ '^transactions_20(1|3)\\d_\\d{2}$'",
+            String.class)
+        .forEach(name -> jdbcTemplate.execute("DROP TABLE " + name));
+  }
+
+  @Test
+  @DisplayName("Новая секция забирает строки своего месяца из секции по умолчанию")
+  void createPartition_movesRowsFromDefault() {
+    insert("2031-05-10");
+    insert("2031-05-31 23:59:59");
+    insert("2031-06-01");
+
+    assertThat(manager.createPartition(YearMonth.of(2031, 5))).isTrue();
+
+    assertThat(count("transactions_2031_05")).isEqualTo(2);
+    assertThat(count("transactions_default")).isEqualTo(1);
+    assertThat(count("transactions")).isEqualTo(3);
+    assertThat(manager.attachedMonths()).contains(YearMonth.of(2031, 5));
+  }
+
+  @Test
+  @DisplayName("Перенесённые в новую секцию строки продолжают занимать свои идентификаторы")
+  void createPartition_keepsMovedIdsClaimed() {
+    UUID id = UUID.randomUUID();
+    insert(id, "2031-07-10");
+
+    manager.createPartition(YearMonth.of(2031, 7));
+
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM transaction_ids WHERE id = ?", Long.class, id))
+        .isEqualTo(1);
+    assertThatThrownBy(() -> insert(id, "2031-08-10"))
+        .isInstanceOf(DuplicateKeyException.class);
+  }
+
+  @Test
+  @DisplayName("Повторное создание секции ничего не делает")
+  void createPartition_isIdempotent() {
+    assertThat(manager.createPartition(YearMonth.of(2032, 1))).isTrue();
+    assertThat(manager.createPartition(YearMonth.of(2032, 1))).isFalse();
+  }
+
+  @Test
+  @DisplayName("Обслуживание создаёт секции на заданное число месяцев вперёд")
+  void maintain_createsFuturePartitions() {
+    manager.maintain(YearMonth.of(2033, 11));
+
+    assertThat(manager.attachedMonths())
+        .contains(YearMonth.of(2033, 11), YearMonth.of(2033, 12), YearMonth.of(2034, 1))
+        .doesNotContain(YearMonth.of(2034, 2));
+  }
+
+  @Test
+  @DisplayName("Старые секции отсоединяются вместе с итогами, данные остаются в отдельной таблице")
+  void maintain_detachesOldPartitions() {
+    manager.createPartition(YearMonth.of(2010, 1));
+    manager.createPartition(YearMonth.of(2010, 2));
+    insert("2010-01-15");
+    manager.archiveAfterMonths = 1;
+    manager.archiveMode = TransactionPartitionManager.ArchiveMode.DETACH;
+
+    manager.maintain(YearMonth.of(2010, 3));
+
+    assertThat(manager.attachedMonths())
+        .doesNotContain(YearMonth.of(2010, 1))
+        .contains(YearMonth.of(2010, 2), YearMonth.of(2010, 3));
+    assertThat(count("transactions")).isZero();
+    assertThat(count("transactions_2010_01")).isEqualTo(1);
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM transaction_daily_rollup WHERE day < '2010-02-01'",
+                Long.class))
+        .isZero();
+  }
+
+  @Test
+  @DisplayName("Старые секции сжимаются и остаются доступными для запросов")
+  void maintain_compactsOldPartitions() {
+    manager.createPartition(YearMonth.of(2011, 1));
+    insert("2011-01-15");
+    manager.archiveAfterMonths = 1;
+    manager.archiveMode = TransactionPartitionManager.ArchiveMode.COMPACT;
+
+    manager.maintain(YearMonth.of(2011, 3));
+
+    assertThat(manager.attachedMonths()).contains(YearMonth.of(2011, 1));
+    assertThat(count("transactions")).isEqualTo(1);
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT obj_description('transactions_2011_01'::regclass, 'pg_class')",
+                String.class))
+        .isEqualTo("compacted");
+  }
+
+  @Test
+  @DisplayName("Имя секции однозначно соответствует месяцу")
+  void partitionName_roundTrips() {
+    assertThat(TransactionPartitionManager.partitionName(YearMonth.of(2025, 3)))
+        .isEqualTo("transactions_2025_03");
+    assertThat(TransactionPartitionManager.monthOf("transactions_2025_03"))
+        .isEqualTo(YearMonth.of(2025, 3));
+    assertThat(TransactionPartitionManager.monthOf("transactions_default")).isNull();
+  }
+
+  private void insert(String operationDate) {
+    insert(UUID.randomUUID(), operationDate);
+  }
+
+  private void insert(UUID id, String operationDate) {
+    jdbcTemplate.update(
+        "INSERT INTO transactions (id, operation_date, amount, status)"
+            + " VALUES (?, ?::timestamp, 1, 'NEW')",
+        id,
+        operationDate);
+  }
+
+  private long count(String table) {
+    return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+  }
+}
@@ -0,0 +1,142 @@
+package team.mephi.hackathon.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/** Тесты дневных итогов транзакций: триггеров миграции V4, проверки и пересчёта. */
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Дневные итоги транзакций")
+class TransactionRollupManagerTest {
+
+  @Container
+  static PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>("postgres:15")
+          .withDatabaseName("testdb")
+          .withUsername("test")
+          .withPassword("test");
+
+  @DynamicPropertySource
+  static void configure(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private TransactionRollupManager manager;
+
+  @BeforeEach
+  void setUp() {
+    manager =
+        new TransactionRollupManager(jdbcTemplate, new TransactionTemplate(transactionManager));
+    manager.repair = true;
+  }
+
+  @AfterEach
+  void cleanUp() {
+    jdbcTemplate.update("DELETE FROM transactions");
+    jdbcTemplate.update("DELETE FROM transaction_daily_rollup");
+  }
+
+  @Test
+  @DisplayName("Вставка, изменение и удаление транзакций обновляют итоги своего дня")
+  void triggers_keepRollupInSync() {
+    insert("2025-03-01 10:00", "Food", 10);
+    insert("2025-03-01 18:00", "Food", 5.5);
+    insert("2025-03-02 09:00", null, 7);
+
+    assertThat(rollup("2025-03-01", "Food")).isEqualTo("2 15.5");
+    assertThat(rollup("2025-03-02", "")).isEqualTo("1 7");
+
+    jdbcTemplate.update("UPDATE transactions SET category = 'Rent' WHERE amount = 10");
+    jdbcTemplate.update("DELETE FROM transactions WHERE category IS NULL");
+
+    assertThat(rollup("2025-03-01", "Food")).isEqualTo("1 5.5");
+    assertThat(rollup("2025-03-01", "Rent")).isEqualTo("1 10");
+    assertThat(rollup("2025-03-02", "")).isEqualTo("0 0");
+    assertThat(manager.checkAll()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Проверка находит дни с расхождениями, пересчёт их исправляет")
+  void check_findsMismatches_rebuildRepairs() {
+    insert("2025-03-01 10:00", "Food", 10);
+    insert("2025-04-15 10:00", "Food", 20);
+    jdbcTemplate.update(
+        "UPDATE transaction_daily_rollup SET amount_sum = 0 WHERE day = '2025-03-01'");
+    // TRUNCATE не вызывает триггеры: итоги остаются без транзакций
+    jdbcTemplate.execute("TRUNCATE transactions, transaction_ids");
+    insert("2025-04-15 12:00", "Food", 1);
+
+    assertThat(manager.checkAll())
+        .containsExactly(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 4, 15));
+
+    manager.verify();
+
+    assertThat(manager.checkAll()).isEmpty();
+    assertThat(rollup("2025-04-15", "Food")).isEqualTo("1 1");
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM transaction_daily_rollup WHERE day = '2025-03-01'",
+                Long.class))
+        .isZero();
+  }
+
+  @Test
+  @DisplayName("Полный пересчёт заполняет итоги по всем месяцам")
+  void rebuildAll_fillsEveryMonth() {
+    insert("2024-12-31 23:59:59", "Food", 1);
+    insert("2025-01-01 00:00", "Food", 2);
+    insert("2025-02-10 12:00", "Rent", 3);
+    jdbcTemplate.update("DELETE FROM transaction_daily_rollup");
+
+    assertThat(manager.rebuildAll()).isEqualTo(3);
+    assertThat(manager.checkAll()).isEmpty();
+    assertThat(rollup("2024-12-31", "Food")).isEqualTo("1 1");
+  }
+
+  private void insert(String operationDate, String category, double amount) {
+    jdbcTemplate.update(
+        "INSERT INTO transactions (id, operation_date, transaction_type, amount, status,"
+            + " sender_bank, receiver_bank, category)"
+            + " VALUES (gen_random_uuid(), ?::timestamp, 'INCOME', ?, 'NEW', 'Alpha', 'Beta', ?)",
+        operationDate,
+        amount,
+        category);
+  }
+
+  /** Количество и сумма группы дня и категории через пробел. */
+  private String rollup(String day, String category) {
+    return jdbcTemplate.queryForObject(
+        "SELECT tx_count || ' ' || trim_scale(amount_sum) FROM transaction_daily_rollup"
+            + " WHERE day = ?::date AND category = ?",
+        String.class,
+        day,
+        category);
+  }
+}
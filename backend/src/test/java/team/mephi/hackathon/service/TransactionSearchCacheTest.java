@@ -0,0 +1,110 @@
+package team.mephi.hackathon.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import team.mephi.hackathon.dto.TransactionFilterDto;
+import team.mephi.hackathon.dto.TransactionPageDto;
+import team.mephi.hackathon.dto.TransactionResponseDto;
+
+@DisplayName("Кэш страниц поиска транзакций")
+class TransactionSearchCacheTest {
+
+  private TransactionSearchCache cache;
+
+  @BeforeEach
+  void setUp() {
+    cache = new TransactionSearchCache();
+    cache.maxSize = DataSize.ofBytes(3 * TransactionSearchCache.weigh(page(1)));
+    cache.maxEntrySize = DataSize.ofBytes(TransactionSearchCache.weigh(page(2)));
+    cache.maxAge = Duration.ofSeconds(30);
+  }
+
+  @Test
+  @DisplayName("Страница, запрос которой начался до записи, не сохраняется")
+  void put_afterInvalidate_isIgnored() {
+    long epoch = cache.epoch();
+    cache.invalidate();
+    cache.put(key("Alpha"), epoch, page(1));
+
+    assertThat(cache.get(key("Alpha"))).isNull();
+    assertThat(cache.getWeight()).isZero();
+  }
+
+  @Test
+  @DisplayName("Запись делает устаревшими ранее сохранённые страницы")
+  void get_afterInvalidate_misses() {
+    cache.put(key("Alpha"), cache.epoch(), page(1));
+    assertThat(cache.get(key("Alpha"))).isNotNull();
+
+    cache.invalidate();
+
+    assertThat(cache.get(key("Alpha"))).isNull();
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+    assertThat(cache.getWeight()).isZero();
+  }
+
+  @Test
+  @DisplayName("Страница выдаётся не дольше max-age после сохранения")
+  void get_afterMaxAge_misses() {
+    Instant now = Instant.now();
+    cache.put(key("Alpha"), cache.epoch(), page(1), now);
+
+    assertThat(cache.get(key("Alpha"), now.plusSeconds(29))).isNotNull();
+    assertThat(cache.get(key("Alpha"), now.plusSeconds(30))).isNull();
+    assertThat(cache.getWeight()).isZero();
+  }
+
+  @Test
+  @DisplayName("При переполнении вытесняется давно не запрошенная страница")
+  void put_overMaxSize_evictsLeastRecentlyUsed() {
+    cache.put(key("Alpha"), cache.epoch(), page(1));
+    cache.put(key("Beta"), cache.epoch(), page(1));
+    cache.put(key("Gamma"), cache.epoch(), page(1));
+    cache.get(key("Alpha"));
+
+    cache.put(key("Delta"), cache.epoch(), page(1));
+
+    assertThat(cache.getEvictionCount()).isEqualTo(1);
+    assertThat(cache.get(key("Beta"))).isNull();
+    assertThat(cache.get(key("Alpha"))).isNotNull();
+    assertThat(cache.getWeight()).isLessThanOrEqualTo(cache.maxSize.toBytes());
+  }
+
+  @Test
+  @DisplayName("Страница тяжелее допустимого объёма не кэшируется")
+  void put_overMaxEntrySize_isIgnored() {
+    cache.put(key("Alpha"), cache.epoch(), page(3));
+
+    assertThat(cache.get(key("Alpha"))).isNull();
+  }
+
+  private static TransactionSearchCache.Key key(String senderBank) {
+    TransactionFilterDto filter = new TransactionFilterDto();
+    filter.setSenderBank(senderBank);
+    return TransactionSearchCache.Key.of(filter, null, 10);
+  }
+
+  private static TransactionPageDto page(int size) {
+    List<TransactionResponseDto> items =
+        IntStream.range(0, size)
+            .mapToObj(
+                i -> {
+                  TransactionResponseDto item = new TransactionResponseDto();
+                  item.setId(UUID.randomUUID());
+                  item.setCategory("Food");
+                  return item;
+                })
+            .toList();
+    return new TransactionPageDto(items, null);
+  }
+}
@@ -2,33 +2,55 @@ package team.mephi.hackathon.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.mapstruct.factory.Mappers;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.unit.DataSize;
 import team.mephi.hackathon.controller.ValidationService;
+import team.mephi.hackathon.dto.TransactionBatchResultDto;
+import team.mephi.hackathon.dto.TransactionChangeToken;
+import team.mephi.hackathon.dto.TransactionCursor;
 import team.mephi.hackathon.dto.TransactionFilterDto;
 import team.mephi.hackathon.dto.TransactionRequestDto;
 import team.mephi.hackathon.dto.TransactionResponseDto;
+import team.mephi.hackathon.dto.TransactionStatusChangeDto;
+import team.mephi.hackathon.dto.TransactionStatusResultDto;
+import team.mephi.hackathon.dto.TransactionStatusResultDto.Result;
 import team.mephi.hackathon.entity.PersonType;
 import team.mephi.hackathon.entity.Transaction;
 import team.mephi.hackathon.entity.TransactionStatus;
 import team.mephi.hackathon.entity.TransactionType;
 import team.mephi.hackathon.exceptions.EntityNotFoundException;
 import team.mephi.hackathon.exceptions.ValidationException;
+import team.mephi.hackathon.mapper.TransactionMapper;
+import team.mephi.hackathon.repository.TransactionBatchRepository;
+import team.mephi.hackathon.repository.TransactionChangeLog;
 import team.mephi.hackathon.repository.TransactionRepository;
+import team.mephi.hackathon.repository.TransactionStatusRepository.StatusUpdate;
 
 @ExtendWith(MockitoExtension.class)
 class TransactionServiceImplTest {
@@ -37,6 +59,16 @@ class TransactionServiceImplTest {
 
   @Mock private ValidationService validationService;
 
+  @Mock private TransactionBatchRepository batchRepository;
+
+  @Mock private ColumnarTransactionStore columnarStore;
+
+  @Mock private TransactionChangeFeed changeFeed;
+
+  private TransactionSearchCache searchCache;
+
+  private TransactionIdCache idCache;
+
   private TransactionServiceImpl transactionService;
 
   private TransactionRequestDto fullDto;
@@ -75,9 +107,100 @@ class TransactionServiceImplTest {
     existingTransaction.setCategory("OldCategory");
     existingTransaction.setReceiverPhone("80000000000");
 
-    ModelMapper modelMapper = new ModelMapper();
+    searchCache = new TransactionSearchCache();
+    searchCache.maxSize = DataSize.ofMegabytes(1);
+    searchCache.maxEntrySize = DataSize.ofKilobytes(64);
+    searchCache.maxAge = Duration.ofMinutes(1);
+    idCache = new TransactionIdCache();
+    idCache.maxEntries = 100;
+    idCache.ttl = Duration.ofMinutes(1);
+    idCache.negativeTtl = Duration.ofMinutes(1);
     transactionService =
-        new TransactionServiceImpl(transactionRepository, validationService, modelMapper);
+        new TransactionServiceImpl(
+            transactionRepository,
+            validationService,
+            Mappers.getMapper(TransactionMapper.class),
+            batchRepository,
+            columnarStore,
+            searchCache,
+            idCache,
+            changeFeed);
+  }
+
+  @Test
+  void createTransactions_rejectsInvalidRowsAndInsertsRestInOneCall() {
+    TransactionRequestDto invalid = new TransactionRequestDto();
+    lenient()
+        .doThrow(new ValidationException("Некорректный ИНН"))
+        .when(validationService)
+        .validateTransaction(invalid);
+    when(batchRepository.insertAll(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<Transaction> rows = invocation.getArgument(0);
+              return rows.stream().map(Transaction::getId).toList();
+            });
+
+    List<TransactionBatchResultDto> results =
+        transactionService.createTransactions(List.of(fullDto, invalid, fullDto), 10);
+
+    verify(batchRepository, times(1)).insertAll(anyList());
+    assertThat(results)
+        .extracting(TransactionBatchResultDto::getIndex)
+        .containsExactly(10L, 11L, 12L);
+    assertThat(results)
+        .extracting(TransactionBatchResultDto::getStatus)
+        .containsExactly(
+            TransactionBatchResultDto.Status.CREATED,
+            TransactionBatchResultDto.Status.REJECTED,
+            TransactionBatchResultDto.Status.CREATED);
+    assertThat(results.get(1).getError()).isEqualTo("Некорректный ИНН");
+    assertThat(results.get(0).getId()).isNotNull().isNotEqualTo(results.get(2).getId());
+  }
+
+  @Test
+  void createTransactions_reportsDuplicateIds() {
+    UUID id = UUID.randomUUID();
+    fullDto.setId(id);
+    when(batchRepository.insertAll(anyList())).thenReturn(List.of());
+
+    List<TransactionBatchResultDto> results =
+        transactionService.createTransactions(List.of(fullDto, fullDto), 0);
+
+    assertThat(results)
+        .extracting(TransactionBatchResultDto::getId)
+        .containsExactly(id, id);
+    assertThat(results)
+        .extracting(TransactionBatchResultDto::getStatus)
+        .containsOnly(TransactionBatchResultDto.Status.REJECTED);
+    // второй экземпляр отклоняется до обращения к БД
+    verify(batchRepository).insertAll(argThat(rows -> rows.size() == 1));
+  }
+
+  @Test
+  void createTransactions_insertsRowByRowWhenStatementFails() {
+    TransactionRequestDto second = new TransactionRequestDto();
+    second.setPersonType("LEGAL");
+    second.setTransactionType("INCOME");
+    second.setStatus("NEW");
+    when(batchRepository.insertAll(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<Transaction> rows = invocation.getArgument(0);
+              if (rows.size() > 1 || rows.get(0).getCategory() == null) {
+                throw new DataIntegrityViolationException("null value in column \"category\"");
+              }
+              return List.of(rows.get(0).getId());
+            });
+
+    List<TransactionBatchResultDto> results =
+        transactionService.createTransactions(List.of(fullDto, second), 0);
+
+    assertThat(results)
+        .extracting(TransactionBatchResultDto::getStatus)
+        .containsExactly(
+            TransactionBatchResultDto.Status.CREATED, TransactionBatchResultDto.Status.REJECTED);
+    assertThat(results.get(1).getError()).contains("category");
   }
 
   @Test
@@ -90,12 +213,13 @@ class TransactionServiceImplTest {
     verify(transactionRepository).save(any(Transaction.class));
     assertThat(response).isNotNull();
     assertThat(response.getAmount()).isEqualTo(existingTransaction.getAmount());
+    verify(changeFeed).created(response);
   }
 
   @Test
   void getTransaction_ShouldReturnTransaction_WhenFound() {
-    when(transactionRepository.findById(existingTransaction.getId()))
-        .thenReturn(Optional.of(existingTransaction));
+    when(transactionRepository.findResponseById(existingTransaction.getId()))
+        .thenReturn(Optional.of(transactionService.mapToDto(existingTransaction)));
 
     TransactionResponseDto response =
         transactionService.getTransaction(existingTransaction.getId());
@@ -107,13 +231,41 @@ class TransactionServiceImplTest {
   @Test
   void getTransaction_ShouldThrow_WhenNotFound() {
     UUID id = UUID.randomUUID();
-    when(transactionRepository.findById(id)).thenReturn(Optional.empty());
+    when(transactionRepository.findResponseById(id)).thenReturn(Optional.empty());
 
     assertThatThrownBy(() -> transactionService.getTransaction(id))
         .isInstanceOf(EntityNotFoundException.class)
         .hasMessageContaining(id.toString());
   }
 
+  @Test
+  void getTransaction_repeatedLookup_isServedFromCacheUntilUpdate() {
+    UUID id = existingTransaction.getId();
+    when(transactionRepository.findResponseById(id))
+        .thenReturn(Optional.of(transactionService.mapToDto(existingTransaction)));
+    when(transactionRepository.findById(id)).thenReturn(Optional.of(existingTransaction));
+    when(transactionRepository.save(existingTransaction)).thenReturn(existingTransaction);
+
+    transactionService.getTransaction(id);
+    transactionService.getTransaction(id);
+    transactionService.updateTransaction(id, fullDto);
+    transactionService.getTransaction(id);
+
+    verify(transactionRepository, times(2)).findResponseById(id);
+  }
+
+  @Test
+  void updateTransaction_whenKnownMissing_doesNotQueryDatabase() {
+    UUID id = UUID.randomUUID();
+    when(transactionRepository.findResponseById(id)).thenReturn(Optional.empty());
+    assertThatThrownBy(() -> transactionService.getTransaction(id))
+        .isInstanceOf(EntityNotFoundException.class);
+
+    assertThatThrownBy(() -> transactionService.updateTransaction(id, fullDto))
+        .isInstanceOf(EntityNotFoundException.class);
+    verify(transactionRepository, never()).findById(id);
+  }
+
   @Test
   void updateTransaction_ShouldValidateAndSave() {
     when(transactionRepository.findById(existingTransaction.getId()))
@@ -127,6 +279,7 @@ class TransactionServiceImplTest {
     verify(transactionRepository).save(any(Transaction.class));
     assertThat(response).isNotNull();
     assertThat(response.getId()).isEqualTo(existingTransaction.getId());
+    verify(changeFeed).updated(response);
   }
 
   @Test
@@ -138,19 +291,252 @@ class TransactionServiceImplTest {
     filter.setStatus("COMPLETED");
     filter.setCategory("SALARY");
 
-    when(transactionRepository.findAll(any(Specification.class)))
-        .thenReturn(List.of(existingTransaction));
+    when(transactionRepository.findResponsePage(
+            any(Specification.class), isNull(), eq(TransactionServiceImpl.DEFAULT_PAGE_SIZE + 1)))
+        .thenReturn(List.of(transactionService.mapToDto(existingTransaction)));
 
     var result = transactionService.searchTransactions(filter);
 
     assertThat(result).isNotNull();
-    assertThat(result.size()).isEqualTo(1);
+    assertThat(result.getItems().size()).isEqualTo(1);
+    assertThat(result.getNext()).isNull();
+  }
+
+  @Test
+  void searchTransactions_whenMoreRowsThanLimit_returnsCursorOfLastItem() {
+    Transaction second = new Transaction();
+    second.setId(UUID.randomUUID());
+    second.setOperationDate(existingTransaction.getOperationDate().minusDays(1));
+    second.setStatus(TransactionStatus.NEW);
+    TransactionFilterDto filter = new TransactionFilterDto();
+    filter.setLimit(1);
+
+    when(transactionRepository.findResponsePage(any(Specification.class), isNull(), eq(2)))
+        .thenReturn(
+            List.of(
+                transactionService.mapToDto(existingTransaction),
+                transactionService.mapToDto(second)));
+
+    var result = transactionService.searchTransactions(filter);
+
+    assertThat(result.getItems()).hasSize(1);
+    assertThat(TransactionCursor.decode(result.getNext()))
+        .isEqualTo(
+            new TransactionCursor(
+                existingTransaction.getOperationDate(), existingTransaction.getId()));
+  }
+
+  @Test
+  void searchTransactions_withCursor_passesDecodedPositionToRepository() {
+    TransactionCursor cursor = new TransactionCursor(LocalDateTime.now(), UUID.randomUUID());
+    TransactionFilterDto filter = new TransactionFilterDto();
+    filter.setCursor(cursor.encode());
+    filter.setLimit(TransactionServiceImpl.MAX_PAGE_SIZE + 500);
+
+    when(transactionRepository.findResponsePage(
+            any(Specification.class), eq(cursor), eq(TransactionServiceImpl.MAX_PAGE_SIZE + 1)))
+        .thenReturn(List.of());
+
+    var result = transactionService.searchTransactions(filter);
+
+    assertThat(result.getItems()).isEmpty();
+    assertThat(result.getNext()).isNull();
+  }
+
+  @Test
+  void searchTransactions_repeatedFilter_isServedFromCacheUntilWrite() {
+    when(transactionRepository.findResponsePage(any(Specification.class), isNull(), eq(11)))
+        .thenReturn(List.of(transactionService.mapToDto(existingTransaction)));
+    when(transactionRepository.findById(existingTransaction.getId()))
+        .thenReturn(Optional.of(existingTransaction));
+    when(transactionRepository.save(existingTransaction)).thenReturn(existingTransaction);
+    TransactionFilterDto filter = new TransactionFilterDto();
+    filter.setAmountMin(new BigDecimal("100.00"));
+    filter.setLimit(10);
+    TransactionFilterDto sameFilter = new TransactionFilterDto();
+    sameFilter.setAmountMin(new BigDecimal("100"));
+    sameFilter.setLimit(10);
+
+    transactionService.searchTransactions(filter);
+    var cached = transactionService.searchTransactions(sameFilter);
+    transactionService.deleteTransaction(existingTransaction.getId());
+    transactionService.searchTransactions(filter);
+
+    assertThat(cached.getItems()).hasSize(1);
+    verify(transactionRepository, times(2))
+        .findResponsePage(any(Specification.class), isNull(), eq(11));
+    assertThat(searchCache.getHitCount()).isEqualTo(1);
+    assertThat(searchCache.getMissCount()).isEqualTo(2);
+  }
+
+  @Test
+  void streamTransactions_passesEveryRowAndClosesStream() {
+    AtomicBoolean closed = new AtomicBoolean();
+    TransactionResponseDto row = transactionService.mapToDto(existingTransaction);
+    when(transactionRepository.streamResponses(any(Specification.class)))
+        .thenReturn(Stream.of(row, row).onClose(() -> closed.set(true)));
+    List<TransactionResponseDto> received = new ArrayList<>();
+
+    transactionService.streamTransactions(new TransactionFilterDto(), received::add);
+
+    assertThat(received).hasSize(2);
+    assertThat(closed).isTrue();
+    verify(transactionRepository, never())
+        .findResponsePage(any(Specification.class), any(), anyInt());
+  }
+
+  @Test
+  void getChangesSince_whenLogIsRead_splitsDeletedAndReturnsEndToken() {
+    Transaction deleted = new Transaction();
+    deleted.setId(UUID.randomUUID());
+    deleted.setStatus(TransactionStatus.DELETED);
+    TransactionChangeToken since = new TransactionChangeToken(100, 5, UUID.randomUUID());
+    when(transactionRepository.findChanges(since, 11))
+        .thenReturn(
+            new TransactionChangeLog(
+                List.of(
+                    new TransactionChangeLog.Entry(
+                        existingTransaction, new TransactionChangeToken(100, 6, UUID.randomUUID())),
+                    new TransactionChangeLog.Entry(
+                        deleted, new TransactionChangeToken(101, 7, UUID.randomUUID()))),
+                TransactionChangeToken.horizon(105)));
+
+    var result = transactionService.getChangesSince(since.encode(), 10);
+
+    assertThat(result.getChanged())
+        .extracting(TransactionResponseDto::getId)
+        .containsExactly(existingTransaction.getId());
+    assertThat(result.getDeleted()).containsExactly(deleted.getId());
+    assertThat(result.isHasMore()).isFalse();
+    assertThat(TransactionChangeToken.decode(result.getToken()))
+        .isEqualTo(TransactionChangeToken.horizon(105));
+  }
+
+  @Test
+  void getChangesSince_whenMoreChangesThanLimit_returnsPositionOfLastChange() {
+    TransactionChangeToken position = new TransactionChangeToken(100, 6, UUID.randomUUID());
+    TransactionChangeToken next = new TransactionChangeToken(100, 7, UUID.randomUUID());
+    when(transactionRepository.findChanges(TransactionChangeToken.START, 2))
+        .thenReturn(
+            new TransactionChangeLog(
+                List.of(
+                    new TransactionChangeLog.Entry(existingTransaction, position),
+                    new TransactionChangeLog.Entry(existingTransaction, next)),
+                TransactionChangeToken.horizon(105)));
+
+    var result = transactionService.getChangesSince(null, 1);
+
+    assertThat(result.getChanged()).hasSize(1);
+    assertThat(result.isHasMore()).isTrue();
+    assertThat(TransactionChangeToken.decode(result.getToken())).isEqualTo(position);
+    assertThatThrownBy(() -> transactionService.getChangesSince("not-a-token", 1))
+        .isInstanceOf(ValidationException.class);
+  }
+
+  @Test
+  void changeStatus_byIds_reportsEachTransactionInRequestOrder() {
+    UUID rejected = UUID.randomUUID();
+    UUID missing = UUID.randomUUID();
+    UUID updated = existingTransaction.getId();
+    existingTransaction.setStatus(TransactionStatus.CONFIRMED);
+    when(transactionRepository.updateStatus(
+            List.of(rejected, updated, missing),
+            TransactionStatus.CONFIRMED,
+            Set.of(TransactionStatus.NEW)))
+        .thenReturn(
+            List.of(
+                new StatusUpdate(missing, null, null),
+                new StatusUpdate(updated, TransactionStatus.NEW, existingTransaction),
+                new StatusUpdate(rejected, TransactionStatus.COMPLETED, null)));
+    List<TransactionStatusResultDto> results = new ArrayList<>();
+
+    transactionService.changeStatus(
+        new TransactionStatusChangeDto(
+            List.of(rejected, updated, rejected, missing), null, "CONFIRMED"),
+        results::add);
+
+    assertThat(results)
+        .extracting(TransactionStatusResultDto::getId, TransactionStatusResultDto::getResult)
+        .containsExactly(
+            tuple(rejected, Result.REJECTED),
+            tuple(updated, Result.UPDATED),
+            tuple(missing, Result.NOT_FOUND));
+    assertThat(results.get(0).getError()).isEqualTo("Cannot update COMPLETED transaction");
+    assertThat(results.get(1).getStatus()).isEqualTo("CONFIRMED");
+    verify(columnarStore).savedAll(List.of(existingTransaction));
+    verify(changeFeed).updatedAll(any());
+    verify(changeFeed, never()).deletedAll(any());
+  }
+
+  @Test
+  void changeStatus_deletedByFilter_updatesChunksAfterLastPosition() {
+    TransactionCursor position =
+        new TransactionCursor(existingTransaction.getOperationDate(), existingTransaction.getId());
+    when(transactionRepository.findPositions(
+            any(Specification.class), isNull(), eq(TransactionServiceImpl.STATUS_CHUNK_SIZE)))
+        .thenReturn(List.of(position));
+    existingTransaction.setStatus(TransactionStatus.DELETED);
+    when(transactionRepository.updateStatus(
+            List.of(existingTransaction.getId()),
+            TransactionStatus.DELETED,
+            Set.of(TransactionStatus.NEW, TransactionStatus.DELETED)))
+        .thenReturn(
+            List.of(
+                new StatusUpdate(
+                    existingTransaction.getId(), TransactionStatus.NEW, existingTransaction)));
+    List<TransactionStatusResultDto> results = new ArrayList<>();
+
+    transactionService.changeStatus(
+        new TransactionStatusChangeDto(null, new TransactionFilterDto(), "DELETED"), results::add);
+
+    assertThat(results)
+        .extracting(TransactionStatusResultDto::getResult)
+        .containsExactly(Result.UPDATED);
+    verify(changeFeed).deletedAll(List.of(existingTransaction.getId()));
+    // Неполная порция — последняя: следующая не запрашивается
+    verify(transactionRepository, times(1))
+        .findPositions(any(Specification.class), any(), anyInt());
+  }
+
+  @Test
+  void changeStatus_invalidRequest_shouldThrow() {
+    List<UUID> ids = List.of(UUID.randomUUID());
+
+    assertThatThrownBy(
+            () ->
+                transactionService.changeStatus(
+                    new TransactionStatusChangeDto(ids, new TransactionFilterDto(), "NEW"),
+                    result -> {}))
+        .isInstanceOf(ValidationException.class);
+    assertThatThrownBy(
+            () ->
+                transactionService.changeStatus(
+                    new TransactionStatusChangeDto(null, null, "NEW"), result -> {}))
+        .isInstanceOf(ValidationException.class);
+    assertThatThrownBy(
+            () ->
+                transactionService.changeStatus(
+                    new TransactionStatusChangeDto(ids, null, "APPROVED"), result -> {}))
+        .isInstanceOf(ValidationException.class);
+    verify(transactionRepository, never()).updateStatus(any(), any(), any());
+  }
+
+  @Test
+  void searchTransactions_invalidPageParameters_shouldThrow() {
+    TransactionFilterDto badLimit = new TransactionFilterDto();
+    badLimit.setLimit(0);
+    TransactionFilterDto badCursor = new TransactionFilterDto();
+    badCursor.setCursor("not-a-cursor");
+
+    assertThatThrownBy(() -> transactionService.searchTransactions(badLimit))
+        .isInstanceOf(ValidationException.class);
+    assertThatThrownBy(() -> transactionService.searchTransactions(badCursor))
+        .isInstanceOf(ValidationException.class);
   }
 
   @Test
   void mapToEntity_and_mapToDto_fullFields() {
-    when(transactionRepository.save(any(Transaction.class)))
-        .thenAnswer(invocation -> invocation.getArgument(0));
+    when(transactionRepository.save(any(Transaction.class))).thenAnswer(this::saveWithId);
 
     TransactionResponseDto dto = transactionService.createTransaction(fullDto);
 
@@ -175,8 +561,7 @@ class TransactionServiceImplTest {
     fullDto.setReceiverBank(null);
     fullDto.setCategory(null);
 
-    when(transactionRepository.save(any(Transaction.class)))
-        .thenAnswer(invocation -> invocation.getArgument(0));
+    when(transactionRepository.save(any(Transaction.class))).thenAnswer(this::saveWithId);
 
     TransactionResponseDto dto = transactionService.createTransaction(fullDto);
 
@@ -365,6 +750,8 @@ class TransactionServiceImplTest {
 
     assertThat(existingTransaction.getStatus()).isEqualTo(TransactionStatus.DELETED);
     verify(transactionRepository).save(existingTransaction);
+    verify(columnarStore).saved(existingTransaction);
+    verify(changeFeed).deleted(id);
   }
 
   @Test
@@ -406,4 +793,11 @@ class TransactionServiceImplTest {
     assertThat(response.getCategory()).isEqualTo("NewCat");
     assertThat(response.getReceiverPhone()).isEqualTo("81230000000");
   }
+
+  /** Сохраняет транзакцию, как JPA: идентификатор генерируется при вставке. */
+  private Transaction saveWithId(InvocationOnMock invocation) {
+    Transaction entity = invocation.getArgument(0);
+    entity.setId(UUID.randomUUID());
+    return entity;
+  }
 }
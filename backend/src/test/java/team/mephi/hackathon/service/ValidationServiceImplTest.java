@@ -1,7 +1,12 @@
 package team.mephi.hackathon.service;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 
+import jakarta.validation.Validation;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import team.mephi.hackathon.dto.TransactionRequestDto;
@@ -13,7 +18,28 @@ class ValidationServiceImplTest {
 
   @BeforeEach
   void setUp() {
-    validationService = new ValidationServiceImpl();
+    CategoryDictionary categories = mock(CategoryDictionary.class);
+    lenient().when(categories.contains("SALARY")).thenReturn(true);
+    validationService =
+        new ValidationServiceImpl(
+            Validation.buildDefaultValidatorFactory().getValidator(), categories);
+  }
+
+  // Категория
+  @Test
+  void validateCategory_withKnownCategory_shouldPass() {
+    TransactionRequestDto dto = createDto(null, null);
+    dto.setCategory("SALARY");
+    assertDoesNotThrow(() -> validationService.validateTransaction(dto));
+  }
+
+  @Test
+  void validateCategory_withUnknownCategory_shouldThrowException() {
+    TransactionRequestDto dto = createDto(null, null);
+    dto.setCategory("UNKNOWN");
+    ValidationException exception =
+        assertThrows(ValidationException.class, () -> validationService.validateTransaction(dto));
+    assertEquals("Неизвестная категория: UNKNOWN", exception.getMessage());
   }
 
   // Позитивные кейсы ИНН
@@ -90,6 +116,33 @@ class ValidationServiceImplTest {
         "Телефон должен быть в формате +7XXXXXXXXXX или 8XXXXXXXXXX", exception.getMessage());
   }
 
+  // Ограничения Bean Validation
+  @Test
+  void validateConstraints_withMissingFields_listsViolations() {
+    TransactionRequestDto dto = createDto(null, null);
+    dto.setComment("x".repeat(501));
+    ValidationException exception =
+        assertThrows(ValidationException.class, () -> validationService.validateConstraints(dto));
+    assertTrue(exception.getMessage().contains("category: Категория обязательна"));
+    assertTrue(exception.getMessage().contains("comment: Комментарий слишком длинный"));
+  }
+
+  @Test
+  void validateConstraints_withCompleteDto_shouldPass() {
+    TransactionRequestDto dto = createDto("1234567890", "+71234567890");
+    dto.setPersonType("LEGAL");
+    dto.setOperationDate(LocalDateTime.of(2025, 4, 5, 12, 30));
+    dto.setTransactionType("INCOME");
+    dto.setAmount(BigDecimal.TEN);
+    dto.setStatus("NEW");
+    dto.setSenderBank("Alpha");
+    dto.setAccount("1");
+    dto.setReceiverBank("Beta");
+    dto.setReceiverAccount("2");
+    dto.setCategory("SALARY");
+    assertDoesNotThrow(() -> validationService.validateConstraints(dto));
+  }
+
   // Вспомогательный метод для создания DTO
   private TransactionRequestDto createDto(String inn, String phone) {
     TransactionRequestDto dto = new TransactionRequestDto();
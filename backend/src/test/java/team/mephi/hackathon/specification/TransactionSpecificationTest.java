@@ -2,6 +2,7 @@ package team.mephi.hackathon.specification;
 
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 import jakarta.persistence.criteria.CriteriaBuilder;
@@ -12,7 +13,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import team.mephi.hackathon.dto.TransactionCursor;
+import team.mephi.hackathon.dto.TransactionFilterDto;
 import team.mephi.hackathon.entity.Transaction;
+import team.mephi.hackathon.exceptions.ValidationException;
 
 @ExtendWith(MockitoExtension.class)
 class TransactionSpecificationTest {
@@ -149,6 +153,39 @@ class TransactionSpecificationTest {
     verify(cb).equal(root.get("category"), category);
   }
 
+  // isAfterCursor
+  @Test
+  void isAfterCursor_null_returnsNull() {
+    assertNull(TransactionSpecification.isAfterCursor(null).toPredicate(root, query, cb));
+    verifyNoInteractions(cb);
+  }
+
+  @Test
+  void isAfterCursor_nonNull_returnsSeekPredicate() {
+    var cursor = new TransactionCursor(java.time.LocalDateTime.now(), java.util.UUID.randomUUID());
+    when(cb.and(any(), any())).thenReturn(predicate);
+    Predicate result = TransactionSpecification.isAfterCursor(cursor).toPredicate(root, query, cb);
+    assertSame(predicate, result);
+    verify(cb).lessThanOrEqualTo(root.get("operationDate"), cursor.operationDate());
+    verify(cb).lessThan(root.get("operationDate"), cursor.operationDate());
+    verify(cb).lessThan(root.<java.util.UUID>get("id"), cursor.id());
+  }
+
+  // matches
+  @Test
+  void matches_invalidStatus_throwsValidationException() {
+    TransactionFilterDto filter = new TransactionFilterDto();
+    filter.setStatus("BOGUS");
+    assertThrows(ValidationException.class, () -> TransactionSpecification.matches(filter));
+  }
+
+  @Test
+  void matches_invalidTransactionType_throwsValidationException() {
+    TransactionFilterDto filter = new TransactionFilterDto();
+    filter.setTransactionType("BOGUS");
+    assertThrows(ValidationException.class, () -> TransactionSpecification.matches(filter));
+  }
+
   @Test
   void constructorTransactionSpecification() {
     new TransactionSpecification();
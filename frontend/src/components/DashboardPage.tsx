@@ -13,89 +13,50 @@ import {
   Pie,
   Cell,
 } from 'recharts';
-import { Transaction } from '../interfaces/Transaction';
-import { fetchTransactions } from '../components/fetchApi';
+import { Dashboard } from '../interfaces/Dashboard';
+import { fetchDashboard, subscribeTransactionChanges } from '../components/fetchApi';
 
 const COLORS = ['#0088FE', '#00C49F', '#FFBB28', '#FF8042'];
 
+const EMPTY_DASHBOARD: Dashboard = {
+  byWeek: [],
+  byMonth: [],
+  byQuarter: [],
+  byYear: [],
+  byType: [],
+  bySenderBank: [],
+  byReceiverBank: [],
+  byCategory: [],
+};
+
 const DashboardPage: React.FC = () => {
-  const [transactions, setTransactions] = useState<Transaction[]>([]);
-  // Загрузка транзакций при монтировании
+  const [dashboard, setDashboard] = useState<Dashboard>(EMPTY_DASHBOARD);
+  // Агрегаты считаются на сервере: загружаются итоги групп, а не все транзакции
   useEffect(() => {
-    const loadTransactions = async () => {
-      const data = await fetchTransactions();
-      setTransactions(data);
+    const loadDashboard = async () => {
+      const data = await fetchDashboard();
+      setDashboard(data);
     };
-    loadTransactions();
+    loadDashboard();
   }, []);
-  // Группировка данных по неделям/месяцам/кварталам/годам
-  const groupByTimePeriod = (period: 'week' | 'month' | 'quarter' | 'year') => {
-    const grouped: Record<string, number> = {};
-    transactions.forEach((t) => {
-      const date = new Date(t.operationDate);
-      let key;
-      switch (period) {
-        case 'week':
-          key = `${date.getFullYear()}-W${getWeekNumber(date)}`;
-          break;
-        case 'month':
-          key = `${date.getFullYear()}-${date.getMonth() + 1}`;
-          break;
-        case 'quarter':
-          key = `${date.getFullYear()}-Q${Math.ceil((date.getMonth() + 1) / 3)}`;
-          break;
-        case 'year':
-          key = `${date.getFullYear()}`;
-          break;
-      }
-      if (!grouped[key]) grouped[key] = 0;
-      grouped[key]++;
-    });
-    return Object.entries(grouped).map(([name, count]) => ({ name, count }));
-  };
-
-  // Получение номера недели
-  const getWeekNumber = (date: Date): number => {
-    const startOfYear = new Date(date.getFullYear(), 0, 1);
-    const pastDaysOfYear = (date.getTime() - startOfDay(startOfYear).getTime()) / 86400000;
-    return Math.ceil((pastDaysOfYear + startOfYear.getDay() + 1) / 7);
-  };
-
-  const startOfDay = (date: Date): Date => {
-    return new Date(date.getFullYear(), date.getMonth(), date.getDate());
-  };
-
-  // Статистика по типу операции
-  const getTypeStats = () => {
-    const stats: Record<string, number> = { INCOME: 0, OUTCOME: 0 };
-    transactions.forEach((t) => {
-      stats[t.transactionType]++;
-    });
-    return Object.entries(stats).map(([name, count]) => ({ name, count }));
-  };
 
-  // Статистика по банкам отправителей и получателей
-  const getBankStats = () => {
-    const senderStats: Record<string, number> = {};
-    const receiverStats: Record<string, number> = {};
-    transactions.forEach((t) => {
-      senderStats[t.senderBank] = (senderStats[t.senderBank] || 0) + 1;
-      receiverStats[t.receiverBank] = (receiverStats[t.receiverBank] || 0) + 1;
-    });
-    return {
-      sender: Object.entries(senderStats).map(([name, count]) => ({ name, count })),
-      receiver: Object.entries(receiverStats).map(([name, count]) => ({ name, count })),
+  // Агрегаты перечитываются после изменений, но не чаще раза в несколько секунд
+  useEffect(() => {
+    let timer: ReturnType<typeof setTimeout> | undefined;
+    const reload = () => {
+      if (timer === undefined) {
+        timer = setTimeout(async () => {
+          timer = undefined;
+          setDashboard(await fetchDashboard());
+        }, 5000);
+      }
     };
-  };
-
-  // Статистика по категориям
-  const getCategoryStats = () => {
-    const stats: Record<string, number> = {};
-    transactions.forEach((t) => {
-      stats[t.category] = (stats[t.category] || 0) + 1;
-    });
-    return Object.entries(stats).map(([name, count]) => ({ name, count }));
-  };
+    const unsubscribe = subscribeTransactionChanges(reload, reload);
+    return () => {
+      unsubscribe();
+      clearTimeout(timer);
+    };
+  }, []);
 
   return (
     <div className="container">
@@ -107,7 +68,7 @@ const DashboardPage: React.FC = () => {
         <div className="card shadow-sm">
           <div className="card-body">
             <h5 className="card-title">Динамика транзакций (по месяцам)</h5>
-            <BarChart width={400} height={300} data={groupByTimePeriod('month')}>
+            <BarChart width={400} height={300} data={dashboard.byMonth}>
               <CartesianGrid strokeDasharray="3 3" />
               <XAxis dataKey="name" />
               <YAxis />
@@ -124,7 +85,7 @@ const DashboardPage: React.FC = () => {
             <h5 className="card-title">Динамика по типу транзакции</h5>
             <PieChart width={400} height={300}>
               <Pie
-                data={getTypeStats()}
+                data={dashboard.byType}
                 cx={150}
                 cy={150}
                 labelLine={false}
@@ -132,7 +93,7 @@ const DashboardPage: React.FC = () => {
                 fill="#8884d8"
                 dataKey="count"
               >
-                {getTypeStats().map((_, index) => (
+                {dashboard.byType.map((_, index) => (
                   <Cell key={`cell-${index}`} fill={COLORS[index % COLORS.length]} />
                 ))}
               </Pie>
@@ -146,7 +107,7 @@ const DashboardPage: React.FC = () => {
         <div className="card shadow-sm">
           <div className="card-body">
             <h5 className="card-title">Сравнение поступлений и списаний</h5>
-            <BarChart width={300} height={200} data={getTypeStats()}>
+            <BarChart width={300} height={200} data={dashboard.byType}>
               <CartesianGrid strokeDasharray="3 3" />
               <XAxis dataKey="name" />
               <YAxis />
@@ -164,7 +125,7 @@ const DashboardPage: React.FC = () => {
             <div className="row">
               <div className="col-md-6">
                 <h6>Банки отправителей</h6>
-                <BarChart width={150} height={150} data={getBankStats().sender}>
+                <BarChart width={150} height={150} data={dashboard.bySenderBank}>
                   <CartesianGrid strokeDasharray="3 3" />
                   <XAxis dataKey="name" />
                   <YAxis />
@@ -174,7 +135,7 @@ const DashboardPage: React.FC = () => {
               </div>
               <div className="col-md-6">
                 <h6>Банки получателей</h6>
-                <BarChart width={150} height={150} data={getBankStats().receiver}>
+                <BarChart width={150} height={150} data={dashboard.byReceiverBank}>
                   <CartesianGrid strokeDasharray="3 3" />
                   <XAxis dataKey="name" />
                   <YAxis />
@@ -190,7 +151,7 @@ const DashboardPage: React.FC = () => {
         <div className="card shadow-sm">
           <div className="card-body">
             <h5 className="card-title">Статистика по категориям</h5>
-            <BarChart width={300} height={200} data={getCategoryStats()}>
+            <BarChart width={300} height={200} data={dashboard.byCategory}>
               <CartesianGrid strokeDasharray="3 3" />
               <XAxis dataKey="name" />
               <YAxis />
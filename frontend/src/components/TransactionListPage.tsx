@@ -4,7 +4,8 @@ import React, { useState, useEffect } from 'react';
 import TransactionFilter from './TransactionFilter';
 import { Transaction } from '../interfaces/Transaction';
 import { FilterData } from '../interfaces/FilterData';
-import { fetchTransactions } from '../components/fetchApi';
+import { fetchTransactions, subscribeTransactionChanges } from '../components/fetchApi';
+import { TransactionChange } from '../interfaces/TransactionChange';
 
 const TransactionListPage: React.FC = () => {
   const [transactions, setTransactions] = useState<Transaction[]>([]);
@@ -19,6 +20,30 @@ const TransactionListPage: React.FC = () => {
     loadTransactions();
   }, []);
 
+  // Изменения других пользователей применяются без перезагрузки списка
+  useEffect(() => {
+    const applyChange = (list: Transaction[], change: TransactionChange) => {
+      const rest = list.filter((t) => t.id !== change.id);
+      return change.type === 'DELETED' || !change.transaction
+        ? rest
+        : [change.transaction, ...rest];
+    };
+    const reload = async () => {
+      const data = await fetchTransactions();
+      setTransactions(data);
+      setFilteredTransactions(data);
+    };
+    return subscribeTransactionChanges((change) => {
+      if (change.type !== 'DELETED' && !change.transaction) {
+        // Транзакция не поместилась в событие: перечитываем список
+        reload();
+        return;
+      }
+      setTransactions((prev) => applyChange(prev, change));
+      setFilteredTransactions((prev) => applyChange(prev, change));
+    }, reload);
+  }, []);
+
   // Логика фильтрации
   const handleFilter = (filters: FilterData) => {
     const filtered = transactions.filter((t) => {
@@ -1,4 +1,6 @@
 import {Transaction} from "../interfaces/Transaction";
+import {Dashboard} from "../interfaces/Dashboard";
+import {TransactionChange} from "../interfaces/TransactionChange";
 
 export const fetchPdf = async () => {
   console.log('Вызов fetchPdf');
@@ -20,9 +22,34 @@ export const fetchExcel = async () => {
   return await response.blob();
 };
 
-export const fetchTransactions = async () => {
+// Поиск отдаёт транзакции страницами; курсор следующей страницы приходит в заголовке
+// X-Next-Cursor. Страницы запрашиваются, пока курсор есть, и возвращаются одним списком.
+export const fetchTransactions = async (): Promise<Transaction[]> => {
   console.log('Вызов fetchTransactions');
-  const response = await fetch(`${import.meta.env.VITE_APP_API_URL}/api/transactions`, {
+  const transactions: Transaction[] = [];
+  let cursor: string | null = null;
+  do {
+    const params = new URLSearchParams({ limit: '1000' });
+    if (cursor) {
+      params.set('cursor', cursor);
+    }
+    const response = await fetch(`${import.meta.env.VITE_APP_API_URL}/api/transactions?${params}`, {
+      headers: {
+        "Authorization": `Bearer ${getAuth()}`
+      }
+    });
+    transactions.push(...(await response.json()));
+    cursor = response.headers.get('X-Next-Cursor');
+  } while (cursor);
+  return transactions;
+};
+
+export const fetchDashboard = async (): Promise<Dashboard> => {
+  console.log('Вызов fetchDashboard');
+  // Ответ кэшируется браузером (max-age); no-cache перепроверяет его по ETag, иначе после
+  // изменения транзакций дашборд показал бы прежние цифры
+  const response = await fetch(`${import.meta.env.VITE_APP_API_URL}/api/analytics/dashboard`, {
+    cache: 'no-cache',
     headers: {
       "Authorization": `Bearer ${getAuth()}`
     }
@@ -65,6 +92,66 @@ export const deleteTransaction = async (id: string) => {
   });
 };
 
+// Подписка на изменения транзакций (Server-Sent Events). EventSource не умеет передавать
+// заголовок Authorization, поэтому поток читается через fetch. После обрыва соединения
+// подписка восстанавливается, а onResync сообщает, что пропущенные события нужно перечитать.
+export const subscribeTransactionChanges = (
+  onChange: (change: TransactionChange) => void,
+  onResync: () => void
+) => {
+  const controller = new AbortController();
+  const connect = async (resync: boolean) => {
+    try {
+      const response = await fetch(`${import.meta.env.VITE_APP_API_URL}/api/transactions/changes`, {
+        headers: {
+          "Authorization": `Bearer ${getAuth()}`,
+          "Accept": "text/event-stream"
+        },
+        signal: controller.signal
+      });
+      if (resync) {
+        onResync();
+      }
+      const reader = response.body!.pipeThrough(new TextDecoderStream()).getReader();
+      let buffer = '';
+      for (;;) {
+        const { value, done } = await reader.read();
+        if (done) {
+          break;
+        }
+        buffer += value;
+        const events = buffer.split('\n\n');
+        buffer = events.pop() ?? '';
+        for (const event of events) {
+          const data = event
+            .split('\n')
+            .filter((line) => line.startsWith('data:'))
+            .map((line) => line.slice(5))
+            .join('\n');
+          if (data) {
+            const change: TransactionChange = JSON.parse(data);
+            // Массовое изменение (загрузка CSV) приходит одним событием без транзакции
+            if (change.type === 'RESYNC') {
+              onResync();
+            } else {
+              onChange(change);
+            }
+          }
+        }
+      }
+    } catch (error) {
+      if (controller.signal.aborted) {
+        return;
+      }
+      console.error('Поток изменений транзакций прерван:', error);
+    }
+    if (!controller.signal.aborted) {
+      setTimeout(() => connect(true), 3000);
+    }
+  };
+  connect(false);
+  return () => controller.abort();
+};
 
 // Функция для имитации входа
 export const login = async ({ username, password }: { username: string; password: string }) => {
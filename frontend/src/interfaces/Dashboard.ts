@@ -0,0 +1,18 @@
+// interfaces/Dashboard.ts
+
+export interface AnalyticsBucket {
+  name: string; // Значение признака: период, тип, банк или категория
+  count: number; // Количество транзакций
+  amount: number; // Сумма транзакций
+}
+
+export interface Dashboard {
+  byWeek: AnalyticsBucket[];
+  byMonth: AnalyticsBucket[];
+  byQuarter: AnalyticsBucket[];
+  byYear: AnalyticsBucket[];
+  byType: AnalyticsBucket[];
+  bySenderBank: AnalyticsBucket[];
+  byReceiverBank: AnalyticsBucket[];
+  byCategory: AnalyticsBucket[];
+}
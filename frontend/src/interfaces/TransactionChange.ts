@@ -0,0 +1,9 @@
+// interfaces/TransactionChange.ts
+
+import { Transaction } from './Transaction';
+
+export interface TransactionChange {
+  type: 'CREATED' | 'UPDATED' | 'DELETED' | 'RESYNC'; // Вид изменения; RESYNC — перечитать всё
+  id: string | null; // ID изменённой транзакции, null для RESYNC
+  transaction?: Transaction | null; // Транзакция после изменения, если поместилась в событие
+}